@@ -0,0 +1,101 @@
+package org.cqfn.patternika.benchmark;
+
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.source.Fragment;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Simple node used in synthetic benchmark trees.
+ *
+ * @since 2021/03/19
+ */
+public class BenchNode implements Node {
+    /** Node type. */
+    private final String type;
+
+    /** Node data. */
+    private final String data;
+
+    /** List of node children. */
+    private final List<Node> children;
+
+    /**
+     * Constructor.
+     *
+     * @param type node type.
+     * @param data node data.
+     * @param children node children.
+     */
+    public BenchNode(final String type, final String data, final List<Node> children) {
+        this.type = Objects.requireNonNull(type);
+        this.data = data;
+        this.children = Objects.requireNonNull(children);
+    }
+
+    /**
+     * Returns node type identifier that uniquely identifies node type.
+     *
+     * @return node type identifier.
+     */
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Returns data associated with the node (in a textual format).
+     *
+     * @return node data.
+     */
+    @Override
+    public String getData() {
+        return data;
+    }
+
+    /**
+     * Returns the fragment associated with the node.
+     *
+     * @return {@code null} as synthetic nodes have no source code.
+     */
+    @Override
+    public Fragment getFragment() {
+        return null;
+    }
+
+    /**
+     * Returns the number of children.
+     *
+     * @return child node count.
+     */
+    @Override
+    public int getChildCount() {
+        return children.size();
+    }
+
+    /**
+     * Gets a child by its index.
+     *
+     * @param index child index.
+     * @return child node.
+     */
+    @Override
+    public Node getChild(final int index) {
+        return children.get(index);
+    }
+
+    /**
+     * Checks whether the current node matches the specified node.
+     *
+     * @param other node to be checked for match with the current node.
+     * @return {@code true} if the nodes match or {@code false} otherwise.
+     */
+    @Override
+    public boolean matches(final Node other) {
+        return other != null
+            && type.equals(other.getType())
+            && Objects.equals(data, other.getData());
+    }
+
+}
@@ -0,0 +1,119 @@
+package org.cqfn.patternika.benchmark;
+
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.lang.java.parser.javaparser.JavaParserAdapter;
+import org.cqfn.patternika.lang.java.parser.javaparser.ParserJava;
+import org.cqfn.patternika.parser.ParserException;
+import org.cqfn.patternika.source.SourceFile;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Benchmark state with a pair of real Java files (before and after a change).
+ * <p>
+ * Pairs are stored in resources as "corpus/NAME/before.java" and "corpus/NAME/after.java".
+ *
+ * @since 2021/03/19
+ */
+@State(Scope.Benchmark)
+public class CorpusState {
+    /** Size of the buffer for reading resources. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** Name of the pair in the corpus. */
+    @Param({"LinkedSet", "DotVisualizer", "CmdLineParser"})
+    private String name;
+
+    /** Source code before the change. */
+    private String beforeText;
+
+    /** AST before the change. */
+    private Node before;
+
+    /** AST after the change. */
+    private Node after;
+
+    /**
+     * Loads and parses the pair.
+     *
+     * @throws IOException if failed to load the pair.
+     * @throws ParserException if failed to parse the pair.
+     */
+    @Setup
+    public void setUp() throws IOException, ParserException {
+        beforeText = load("before.java");
+        before = parse(beforeText);
+        after = parse(load("after.java"));
+    }
+
+    /**
+     * Parses Java source code.
+     *
+     * @param text the source code.
+     * @return AST.
+     * @throws ParserException if failed to parse the code.
+     */
+    public static Node parse(final String text) throws ParserException {
+        return new ParserJava(new JavaParserAdapter()).parse(new SourceFile(text));
+    }
+
+    /**
+     * Returns the source code before the change.
+     *
+     * @return source code.
+     */
+    public String getBeforeText() {
+        return beforeText;
+    }
+
+    /**
+     * Returns the AST before the change.
+     *
+     * @return tree root.
+     */
+    public Node getBefore() {
+        return before;
+    }
+
+    /**
+     * Returns the AST after the change.
+     *
+     * @return tree root.
+     */
+    public Node getAfter() {
+        return after;
+    }
+
+    /**
+     * Loads a file of the pair from resources.
+     *
+     * @param file the file name.
+     * @return the file content.
+     * @throws IOException if failed to load the file.
+     */
+    private String load(final String file) throws IOException {
+        final String path = "/corpus/" + name + '/' + file;
+        try (InputStream stream = CorpusState.class.getResourceAsStream(path)) {
+            if (stream == null) {
+                throw new IOException("Resource not found: " + path);
+            }
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int count = stream.read(buffer);
+            while (count >= 0) {
+                output.write(buffer, 0, count);
+                count = stream.read(buffer);
+            }
+            return new String(output.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+package org.cqfn.patternika.benchmark;
+
+import org.cqfn.patternika.ast.hash.IsomorphismHash;
+import org.cqfn.patternika.ast.hash.SimilarityHash;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Benchmarks for hashes.
+ * <p>
+ * A new hash object is created in each invocation, as hashes cache calculated values.
+ *
+ * @since 2021/03/19
+ */
+public class HashBenchmark {
+    /**
+     * Calculates {@link SimilarityHash} of a synthetic tree.
+     *
+     * @param state the state with trees.
+     * @return the hash value.
+     */
+    @Benchmark
+    public int similaritySynthetic(final SyntheticState state) {
+        return new SimilarityHash().getHash(state.getBefore());
+    }
+
+    /**
+     * Calculates {@link IsomorphismHash} of a synthetic tree.
+     *
+     * @param state the state with trees.
+     * @return the hash value.
+     */
+    @Benchmark
+    public int isomorphismSynthetic(final SyntheticState state) {
+        return new IsomorphismHash().getHash(state.getBefore());
+    }
+
+    /**
+     * Calculates {@link SimilarityHash} of a real Java tree.
+     *
+     * @param state the state with trees.
+     * @return the hash value.
+     */
+    @Benchmark
+    public int similarityCorpus(final CorpusState state) {
+        return new SimilarityHash().getHash(state.getBefore());
+    }
+
+    /**
+     * Calculates {@link IsomorphismHash} of a real Java tree.
+     *
+     * @param state the state with trees.
+     * @return the hash value.
+     */
+    @Benchmark
+    public int isomorphismCorpus(final CorpusState state) {
+        return new IsomorphismHash().getHash(state.getBefore());
+    }
+
+}
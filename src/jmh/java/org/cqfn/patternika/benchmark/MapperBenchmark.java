@@ -0,0 +1,95 @@
+package org.cqfn.patternika.benchmark;
+
+import org.cqfn.patternika.ast.NodeExt;
+import org.cqfn.patternika.ast.mapper.Alignment;
+import org.cqfn.patternika.ast.mapper.Budget;
+import org.cqfn.patternika.ast.mapper.GreedMapper;
+import org.cqfn.patternika.ast.mapper.HashMapper;
+import org.cqfn.patternika.ast.mapper.Mapping;
+import org.cqfn.patternika.ast.mapper.MappingListener;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Benchmarks for mappers.
+ * <p>
+ * Wrappers ({@link NodeExt}) are created in each invocation, as mappers cache data in them.
+ *
+ * @since 2021/03/19
+ */
+public class MapperBenchmark {
+    /**
+     * Maps synthetic trees with {@link GreedMapper}.
+     *
+     * @param state the state with trees.
+     * @return the mapping.
+     */
+    @Benchmark
+    public Mapping<NodeExt> greedSynthetic(final SyntheticState state) {
+        return new GreedMapper(
+                new NodeExt(state.getBefore()),
+                new NodeExt(state.getAfter())
+            ).buildMapping();
+    }
+
+    /**
+     * Maps synthetic trees with {@link HashMapper}.
+     *
+     * @param state the state with trees.
+     * @return the mapping.
+     */
+    @Benchmark
+    public Mapping<NodeExt> hashSynthetic(final SyntheticState state) {
+        return new HashMapper(
+                new NodeExt(state.getBefore()),
+                new NodeExt(state.getAfter())
+            ).buildMapping();
+    }
+
+    /**
+     * Maps real Java trees with {@link GreedMapper}.
+     *
+     * @param state the state with trees.
+     * @return the mapping.
+     */
+    @Benchmark
+    public Mapping<NodeExt> greedCorpus(final CorpusState state) {
+        return new GreedMapper(
+                new NodeExt(state.getBefore()),
+                new NodeExt(state.getAfter())
+            ).buildMapping();
+    }
+
+    /**
+     * Maps real Java trees with {@link GreedMapper} that aligns children
+     * as in the patience diff.
+     *
+     * @param state the state with trees.
+     * @return the mapping.
+     */
+    @Benchmark
+    public Mapping<NodeExt> patienceCorpus(final CorpusState state) {
+        return new GreedMapper(
+                new NodeExt(state.getBefore()),
+                new NodeExt(state.getAfter()),
+                MappingListener.NONE,
+                Budget.UNLIMITED,
+                Alignment.PATIENCE
+            ).buildMapping();
+    }
+
+    /**
+     * Maps real Java trees with {@link HashMapper}.
+     *
+     * @param state the state with trees.
+     * @return the mapping.
+     */
+    @Benchmark
+    public Mapping<NodeExt> hashCorpus(final CorpusState state) {
+        return new HashMapper(
+                new NodeExt(state.getBefore()),
+                new NodeExt(state.getAfter())
+            ).buildMapping();
+    }
+
+}
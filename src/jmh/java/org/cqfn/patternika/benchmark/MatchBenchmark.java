@@ -0,0 +1,62 @@
+package org.cqfn.patternika.benchmark;
+
+import org.cqfn.patternika.ast.DeepMatches;
+import org.cqfn.patternika.ast.MatchFinder;
+import org.cqfn.patternika.ast.Node;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmarks for matching of trees.
+ *
+ * @since 2021/03/19
+ */
+public class MatchBenchmark {
+    /**
+     * Checks equal trees with {@link DeepMatches} (the worst case: all nodes are visited).
+     *
+     * @param state the state with trees.
+     * @return the result of the check.
+     */
+    @Benchmark
+    public boolean deepMatchesEqual(final SyntheticState state) {
+        return new DeepMatches().test(state.getBefore(), state.getCopy());
+    }
+
+    /**
+     * Checks different trees with {@link DeepMatches}.
+     *
+     * @param state the state with trees.
+     * @return the result of the check.
+     */
+    @Benchmark
+    public boolean deepMatchesMutated(final SyntheticState state) {
+        return new DeepMatches().test(state.getBefore(), state.getAfter());
+    }
+
+    /**
+     * Finds all matching subtrees of synthetic trees with {@link MatchFinder}.
+     *
+     * @param state the state with trees.
+     * @return the found matches.
+     */
+    @Benchmark
+    public Map<Node, List<Node>> matchFinderSynthetic(final SyntheticState state) {
+        return new MatchFinder<>(state.getBefore(), state.getAfter()).findAll();
+    }
+
+    /**
+     * Finds all matching subtrees of real Java trees with {@link MatchFinder}.
+     *
+     * @param state the state with trees.
+     * @return the found matches.
+     */
+    @Benchmark
+    public Map<Node, List<Node>> matchFinderCorpus(final CorpusState state) {
+        return new MatchFinder<>(state.getBefore(), state.getAfter()).findAll();
+    }
+
+}
@@ -0,0 +1,27 @@
+package org.cqfn.patternika.benchmark;
+
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.lang.java.parser.javaparser.ParserJava;
+import org.cqfn.patternika.parser.ParserException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Benchmarks for {@link ParserJava}.
+ *
+ * @since 2021/03/19
+ */
+public class ParserBenchmark {
+    /**
+     * Parses a real Java file.
+     *
+     * @param state the state with source code.
+     * @return the AST.
+     * @throws ParserException if failed to parse the code.
+     */
+    @Benchmark
+    public Node parse(final CorpusState state) throws ParserException {
+        return CorpusState.parse(state.getBeforeText());
+    }
+
+}
@@ -0,0 +1,118 @@
+package org.cqfn.patternika.benchmark;
+
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.ast.NodeFactory;
+import org.cqfn.patternika.ast.NodeRegistry;
+import org.cqfn.patternika.ast.generator.TreeGenerator;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark state with a synthetic tree and its mutated variant.
+ * Trees are parametrized by shape and size to get scaling curves.
+ *
+ * @since 2021/03/19
+ */
+@State(Scope.Benchmark)
+public class SyntheticState {
+    /** Seed for the tree generator, so results are reproducible. */
+    private static final long SEED = 20_210_319L;
+
+    /** Number of edits per node in the mutated tree. */
+    private static final double EDIT_RATE = 0.05;
+
+    /** Node types. */
+    private static final String[] TYPES = {
+        "Block", "Call", "Name", "Literal", "Assign", "If", "Return", "Binary",
+    };
+
+    /** Maximum depth of wide trees. */
+    private static final int WIDE_DEPTH = 2;
+
+    /** Maximum fan-out of narrow trees. */
+    private static final int NARROW_FAN_OUT = 2;
+
+    /**
+     * Shapes of trees.
+     */
+    public enum Shape {
+        /** The depth is at most 2, nodes have many children. */
+        WIDE,
+        /** Nodes have at most 2 children, the depth is the largest among the shapes. */
+        NARROW,
+        /** No limits, each node is attached to a random previous node. */
+        RANDOM
+    }
+
+    /** Tree shape. */
+    @Param({"WIDE", "NARROW", "RANDOM"})
+    private Shape shape;
+
+    /** Tree size. */
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    /** The original tree. */
+    private Node before;
+
+    /** The mutated tree. */
+    private Node after;
+
+    /** The exact copy of the original tree. */
+    private Node copy;
+
+    /**
+     * Generates trees.
+     */
+    @Setup
+    public void setUp() {
+        final NodeFactory factory = new NodeFactory();
+        for (final String type : TYPES) {
+            factory.register(type, (fragment, data, children) ->
+                new BenchNode(type, data, children));
+        }
+        final TreeGenerator generator = new TreeGenerator(factory.build(), SEED);
+        for (int index = 0; index < TYPES.length; ++index) {
+            generator.addType(TYPES[index], index + 1);
+        }
+        if (shape == Shape.WIDE) {
+            generator.setMaxDepth(WIDE_DEPTH);
+        } else if (shape == Shape.NARROW) {
+            generator.setMaxFanOut(NARROW_FAN_OUT);
+        }
+        before = generator.generate(size);
+        after = generator.mutate(before, EDIT_RATE);
+        copy = generator.mutate(before, 0.0);
+    }
+
+    /**
+     * Returns the original tree.
+     *
+     * @return tree root.
+     */
+    public Node getBefore() {
+        return before;
+    }
+
+    /**
+     * Returns the mutated tree.
+     *
+     * @return tree root.
+     */
+    public Node getAfter() {
+        return after;
+    }
+
+    /**
+     * Returns the exact copy of the original tree.
+     *
+     * @return tree root.
+     */
+    public Node getCopy() {
+        return copy;
+    }
+
+}
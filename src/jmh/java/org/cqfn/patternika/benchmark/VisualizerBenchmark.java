@@ -0,0 +1,50 @@
+package org.cqfn.patternika.benchmark;
+
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.visualizer.dot.DotVisualizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.Collections;
+
+/**
+ * Benchmarks for {@link DotVisualizer}.
+ *
+ * @since 2021/03/19
+ */
+public class VisualizerBenchmark {
+    /**
+     * Generates DOT text for a synthetic tree.
+     *
+     * @param state the state with trees.
+     * @return the generated text length.
+     */
+    @Benchmark
+    public int dotSynthetic(final SyntheticState state) {
+        return visualize(state.getBefore());
+    }
+
+    /**
+     * Generates DOT text for a real Java tree.
+     *
+     * @param state the state with trees.
+     * @return the generated text length.
+     */
+    @Benchmark
+    public int dotCorpus(final CorpusState state) {
+        return visualize(state.getBefore());
+    }
+
+    /**
+     * Generates DOT text for a tree.
+     *
+     * @param root the tree root.
+     * @return the generated text length.
+     */
+    private static int visualize(final Node root) {
+        final StringBuilder builder = new StringBuilder();
+        new DotVisualizer(builder, root, Collections.emptyMap()).visualize();
+        return builder.length();
+    }
+
+}
@@ -0,0 +1,6 @@
+/**
+ * JMH benchmarks for mapping, hashing, matching, parsing and visualization.
+ * <p>
+ * Benchmarks are run with the "jmh" Gradle task (see docs/GRADLE.md).
+ */
+package org.cqfn.patternika.benchmark;
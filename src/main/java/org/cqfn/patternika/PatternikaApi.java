@@ -1,6 +1,15 @@
 package org.cqfn.patternika;
 
+import org.cqfn.patternika.handlers.MapHandler;
+import org.cqfn.patternika.handlers.MatchHandler;
+import org.cqfn.patternika.handlers.ServeHandler;
+import org.cqfn.patternika.handlers.WwwHandler;
+import org.cqfn.patternika.util.cmdline.Action;
 import org.cqfn.patternika.util.cmdline.CmdLineApi;
+import org.cqfn.patternika.util.cmdline.Option;
+
+import java.util.Arrays;
+import java.util.Collections;
 
 /**
  * Describes the Patternika command-line API.
@@ -16,6 +25,59 @@ public class PatternikaApi {
      */
     public PatternikaApi() {
         this.api = new CmdLineApi();
+        final Option mapper = new Option(MapHandler.MAPPER, 1);
+        final Option repeat = new Option(MapHandler.REPEAT, 1);
+        api.registerOption(mapper).registerOption(repeat);
+        api.registerAction(
+            new Action(
+                "map",
+                "Maps ASTs of two Java files and prints mapping statistics.",
+                Arrays.asList(MapHandler.FILE1, MapHandler.FILE2),
+                Collections.emptyList(),
+                Arrays.asList(mapper, repeat)
+            ),
+            new MapHandler()
+        );
+        final Option patterns = new Option(MatchHandler.PATTERNS, 1);
+        api.registerOption(patterns);
+        api.registerAction(
+            new Action(
+                MatchHandler.NAME,
+                "Matches patterns of a pattern store against a Java file.",
+                Collections.singletonList(MatchHandler.FILE),
+                Collections.emptyList(),
+                Collections.singletonList(patterns)
+            ),
+            new MatchHandler()
+        );
+        final Option port = new Option(ServeHandler.PORT, 1);
+        api.registerOption(port);
+        api.registerAction(
+            new Action(
+                ServeHandler.NAME,
+                "Keeps running and executes other actions on JSON requests.",
+                Collections.emptyList(),
+                Collections.emptyList(),
+                Arrays.asList(port, patterns)
+            ),
+            new ServeHandler(api)
+        );
+        final Option host = new Option(WwwHandler.HOST, 1);
+        final Option threads = new Option(WwwHandler.THREADS, 1);
+        final Option queue = new Option(WwwHandler.QUEUE, 1);
+        final Option timeout = new Option(WwwHandler.TIMEOUT, 1);
+        api.registerOption(host).registerOption(threads).registerOption(queue)
+            .registerOption(timeout);
+        api.registerAction(
+            new Action(
+                WwwHandler.NAME,
+                "Runs an HTTP service that maps and matches ASTs of Java sources sent in requests.",
+                Collections.emptyList(),
+                Collections.emptyList(),
+                Arrays.asList(host, port, threads, queue, timeout, patterns)
+            ),
+            new WwwHandler()
+        );
     }
 
     /**
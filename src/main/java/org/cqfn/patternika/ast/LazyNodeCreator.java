@@ -0,0 +1,42 @@
+package org.cqfn.patternika.ast;
+
+import org.cqfn.patternika.source.Fragment;
+
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Interface for a function that creates a node, children of which are created on demand.
+ * <p>
+ * Needed for node classes that can request children from an accessor only
+ * when they are required (e.g. when a tree is loaded from a store).
+ *
+ * @since 2021/03/17
+ */
+@FunctionalInterface
+public interface LazyNodeCreator extends NodeCreator {
+    /**
+     * Creates a new node, children of which are created on demand.
+     *
+     * @param fragment fragment associated with the node.
+     * @param data node data.
+     * @param childCount number of node children.
+     * @param children accessor that creates a child by its index.
+     * @return new node.
+     */
+    @Override
+    Node create(Fragment fragment, String data, int childCount, IntFunction<Node> children);
+
+    /**
+     * Creates a new node from the specified parameters.
+     *
+     * @param fragment fragment associated with the node.
+     * @param data node data.
+     * @param children list of node children.
+     * @return new node.
+     */
+    @Override
+    default Node create(final Fragment fragment, final String data, final List<Node> children) {
+        return create(fragment, data, children.size(), children::get);
+    }
+}
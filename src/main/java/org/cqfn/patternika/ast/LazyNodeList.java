@@ -0,0 +1,71 @@
+package org.cqfn.patternika.ast;
+
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+
+/**
+ * Unmodifiable list of nodes that creates its elements on the first access.
+ * <p>
+ * Used to pass children to node creators without building entire subtrees.
+ * Each element is requested from the accessor only once and then cached.
+ * The list is not thread-safe.
+ *
+ * @since 2021/03/17
+ */
+public class LazyNodeList extends AbstractList<Node> implements RandomAccess {
+    /** Accessor that creates a node by its index. */
+    private final IntFunction<Node> accessor;
+
+    /** Created nodes ({@code null} for nodes that have not been created yet). */
+    private final Node[] nodes;
+
+    /**
+     * Constructor.
+     *
+     * @param size the list size.
+     * @param accessor the accessor that creates a node by its index, not {@code null}.
+     */
+    public LazyNodeList(final int size, final IntFunction<Node> accessor) {
+        this.accessor = Objects.requireNonNull(accessor);
+        this.nodes = new Node[size];
+    }
+
+    /**
+     * Returns the node at the specified position, creates it if needed.
+     *
+     * @param index the node index.
+     * @return the node.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    @Override
+    public Node get(final int index) {
+        Node node = nodes[index];
+        if (node == null) {
+            node = Objects.requireNonNull(accessor.apply(index));
+            nodes[index] = node;
+        }
+        return node;
+    }
+
+    /**
+     * Returns the number of nodes in the list.
+     *
+     * @return the list size.
+     */
+    @Override
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * Checks whether the node at the specified position has already been created.
+     *
+     * @param index the node index.
+     * @return {@code true} or {@code false}.
+     */
+    public boolean isCreated(final int index) {
+        return nodes[index] != null;
+    }
+}
@@ -3,6 +3,7 @@ package org.cqfn.patternika.ast;
 import org.cqfn.patternika.ast.iterator.DepthFirst;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,6 +16,13 @@ import java.util.function.BiPredicate;
  * <p>
  * To match two nodes tress, the solution uses method {@link Node#matches(Node)},
  * which is called for all nodes in the trees (from roots to leaves).
+ * <p>
+ * Deep matching is expensive, so it is applied only to pairs that pass cheap necessary
+ * conditions. Nodes of the second tree are grouped into a candidate index by their types and
+ * child counts, which must be equal for matching nodes. As deep matching does not require
+ * children to be matched one-to-one, subtree sizes of matching nodes can differ, but
+ * the height of the first node cannot exceed the height of the second node. Heights are
+ * computed once per tree with {@link TreeIndex}.
  *
  * @param <T> Exact node type, {@link Node} or its subclass.
  *
@@ -50,11 +58,20 @@ public class MatchFinder<T extends Node> {
      */
     public Map<T, List<T>> findAll() {
         final Map<T, List<T>> allMatches = new HashMap<>();
-        final Iterable<T> firstTreeNodes = new DepthFirst<>(this.firstRoot);
-        final List<T> secondTreeNodes = new DepthFirst<>(this.secondRoot).toList();
-        for (final T firstTreeNode : firstTreeNodes) {
+        final TreeIndex<T> firstIndex = new TreeIndex<>(this.firstRoot);
+        final TreeIndex<T> secondIndex = new TreeIndex<>(this.secondRoot);
+        final Map<Signature, List<T>> candidates = new HashMap<>();
+        for (final T secondTreeNode : new DepthFirst<>(this.secondRoot)) {
+            candidates.computeIfAbsent(new Signature(secondTreeNode), x -> new ArrayList<>())
+                .add(secondTreeNode);
+        }
+        for (final T firstTreeNode : new DepthFirst<>(this.firstRoot)) {
+            final List<T> secondTreeNodes =
+                    candidates.getOrDefault(new Signature(firstTreeNode), Collections.emptyList());
+            final int height = firstIndex.getHeight(firstTreeNode);
             for (final T secondTreeNode : secondTreeNodes) {
-                if (deepMatches.test(firstTreeNode, secondTreeNode)) {
+                if (height <= secondIndex.getHeight(secondTreeNode)
+                        && deepMatches.test(firstTreeNode, secondTreeNode)) {
                     final List<T> matchedNodes =
                             allMatches.computeIfAbsent(firstTreeNode, x -> new ArrayList<>());
                     matchedNodes.add(secondTreeNode);
@@ -63,4 +80,53 @@ public class MatchFinder<T extends Node> {
         }
         return allMatches;
     }
+
+    /**
+     * Signature of a node used as a key in the candidate index: its type and child count.
+     */
+    private static final class Signature {
+        /** Node type. */
+        private final String type;
+
+        /** Number of node children. */
+        private final int childCount;
+
+        /**
+         * Constructor.
+         *
+         * @param node the node.
+         */
+        private Signature(final Node node) {
+            this.type = node.getType();
+            this.childCount = node.getChildCount();
+        }
+
+        /**
+         * Checks this and the specified signature for equality.
+         *
+         * @param obj other signature.
+         * @return {@code true} or {@code false}.
+         */
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Signature)) {
+                return false;
+            }
+            final Signature other = (Signature) obj;
+            return childCount == other.childCount && type.equals(other.type);
+        }
+
+        /**
+         * Returns the hash code.
+         *
+         * @return the hash code.
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, childCount);
+        }
+    }
 }
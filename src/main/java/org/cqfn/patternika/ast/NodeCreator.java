@@ -3,6 +3,7 @@ package org.cqfn.patternika.ast;
 import org.cqfn.patternika.source.Fragment;
 
 import java.util.List;
+import java.util.function.IntFunction;
 
 /**
  * Interface for a function that creates a node.
@@ -22,4 +23,25 @@ public interface NodeCreator {
      * @return new node.
      */
     Node create(Fragment fragment, String data, List<Node> children);
+
+    /**
+     * Creates a new node, children of which are created on demand.
+     * <p>
+     * By default, children are passed to the creator as a {@link LazyNodeList},
+     * so they are created on the first access. This works if the creator
+     * does not copy the list of children.
+     *
+     * @param fragment fragment associated with the node.
+     * @param data node data.
+     * @param childCount number of node children.
+     * @param children accessor that creates a child by its index.
+     * @return new node.
+     */
+    default Node create(
+            final Fragment fragment,
+            final String data,
+            final int childCount,
+            final IntFunction<Node> children) {
+        return create(fragment, data, new LazyNodeList(childCount, children));
+    }
 }
@@ -2,11 +2,14 @@ package org.cqfn.patternika.ast;
 
 import org.cqfn.patternika.source.Fragment;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
 
 /**
  * Factory responsible for creating nodes of specific types.
@@ -14,6 +17,13 @@ import java.util.Objects;
  * The factory is configured with factory functions for specific nodes types.
  * This is more reliable than using reflection as it guarantees that node classes
  * provide proper facilities (constructors, factory methods) to create their instances.
+ * <p>
+ * Nodes can be created lazily: children are created on demand when they are accessed
+ * (see {@link #createNode(String, Fragment, String, int, IntFunction)}). This is useful
+ * for trees loaded from storage, as most checks look only at the top of a tree.
+ * <p>
+ * The factory is not thread-safe. When configuration is over, it can be turned into
+ * an immutable {@link NodeRegistry} with {@link #build()}, which can be shared between threads.
  *
  * @since 2020/11/18
  */
@@ -39,6 +49,35 @@ public class NodeFactory {
         return this;
     }
 
+    /**
+     * Registers a lazy creator for a specific node type.
+     * <p>
+     * Has the same effect as {@link #register(String, NodeCreator)}, allows passing lambdas
+     * that take child count and child accessor.
+     *
+     * @param type node type, not {@code null}.
+     * @param creator creator for the specified node type, not {@code null}.
+     * @return this factory.
+     * @throws IllegalArgumentException if a creator for the specified type is already registered.
+     */
+    public NodeFactory registerLazy(final String type, final LazyNodeCreator creator) {
+        return register(type, creator);
+    }
+
+    /**
+     * Builds an immutable registry that contains all creators registered so far.
+     * Further changes to the factory do not affect the registry.
+     *
+     * @return new node registry.
+     */
+    public NodeRegistry build() {
+        final Map<String, NodeCreator> sorted = new TreeMap<>(creators);
+        return new NodeRegistry(
+                new ArrayList<>(sorted.keySet()),
+                new ArrayList<>(sorted.values())
+            );
+    }
+
     /**
      * Creates a new node of the specified type from the specified parameters.
      *
@@ -54,11 +93,7 @@ public class NodeFactory {
             final Fragment fragment,
             final String data,
             final List<Node> children) {
-        final NodeCreator creator = creators.get(type);
-        if (creator == null) {
-            throw new IllegalArgumentException("Unknown node type: " + type);
-        }
-        return creator.create(fragment, data, children);
+        return getCreator(type).create(fragment, data, children);
     }
 
     /**
@@ -80,4 +115,60 @@ public class NodeFactory {
         return createNode(type, fragment, data, Arrays.asList(children));
     }
 
+    /**
+     * Creates a new node of the specified type, children of which are created on demand.
+     *
+     * @see NodeCreator#create(Fragment, String, int, IntFunction)
+     * @param type node type.
+     * @param fragment fragment associated with the node.
+     * @param data node data.
+     * @param childCount number of node children.
+     * @param children accessor that creates a child by its index.
+     * @return new node.
+     * @throws IllegalArgumentException if the node type is unknown.
+     */
+    public Node createNode(
+            final String type,
+            final Fragment fragment,
+            final String data,
+            final int childCount,
+            final IntFunction<Node> children) {
+        return getCreator(type).create(fragment, data, childCount, children);
+    }
+
+    /**
+     * Creates a copy of a tree that consists of nodes created by this factory.
+     * <p>
+     * Children of the copy are created on demand, so only the part of the source tree,
+     * which is actually visited, is copied.
+     *
+     * @param source root of the source tree (e.g. a tree loaded from storage).
+     * @return root of the copy.
+     * @throws IllegalArgumentException if the source tree contains nodes of an unknown type.
+     */
+    public Node createTree(final Node source) {
+        return createNode(
+                source.getType(),
+                source.getFragment(),
+                source.getData(),
+                source.getChildCount(),
+                index -> createTree(source.getChild(index))
+            );
+    }
+
+    /**
+     * Returns the creator registered for the specified node type.
+     *
+     * @param type node type.
+     * @return node creator.
+     * @throws IllegalArgumentException if the node type is unknown.
+     */
+    private NodeCreator getCreator(final String type) {
+        final NodeCreator creator = creators.get(type);
+        if (creator == null) {
+            throw new IllegalArgumentException("Unknown node type: " + type);
+        }
+        return creator;
+    }
+
 }
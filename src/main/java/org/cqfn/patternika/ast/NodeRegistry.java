@@ -0,0 +1,266 @@
+package org.cqfn.patternika.ast;
+
+import org.cqfn.patternika.source.Fragment;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Immutable registry of node creators, which is built by {@link NodeFactory#build()}.
+ * <p>
+ * Node types are assigned dense integer identifiers (in the alphabetical order of types),
+ * so a creator is found by an array lookup. Clients that create many nodes
+ * (e.g. deserializers) resolve type strings to identifiers once and then use identifiers.
+ * <p>
+ * The registry is not modified after construction, so it can be shared between threads
+ * (provided that registered creators are thread-safe).
+ *
+ * @since 2021/03/18
+ */
+public final class NodeRegistry {
+    /** Identifier returned for unknown types. */
+    public static final int UNKNOWN = -1;
+
+    /** Type identifiers by type names. */
+    private final Map<String, Integer> ids;
+
+    /** Type names by type identifiers. */
+    private final String[] types;
+
+    /** Creators by type identifiers. */
+    private final NodeCreator[] creators;
+
+    /**
+     * Constructor.
+     *
+     * @param types node types sorted in the order of their identifiers.
+     * @param creators creators for node types in the same order.
+     */
+    NodeRegistry(final List<String> types, final List<NodeCreator> creators) {
+        final int size = types.size();
+        this.types = types.toArray(new String[size]);
+        this.creators = creators.toArray(new NodeCreator[size]);
+        final Map<String, Integer> map = new HashMap<>(size * 2);
+        for (int id = 0; id < size; ++id) {
+            map.put(this.types[id], id);
+        }
+        this.ids = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Returns the number of registered node types.
+     * Type identifiers are in the range from 0 to this number (exclusive).
+     *
+     * @return type count.
+     */
+    public int getTypeCount() {
+        return types.length;
+    }
+
+    /**
+     * Returns the identifier of a node type.
+     *
+     * @param type node type.
+     * @return type identifier or {@link #UNKNOWN} if the type is not registered.
+     */
+    public int getTypeId(final String type) {
+        final Integer id = ids.get(type);
+        return id == null ? UNKNOWN : id;
+    }
+
+    /**
+     * Returns the node type by its identifier.
+     *
+     * @param typeId type identifier.
+     * @return node type.
+     * @throws IllegalArgumentException if the identifier is unknown.
+     */
+    public String getType(final int typeId) {
+        checkTypeId(typeId);
+        return types[typeId];
+    }
+
+    /**
+     * Creates a new node of the specified type from the specified parameters.
+     *
+     * @param typeId type identifier.
+     * @param fragment fragment associated with the node.
+     * @param data node data.
+     * @param children list of node children.
+     * @return new node.
+     * @throws IllegalArgumentException if the identifier is unknown.
+     */
+    public Node createNode(
+            final int typeId,
+            final Fragment fragment,
+            final String data,
+            final List<Node> children) {
+        checkTypeId(typeId);
+        return creators[typeId].create(fragment, data, children);
+    }
+
+    /**
+     * Creates a new node of the specified type, children of which are created on demand.
+     *
+     * @param typeId type identifier.
+     * @param fragment fragment associated with the node.
+     * @param data node data.
+     * @param childCount number of node children.
+     * @param children accessor that creates a child by its index.
+     * @return new node.
+     * @throws IllegalArgumentException if the identifier is unknown.
+     */
+    public Node createNode(
+            final int typeId,
+            final Fragment fragment,
+            final String data,
+            final int childCount,
+            final IntFunction<Node> children) {
+        checkTypeId(typeId);
+        return creators[typeId].create(fragment, data, childCount, children);
+    }
+
+    /**
+     * Creates a new node of the specified type from the specified parameters.
+     *
+     * @param type node type.
+     * @param fragment fragment associated with the node.
+     * @param data node data.
+     * @param children list of node children.
+     * @return new node.
+     * @throws IllegalArgumentException if the node type is unknown.
+     */
+    public Node createNode(
+            final String type,
+            final Fragment fragment,
+            final String data,
+            final List<Node> children) {
+        final int typeId = getTypeId(type);
+        if (typeId == UNKNOWN) {
+            throw new IllegalArgumentException("Unknown node type: " + type);
+        }
+        return creators[typeId].create(fragment, data, children);
+    }
+
+    /**
+     * Builds an entire tree from a stream of nodes in the preorder.
+     * <p>
+     * The tree is built without recursion, bottom-up: a node is created when all its children
+     * have been created. Reading stops after the root node has been created.
+     *
+     * @param reader reader of the node stream.
+     * @return root of the tree.
+     * @throws IllegalArgumentException if the stream is incomplete or contains unknown types.
+     */
+    public Node createTree(final PreorderReader reader) {
+        final Deque<Pending> stack = new ArrayDeque<>();
+        Node root = null;
+        while (root == null && reader.next()) {
+            final int typeId = reader.getTypeId();
+            checkTypeId(typeId);
+            final Pending pending = new Pending(
+                    typeId, reader.getFragment(), reader.getData(), reader.getChildCount());
+            Node node = null;
+            if (pending.isComplete()) {
+                node = pending.create();
+            } else {
+                stack.push(pending);
+            }
+            while (node != null) {
+                if (stack.isEmpty()) {
+                    root = node;
+                    break;
+                }
+                final Pending parent = stack.peek();
+                parent.children.add(node);
+                node = null;
+                if (parent.isComplete()) {
+                    stack.pop();
+                    node = parent.create();
+                }
+            }
+        }
+        if (root == null) {
+            throw new IllegalArgumentException("Incomplete node stream!");
+        }
+        return root;
+    }
+
+    /**
+     * Checks that a type identifier is valid.
+     *
+     * @param typeId type identifier.
+     * @throws IllegalArgumentException if the identifier is unknown.
+     */
+    private void checkTypeId(final int typeId) {
+        if (typeId < 0 || typeId >= types.length) {
+            throw new IllegalArgumentException("Unknown node type id: " + typeId);
+        }
+    }
+
+    /**
+     * Node that waits for its children to be created.
+     */
+    private final class Pending {
+        /** Type identifier. */
+        private final int typeId;
+
+        /** Fragment associated with the node. */
+        private final Fragment fragment;
+
+        /** Node data. */
+        private final String data;
+
+        /** Expected number of children. */
+        private final int childCount;
+
+        /** Created children. */
+        private final List<Node> children;
+
+        /**
+         * Constructor.
+         *
+         * @param typeId type identifier.
+         * @param fragment fragment associated with the node.
+         * @param data node data.
+         * @param childCount expected number of children.
+         */
+        private Pending(
+                final int typeId,
+                final Fragment fragment,
+                final String data,
+                final int childCount) {
+            this.typeId = typeId;
+            this.fragment = fragment;
+            this.data = data;
+            this.childCount = childCount;
+            this.children = childCount == 0
+                    ? Collections.emptyList() : new ArrayList<>(childCount);
+        }
+
+        /**
+         * Checks whether all children have been created.
+         *
+         * @return {@code true} or {@code false}.
+         */
+        private boolean isComplete() {
+            return children.size() == childCount;
+        }
+
+        /**
+         * Creates the node.
+         *
+         * @return new node.
+         */
+        private Node create() {
+            return creators[typeId].create(fragment, data, children);
+        }
+    }
+
+}
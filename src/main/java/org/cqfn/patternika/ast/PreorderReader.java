@@ -0,0 +1,50 @@
+package org.cqfn.patternika.ast;
+
+import org.cqfn.patternika.source.Fragment;
+
+/**
+ * Reader of a stream of node descriptions in the preorder.
+ * <p>
+ * Used to build entire trees with {@link NodeRegistry#createTree(PreorderReader)}
+ * (e.g. when trees are deserialized). Node types are given as identifiers
+ * assigned by the registry, so no string lookups are needed.
+ *
+ * @since 2021/03/18
+ */
+public interface PreorderReader {
+    /**
+     * Moves to the next node in the stream.
+     *
+     * @return {@code true} if there is the next node or {@code false} if the stream is over.
+     */
+    boolean next();
+
+    /**
+     * Returns the type identifier of the current node.
+     *
+     * @return type identifier assigned by a node registry.
+     */
+    int getTypeId();
+
+    /**
+     * Returns the fragment associated with the current node.
+     *
+     * @return fragment or {@code null}.
+     */
+    Fragment getFragment();
+
+    /**
+     * Returns the data of the current node.
+     *
+     * @return node data.
+     */
+    String getData();
+
+    /**
+     * Returns the number of children of the current node.
+     * Children follow the node in the stream.
+     *
+     * @return child count.
+     */
+    int getChildCount();
+}
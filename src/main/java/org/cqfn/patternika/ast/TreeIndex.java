@@ -0,0 +1,218 @@
+package org.cqfn.patternika.ast;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of a node tree that stores the subtree size, the height, the preorder index and
+ * the postorder index for each node.
+ *
+ * <p>The index is built iteratively in a single preorder pass over the tree followed by
+ * a backward pass over arrays, so deep trees do not cause stack overflow. Nodes are identified
+ * by object identity. All queries take O(1) time. In particular, ancestor tests are based on
+ * preorder and postorder intervals: a node is an ancestor of another node if it precedes that
+ * node in the preorder and follows it in the postorder.
+ *
+ * <p>The index is immutable, it reflects the tree at the moment of creation.
+ *
+ * @param <T> Exact node type, {@link Node} or its subclass.
+ *
+ * @since 2021/03/23
+ */
+public class TreeIndex<T extends Node> {
+    /** Nodes in the preorder. */
+    private final List<T> nodes;
+
+    /** Preorder indices of nodes. */
+    private final Map<Node, Integer> preorder;
+
+    /** Sizes of node subtrees (by preorder indices). */
+    private final int[] sizes;
+
+    /** Heights of node subtrees, 0 for leaves (by preorder indices). */
+    private final int[] heights;
+
+    /** Depths of nodes, 0 for the root (by preorder indices). */
+    private final int[] depths;
+
+    /**
+     * Constructor.
+     *
+     * @param root the tree root.
+     */
+    public TreeIndex(final T root) {
+        this.nodes = new ArrayList<>();
+        this.preorder = new IdentityHashMap<>();
+        final int[] parents = collect(root);
+        final int count = nodes.size();
+        this.sizes = new int[count];
+        this.heights = new int[count];
+        this.depths = new int[count];
+        Arrays.fill(sizes, 1);
+        for (int index = 1; index < count; ++index) {
+            depths[index] = depths[parents[index]] + 1;
+        }
+        // Children follow their parents in the preorder, so they are processed first.
+        for (int index = count - 1; index > 0; --index) {
+            final int parent = parents[index];
+            sizes[parent] += sizes[index];
+            heights[parent] = Math.max(heights[parent], heights[index] + 1);
+        }
+    }
+
+    /**
+     * Collects nodes of the tree in the preorder.
+     *
+     * @param root the tree root.
+     * @return the array of preorder indices of node parents (-1 for the root).
+     */
+    private int[] collect(final T root) {
+        int[] parents = new int[2];
+        final List<T> stack = new ArrayList<>();
+        final List<Integer> stackParents = new ArrayList<>();
+        stack.add(root);
+        stackParents.add(-1);
+        while (!stack.isEmpty()) {
+            final int last = stack.size() - 1;
+            final T node = stack.remove(last);
+            final int parent = stackParents.remove(last);
+            final int index = nodes.size();
+            if (preorder.put(node, index) != null) {
+                throw new IllegalArgumentException("Node occurs in the tree twice: " + node);
+            }
+            nodes.add(node);
+            if (index == parents.length) {
+                parents = Arrays.copyOf(parents, 2 * index);
+            }
+            parents[index] = parent;
+            for (int child = node.getChildCount() - 1; child >= 0; --child) {
+                // Parent is T and we are sure that its children are T.
+                @SuppressWarnings("unchecked")
+                final T childNode = (T) node.getChild(child);
+                stack.add(childNode);
+                stackParents.add(index);
+            }
+        }
+        return parents;
+    }
+
+    /**
+     * Returns the number of nodes in the tree.
+     *
+     * @return the node count.
+     */
+    public int getNodeCount() {
+        return nodes.size();
+    }
+
+    /**
+     * Returns the tree nodes in the preorder.
+     *
+     * @return the unmodifiable list of nodes.
+     */
+    public List<T> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    /**
+     * Returns a node by its preorder index.
+     *
+     * @param index the preorder index.
+     * @return the node.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public T getNode(final int index) {
+        return nodes.get(index);
+    }
+
+    /**
+     * Checks whether the node belongs to the indexed tree.
+     *
+     * @param node the node.
+     * @return {@code true} or {@code false}.
+     */
+    public boolean contains(final Node node) {
+        return preorder.containsKey(node);
+    }
+
+    /**
+     * Returns the preorder index of the node.
+     *
+     * @param node the node.
+     * @return the preorder index (0 for the root).
+     * @throws IllegalArgumentException if the node does not belong to the tree.
+     */
+    public int getPreorder(final Node node) {
+        final Integer result = preorder.get(node);
+        if (result == null) {
+            throw new IllegalArgumentException("Node is not in the indexed tree: " + node);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the postorder index of the node.
+     *
+     * @param node the node.
+     * @return the postorder index (0 for the leftmost leaf).
+     * @throws IllegalArgumentException if the node does not belong to the tree.
+     */
+    public int getPostorder(final Node node) {
+        final int index = getPreorder(node);
+        // Preceding nodes in the postorder are preceding nodes in the preorder
+        // except for ancestors plus all descendants.
+        return index + sizes[index] - 1 - depths[index];
+    }
+
+    /**
+     * Returns the number of nodes in the subtree of the node (including the node).
+     *
+     * @param node the node.
+     * @return the subtree size.
+     * @throws IllegalArgumentException if the node does not belong to the tree.
+     */
+    public int getSize(final Node node) {
+        return sizes[getPreorder(node)];
+    }
+
+    /**
+     * Returns the height of the node subtree, i.e. the maximal distance from the node to a leaf.
+     *
+     * @param node the node.
+     * @return the height (0 for leaves).
+     * @throws IllegalArgumentException if the node does not belong to the tree.
+     */
+    public int getHeight(final Node node) {
+        return heights[getPreorder(node)];
+    }
+
+    /**
+     * Returns the depth of the node, i.e. the distance from the tree root to the node.
+     *
+     * @param node the node.
+     * @return the depth (0 for the root).
+     * @throws IllegalArgumentException if the node does not belong to the tree.
+     */
+    public int getDepth(final Node node) {
+        return depths[getPreorder(node)];
+    }
+
+    /**
+     * Checks whether a node is a proper ancestor of another node.
+     *
+     * @param ancestor the supposed ancestor.
+     * @param node the node.
+     * @return {@code true} if the first node is an ancestor of the second node
+     *         or {@code false} otherwise (including the case when the nodes are the same).
+     * @throws IllegalArgumentException if the nodes do not belong to the tree.
+     */
+    public boolean isAncestor(final Node ancestor, final Node node) {
+        return getPreorder(ancestor) < getPreorder(node)
+            && getPostorder(ancestor) > getPostorder(node);
+    }
+
+}
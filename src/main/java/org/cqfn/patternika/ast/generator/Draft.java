@@ -0,0 +1,144 @@
+package org.cqfn.patternika.ast.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mutable node used to apply edits to a tree before the tree is built.
+ *
+ * @since 2021/03/20
+ */
+final class Draft {
+    /** Node type identifier. */
+    private final int typeId;
+
+    /** Children. */
+    private final List<Draft> children;
+
+    /** Node data. */
+    private String data;
+
+    /** Parent ({@code null} for the root). */
+    private Draft parent;
+
+    /** Index of the draft in the list of all drafts of the tree. */
+    private int index;
+
+    /**
+     * Constructor.
+     *
+     * @param typeId node type identifier.
+     * @param data node data.
+     * @param childCount expected number of children.
+     */
+    Draft(final int typeId, final String data, final int childCount) {
+        this.typeId = typeId;
+        this.data = data;
+        this.children = new ArrayList<>(childCount);
+    }
+
+    /**
+     * Returns the node type identifier.
+     *
+     * @return type identifier.
+     */
+    int getTypeId() {
+        return typeId;
+    }
+
+    /**
+     * Returns the node data.
+     *
+     * @return node data.
+     */
+    String getData() {
+        return data;
+    }
+
+    /**
+     * Sets the node data.
+     *
+     * @param data new data.
+     */
+    void setData(final String data) {
+        this.data = data;
+    }
+
+    /**
+     * Returns the list of children (modifiable).
+     *
+     * @return children.
+     */
+    List<Draft> getChildren() {
+        return children;
+    }
+
+    /**
+     * Returns the parent.
+     *
+     * @return parent or {@code null} for the root.
+     */
+    Draft getParent() {
+        return parent;
+    }
+
+    /**
+     * Returns the index of the draft in the list of all drafts of the tree.
+     *
+     * @return index.
+     */
+    int getIndex() {
+        return index;
+    }
+
+    /**
+     * Sets the index of the draft in the list of all drafts of the tree.
+     *
+     * @param index new index.
+     */
+    void setIndex(final int index) {
+        this.index = index;
+    }
+
+    /**
+     * Inserts a child.
+     *
+     * @param position position, at which the child is inserted.
+     * @param child the child (detached from its former parent).
+     */
+    void insert(final int position, final Draft child) {
+        children.add(position, child);
+        child.parent = this;
+    }
+
+    /**
+     * Detaches this draft from its parent.
+     *
+     * @return position of this draft among children of the parent.
+     */
+    int detach() {
+        final List<Draft> siblings = parent.children;
+        int position = siblings.size() - 1;
+        while (siblings.get(position) != this) {
+            --position;
+        }
+        siblings.remove(position);
+        parent = null;
+        return position;
+    }
+
+    /**
+     * Checks whether this draft is an ancestor of the specified draft or the draft itself.
+     *
+     * @param other the draft.
+     * @return {@code true} or {@code false}.
+     */
+    boolean contains(final Draft other) {
+        Draft current = other;
+        while (current != null && current != this) {
+            current = current.parent;
+        }
+        return current == this;
+    }
+
+}
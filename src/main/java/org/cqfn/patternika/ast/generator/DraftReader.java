@@ -0,0 +1,90 @@
+package org.cqfn.patternika.ast.generator;
+
+import org.cqfn.patternika.ast.PreorderReader;
+import org.cqfn.patternika.source.Fragment;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Reads a tree of drafts in the preorder (needed to build the tree of nodes).
+ *
+ * @since 2021/03/20
+ */
+final class DraftReader implements PreorderReader {
+    /** Drafts to be read. */
+    private final Deque<Draft> stack;
+
+    /** Current draft. */
+    private Draft current;
+
+    /**
+     * Constructor.
+     *
+     * @param root the root of the tree of drafts.
+     */
+    DraftReader(final Draft root) {
+        this.stack = new ArrayDeque<>();
+        this.stack.push(root);
+    }
+
+    /**
+     * Moves to the next draft.
+     *
+     * @return {@code true} if there is the next draft or {@code false} otherwise.
+     */
+    @Override
+    public boolean next() {
+        if (stack.isEmpty()) {
+            return false;
+        }
+        current = stack.pop();
+        final List<Draft> children = current.getChildren();
+        for (int index = children.size() - 1; index >= 0; --index) {
+            stack.push(children.get(index));
+        }
+        return true;
+    }
+
+    /**
+     * Returns the type identifier of the current draft.
+     *
+     * @return type identifier.
+     */
+    @Override
+    public int getTypeId() {
+        return current.getTypeId();
+    }
+
+    /**
+     * Returns the fragment of the current draft.
+     *
+     * @return {@code null} as generated nodes have no source code.
+     */
+    @Override
+    public Fragment getFragment() {
+        return null;
+    }
+
+    /**
+     * Returns the data of the current draft.
+     *
+     * @return node data.
+     */
+    @Override
+    public String getData() {
+        return current.getData();
+    }
+
+    /**
+     * Returns the number of children of the current draft.
+     *
+     * @return child count.
+     */
+    @Override
+    public int getChildCount() {
+        return current.getChildren().size();
+    }
+
+}
@@ -0,0 +1,18 @@
+package org.cqfn.patternika.ast.generator;
+
+/**
+ * Kinds of edits applied to trees by {@link TreeGenerator#mutate(
+ * org.cqfn.patternika.ast.Node, double, Edit...)}.
+ *
+ * @since 2021/03/20
+ */
+public enum Edit {
+    /** A new leaf is inserted at a random position. */
+    INSERT,
+    /** A node is deleted, its children are moved to its parent (to the node position). */
+    DELETE,
+    /** A node (with its subtree) is moved to a random position. */
+    MOVE,
+    /** Data of a node is changed. */
+    UPDATE
+}
@@ -0,0 +1,364 @@
+package org.cqfn.patternika.ast.generator;
+
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.ast.NodeRegistry;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Generator of synthetic node trees and their mutated variants.
+ * <p>
+ * Trees have the specified size. Their shape is controlled by limits on depth and fan-out,
+ * each new node is attached to a random node that has not reached these limits.
+ * Node types are selected randomly according to their weights, node data is selected
+ * from the specified number of values (the more values, the higher the entropy).
+ * <p>
+ * Nodes are created by a node registry, so trees can consist of nodes of any classes.
+ * Generated trees depend only on the seed and settings, so results are reproducible.
+ * Trees are built without recursion, so their size and depth are limited only by memory.
+ *
+ * @since 2021/03/20
+ */
+public class TreeGenerator {
+    /** Default number of data values. */
+    private static final int DEFAULT_DATA_VALUES = 100;
+
+    /** Number of attempts to find a target for the move of a node. */
+    private static final int MOVE_ATTEMPTS = 8;
+
+    /** Registry that creates nodes. */
+    private final NodeRegistry registry;
+
+    /** Random generator. */
+    private final Random random;
+
+    /** Identifiers of types to be generated. */
+    private final List<Integer> typeIds;
+
+    /** Cumulative weights of types. */
+    private final List<Integer> weights;
+
+    /** Maximum depth of nodes (the depth of the root is 0). */
+    private int maxDepth;
+
+    /** Maximum number of children of a node. */
+    private int maxFanOut;
+
+    /** Number of different data values ({@code 0} means that nodes have no data). */
+    private int dataValues;
+
+    /**
+     * Constructor.
+     *
+     * @param registry the registry that creates nodes of generated types.
+     * @param seed the seed of the random generator.
+     */
+    public TreeGenerator(final NodeRegistry registry, final long seed) {
+        this.registry = Objects.requireNonNull(registry);
+        this.random = new Random(seed);
+        this.typeIds = new ArrayList<>();
+        this.weights = new ArrayList<>();
+        this.maxDepth = Integer.MAX_VALUE;
+        this.maxFanOut = Integer.MAX_VALUE;
+        this.dataValues = DEFAULT_DATA_VALUES;
+    }
+
+    /**
+     * Adds a node type to be generated.
+     *
+     * @param type the node type (must be registered in the registry).
+     * @param weight the weight of the type (the probability is proportional to it).
+     * @return this generator.
+     * @throws IllegalArgumentException if the type is unknown or the weight is not positive.
+     */
+    public TreeGenerator addType(final String type, final int weight) {
+        final int typeId = registry.getTypeId(type);
+        if (typeId == NodeRegistry.UNKNOWN) {
+            throw new IllegalArgumentException("Unknown node type: " + type);
+        }
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Weight must be positive: " + weight);
+        }
+        final int total = weights.isEmpty() ? 0 : weights.get(weights.size() - 1);
+        typeIds.add(typeId);
+        weights.add(total + weight);
+        return this;
+    }
+
+    /**
+     * Sets the maximum depth of nodes (the depth of the root is 0).
+     *
+     * @param value the maximum depth.
+     * @return this generator.
+     */
+    public TreeGenerator setMaxDepth(final int value) {
+        this.maxDepth = value;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of children of a node.
+     *
+     * @param value the maximum fan-out.
+     * @return this generator.
+     */
+    public TreeGenerator setMaxFanOut(final int value) {
+        this.maxFanOut = value;
+        return this;
+    }
+
+    /**
+     * Sets the number of different data values ({@code 0} means that nodes have no data).
+     *
+     * @param value the number of values.
+     * @return this generator.
+     */
+    public TreeGenerator setDataValues(final int value) {
+        this.dataValues = value;
+        return this;
+    }
+
+    /**
+     * Generates a tree.
+     *
+     * @param size the number of nodes in the tree.
+     * @return the tree root.
+     * @throws IllegalArgumentException if the size cannot be reached with the limits.
+     * @throws IllegalStateException if no types have been added.
+     */
+    public Node generate(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Size must be positive: " + size);
+        }
+        final int[] parents = generateParents(size);
+        final int[] offsets = new int[size + 1];
+        for (int index = 1; index < size; ++index) {
+            ++offsets[parents[index] + 1];
+        }
+        for (int index = 0; index < size; ++index) {
+            offsets[index + 1] += offsets[index];
+        }
+        final int[] children = new int[size];
+        final int[] filled = Arrays.copyOf(offsets, size);
+        for (int index = 1; index < size; ++index) {
+            children[filled[parents[index]]++] = index;
+        }
+        final Node[] nodes = new Node[size];
+        for (int index = size - 1; index >= 0; --index) {
+            final List<Node> list = new ArrayList<>(offsets[index + 1] - offsets[index]);
+            for (int child = offsets[index]; child < offsets[index + 1]; ++child) {
+                list.add(nodes[children[child]]);
+                nodes[children[child]] = null;
+            }
+            nodes[index] = registry.createNode(nextTypeId(), null, nextData(), list);
+        }
+        return nodes[0];
+    }
+
+    /**
+     * Creates a mutated copy of a tree. The source tree is not modified.
+     * <p>
+     * The number of edits is the edit rate multiplied by the tree size.
+     * Edits of the allowed kinds are selected randomly with equal probabilities.
+     *
+     * @param root the root of the source tree (its types must be registered in the registry).
+     * @param rate the edit rate (the number of edits per node).
+     * @param edits the allowed kinds of edits (if none are specified, all are allowed).
+     * @return the root of the mutated copy.
+     * @throws IllegalArgumentException if the tree contains unknown types.
+     * @throws IllegalStateException if no types have been added (and insertions are needed).
+     */
+    public Node mutate(final Node root, final double rate, final Edit... edits) {
+        final Edit[] kinds = edits.length == 0 ? Edit.values() : edits;
+        final List<Draft> drafts = createDrafts(root);
+        final long count = Math.round(rate * drafts.size());
+        for (long index = 0; index < count; ++index) {
+            apply(kinds[random.nextInt(kinds.length)], drafts);
+        }
+        return registry.createTree(new DraftReader(drafts.get(0)));
+    }
+
+    /**
+     * Generates parents of nodes, the parent of each node goes before the node.
+     *
+     * @param size the number of nodes.
+     * @return parent indexes (the root has no parent, its value is 0).
+     * @throws IllegalArgumentException if the size cannot be reached with the limits.
+     */
+    private int[] generateParents(final int size) {
+        final int[] parents = new int[size];
+        final int[] depths = new int[size];
+        final int[] childCounts = new int[size];
+        final int[] open = new int[size];
+        int openCount = maxDepth > 0 && maxFanOut > 0 ? 1 : 0;
+        for (int index = 1; index < size; ++index) {
+            if (openCount == 0) {
+                throw new IllegalArgumentException(
+                        "Cannot generate " + size + " nodes with the specified limits!");
+            }
+            final int slot = random.nextInt(openCount);
+            final int parent = open[slot];
+            parents[index] = parent;
+            depths[index] = depths[parent] + 1;
+            childCounts[parent] += 1;
+            if (childCounts[parent] == maxFanOut) {
+                open[slot] = open[--openCount];
+            }
+            if (depths[index] < maxDepth) {
+                open[openCount++] = index;
+            }
+        }
+        return parents;
+    }
+
+    /**
+     * Selects the type of a new node.
+     *
+     * @return type identifier.
+     * @throws IllegalStateException if no types have been added.
+     */
+    private int nextTypeId() {
+        if (typeIds.isEmpty()) {
+            throw new IllegalStateException("No node types to generate!");
+        }
+        final int value = random.nextInt(weights.get(weights.size() - 1));
+        int index = 0;
+        while (weights.get(index) <= value) {
+            ++index;
+        }
+        return typeIds.get(index);
+    }
+
+    /**
+     * Selects the data of a new node.
+     *
+     * @return node data or {@code null} if nodes have no data.
+     */
+    private String nextData() {
+        return dataValues == 0 ? null : Integer.toString(random.nextInt(dataValues));
+    }
+
+    /**
+     * Creates drafts for nodes of a tree.
+     *
+     * @param root the tree root.
+     * @return the list of all drafts, the first one is the root.
+     * @throws IllegalArgumentException if the tree contains unknown types.
+     */
+    private List<Draft> createDrafts(final Node root) {
+        final List<Draft> drafts = new ArrayList<>();
+        final Deque<Node> nodes = new ArrayDeque<>();
+        final Deque<Draft> parents = new ArrayDeque<>();
+        nodes.push(root);
+        while (!nodes.isEmpty()) {
+            final Node node = nodes.pop();
+            final int typeId = registry.getTypeId(node.getType());
+            if (typeId == NodeRegistry.UNKNOWN) {
+                throw new IllegalArgumentException("Unknown node type: " + node.getType());
+            }
+            final Draft draft = new Draft(typeId, node.getData(), node.getChildCount());
+            if (!drafts.isEmpty()) {
+                final Draft parent = parents.pop();
+                parent.insert(parent.getChildren().size(), draft);
+            }
+            add(drafts, draft);
+            for (int index = node.getChildCount() - 1; index >= 0; --index) {
+                nodes.push(node.getChild(index));
+                parents.push(draft);
+            }
+        }
+        return drafts;
+    }
+
+    /**
+     * Applies an edit. If the tree has only the root, a node is inserted.
+     *
+     * @param edit the kind of edit.
+     * @param drafts all drafts of the tree.
+     */
+    private void apply(final Edit edit, final List<Draft> drafts) {
+        final int candidates = drafts.size() - 1;
+        if (candidates == 0 || edit == Edit.INSERT) {
+            insert(drafts);
+        } else {
+            final Draft draft = drafts.get(1 + random.nextInt(candidates));
+            if (edit == Edit.DELETE) {
+                delete(drafts, draft);
+            } else if (edit == Edit.MOVE) {
+                move(drafts, draft);
+            } else {
+                final String data = nextData();
+                draft.setData(
+                    Objects.equals(data, draft.getData()) ? draft.getData() + '\'' : data);
+            }
+        }
+    }
+
+    /**
+     * Inserts a new leaf to a random position.
+     *
+     * @param drafts all drafts of the tree.
+     */
+    private void insert(final List<Draft> drafts) {
+        final Draft parent = drafts.get(random.nextInt(drafts.size()));
+        final Draft draft = new Draft(nextTypeId(), nextData(), 0);
+        parent.insert(random.nextInt(parent.getChildren().size() + 1), draft);
+        add(drafts, draft);
+    }
+
+    /**
+     * Deletes a node, children of which are moved to its parent.
+     *
+     * @param drafts all drafts of the tree.
+     * @param draft the draft of the node.
+     */
+    private static void delete(final List<Draft> drafts, final Draft draft) {
+        final Draft parent = draft.getParent();
+        int position = draft.detach();
+        for (final Draft child : draft.getChildren()) {
+            parent.insert(position++, child);
+        }
+        draft.getChildren().clear();
+        final Draft last = drafts.remove(drafts.size() - 1);
+        if (last != draft) {
+            last.setIndex(draft.getIndex());
+            drafts.set(draft.getIndex(), last);
+        }
+    }
+
+    /**
+     * Moves a node to a random position outside of its subtree.
+     * The node stays in place if no such position has been found after several attempts.
+     *
+     * @param drafts all drafts of the tree.
+     * @param draft the draft of the node.
+     */
+    private void move(final List<Draft> drafts, final Draft draft) {
+        for (int attempt = 0; attempt < MOVE_ATTEMPTS; ++attempt) {
+            final Draft target = drafts.get(random.nextInt(drafts.size()));
+            if (!draft.contains(target)) {
+                draft.detach();
+                target.insert(random.nextInt(target.getChildren().size() + 1), draft);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Adds a draft to the list of all drafts.
+     *
+     * @param drafts all drafts of the tree.
+     * @param draft the new draft.
+     */
+    private static void add(final List<Draft> drafts, final Draft draft) {
+        draft.setIndex(drafts.size());
+        drafts.add(draft);
+    }
+
+}
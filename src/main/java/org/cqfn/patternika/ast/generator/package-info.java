@@ -0,0 +1,9 @@
+/**
+ * This package contains classes that generate synthetic node trees and their mutated variants.
+ * <p>
+ * Synthetic trees are needed to measure and test scalability of algorithms (mappers, hashes,
+ * matchers) on trees of any size without using large real files.
+ *
+ * @since 2021/03/20
+ */
+package org.cqfn.patternika.ast.generator;
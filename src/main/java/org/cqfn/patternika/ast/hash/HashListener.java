@@ -0,0 +1,21 @@
+package org.cqfn.patternika.ast.hash;
+
+/**
+ * Listener that is notified when hash codes are requested from a hash with a cache.
+ * Needed to collect statistics on cache efficiency.
+ *
+ * @since 2021/03/21
+ */
+@FunctionalInterface
+public interface HashListener {
+    /** Listener that does nothing. */
+    HashListener NONE = cached -> { };
+
+    /**
+     * Called when a hash code is requested.
+     *
+     * @param cached {@code true} if the hash code has been taken from the cache
+     *        or {@code false} if it has been calculated.
+     */
+    void hashRequested(boolean cached);
+}
@@ -20,6 +20,25 @@ public class IsomorphismHash implements Hash {
     /** Cache of previously calculated hash codes. */
     private final Map<Node, Integer> hashCodes = new IdentityHashMap<>();
 
+    /** Listener notified about requests of hash codes. */
+    private final HashListener listener;
+
+    /**
+     * Main constructor.
+     *
+     * @param listener the listener notified about requests of hash codes, not {@code null}.
+     */
+    public IsomorphismHash(final HashListener listener) {
+        this.listener = Objects.requireNonNull(listener);
+    }
+
+    /**
+     * Additional constructor for a hash without a listener.
+     */
+    public IsomorphismHash() {
+        this(HashListener.NONE);
+    }
+
     /**
      * Recursive function.
      * Get isomorphic hash for the given tree.
@@ -32,13 +51,28 @@ public class IsomorphismHash implements Hash {
      */
     @Override
     public int getHash(final Node root) {
-        return hashCodes.computeIfAbsent(root, node -> {
-            int result = Objects.hash(node.getType());
-            for (final Node child : new Children<>(node)) {
-                result = 31 * result + getHash(child);
-            }
-            return result;
-        });
+        final Integer cached = hashCodes.get(root);
+        listener.hashRequested(cached != null);
+        if (cached != null) {
+            return cached;
+        }
+        final int hash = calculate(root);
+        hashCodes.put(root, hash);
+        return hash;
+    }
+
+    /**
+     * Calculates the hash code of a node from hash codes of its children.
+     *
+     * @param node the node.
+     * @return the hash code.
+     */
+    private int calculate(final Node node) {
+        int result = Objects.hash(node.getType());
+        for (final Node child : new Children<>(node)) {
+            result = 31 * result + getHash(child);
+        }
+        return result;
     }
 
 }
@@ -17,7 +17,39 @@ import java.util.Objects;
 **/
 public class SimilarityHash implements Hash {
     /** Cache of previously calculated hash codes. */
-    private final Map<Node, Integer> hashCodes = new IdentityHashMap<>();
+    private final Map<Node, Integer> hashCodes;
+
+    /** Listener notified about requests of hash codes. */
+    private final HashListener listener;
+
+    /**
+     * Main constructor.
+     *
+     * @param listener the listener notified about requests of hash codes, not {@code null}.
+     * @param cache the cache of hash codes, which can be shared by several hashes
+     *        (a concurrent map if they are used by several threads), the map compares
+     *        nodes with their {@code equals} method.
+     */
+    public SimilarityHash(final HashListener listener, final Map<Node, Integer> cache) {
+        this.listener = Objects.requireNonNull(listener);
+        this.hashCodes = Objects.requireNonNull(cache);
+    }
+
+    /**
+     * Additional constructor for a hash with its own cache.
+     *
+     * @param listener the listener notified about requests of hash codes, not {@code null}.
+     */
+    public SimilarityHash(final HashListener listener) {
+        this(listener, new IdentityHashMap<>());
+    }
+
+    /**
+     * Additional constructor for a hash without a listener.
+     */
+    public SimilarityHash() {
+        this(HashListener.NONE);
+    }
 
     /**
      * Gets similarity hash for the given tree.
@@ -31,14 +63,29 @@ public class SimilarityHash implements Hash {
      */
     @Override
     public int getHash(final Node root) {
-        return hashCodes.computeIfAbsent(root, node -> {
-            int result = Objects.hash(node.getType());
-            result = 31 * result + Objects.hash(node.getData());
-            for (final Node child : new Children<>(node)) {
-                result = 31 * result + getHash(child);
-            }
-            return result;
-        });
+        final Integer cached = hashCodes.get(root);
+        listener.hashRequested(cached != null);
+        if (cached != null) {
+            return cached;
+        }
+        final int hash = calculate(root);
+        hashCodes.put(root, hash);
+        return hash;
+    }
+
+    /**
+     * Calculates the hash code of a node from hash codes of its children.
+     *
+     * @param node the node.
+     * @return the hash code.
+     */
+    private int calculate(final Node node) {
+        int result = Objects.hash(node.getType());
+        result = 31 * result + Objects.hash(node.getData());
+        for (final Node child : new Children<>(node)) {
+            result = 31 * result + getHash(child);
+        }
+        return result;
     }
 
 }
@@ -2,6 +2,8 @@ package org.cqfn.patternika.ast.iterator;
 
 import org.cqfn.patternika.ast.Node;
 
+import java.util.Spliterator;
+
 /**
  * Iterable for node trees, which allows iterating over tree nodes
  * in the breadth-first order.
@@ -17,6 +19,16 @@ public class BreadthFirst<T extends Node> extends NodeIterable<T> {
      * @param root the node tree root.
      */
     public BreadthFirst(final T root) {
-        super(root, BreadthFirstIterator::new);
+        super(root, BreadthFirstIterator::new, BreadthFirstIterator::traverse);
+    }
+
+    /**
+     * Returns a spliterator that splits the node tree by subtrees.
+     *
+     * @return the spliterator.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new BreadthFirstSpliterator<>(getRoot());
     }
 }
@@ -2,13 +2,17 @@ package org.cqfn.patternika.ast.iterator;
 
 import org.cqfn.patternika.ast.Node;
 
+import java.util.ArrayDeque;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.function.Consumer;
 
 /**
  * Iterator that iterates over a node tree in the breadth-first order.
+ * <p>
+ * The queue of nodes is based on an array, so no objects are allocated per visited node.
  *
  * @param <T> Exact node type, {@link Node} or its subclass.
  *
@@ -16,7 +20,7 @@ import java.util.Queue;
  */
 public class BreadthFirstIterator<T extends Node> implements Iterator<T> {
     /** Queue of nodes to be returned and iterated. */
-    private final Queue<T> queue = new LinkedList<>();
+    private final Queue<T> queue = new ArrayDeque<>();
 
     /**
      * Constructor.
@@ -34,22 +38,57 @@ public class BreadthFirstIterator<T extends Node> implements Iterator<T> {
      */
     @Override
     public boolean hasNext() {
-        return queue.peek() != null;
+        return !queue.isEmpty();
     }
 
     /**
      * Returns the next element.
      *
      * @return Next element.
-     * @throws java.util.NoSuchElementException if there is no next element.
+     * @throws NoSuchElementException if there is no next element.
      */
     @Override
     public T next() {
         final T node = queue.remove();
-        for (final T child : new Children<>(node)) {
+        addChildren(queue, node);
+        return node;
+    }
+
+    /**
+     * Performs an action for each node of a tree in the breadth-first order
+     * without creating an iterator.
+     *
+     * @param root the node tree root.
+     * @param action the action.
+     * @param <T> Exact node type, {@link Node} or its subclass.
+     */
+    public static <T extends Node> void traverse(
+            final T root,
+            final Consumer<? super T> action) {
+        final Queue<T> queue = new ArrayDeque<>();
+        queue.add(Objects.requireNonNull(root));
+        while (!queue.isEmpty()) {
+            final T node = queue.remove();
+            addChildren(queue, node);
+            action.accept(node);
+        }
+    }
+
+    /**
+     * Adds children of a node to the queue.
+     *
+     * @param queue the queue.
+     * @param node the node.
+     * @param <T> Exact node type, {@link Node} or its subclass.
+     */
+    private static <T extends Node> void addChildren(final Queue<T> queue, final T node) {
+        final int count = node.getChildCount();
+        for (int index = 0; index < count; ++index) {
+            // Parent is T and we are sure that its children are T.
+            @SuppressWarnings("unchecked")
+            final T child = (T) node.getChild(index);
             queue.add(Objects.requireNonNull(child));
         }
-        return node;
     }
 
 }
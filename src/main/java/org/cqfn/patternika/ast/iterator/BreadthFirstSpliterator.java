@@ -0,0 +1,151 @@
+package org.cqfn.patternika.ast.iterator;
+
+import org.cqfn.patternika.ast.Node;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator that traverses a node tree in the breadth-first order and splits it by subtrees.
+ * <p>
+ * The spliterator keeps a queue of nodes, subtrees of which are not visited yet. Splitting
+ * gives away the first half of the queue. A single node in the queue is split
+ * into the node itself and its children. Nodes in parts are visited in the breadth-first
+ * order, but the parts do not form a prefix and a suffix of the traversal, so the spliterator
+ * is not ordered.
+ * <p>
+ * The number of nodes is not known in advance, so the size is an estimate,
+ * which is divided in halves on each split.
+ *
+ * @param <T> Exact node type, {@link Node} or its subclass.
+ *
+ * @since 2021/03/23
+ */
+public class BreadthFirstSpliterator<T extends Node> implements Spliterator<T> {
+    /** Queue of nodes, subtrees of which are to be traversed. */
+    private final Deque<T> queue;
+
+    /** Number of nodes at the head of the queue, which children are already in the queue. */
+    private int expanded;
+
+    /** Estimated number of nodes to be traversed. */
+    private long estimate;
+
+    /**
+     * Main constructor.
+     *
+     * @param root the node tree root.
+     * @param estimate the estimated number of nodes in the tree ({@link Long#MAX_VALUE}
+     *        if unknown).
+     */
+    public BreadthFirstSpliterator(final T root, final long estimate) {
+        this.queue = new ArrayDeque<>();
+        this.queue.add(Objects.requireNonNull(root));
+        this.estimate = estimate;
+    }
+
+    /**
+     * Additional constructor for a tree with an unknown number of nodes.
+     *
+     * @param root the node tree root.
+     */
+    public BreadthFirstSpliterator(final T root) {
+        this(root, Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructor for a spliterator that takes nodes from the head of the queue of another one.
+     *
+     * @param other the spliterator to be split.
+     * @param count the number of nodes to be taken.
+     */
+    private BreadthFirstSpliterator(final BreadthFirstSpliterator<T> other, final int count) {
+        this.queue = new ArrayDeque<>(count);
+        for (int index = 0; index < count; ++index) {
+            this.queue.add(other.queue.remove());
+        }
+        this.expanded = Math.min(other.expanded, count);
+        other.expanded -= this.expanded;
+        this.estimate = other.estimate >>> 1;
+        other.estimate -= this.estimate;
+    }
+
+    /**
+     * Performs the action for the next node if there is any.
+     *
+     * @param action the action.
+     * @return {@code false} if there are no more nodes or {@code true} otherwise.
+     */
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> action) {
+        Objects.requireNonNull(action);
+        final T node = queue.poll();
+        if (node == null) {
+            return false;
+        }
+        if (expanded > 0) {
+            expanded -= 1;
+        } else {
+            addChildren(node);
+        }
+        action.accept(node);
+        return true;
+    }
+
+    /**
+     * Splits the traversal by subtrees.
+     *
+     * @return the spliterator for a part of the tree or {@code null} if it cannot be split.
+     */
+    @Override
+    public Spliterator<T> trySplit() {
+        if (queue.size() == 1 && expanded == 0) {
+            addChildren(queue.peek());
+            expanded = 1;
+        }
+        final int size = queue.size();
+        if (size < 2) {
+            return null;
+        }
+        return new BreadthFirstSpliterator<>(this, size / 2);
+    }
+
+    /**
+     * Returns the estimated number of nodes to be traversed.
+     *
+     * @return the estimate.
+     */
+    @Override
+    public long estimateSize() {
+        return queue.isEmpty() ? 0 : estimate;
+    }
+
+    /**
+     * Returns characteristics of the spliterator.
+     *
+     * @return the characteristics.
+     */
+    @Override
+    public int characteristics() {
+        return NONNULL;
+    }
+
+    /**
+     * Adds children of a node to the queue.
+     *
+     * @param node the node.
+     */
+    private void addChildren(final T node) {
+        final int count = node.getChildCount();
+        for (int index = 0; index < count; ++index) {
+            // Parent is T and we are sure that its children are T.
+            @SuppressWarnings("unchecked")
+            final T child = (T) node.getChild(index);
+            queue.add(Objects.requireNonNull(child));
+        }
+    }
+
+}
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Spliterator;
 
 /**
  * Iterable for children of a node.
@@ -40,6 +41,16 @@ public class Children<T extends Node> implements Iterable<T> {
         return new ChildrenIterator<>(parent);
     }
 
+    /**
+     * Returns a spliterator over the children, which splits the range of child indices.
+     *
+     * @return the spliterator.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new ChildrenSpliterator<>(parent);
+    }
+
     /**
      * Creates and returns a modifiable list of node children.
      *
@@ -0,0 +1,104 @@
+package org.cqfn.patternika.ast.iterator;
+
+import org.cqfn.patternika.ast.Node;
+
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over children of the specified node, which splits the range of child indices.
+ *
+ * @param <T> Exact node type, {@link Node} or its subclass.
+ *
+ * @since 2021/03/23
+ */
+public class ChildrenSpliterator<T extends Node> implements Spliterator<T> {
+    /** Parent node with children. */
+    private final T parent;
+
+    /** Current index for the spliterator. */
+    private int index;
+
+    /** End index for the spliterator. */
+    private final int endIndex;
+
+    /**
+     * Main constructor.
+     *
+     * @param parent the parent node.
+     * @param index the index of the first child.
+     * @param endIndex the index after the last child.
+     */
+    private ChildrenSpliterator(final T parent, final int index, final int endIndex) {
+        this.parent = parent;
+        this.index = index;
+        this.endIndex = endIndex;
+    }
+
+    /**
+     * Additional constructor for all children of the node.
+     *
+     * @param parent the parent node.
+     */
+    public ChildrenSpliterator(final T parent) {
+        this(Objects.requireNonNull(parent), 0, parent.getChildCount());
+    }
+
+    /**
+     * Performs the action for the next child if there is any.
+     *
+     * @param action the action.
+     * @return {@code false} if there are no more children or {@code true} otherwise.
+     */
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> action) {
+        Objects.requireNonNull(action);
+        if (index >= endIndex) {
+            return false;
+        }
+        // Parent is T and we are sure that its children are T.
+        @SuppressWarnings("unchecked")
+        final T child = (T) parent.getChild(index);
+        index += 1;
+        action.accept(child);
+        return true;
+    }
+
+    /**
+     * Splits the range of children: the returned spliterator covers the first half.
+     *
+     * @return the spliterator for the first half or {@code null} if it cannot be split.
+     */
+    @Override
+    public Spliterator<T> trySplit() {
+        final int middle = (index + endIndex) >>> 1;
+        if (middle <= index) {
+            return null;
+        }
+        final Spliterator<T> prefix = new ChildrenSpliterator<>(parent, index, middle);
+        index = middle;
+        return prefix;
+    }
+
+    /**
+     * Returns the number of remaining children.
+     *
+     * @return the exact size.
+     */
+    @Override
+    public long estimateSize() {
+        return endIndex - index;
+    }
+
+    /**
+     * Returns characteristics of the spliterator.
+     *
+     * @return the characteristics.
+     */
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL;
+    }
+
+}
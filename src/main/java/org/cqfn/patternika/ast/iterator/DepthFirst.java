@@ -2,6 +2,8 @@ package org.cqfn.patternika.ast.iterator;
 
 import org.cqfn.patternika.ast.Node;
 
+import java.util.Spliterator;
+
 /**
  * Iterable for node trees, which iterates over tree nodes in the depth-first order.
  *
@@ -16,6 +18,16 @@ public class DepthFirst<T extends Node> extends NodeIterable<T> {
      * @param root the node tree root.
      */
     public DepthFirst(final T root) {
-        super(root, DepthFirstIterator::new);
+        super(root, DepthFirstIterator::new, DepthFirstIterator::traverse);
+    }
+
+    /**
+     * Returns a spliterator that splits the node tree by subtrees.
+     *
+     * @return the spliterator.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new DepthFirstSpliterator<>(getRoot());
     }
 }
@@ -2,22 +2,34 @@ package org.cqfn.patternika.ast.iterator;
 
 import org.cqfn.patternika.ast.Node;
 
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * Iterator that iterates over a node tree in the depth-first order.
+ * <p>
+ * A node is returned after all its children (postorder). The stack stores nodes
+ * and indices of their next children in arrays, so no objects are allocated per visited node.
  *
  * @param <T> Exact node type, {@link Node} or its subclass.
  *
  * @since 2020/11/3
  */
 public class DepthFirstIterator<T extends Node> implements Iterator<T> {
-    /** Stack of nodes and iterators over their children. */
-    private final Deque<Entry<T>> entries = new LinkedList<>();
+    /** Initial capacity of the stack. */
+    private static final int CAPACITY = 16;
+
+    /** Stack of nodes. */
+    private Node[] nodes;
+
+    /** Indices of the next children to be processed for nodes in the stack. */
+    private int[] next;
+
+    /** Size of the stack. */
+    private int size;
 
     /**
      * Constructor.
@@ -25,7 +37,9 @@ public class DepthFirstIterator<T extends Node> implements Iterator<T> {
      * @param root Root node.
      */
     public DepthFirstIterator(final T root) {
-        entries.push(new Entry<>(root));
+        this.nodes = new Node[CAPACITY];
+        this.next = new int[CAPACITY];
+        push(Objects.requireNonNull(root));
     }
 
     /**
@@ -35,7 +49,7 @@ public class DepthFirstIterator<T extends Node> implements Iterator<T> {
      */
     @Override
     public boolean hasNext() {
-        return !entries.isEmpty();
+        return size > 0;
     }
 
     /**
@@ -46,48 +60,76 @@ public class DepthFirstIterator<T extends Node> implements Iterator<T> {
      */
     @Override
     public T next() {
-        if (entries.isEmpty()) {
+        if (size == 0) {
             throw new NoSuchElementException();
         }
-        Entry<T> current = entries.peek();
-        while (current.hasNext()) {
-            current = current.next();
-            entries.push(current);
+        Node current = nodes[size - 1];
+        while (next[size - 1] < current.getChildCount()) {
+            current = current.getChild(next[size - 1]);
+            next[size - 1] += 1;
+            push(Objects.requireNonNull(current));
         }
         // A node is returned when it does not have any more children to be processed.
-        return entries.pop().getNode();
+        size -= 1;
+        nodes[size] = null;
+        // Root is T and we are sure that all its descendants are T.
+        @SuppressWarnings("unchecked")
+        final T result = (T) current;
+        return result;
     }
 
     /**
-     * Entry that stores a node and an iterator over its children.
+     * Performs an action for each node of a tree in the depth-first order
+     * without creating an iterator.
      *
-     * @param <T> Exact node type ({@link Node} or its subclass.
+     * @param root the node tree root.
+     * @param action the action.
+     * @param <T> Exact node type, {@link Node} or its subclass.
      */
-    private static final class Entry<T extends Node> implements Iterator<Entry<T>> {
-        /** Node. */
-        private final T node;
-
-        /** Iterator over the node's children. */
-        private final Iterator<T> children;
-
-        private Entry(final T node) {
-            this.node = Objects.requireNonNull(node);
-            this.children = new ChildrenIterator<>(node);
-        }
-
-        public T getNode() {
-            return node;
-        }
-
-        @Override
-        public boolean hasNext() {
-            return children.hasNext();
+    public static <T extends Node> void traverse(
+            final T root,
+            final Consumer<? super T> action) {
+        Node[] stack = new Node[CAPACITY];
+        int[] indices = new int[CAPACITY];
+        stack[0] = Objects.requireNonNull(root);
+        int depth = 1;
+        while (depth > 0) {
+            final Node current = stack[depth - 1];
+            if (indices[depth - 1] < current.getChildCount()) {
+                final Node child = Objects.requireNonNull(current.getChild(indices[depth - 1]));
+                indices[depth - 1] += 1;
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, 2 * depth);
+                    indices = Arrays.copyOf(indices, 2 * depth);
+                }
+                stack[depth] = child;
+                indices[depth] = 0;
+                depth += 1;
+            } else {
+                // A node is processed when it does not have any more children to be processed.
+                depth -= 1;
+                stack[depth] = null;
+                // Root is T and we are sure that all its descendants are T.
+                @SuppressWarnings("unchecked")
+                final T node = (T) current;
+                action.accept(node);
+            }
         }
+    }
 
-        @Override
-        public Entry<T> next() {
-            return new Entry<>(children.next());
+    /**
+     * Pushes a node to the stack.
+     *
+     * @param node the node.
+     */
+    private void push(final Node node) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, 2 * size);
+            next = Arrays.copyOf(next, 2 * size);
         }
+        nodes[size] = node;
+        next[size] = 0;
+        size += 1;
     }
 
 }
@@ -0,0 +1,171 @@
+package org.cqfn.patternika.ast.iterator;
+
+import org.cqfn.patternika.ast.Node;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator that traverses a node tree in the depth-first order (postorder), the same order
+ * as {@link DepthFirstIterator}, and splits it by subtrees.
+ * <p>
+ * The spliterator keeps a stack of pending items. An item is a node, which subtree
+ * is to be traversed, or an expanded node, which is to be returned after its children.
+ * Splitting gives away the upper half of the stack, i.e. the prefix of the traversal.
+ * <p>
+ * The number of nodes is not known in advance, so the size is an estimate,
+ * which is divided in halves on each split.
+ *
+ * @param <T> Exact node type, {@link Node} or its subclass.
+ *
+ * @since 2021/03/23
+ */
+public class DepthFirstSpliterator<T extends Node> implements Spliterator<T> {
+    /** Initial capacity of the stack. */
+    private static final int CAPACITY = 16;
+
+    /** Stack of pending nodes (the top is at the end). */
+    private Node[] nodes;
+
+    /** Flags that state whether the children of nodes in the stack are already pushed. */
+    private boolean[] expanded;
+
+    /** Size of the stack. */
+    private int size;
+
+    /** Estimated number of nodes to be traversed. */
+    private long estimate;
+
+    /**
+     * Main constructor.
+     *
+     * @param root the node tree root.
+     * @param estimate the estimated number of nodes in the tree ({@link Long#MAX_VALUE}
+     *        if unknown).
+     */
+    public DepthFirstSpliterator(final T root, final long estimate) {
+        this(CAPACITY, estimate);
+        push(Objects.requireNonNull(root), false);
+    }
+
+    /**
+     * Additional constructor for a tree with an unknown number of nodes.
+     *
+     * @param root the node tree root.
+     */
+    public DepthFirstSpliterator(final T root) {
+        this(root, Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructor for an empty spliterator, which is filled when another one is split.
+     *
+     * @param capacity the initial capacity of the stack.
+     * @param estimate the estimated number of nodes.
+     */
+    private DepthFirstSpliterator(final int capacity, final long estimate) {
+        this.nodes = new Node[capacity];
+        this.expanded = new boolean[capacity];
+        this.estimate = estimate;
+    }
+
+    /**
+     * Performs the action for the next node if there is any.
+     *
+     * @param action the action.
+     * @return {@code false} if there are no more nodes or {@code true} otherwise.
+     */
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> action) {
+        Objects.requireNonNull(action);
+        while (size > 0) {
+            if (expanded[size - 1] || nodes[size - 1].getChildCount() == 0) {
+                size -= 1;
+                // Root is T and we are sure that all its descendants are T.
+                @SuppressWarnings("unchecked")
+                final T node = (T) nodes[size];
+                nodes[size] = null;
+                action.accept(node);
+                return true;
+            }
+            expandTop();
+        }
+        return false;
+    }
+
+    /**
+     * Splits the traversal by subtrees: the returned spliterator covers the prefix.
+     *
+     * @return the spliterator for the prefix of the traversal or {@code null}
+     *         if it cannot be split.
+     */
+    @Override
+    public Spliterator<T> trySplit() {
+        if (size == 1 && !expanded[0]) {
+            expandTop();
+        }
+        if (size < 2) {
+            return null;
+        }
+        final int half = size / 2;
+        final DepthFirstSpliterator<T> prefix =
+            new DepthFirstSpliterator<>(Math.max(half, CAPACITY), estimate >>> 1);
+        System.arraycopy(nodes, size - half, prefix.nodes, 0, half);
+        System.arraycopy(expanded, size - half, prefix.expanded, 0, half);
+        prefix.size = half;
+        Arrays.fill(nodes, size - half, size, null);
+        size -= half;
+        estimate -= prefix.estimate;
+        return prefix;
+    }
+
+    /**
+     * Returns the estimated number of nodes to be traversed.
+     *
+     * @return the estimate.
+     */
+    @Override
+    public long estimateSize() {
+        return size == 0 ? 0 : estimate;
+    }
+
+    /**
+     * Returns characteristics of the spliterator.
+     *
+     * @return the characteristics.
+     */
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    /**
+     * Replaces the node on the top of the stack with the expanded node and its children.
+     */
+    private void expandTop() {
+        final Node node = nodes[size - 1];
+        expanded[size - 1] = true;
+        for (int index = node.getChildCount() - 1; index >= 0; --index) {
+            push(Objects.requireNonNull(node.getChild(index)), false);
+        }
+    }
+
+    /**
+     * Pushes an item to the stack.
+     *
+     * @param node the node.
+     * @param isExpanded the flag that states whether children of the node are already pushed.
+     */
+    private void push(final Node node, final boolean isExpanded) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, 2 * size);
+            expanded = Arrays.copyOf(expanded, 2 * size);
+        }
+        nodes[size] = node;
+        expanded[size] = isExpanded;
+        size += 1;
+    }
+
+}
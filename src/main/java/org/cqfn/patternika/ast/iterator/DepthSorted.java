@@ -1,6 +1,7 @@
 package org.cqfn.patternika.ast.iterator;
 
 import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.ast.TreeIndex;
 import org.cqfn.patternika.util.DoubleListIterator;
 import org.cqfn.patternika.util.ReversedListIterator;
 
@@ -15,7 +16,7 @@ import java.util.List;
  * A depth means the maximal distance from the current root node to a leaf node.
  * <p>
  * Complexity is O(N), where N is the total number of nodes in the tree.
- * Sorting by depth is based on a partition sort.
+ * Sorting by depth is based on a partition sort, depths are taken from a {@link TreeIndex}.
  *
  * @param <T> Exact node type, {@link Node} or its subclass.
  *
@@ -26,39 +27,33 @@ public class DepthSorted<T extends Node> implements Iterable<T> {
     private final List<List<T>> nodesByDepth;
 
     /** Total count of nodes in the tree. */
-    private int nodeCount;
+    private final int nodeCount;
 
     /**
-     * Constructor.
+     * Additional constructor that builds an index of the node tree.
      *
      * @param root the node tree root.
      */
     public DepthSorted(final T root) {
-        this.nodesByDepth = new ArrayList<>();
-        this.nodeCount = 0;
-        addNodes(root);
+        this(new TreeIndex<>(root));
     }
 
-    private int addNodes(final T root) {
-        int depth = 0;
-        for (final T child : new Children<>(root)) {
-            depth = Math.max(depth, addNodes(child));
+    /**
+     * Main constructor that takes depths (heights of subtrees) from a tree index.
+     *
+     * @param index the index of the node tree.
+     */
+    public DepthSorted(final TreeIndex<T> index) {
+        this.nodesByDepth = new ArrayList<>();
+        for (int depth = index.getHeight(index.getNode(0)); depth >= 0; --depth) {
+            nodesByDepth.add(new ArrayList<>());
         }
-        addNode(depth, root);
-        return depth + 1;
-    }
-
-    private void addNode(final int depth, final T node) {
-        final List<T> nodes;
-        // Depth is always increased by 1 as addNodes returns from a recursive call.
-        if (depth == nodesByDepth.size()) {
-            nodes = new ArrayList<>();
-            nodesByDepth.add(nodes);
-        } else {
-            nodes = nodesByDepth.get(depth);
+        // Nodes with the same depth are not ancestors of each other,
+        // so their preorder is the same as their postorder.
+        for (final T node : index.getNodes()) {
+            nodesByDepth.get(index.getHeight(node)).add(node);
         }
-        nodes.add(node);
-        nodeCount++;
+        this.nodeCount = index.getNodeCount();
     }
 
     /**
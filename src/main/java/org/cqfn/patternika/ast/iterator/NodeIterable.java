@@ -6,6 +6,8 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
@@ -26,17 +28,49 @@ public class NodeIterable<T extends Node> implements Iterable<T> {
     /** Factory function to create an iterator for the node tree. */
     private final Function<T, Iterator<T>> iteratorFactory;
 
+    /** Function that performs an action for each node of the tree without an iterator. */
+    private final BiConsumer<T, Consumer<? super T>> traversal;
+
     /**
-     * Constructor.
+     * Main constructor.
      *
      * @param root root of the node tree to be iterated, not {@code null}.
      * @param iteratorFactory function to create an iterator for the node tree, not {@code null}.
+     * @param traversal function that performs an action for each node of the tree
+     *        in the same order as the iterator, not {@code null}.
      */
     public NodeIterable(
             final T root,
-            final Function<T, Iterator<T>> iteratorFactory) {
+            final Function<T, Iterator<T>> iteratorFactory,
+            final BiConsumer<T, Consumer<? super T>> traversal) {
         this.root = Objects.requireNonNull(root);
         this.iteratorFactory = Objects.requireNonNull(iteratorFactory);
+        this.traversal = Objects.requireNonNull(traversal);
+    }
+
+    /**
+     * Additional constructor, the traversal uses the iterator.
+     *
+     * @param root root of the node tree to be iterated, not {@code null}.
+     * @param iteratorFactory function to create an iterator for the node tree, not {@code null}.
+     */
+    public NodeIterable(
+            final T root,
+            final Function<T, Iterator<T>> iteratorFactory) {
+        this(
+            root,
+            iteratorFactory,
+            (node, action) -> iteratorFactory.apply(node).forEachRemaining(action)
+        );
+    }
+
+    /**
+     * Returns the root of the node tree to be iterated.
+     *
+     * @return the tree root.
+     */
+    public T getRoot() {
+        return root;
     }
 
     /**
@@ -49,6 +83,17 @@ public class NodeIterable<T extends Node> implements Iterable<T> {
         return iteratorFactory.apply(root);
     }
 
+    /**
+     * Performs an action for each node of the tree (internal iteration
+     * that avoids the iterator protocol).
+     *
+     * @param action the action.
+     */
+    @Override
+    public void forEach(final Consumer<? super T> action) {
+        traversal.accept(root, Objects.requireNonNull(action));
+    }
+
     /**
      * Creates and returns a modifiable list of iterated nodes.
      *
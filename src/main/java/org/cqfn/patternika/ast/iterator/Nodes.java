@@ -0,0 +1,60 @@
+package org.cqfn.patternika.ast.iterator;
+
+import org.cqfn.patternika.ast.Node;
+
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Utility methods that create streams of nodes of node trees.
+ * <p>
+ * Streams are based on spliterators that split trees by subtrees, so parallel streams
+ * process different subtrees in different threads. Nodes must be safe for concurrent reading.
+ * Note that {@link org.cqfn.patternika.ast.NodeExt} creates its children lazily, so actions
+ * of a parallel stream over such nodes must not access nodes other than the current one
+ * and its children.
+ *
+ * @since 2021/03/23
+ */
+public final class Nodes {
+    /** Private constructor. */
+    private Nodes() { }
+
+    /**
+     * Creates a stream of nodes of a tree in the depth-first order (postorder).
+     *
+     * @param root the node tree root.
+     * @param parallel {@code true} for a parallel stream or {@code false} for a sequential one.
+     * @param <T> Exact node type, {@link Node} or its subclass.
+     * @return the stream.
+     */
+    public static <T extends Node> Stream<T> stream(final T root, final boolean parallel) {
+        return StreamSupport.stream(new DepthFirstSpliterator<>(root), parallel);
+    }
+
+    /**
+     * Creates a stream of nodes of a tree in the breadth-first order.
+     * Parallel streams do not keep the order.
+     *
+     * @param root the node tree root.
+     * @param parallel {@code true} for a parallel stream or {@code false} for a sequential one.
+     * @param <T> Exact node type, {@link Node} or its subclass.
+     * @return the stream.
+     */
+    public static <T extends Node> Stream<T> breadthFirst(final T root, final boolean parallel) {
+        return StreamSupport.stream(new BreadthFirstSpliterator<>(root), parallel);
+    }
+
+    /**
+     * Creates a stream of node children.
+     *
+     * @param parent the parent node.
+     * @param parallel {@code true} for a parallel stream or {@code false} for a sequential one.
+     * @param <T> Exact node type, {@link Node} or its subclass.
+     * @return the stream.
+     */
+    public static <T extends Node> Stream<T> children(final T parent, final boolean parallel) {
+        return StreamSupport.stream(new ChildrenSpliterator<>(parent), parallel);
+    }
+
+}
@@ -7,6 +7,9 @@
  * Also, to facilitate use of iterators, related {@code Iterable} implementations are provided.
  * They can be used in for loops and utility additional methods to deal with iterators (e.g.
  * dumping items to a collection if needed).
+ * <p>
+ * Spliterators split node trees by subtrees, so nodes can be processed with (parallel)
+ * streams created by {@link org.cqfn.patternika.ast.iterator.Nodes}.
  *
  * @since 2020/11/19
  */
@@ -0,0 +1,18 @@
+package org.cqfn.patternika.ast.mapper;
+
+/**
+ * Modes of aligning unconnected children by similarity hashes in the linear phase
+ * of {@link Downstairs}.
+ *
+ * @since 2021/03/23
+ */
+public enum Alignment {
+    /** Children are compared position by position. */
+    POSITIONAL,
+    /**
+     * Children are aligned as in the patience diff: children with hashes that are unique
+     * on both sides are used as anchors, the longest sequence of anchors in the same order
+     * is connected and gaps between anchors are aligned recursively.
+     */
+    PATIENCE
+}
@@ -0,0 +1,364 @@
+package org.cqfn.patternika.ast.mapper;
+
+import org.cqfn.patternika.ast.NodeExt;
+import org.cqfn.patternika.ast.hash.Hash;
+import org.cqfn.patternika.ast.hash.SimilarityHash;
+import org.cqfn.patternika.ast.iterator.Children;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Mapper for Node objects that partitions trees into unchanged and changed parts
+ * before mapping them with the Greed logic.
+ * <p>
+ * Before other phases, the mapper anchors the upper levels of the trees (by default,
+ * top-level declarations and their members). Children with similarity hashes that are unique
+ * among their siblings on both sides are taken for identical subtrees: they are connected
+ * in a single walk that also checks that the nodes are equal, so a hash collision only rolls
+ * back the connections. Remaining children with types that are unique among their siblings
+ * contain changes: they are connected to each other and their children are anchored in the
+ * same way. Then the Greed phases ({@link Downstairs} and {@link WeakChain}) process only
+ * nodes outside the identical subtrees, so the mapping cost depends on the size of changes
+ * rather than on the size of trees.
+ *
+ * @since 2021/03/23
+ */
+public class AnchoredMapper implements Mapper<NodeExt> {
+    /** Default number of anchored tree levels (top-level declarations and their members). */
+    public static final int DEFAULT_LEVELS = 2;
+
+    /** First node tree root. */
+    private final NodeExt root1;
+
+    /** Second node tree root. */
+    private final NodeExt root2;
+
+    /** Listener notified about mapping phases and events. */
+    private final MappingListener listener;
+
+    /** Budget that limits the time and the number of operations of mapping. */
+    private final Budget budget;
+
+    /** Number of anchored tree levels below the roots. */
+    private final int levels;
+
+    /**
+     * Main constructor.
+     *
+     * @param root1 first node tree to be mapped.
+     * @param root2 second node tree to be mapped.
+     * @param listener listener notified about mapping phases and events.
+     * @param budget budget that limits mapping, the mapping is partial if it is exhausted.
+     * @param levels number of anchored tree levels below the roots.
+     * @throws IllegalArgumentException if the number of levels is not positive.
+     */
+    public AnchoredMapper(
+            final NodeExt root1,
+            final NodeExt root2,
+            final MappingListener listener,
+            final Budget budget,
+            final int levels) {
+        if (levels <= 0) {
+            throw new IllegalArgumentException("Number of levels must be positive: " + levels);
+        }
+        this.root1 = Objects.requireNonNull(root1);
+        this.root2 = Objects.requireNonNull(root2);
+        this.listener = Objects.requireNonNull(listener);
+        this.budget = Objects.requireNonNull(budget);
+        this.levels = levels;
+    }
+
+    /**
+     * Additional constructor for a mapper that anchors the default number of levels.
+     *
+     * @param root1 first node tree to be mapped.
+     * @param root2 second node tree to be mapped.
+     * @param listener listener notified about mapping phases and events.
+     * @param budget budget that limits mapping, the mapping is partial if it is exhausted.
+     */
+    public AnchoredMapper(
+            final NodeExt root1,
+            final NodeExt root2,
+            final MappingListener listener,
+            final Budget budget) {
+        this(root1, root2, listener, budget, DEFAULT_LEVELS);
+    }
+
+    /**
+     * Additional constructor for a mapper with an unlimited budget.
+     *
+     * @param root1 first node tree to be mapped.
+     * @param root2 second node tree to be mapped.
+     * @param listener listener notified about mapping phases and events.
+     */
+    public AnchoredMapper(
+            final NodeExt root1,
+            final NodeExt root2,
+            final MappingListener listener) {
+        this(root1, root2, listener, Budget.UNLIMITED);
+    }
+
+    /**
+     * Additional constructor for a mapper without a listener.
+     *
+     * @param root1 first node tree to be mapped.
+     * @param root2 second node tree to be mapped.
+     */
+    public AnchoredMapper(final NodeExt root1, final NodeExt root2) {
+        this(root1, root2, MappingListener.NONE);
+    }
+
+    /**
+     * Builds a mapping.
+     *
+     * @return container with mappings between the two node trees.
+     */
+    @Override
+    public Mapping<NodeExt> buildMapping() {
+        final Mapping<NodeExt> mapping = new HashMapping<>();
+        final Hash similarity = new SimilarityHash(listener);
+        final Downstairs downstairs = new Downstairs(mapping, similarity, listener, budget);
+        final WeakChain weakChain = new WeakChain(mapping, listener);
+        // Connects identical subtrees and finds containers of changes.
+        listener.phaseStarted(MappingPhase.ANCHOR);
+        final Anchors anchors = new Anchors(mapping, similarity);
+        anchors.anchor(root1, root2, levels);
+        listener.phaseFinished(MappingPhase.ANCHOR);
+        // Builds connections starting from containers of changes (a fast way).
+        listener.phaseStarted(MappingPhase.CONNECT_ROOTS);
+        for (final NodeExt container : anchors.containers) {
+            downstairs.connect(container);
+        }
+        listener.phaseFinished(MappingPhase.CONNECT_ROOTS);
+        // Adds additional connections where possible (outside identical subtrees).
+        listener.phaseStarted(MappingPhase.COLLECT_NODES);
+        final List<NodeExt> nodes = anchors.collectChanged(root1);
+        listener.phaseFinished(MappingPhase.COLLECT_NODES);
+        listener.phaseStarted(MappingPhase.CONNECT_ALL);
+        downstairs.connectAll(nodes);
+        listener.phaseFinished(MappingPhase.CONNECT_ALL);
+        // Remove weak chain connections.
+        listener.phaseStarted(MappingPhase.WEAK_CHAIN);
+        weakChain.disconnect(nodes);
+        listener.phaseFinished(MappingPhase.WEAK_CHAIN);
+        return mapping;
+    }
+
+    /**
+     * Anchors identical subtrees and containers of changes.
+     */
+    private final class Anchors {
+        /** Mapping to be extended. */
+        private final Mapping<NodeExt> mapping;
+
+        /** Calculates a similarity hash for nodes. */
+        private final Hash similarity;
+
+        /** Roots of connected identical subtrees of the first tree. */
+        private final Set<NodeExt> identical = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        /** Connected containers of changes of the first tree in the pre-order. */
+        private final List<NodeExt> containers = new ArrayList<>();
+
+        /**
+         * Constructor.
+         *
+         * @param mapping the mapping to be extended.
+         * @param similarity calculates a similarity hash for nodes.
+         */
+        private Anchors(final Mapping<NodeExt> mapping, final Hash similarity) {
+            this.mapping = mapping;
+            this.similarity = similarity;
+        }
+
+        /**
+         * Connects the roots of two trees and anchors their children.
+         *
+         * @param node1 the first root.
+         * @param node2 the second root.
+         * @param depth number of levels to be anchored below the roots.
+         */
+        private void anchor(final NodeExt node1, final NodeExt node2, final int depth) {
+            if (!node1.getType().equals(node2.getType())) {
+                return;
+            }
+            if (similarity.isHashEqual(node1, node2) && connectIdentical(node1, node2)) {
+                return;
+            }
+            mapping.connect(node1, node2);
+            listener.connected(ConnectionKind.ROOT);
+            containers.add(node1);
+            anchorChildren(node1, node2, depth - 1);
+        }
+
+        /**
+         * Anchors children of two connected containers of changes.
+         *
+         * @param node1 the first container.
+         * @param node2 the second container.
+         * @param depth number of levels to be anchored below the children.
+         */
+        private void anchorChildren(final NodeExt node1, final NodeExt node2, final int depth) {
+            final List<NodeExt> children1 = new ArrayList<>();
+            final List<NodeExt> children2 = new ArrayList<>();
+            for (final NodeExt child : new Children<>(node1)) {
+                children1.add(child);
+            }
+            for (final NodeExt child : new Children<>(node2)) {
+                children2.add(child);
+            }
+            final Map<Integer, NodeExt> hashes1 = getUnique(children1, similarity::getHash);
+            final Map<Integer, NodeExt> hashes2 = getUnique(children2, similarity::getHash);
+            for (final Map.Entry<Integer, NodeExt> entry : hashes1.entrySet()) {
+                final NodeExt child2 = hashes2.get(entry.getKey());
+                if (child2 != null) {
+                    connectIdentical(entry.getValue(), child2);
+                }
+            }
+            if (depth > 0) {
+                children1.removeIf(mapping::contains);
+                children2.removeIf(mapping::contains);
+                final Map<String, NodeExt> types1 = getUnique(children1, NodeExt::getType);
+                final Map<String, NodeExt> types2 = getUnique(children2, NodeExt::getType);
+                for (final Map.Entry<String, NodeExt> entry : types1.entrySet()) {
+                    final NodeExt child2 = types2.get(entry.getKey());
+                    if (child2 != null) {
+                        mapping.connect(entry.getValue(), child2);
+                        listener.connected(ConnectionKind.UNIQUE_TYPE);
+                        containers.add(entry.getValue());
+                        anchorChildren(entry.getValue(), child2, depth - 1);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Connects all nodes of two subtrees with equal hashes while comparing them node
+         * by node (types, data and child counts). If the subtrees differ (a hash collision),
+         * the connections are rolled back, and the subtrees are treated as changed.
+         *
+         * @param node1 the first subtree root.
+         * @param node2 the second subtree root.
+         * @return {@code true} if the subtrees are identical and connected,
+         *         {@code false} otherwise.
+         */
+        private boolean connectIdentical(final NodeExt node1, final NodeExt node2) {
+            final Deque<NodeExt> stack1 = new ArrayDeque<>();
+            final Deque<NodeExt> stack2 = new ArrayDeque<>();
+            stack1.push(node1);
+            stack2.push(node2);
+            long count = 0;
+            while (!stack1.isEmpty()) {
+                final NodeExt current1 = stack1.pop();
+                final NodeExt current2 = stack2.pop();
+                if (!isEqual(current1, current2)) {
+                    disconnectIdentical(node1);
+                    return false;
+                }
+                mapping.connect(current1, current2);
+                count += 1;
+                for (int index = 0; index < current1.getChildCount(); ++index) {
+                    stack1.push(current1.getChild(index));
+                    stack2.push(current2.getChild(index));
+                }
+            }
+            identical.add(node1);
+            listener.connected(ConnectionKind.ANCHOR, count);
+            return true;
+        }
+
+        /**
+         * Removes connections of a subtree made by an interrupted connection of identical
+         * subtrees. A node is connected only after its parent, so only children of
+         * connected nodes are visited.
+         *
+         * @param root the subtree root.
+         */
+        private void disconnectIdentical(final NodeExt root) {
+            final Deque<NodeExt> stack = new ArrayDeque<>();
+            if (mapping.contains(root)) {
+                stack.push(root);
+            }
+            while (!stack.isEmpty()) {
+                final NodeExt current = stack.pop();
+                mapping.disconnect(current);
+                for (final NodeExt child : new Children<>(current)) {
+                    if (mapping.contains(child)) {
+                        stack.push(child);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Collects nodes of the first tree that do not belong to identical subtrees
+         * in the breadth-first order.
+         *
+         * @param root the first tree root.
+         * @return the list of nodes.
+         */
+        private List<NodeExt> collectChanged(final NodeExt root) {
+            final List<NodeExt> result = new ArrayList<>();
+            if (!identical.contains(root)) {
+                result.add(root);
+            }
+            for (int index = 0; index < result.size(); ++index) {
+                for (final NodeExt child : new Children<>(result.get(index))) {
+                    if (!identical.contains(child)) {
+                        result.add(child);
+                    }
+                }
+            }
+            return result;
+        }
+
+    }
+
+    /**
+     * Checks whether two nodes have equal types, data and child counts.
+     *
+     * @param node1 the first node.
+     * @param node2 the second node.
+     * @return {@code true} or {@code false}.
+     */
+    private static boolean isEqual(final NodeExt node1, final NodeExt node2) {
+        return node1.getType().equals(node2.getType())
+            && Objects.equals(node1.getData(), node2.getData())
+            && node1.getChildCount() == node2.getChildCount();
+    }
+
+    /**
+     * Returns nodes with unique keys.
+     *
+     * @param nodes the nodes.
+     * @param key calculates keys of nodes.
+     * @param <K> the type of keys.
+     * @return the map from keys to nodes, which contains only keys that occur once.
+     */
+    private static <K> Map<K, NodeExt> getUnique(
+            final List<NodeExt> nodes,
+            final Function<NodeExt, K> key) {
+        final Map<K, NodeExt> result = new LinkedHashMap<>();
+        final Set<K> duplicates = new HashSet<>();
+        for (final NodeExt node : nodes) {
+            final K value = key.apply(node);
+            if (!duplicates.contains(value) && result.put(value, node) != null) {
+                duplicates.add(value);
+            }
+        }
+        result.keySet().removeAll(duplicates);
+        return result;
+    }
+
+}
@@ -0,0 +1,93 @@
+package org.cqfn.patternika.ast.mapper;
+
+import org.cqfn.patternika.ast.NodeExt;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Mapper that limits the time and the number of operations of another mapper.
+ * <p>
+ * Each call of {@link #buildMapping()} creates a new {@link Budget} and passes it
+ * to the wrapped mapper. If the budget is exhausted (or the current thread is interrupted),
+ * the wrapped mapper stops and the best mapping found so far is returned.
+ * Such mapping is marked as partial (see {@link #build()}).
+ * This gives predictable latency for pathological trees at the cost of completeness.
+ *
+ * @since 2021/03/22
+ */
+public class BoundedMapper implements Mapper<NodeExt> {
+    /** Creates the wrapped mapper for a budget. */
+    private final Function<Budget, Mapper<NodeExt>> factory;
+
+    /** Time limit. */
+    private final long timeLimit;
+
+    /** Unit of the time limit. */
+    private final TimeUnit unit;
+
+    /** Maximal number of operations. */
+    private final long operationLimit;
+
+    /**
+     * Main constructor.
+     *
+     * @param factory creates the wrapped mapper for a budget, for example,
+     *        {@code budget -> new GreedMapper(root1, root2, MappingListener.NONE, budget)}.
+     * @param timeLimit the time limit.
+     * @param unit the unit of the time limit.
+     * @param operationLimit the maximal number of operations (visited nodes and compared
+     *        node pairs).
+     */
+    public BoundedMapper(
+            final Function<Budget, Mapper<NodeExt>> factory,
+            final long timeLimit,
+            final TimeUnit unit,
+            final long operationLimit) {
+        if (timeLimit < 0 || operationLimit < 0) {
+            throw new IllegalArgumentException("Mapping limits must not be negative!");
+        }
+        this.factory = Objects.requireNonNull(factory);
+        this.timeLimit = timeLimit;
+        this.unit = Objects.requireNonNull(unit);
+        this.operationLimit = operationLimit;
+    }
+
+    /**
+     * Additional constructor for a mapper limited only by time.
+     *
+     * @param factory creates the wrapped mapper for a budget.
+     * @param timeLimit the time limit.
+     * @param unit the unit of the time limit.
+     */
+    public BoundedMapper(
+            final Function<Budget, Mapper<NodeExt>> factory,
+            final long timeLimit,
+            final TimeUnit unit) {
+        this(factory, timeLimit, unit, Long.MAX_VALUE);
+    }
+
+    /**
+     * Builds a mapping within the limits.
+     *
+     * @return container with mappings between the two node trees (can be partial).
+     */
+    @Override
+    public Mapping<NodeExt> buildMapping() {
+        return build().getMapping();
+    }
+
+    /**
+     * Builds a mapping within the limits and checks whether it is partial.
+     * The mapper can be used by several threads, as each call has its own budget.
+     *
+     * @return the mapping with the flag that states whether it is partial.
+     */
+    public MappingResult<NodeExt> build() {
+        final Budget budget = new Budget(timeLimit, unit, operationLimit);
+        final Mapping<NodeExt> mapping = factory.apply(budget).buildMapping();
+        return new MappingResult<>(mapping, budget.isExhausted());
+    }
+
+}
@@ -0,0 +1,130 @@
+package org.cqfn.patternika.ast.mapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Budget of a mapping algorithm that limits its time and the number of its operations.
+ * <p>
+ * Algorithms check the budget cooperatively: they call {@link #spend()} for each operation
+ * (a visited node or a compared pair of nodes) and stop as soon as the budget is exhausted,
+ * keeping connections made so far. The budget is also exhausted if the current thread
+ * is interrupted. The clock is checked once per {@link #CHECK_PERIOD} operations.
+ * <p>
+ * A budget is started on creation, it is single-use and not thread-safe.
+ *
+ * @since 2021/03/22
+ */
+public final class Budget {
+    /** Budget that is never exhausted (does not count operations and ignores interrupts). */
+    public static final Budget UNLIMITED = new Budget(0, TimeUnit.NANOSECONDS, 0, false);
+
+    /** Number of operations between checks of the clock and the interrupted status. */
+    public static final int CHECK_PERIOD = 256;
+
+    /** Flag that states whether the budget has limits. */
+    private final boolean limited;
+
+    /** Time limit in nanoseconds. */
+    private final long timeLimit;
+
+    /** Maximal number of operations. */
+    private final long operationLimit;
+
+    /** Time when the budget was started (in nanoseconds). */
+    private final long start;
+
+    /** Number of spent operations. */
+    private long operations;
+
+    /** Flag that states whether the budget is exhausted. */
+    private boolean exhausted;
+
+    /**
+     * Main constructor.
+     *
+     * @param timeLimit the time limit.
+     * @param unit the unit of the time limit.
+     * @param operationLimit the maximal number of operations.
+     * @param limited the flag that states whether the budget has limits.
+     */
+    private Budget(
+            final long timeLimit,
+            final TimeUnit unit,
+            final long operationLimit,
+            final boolean limited) {
+        if (timeLimit < 0 || operationLimit < 0) {
+            throw new IllegalArgumentException("Budget limits must not be negative!");
+        }
+        this.limited = limited;
+        this.timeLimit = unit.toNanos(timeLimit);
+        this.operationLimit = operationLimit;
+        this.start = System.nanoTime();
+    }
+
+    /**
+     * Additional constructor for a budget limited by time and by the number of operations.
+     *
+     * @param timeLimit the time limit.
+     * @param unit the unit of the time limit.
+     * @param operationLimit the maximal number of operations.
+     */
+    public Budget(final long timeLimit, final TimeUnit unit, final long operationLimit) {
+        this(timeLimit, unit, operationLimit, true);
+    }
+
+    /**
+     * Additional constructor for a budget limited only by time.
+     *
+     * @param timeLimit the time limit.
+     * @param unit the unit of the time limit.
+     */
+    public Budget(final long timeLimit, final TimeUnit unit) {
+        this(timeLimit, unit, Long.MAX_VALUE);
+    }
+
+    /**
+     * Spends one operation of the budget.
+     *
+     * @return {@code true} if the operation can be performed
+     *         or {@code false} if the budget is exhausted.
+     */
+    public boolean spend() {
+        if (!limited) {
+            return true;
+        }
+        if (!exhausted) {
+            operations += 1;
+            exhausted = operations > operationLimit
+                || operations % CHECK_PERIOD == 1 && isOutOfTime();
+        }
+        return !exhausted;
+    }
+
+    /**
+     * Checks whether the budget is exhausted (the mapping algorithm has been stopped).
+     *
+     * @return {@code true} or {@code false}.
+     */
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    /**
+     * Returns the number of spent operations.
+     *
+     * @return the operation count.
+     */
+    public long getOperations() {
+        return operations;
+    }
+
+    /**
+     * Checks whether the time limit is exceeded or the current thread is interrupted.
+     *
+     * @return {@code true} or {@code false}.
+     */
+    private boolean isOutOfTime() {
+        return System.nanoTime() - start > timeLimit || Thread.currentThread().isInterrupted();
+    }
+
+}
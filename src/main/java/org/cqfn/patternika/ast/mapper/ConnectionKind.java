@@ -0,0 +1,26 @@
+package org.cqfn.patternika.ast.mapper;
+
+/**
+ * Kinds of connections made by {@link Downstairs} and {@link AnchoredMapper}
+ * (by the criterion that found the pair).
+ *
+ * @since 2021/03/21
+ */
+public enum ConnectionKind {
+    /** Roots of the trees (their types are equal). */
+    ROOT,
+    /** Children in the same order with equal similarity hashes. */
+    LINEAR_HASH,
+    /** Children in any order with equal similarity hashes. */
+    PRODUCT_HASH,
+    /** Children in any order that match each other. */
+    MATCHES,
+    /** Children in the same order with equal types and child counts. */
+    TYPE_AND_CHILD_COUNT,
+    /** Nodes of identical subtrees with unique similarity hashes among their siblings. */
+    ANCHOR,
+    /** Children with equal types that are unique among their siblings. */
+    UNIQUE_TYPE,
+    /** Children with equal similarity hashes aligned as in the patience diff. */
+    PATIENCE_HASH
+}
@@ -4,15 +4,20 @@ import org.cqfn.patternika.ast.NodeExt;
 import org.cqfn.patternika.ast.hash.Hash;
 import org.cqfn.patternika.ast.iterator.Children;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.BiPredicate;
+import java.util.function.Consumer;
 
 /**
  * Implements the algorithm that tries to extend mapping
  * for given subtree by throwing down connection if possible.
+ * <p>
+ * Each visited node and each compared pair of nodes spends an operation of the budget.
+ * When the budget is exhausted, the algorithm stops and keeps the connections made so far.
  *
  * @since 2020/12/25
  */
@@ -23,15 +28,82 @@ public class Downstairs {
     /** Calculates a similarity hash for nodes. */
     private final Hash similarity;
 
+    /** Listener notified about visited nodes and connections. */
+    private final MappingListener listener;
+
+    /** Budget that limits the number of visited nodes and compared node pairs. */
+    private final Budget budget;
+
+    /** Mode of aligning children by similarity hashes in the linear phase. */
+    private final Alignment alignment;
+
     /**
-     * Constructor.
+     * Main constructor.
      *
      * @param mapping the mapping to be extended, not {@code null}.
      * @param similarity calculates a similarity hash for nodes, not {@code null}.
+     * @param listener the listener notified about visited nodes and connections,
+     *        not {@code null}.
+     * @param budget the budget, the algorithm stops extending the mapping
+     *        when it is exhausted, not {@code null}.
+     * @param alignment the mode of aligning children by similarity hashes
+     *        in the linear phase, not {@code null}.
      */
-    public Downstairs(final Mapping<NodeExt> mapping, final Hash similarity) {
+    public Downstairs(
+            final Mapping<NodeExt> mapping,
+            final Hash similarity,
+            final MappingListener listener,
+            final Budget budget,
+            final Alignment alignment) {
         this.mapping = Objects.requireNonNull(mapping);
         this.similarity = Objects.requireNonNull(similarity);
+        this.listener = Objects.requireNonNull(listener);
+        this.budget = Objects.requireNonNull(budget);
+        this.alignment = Objects.requireNonNull(alignment);
+    }
+
+    /**
+     * Additional constructor for the algorithm that compares children position by position
+     * in the linear phase.
+     *
+     * @param mapping the mapping to be extended, not {@code null}.
+     * @param similarity calculates a similarity hash for nodes, not {@code null}.
+     * @param listener the listener notified about visited nodes and connections,
+     *        not {@code null}.
+     * @param budget the budget, the algorithm stops extending the mapping
+     *        when it is exhausted, not {@code null}.
+     */
+    public Downstairs(
+            final Mapping<NodeExt> mapping,
+            final Hash similarity,
+            final MappingListener listener,
+            final Budget budget) {
+        this(mapping, similarity, listener, budget, Alignment.POSITIONAL);
+    }
+
+    /**
+     * Additional constructor for the algorithm with an unlimited budget.
+     *
+     * @param mapping the mapping to be extended, not {@code null}.
+     * @param similarity calculates a similarity hash for nodes, not {@code null}.
+     * @param listener the listener notified about visited nodes and connections,
+     *        not {@code null}.
+     */
+    public Downstairs(
+            final Mapping<NodeExt> mapping,
+            final Hash similarity,
+            final MappingListener listener) {
+        this(mapping, similarity, listener, Budget.UNLIMITED);
+    }
+
+    /**
+     * Additional constructor for the algorithm without a listener.
+     *
+     * @param mapping the mapping to be extended, not {@code null}.
+     * @param similarity calculates a similarity hash for nodes, not {@code null}.
+     */
+    public Downstairs(final Mapping<NodeExt> mapping, final Hash similarity) {
+        this(mapping, similarity, MappingListener.NONE);
     }
 
     /**
@@ -44,6 +116,7 @@ public class Downstairs {
     public void connect(final NodeExt root1, final NodeExt root2) {
         if (root1.getType().equals(root2.getType())) {
             mapping.connect(root1, root2);
+            listener.connected(ConnectionKind.ROOT);
             connect(root1);
         }
     }
@@ -56,6 +129,10 @@ public class Downstairs {
      */
     public void connectAll(final Iterable<NodeExt> nodes) {
         for (final NodeExt node : nodes) {
+            if (!budget.spend()) {
+                return;
+            }
+            listener.nodeVisited();
             if (!mapping.contains(node)) {
                 connect(node.getParent());
             }
@@ -69,6 +146,32 @@ public class Downstairs {
      * @param root root of the given subtree.
      */
     public void connect(final NodeExt root) {
+        connectChildren(root, this::connect);
+    }
+
+    /**
+     * Tries to connect children of a connected node without descending into them.
+     *
+     * @param root the connected node.
+     * @return the list of connected children of the node.
+     */
+    public List<NodeExt> connectChildren(final NodeExt root) {
+        final List<NodeExt> result = new ArrayList<>();
+        connectChildren(root, result::add);
+        return result;
+    }
+
+    /**
+     * Tries to connect children of a connected node.
+     *
+     * @param root the connected node.
+     * @param onConnected called for every connected child.
+     */
+    private void connectChildren(final NodeExt root, final Consumer<NodeExt> onConnected) {
+        if (!budget.spend()) {
+            return;
+        }
+        listener.nodeVisited();
         final NodeExt corresponding = mapping.get(root);
         if (corresponding == null) {
             return;
@@ -76,20 +179,48 @@ public class Downstairs {
         // let's form list of not connected children.
         final List<NodeExt> notConnected1 = getNotConnectedChildren(root);
         final List<NodeExt> notConnected2 = getNotConnectedChildren(corresponding);
-        // let's try to connect corresponding by order first (by O(N)).
-        connectLinearOrder(notConnected1, notConnected2, similarity::isHashEqual);
+        // let's try to connect corresponding by order first (by O(N) or O(N log N)).
+        if (alignment == Alignment.PATIENCE) {
+            connectPatienceOrder(notConnected1, notConnected2, onConnected);
+        } else {
+            connectLinearOrder(
+                notConnected1,
+                notConnected2,
+                similarity::isHashEqual,
+                ConnectionKind.LINEAR_HASH,
+                onConnected
+            );
+        }
         // and each one with each other if there is something left unconnected (O(N^2))
         if (!notConnected2.isEmpty()) {
-            connectProductOrder(notConnected1, notConnected2, similarity::isHashEqual);
+            connectProductOrder(
+                notConnected1,
+                notConnected2,
+                similarity::isHashEqual,
+                ConnectionKind.PRODUCT_HASH,
+                onConnected
+            );
         }
         // and one with each other but with soft equation if there
         // is something left unconnected (O(N^2))
         if (!notConnected2.isEmpty()) {
-            connectProductOrder(notConnected1, notConnected2, NodeExt::matches);
+            connectProductOrder(
+                notConnected1,
+                notConnected2,
+                NodeExt::matches,
+                ConnectionKind.MATCHES,
+                onConnected
+            );
         }
         // and let's try to connect corresponding by order with the softest equation (by O(N)).
         if (!notConnected2.isEmpty() && notConnected1.size() == notConnected2.size()) {
-            connectLinearOrder(notConnected1, notConnected2, Downstairs::typeAndChildCountMatch);
+            connectLinearOrder(
+                notConnected1,
+                notConnected2,
+                Downstairs::typeAndChildCountMatch,
+                ConnectionKind.TYPE_AND_CHILD_COUNT,
+                onConnected
+            );
         }
     }
 
@@ -129,25 +260,72 @@ public class Downstairs {
      * @param nodes1 first list of unconnected nodes.
      * @param nodes2 second list of unconnected nodes.
      * @param needConnect predicate for checking that nodes need to be connected.
+     * @param kind kind of connections made by the predicate.
+     * @param onConnected called for every connected node of the first list.
      */
     private void connectLinearOrder(
             final Iterable<NodeExt> nodes1,
             final Iterable<NodeExt> nodes2,
-            final BiPredicate<NodeExt, NodeExt> needConnect) {
+            final BiPredicate<NodeExt, NodeExt> needConnect,
+            final ConnectionKind kind,
+            final Consumer<NodeExt> onConnected) {
         final Iterator<NodeExt> it1 = nodes1.iterator();
         final Iterator<NodeExt> it2 = nodes2.iterator();
-        while (it1.hasNext() && it2.hasNext()) {
+        while (it1.hasNext() && it2.hasNext() && budget.spend()) {
             final NodeExt node1 = it1.next();
             final NodeExt node2 = it2.next();
             if (needConnect.test(node1, node2)) {
                 mapping.connect(node1, node2);
-                connect(node1);
+                listener.connected(kind);
+                onConnected.accept(node1);
                 it1.remove();
                 it2.remove();
             }
         }
     }
 
+    /**
+     * Aligns two lists of nodes by similarity hashes as in the patience diff
+     * (see {@link Patience}) and connects aligned pairs of nodes.
+     * Removes the connected nodes from the lists.
+     *
+     * @param nodes1 first list of unconnected nodes.
+     * @param nodes2 second list of unconnected nodes.
+     * @param onConnected called for every connected node of the first list.
+     */
+    private void connectPatienceOrder(
+            final List<NodeExt> nodes1,
+            final List<NodeExt> nodes2,
+            final Consumer<NodeExt> onConnected) {
+        final NodeExt[] array1 = nodes1.toArray(new NodeExt[0]);
+        final NodeExt[] array2 = nodes2.toArray(new NodeExt[0]);
+        final int[] aligned =
+                new Patience(getHashes(array1), getHashes(array2), budget).align();
+        for (int index = 0; index < array1.length && budget.spend(); ++index) {
+            if (aligned[index] >= 0) {
+                mapping.connect(array1[index], array2[aligned[index]]);
+                listener.connected(ConnectionKind.PATIENCE_HASH);
+                onConnected.accept(array1[index]);
+            }
+        }
+        nodes1.removeIf(mapping::contains);
+        nodes2.removeIf(mapping::contains);
+    }
+
+    /**
+     * Returns similarity hashes of nodes.
+     *
+     * @param nodes the nodes.
+     * @return the hashes.
+     */
+    private int[] getHashes(final NodeExt[] nodes) {
+        final int[] result = new int[nodes.length];
+        for (int index = 0; index < nodes.length; ++index) {
+            result[index] = similarity.getHash(nodes[index]);
+        }
+        return result;
+    }
+
     /**
      * Iterates over two collections of nodes in a product order and connects pairs of nodes
      * if they satisfy the predicate. Removes the connected nodes from the lists.
@@ -155,20 +333,28 @@ public class Downstairs {
      * @param nodes1 first list of unconnected nodes.
      * @param nodes2 second list of unconnected nodes.
      * @param needConnect predicate for checking that nodes need to be connected.
+     * @param kind kind of connections made by the predicate.
+     * @param onConnected called for every connected node of the first list.
      */
     private void connectProductOrder(
             final Iterable<NodeExt> nodes1,
             final Iterable<NodeExt> nodes2,
-            final BiPredicate<NodeExt, NodeExt> needConnect) {
+            final BiPredicate<NodeExt, NodeExt> needConnect,
+            final ConnectionKind kind,
+            final Consumer<NodeExt> onConnected) {
         final Iterator<NodeExt> it1 = nodes1.iterator();
         while (it1.hasNext()) {
             final NodeExt child1 = it1.next();
             final Iterator<NodeExt> it2 = nodes2.iterator();
             while (it2.hasNext()) {
+                if (!budget.spend()) {
+                    return;
+                }
                 final NodeExt child2 = it2.next();
                 if (needConnect.test(child1, child2)) {
                     mapping.connect(child1, child2);
-                    connect(child1);
+                    listener.connected(kind);
+                    onConnected.accept(child1);
                     it1.remove();
                     it2.remove();
                     break;
@@ -19,15 +19,75 @@ public class GreedMapper implements Mapper<NodeExt> {
     /** Second node tree root. */
     private final NodeExt root2;
 
+    /** Listener notified about mapping phases and events. */
+    private final MappingListener listener;
+
+    /** Budget that limits the time and the number of operations of mapping. */
+    private final Budget budget;
+
+    /** Mode of aligning children by similarity hashes. */
+    private final Alignment alignment;
+
     /**
-     * Constructor.
+     * Main constructor.
      *
      * @param root1 first node tree to be mapped.
      * @param root2 second node tree to be mapped.
+     * @param listener listener notified about mapping phases and events.
+     * @param budget budget that limits mapping, the mapping is partial if it is exhausted.
+     * @param alignment mode of aligning children by similarity hashes.
      */
-    public GreedMapper(final NodeExt root1, final NodeExt root2) {
+    public GreedMapper(
+            final NodeExt root1,
+            final NodeExt root2,
+            final MappingListener listener,
+            final Budget budget,
+            final Alignment alignment) {
         this.root1 = Objects.requireNonNull(root1);
         this.root2 = Objects.requireNonNull(root2);
+        this.listener = Objects.requireNonNull(listener);
+        this.budget = Objects.requireNonNull(budget);
+        this.alignment = Objects.requireNonNull(alignment);
+    }
+
+    /**
+     * Additional constructor for a mapper that aligns children position by position.
+     *
+     * @param root1 first node tree to be mapped.
+     * @param root2 second node tree to be mapped.
+     * @param listener listener notified about mapping phases and events.
+     * @param budget budget that limits mapping, the mapping is partial if it is exhausted.
+     */
+    public GreedMapper(
+            final NodeExt root1,
+            final NodeExt root2,
+            final MappingListener listener,
+            final Budget budget) {
+        this(root1, root2, listener, budget, Alignment.POSITIONAL);
+    }
+
+    /**
+     * Additional constructor for a mapper with an unlimited budget.
+     *
+     * @param root1 first node tree to be mapped.
+     * @param root2 second node tree to be mapped.
+     * @param listener listener notified about mapping phases and events.
+     */
+    public GreedMapper(
+            final NodeExt root1,
+            final NodeExt root2,
+            final MappingListener listener) {
+        this(root1, root2, listener, Budget.UNLIMITED);
+    }
+
+    /**
+     * Additional constructor for a mapper without a listener.
+     *
+     * @param root1 first node tree to be mapped.
+     * @param root2 second node tree to be mapped.
+     */
+    public GreedMapper(final NodeExt root1, final NodeExt root2) {
+        this(root1, root2, MappingListener.NONE);
     }
 
     /**
@@ -38,15 +98,24 @@ public class GreedMapper implements Mapper<NodeExt> {
     @Override
     public Mapping<NodeExt> buildMapping() {
         final Mapping<NodeExt> mapping = new HashMapping<>();
-        final Downstairs downstairs = new Downstairs(mapping, new SimilarityHash());
-        final WeakChain weakChain = new WeakChain(mapping);
+        final Downstairs downstairs = new Downstairs(
+            mapping, new SimilarityHash(listener), listener, budget, alignment);
+        final WeakChain weakChain = new WeakChain(mapping, listener);
         // Builds connection starting from root (a fast way).
+        listener.phaseStarted(MappingPhase.CONNECT_ROOTS);
         downstairs.connect(root1, root2);
+        listener.phaseFinished(MappingPhase.CONNECT_ROOTS);
         // Adds additional connections where possible.
+        listener.phaseStarted(MappingPhase.COLLECT_NODES);
         final List<NodeExt> nodes = new BreadthFirst<>(root1).toList();
+        listener.phaseFinished(MappingPhase.COLLECT_NODES);
+        listener.phaseStarted(MappingPhase.CONNECT_ALL);
         downstairs.connectAll(nodes);
+        listener.phaseFinished(MappingPhase.CONNECT_ALL);
         // Remove weak chain connections.
+        listener.phaseStarted(MappingPhase.WEAK_CHAIN);
         weakChain.disconnect(nodes);
+        listener.phaseFinished(MappingPhase.WEAK_CHAIN);
         return mapping;
     }
 
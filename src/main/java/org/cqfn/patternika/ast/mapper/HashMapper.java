@@ -26,19 +26,57 @@ public class HashMapper implements Mapper<NodeExt> {
     /** Mapping to be built. */
     private final Mapping<NodeExt> mapping;
 
+    /** Listener notified about mapping phases and events. */
+    private final MappingListener listener;
+
+    /** Budget that limits the time and the number of operations of mapping. */
+    private final Budget budget;
+
     /**
-     * Constructor.
+     * Main constructor.
      *
      * @param root1 first node tree to be mapped.
      * @param root2 second node tree to be mapped.
+     * @param listener listener notified about mapping phases and events.
+     * @param budget budget that limits mapping, the mapping is partial if it is exhausted.
      */
-    public HashMapper(final NodeExt root1, final NodeExt root2) {
+    public HashMapper(
+            final NodeExt root1,
+            final NodeExt root2,
+            final MappingListener listener,
+            final Budget budget) {
         this.root1 = Objects.requireNonNull(root1);
         this.root2 = Objects.requireNonNull(root2);
-        this.similarity = new SimilarityHash();
+        this.listener = Objects.requireNonNull(listener);
+        this.budget = Objects.requireNonNull(budget);
+        this.similarity = new SimilarityHash(listener);
         this.mapping = new HashMapping<>();
     }
 
+    /**
+     * Additional constructor for a mapper with an unlimited budget.
+     *
+     * @param root1 first node tree to be mapped.
+     * @param root2 second node tree to be mapped.
+     * @param listener listener notified about mapping phases and events.
+     */
+    public HashMapper(
+            final NodeExt root1,
+            final NodeExt root2,
+            final MappingListener listener) {
+        this(root1, root2, listener, Budget.UNLIMITED);
+    }
+
+    /**
+     * Additional constructor for a mapper without a listener.
+     *
+     * @param root1 first node tree to be mapped.
+     * @param root2 second node tree to be mapped.
+     */
+    public HashMapper(final NodeExt root1, final NodeExt root2) {
+        this(root1, root2, MappingListener.NONE);
+    }
+
     /**
      * Builds a mapping.
      *
@@ -46,13 +84,21 @@ public class HashMapper implements Mapper<NodeExt> {
      */
     @Override
     public Mapping<NodeExt> buildMapping() {
-        final Downstairs downstairs = new Downstairs(mapping, similarity);
+        final Downstairs downstairs = new Downstairs(mapping, similarity, listener, budget);
+        listener.phaseStarted(MappingPhase.CONNECT_ROOTS);
         downstairs.connect(root1, root2);
+        listener.phaseFinished(MappingPhase.CONNECT_ROOTS);
         // ToDo
+        listener.phaseStarted(MappingPhase.COLLECT_NODES);
         final List<NodeExt> nodes = new BreadthFirst<>(root1).toList();
+        listener.phaseFinished(MappingPhase.COLLECT_NODES);
+        listener.phaseStarted(MappingPhase.CONNECT_ALL);
         downstairs.connectAll(nodes);
-        final WeakChain weakChain = new WeakChain(mapping);
+        listener.phaseFinished(MappingPhase.CONNECT_ALL);
+        final WeakChain weakChain = new WeakChain(mapping, listener);
+        listener.phaseStarted(MappingPhase.WEAK_CHAIN);
         weakChain.disconnect(nodes);
+        listener.phaseFinished(MappingPhase.WEAK_CHAIN);
         return mapping;
     }
 
@@ -0,0 +1,84 @@
+package org.cqfn.patternika.ast.mapper;
+
+/**
+ * Mapping listener that counts events, so that they can be passed to another listener later.
+ * <p>
+ * Needed for tasks that build parts of a mapping in parallel: every task has its own
+ * counter and the counted events are passed to the listener of the mapper
+ * in the thread that has started the tasks. Phases are not counted.
+ * The listener is not thread-safe.
+ *
+ * @since 2021/03/23
+ */
+class MappingEvents implements MappingListener {
+    /** Number of visited nodes. */
+    private long visits;
+
+    /** Number of connections of each kind. */
+    private final long[] connections = new long[ConnectionKind.values().length];
+
+    /** Number of removed connections. */
+    private long disconnections;
+
+    /** Number of hash codes taken from the cache. */
+    private long hashHits;
+
+    /** Number of calculated hash codes. */
+    private long hashMisses;
+
+    /**
+     * Counts a visited node.
+     */
+    @Override
+    public void nodeVisited() {
+        visits += 1;
+    }
+
+    /**
+     * Counts a connection.
+     *
+     * @param kind the kind of the connection.
+     */
+    @Override
+    public void connected(final ConnectionKind kind) {
+        connections[kind.ordinal()] += 1;
+    }
+
+    /**
+     * Counts a removed connection.
+     */
+    @Override
+    public void disconnected() {
+        disconnections += 1;
+    }
+
+    /**
+     * Counts a requested hash code.
+     *
+     * @param cached {@code true} if the hash code has been taken from the cache.
+     */
+    @Override
+    public void hashRequested(final boolean cached) {
+        if (cached) {
+            hashHits += 1;
+        } else {
+            hashMisses += 1;
+        }
+    }
+
+    /**
+     * Passes the counted events to another listener.
+     *
+     * @param listener the listener.
+     */
+    void replay(final MappingListener listener) {
+        listener.nodesVisited(visits);
+        for (final ConnectionKind kind : ConnectionKind.values()) {
+            listener.connected(kind, connections[kind.ordinal()]);
+        }
+        listener.disconnected(disconnections);
+        listener.hashesRequested(true, hashHits);
+        listener.hashesRequested(false, hashMisses);
+    }
+
+}
@@ -0,0 +1,119 @@
+package org.cqfn.patternika.ast.mapper;
+
+import org.cqfn.patternika.ast.hash.HashListener;
+
+/**
+ * Listener that is notified about events that occur when a mapping is built.
+ * <p>
+ * Needed to collect timings and counters for phases of mapping algorithms.
+ * All methods do nothing by default, so the listener {@link #NONE} (which is used
+ * if no listener is specified) costs nothing.
+ *
+ * @since 2021/03/21
+ */
+public interface MappingListener extends HashListener {
+    /** Listener that does nothing. */
+    MappingListener NONE = new MappingListener() {
+    };
+
+    /**
+     * Called when a phase is started.
+     *
+     * @param phase the phase.
+     */
+    default void phaseStarted(final MappingPhase phase) {
+        // Does nothing by default.
+    }
+
+    /**
+     * Called when a phase is finished.
+     *
+     * @param phase the phase.
+     */
+    default void phaseFinished(final MappingPhase phase) {
+        // Does nothing by default.
+    }
+
+    /**
+     * Called when a node is visited by a mapping algorithm.
+     */
+    default void nodeVisited() {
+        // Does nothing by default.
+    }
+
+    /**
+     * Called when two nodes are connected.
+     *
+     * @param kind the kind of the connection.
+     */
+    default void connected(final ConnectionKind kind) {
+        // Does nothing by default.
+    }
+
+    /**
+     * Called when a weak connection is removed.
+     */
+    default void disconnected() {
+        // Does nothing by default.
+    }
+
+    /**
+     * Called when a hash code is requested.
+     *
+     * @param cached {@code true} if the hash code has been taken from the cache.
+     */
+    @Override
+    default void hashRequested(final boolean cached) {
+        // Does nothing by default.
+    }
+
+    /**
+     * Called when nodes have been visited by a mapping algorithm in another thread.
+     * Calls {@link #nodeVisited()} for each node by default.
+     *
+     * @param count the number of visited nodes.
+     */
+    default void nodesVisited(final long count) {
+        for (long index = 0; index < count; ++index) {
+            nodeVisited();
+        }
+    }
+
+    /**
+     * Called when nodes have been connected in another thread.
+     * Calls {@link #connected(ConnectionKind)} for each connection by default.
+     *
+     * @param kind the kind of the connections.
+     * @param count the number of connections.
+     */
+    default void connected(final ConnectionKind kind, final long count) {
+        for (long index = 0; index < count; ++index) {
+            connected(kind);
+        }
+    }
+
+    /**
+     * Called when weak connections have been removed in another thread.
+     * Calls {@link #disconnected()} for each connection by default.
+     *
+     * @param count the number of removed connections.
+     */
+    default void disconnected(final long count) {
+        for (long index = 0; index < count; ++index) {
+            disconnected();
+        }
+    }
+
+    /**
+     * Called when hash codes have been requested in another thread.
+     * Calls {@link #hashRequested(boolean)} for each hash code by default.
+     *
+     * @param cached {@code true} if the hash codes have been taken from the cache.
+     * @param count the number of requested hash codes.
+     */
+    default void hashesRequested(final boolean cached, final long count) {
+        for (long index = 0; index < count; ++index) {
+            hashRequested(cached);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.cqfn.patternika.ast.mapper;
+
+/**
+ * Phases of building a mapping by mappers based on {@link Downstairs} and {@link WeakChain}.
+ *
+ * @since 2021/03/21
+ */
+public enum MappingPhase {
+    /** Connecting trees starting from their roots. */
+    CONNECT_ROOTS,
+    /** Collecting nodes of the first tree. */
+    COLLECT_NODES,
+    /** Connecting the remaining nodes starting from their parents. */
+    CONNECT_ALL,
+    /** Removing weak connections. */
+    WEAK_CHAIN,
+    /** Connecting identical subtrees and unique containers of changes before other phases. */
+    ANCHOR,
+    /** Connecting subtrees of connected top-level nodes in parallel. */
+    CONNECT_SUBTREES
+}
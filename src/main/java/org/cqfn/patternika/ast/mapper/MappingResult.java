@@ -0,0 +1,49 @@
+package org.cqfn.patternika.ast.mapper;
+
+import java.util.Objects;
+
+/**
+ * Result of a mapper with limits: a mapping and the flag that states whether it is partial.
+ *
+ * @param <T> the type of mapped elements.
+ *
+ * @since 2021/03/23
+ */
+public final class MappingResult<T> {
+    /** The mapping. */
+    private final Mapping<T> mapping;
+
+    /** Flag that states whether the mapping is partial. */
+    private final boolean partial;
+
+    /**
+     * Constructor.
+     *
+     * @param mapping the mapping.
+     * @param partial {@code true} if the mapping is partial.
+     */
+    public MappingResult(final Mapping<T> mapping, final boolean partial) {
+        this.mapping = Objects.requireNonNull(mapping);
+        this.partial = partial;
+    }
+
+    /**
+     * Returns the mapping.
+     *
+     * @return the mapping.
+     */
+    public Mapping<T> getMapping() {
+        return mapping;
+    }
+
+    /**
+     * Checks whether the mapping is partial, i.e. the mapper was stopped
+     * because it exceeded the limits or the thread was interrupted.
+     *
+     * @return {@code true} or {@code false}.
+     */
+    public boolean isPartial() {
+        return partial;
+    }
+
+}
@@ -0,0 +1,264 @@
+package org.cqfn.patternika.ast.mapper;
+
+/**
+ * Mapping listener that collects statistics: time and visited nodes per phase,
+ * connections per kind, removed weak connections and hash cache hits.
+ * <p>
+ * The statistics can be dumped to JSON. The listener can be used for several
+ * mappings in a row, in this case the statistics is summed up.
+ * The listener is not thread-safe.
+ *
+ * @since 2021/03/21
+ */
+public class MappingStatistics implements MappingListener {
+    /** Initial capacity of the buffer for JSON text. */
+    private static final int JSON_CAPACITY = 256;
+
+    /** Time of phases (in nanoseconds). */
+    private final long[] phaseTimes = new long[MappingPhase.values().length];
+
+    /** Number of nodes visited in phases. */
+    private final long[] phaseVisits = new long[MappingPhase.values().length];
+
+    /** Number of connections of each kind. */
+    private final long[] connections = new long[ConnectionKind.values().length];
+
+    /** Start time of the current phase. */
+    private long phaseStart;
+
+    /** Current phase ({@code null} if no phase is running). */
+    private MappingPhase phase;
+
+    /** Number of visited nodes outside of phases. */
+    private long otherVisits;
+
+    /** Number of removed weak connections. */
+    private long disconnections;
+
+    /** Number of hash codes taken from the cache. */
+    private long hashHits;
+
+    /** Number of calculated hash codes. */
+    private long hashMisses;
+
+    /**
+     * Starts measuring time of a phase.
+     *
+     * @param value the phase.
+     */
+    @Override
+    public void phaseStarted(final MappingPhase value) {
+        phase = value;
+        phaseStart = System.nanoTime();
+    }
+
+    /**
+     * Finishes measuring time of a phase.
+     *
+     * @param value the phase.
+     */
+    @Override
+    public void phaseFinished(final MappingPhase value) {
+        phaseTimes[value.ordinal()] += System.nanoTime() - phaseStart;
+        phase = null;
+    }
+
+    /**
+     * Counts a visited node for the current phase.
+     */
+    @Override
+    public void nodeVisited() {
+        nodesVisited(1);
+    }
+
+    /**
+     * Counts visited nodes for the current phase.
+     *
+     * @param count the number of visited nodes.
+     */
+    @Override
+    public void nodesVisited(final long count) {
+        if (phase == null) {
+            otherVisits += count;
+        } else {
+            phaseVisits[phase.ordinal()] += count;
+        }
+    }
+
+    /**
+     * Counts a connection.
+     *
+     * @param kind the kind of the connection.
+     */
+    @Override
+    public void connected(final ConnectionKind kind) {
+        connections[kind.ordinal()] += 1;
+    }
+
+    /**
+     * Counts connections.
+     *
+     * @param kind the kind of the connections.
+     * @param count the number of connections.
+     */
+    @Override
+    public void connected(final ConnectionKind kind, final long count) {
+        connections[kind.ordinal()] += count;
+    }
+
+    /**
+     * Counts a removed weak connection.
+     */
+    @Override
+    public void disconnected() {
+        disconnections += 1;
+    }
+
+    /**
+     * Counts removed weak connections.
+     *
+     * @param count the number of removed connections.
+     */
+    @Override
+    public void disconnected(final long count) {
+        disconnections += count;
+    }
+
+    /**
+     * Counts a hash cache hit or miss.
+     *
+     * @param cached {@code true} if the hash code has been taken from the cache.
+     */
+    @Override
+    public void hashRequested(final boolean cached) {
+        hashesRequested(cached, 1);
+    }
+
+    /**
+     * Counts hash cache hits or misses.
+     *
+     * @param cached {@code true} if the hash codes have been taken from the cache.
+     * @param count the number of requested hash codes.
+     */
+    @Override
+    public void hashesRequested(final boolean cached, final long count) {
+        if (cached) {
+            hashHits += count;
+        } else {
+            hashMisses += count;
+        }
+    }
+
+    /**
+     * Returns the total time of a phase.
+     *
+     * @param value the phase.
+     * @return time in nanoseconds.
+     */
+    public long getPhaseTime(final MappingPhase value) {
+        return phaseTimes[value.ordinal()];
+    }
+
+    /**
+     * Returns the number of nodes visited in a phase.
+     *
+     * @param value the phase.
+     * @return number of visited nodes.
+     */
+    public long getPhaseVisits(final MappingPhase value) {
+        return phaseVisits[value.ordinal()];
+    }
+
+    /**
+     * Returns the total number of visited nodes.
+     *
+     * @return number of visited nodes.
+     */
+    public long getVisits() {
+        long result = otherVisits;
+        for (final long visits : phaseVisits) {
+            result += visits;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of connections of a kind.
+     *
+     * @param kind the connection kind.
+     * @return number of connections.
+     */
+    public long getConnections(final ConnectionKind kind) {
+        return connections[kind.ordinal()];
+    }
+
+    /**
+     * Returns the number of removed weak connections.
+     *
+     * @return number of disconnections.
+     */
+    public long getDisconnections() {
+        return disconnections;
+    }
+
+    /**
+     * Returns the number of hash codes taken from the cache.
+     *
+     * @return number of cache hits.
+     */
+    public long getHashHits() {
+        return hashHits;
+    }
+
+    /**
+     * Returns the number of calculated hash codes.
+     *
+     * @return number of cache misses.
+     */
+    public long getHashMisses() {
+        return hashMisses;
+    }
+
+    /**
+     * Dumps the statistics to JSON.
+     *
+     * @return JSON text.
+     */
+    public String toJson() {
+        final StringBuilder builder = new StringBuilder(JSON_CAPACITY);
+        builder.append("{\"phases\":{");
+        for (final MappingPhase value : MappingPhase.values()) {
+            if (value.ordinal() > 0) {
+                builder.append(',');
+            }
+            builder.append('"').append(value).append("\":{\"timeNs\":")
+                .append(getPhaseTime(value))
+                .append(",\"visited\":")
+                .append(getPhaseVisits(value))
+                .append('}');
+        }
+        builder.append("},\"visited\":").append(getVisits()).append(",\"connections\":{");
+        for (final ConnectionKind kind : ConnectionKind.values()) {
+            if (kind.ordinal() > 0) {
+                builder.append(',');
+            }
+            builder.append('"').append(kind).append("\":").append(getConnections(kind));
+        }
+        builder.append("},\"disconnections\":").append(disconnections)
+            .append(",\"hashCacheHits\":").append(hashHits)
+            .append(",\"hashCacheMisses\":").append(hashMisses)
+            .append('}');
+        return builder.toString();
+    }
+
+    /**
+     * Returns the statistics in JSON.
+     *
+     * @return JSON text.
+     */
+    @Override
+    public String toString() {
+        return toJson();
+    }
+
+}
@@ -0,0 +1,471 @@
+package org.cqfn.patternika.ast.mapper;
+
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.ast.NodeExt;
+import org.cqfn.patternika.ast.hash.SimilarityHash;
+import org.cqfn.patternika.ast.iterator.BreadthFirst;
+import org.cqfn.patternika.ast.iterator.Children;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Mapper for Node objects that builds connections based on the Greed logic
+ * and maps independent subtrees in parallel.
+ * <p>
+ * The mapper connects the roots of the trees and then the top levels of the trees
+ * (by default, top-level declarations and their members) without descending into connected
+ * nodes. Subtrees of connected pairs of the last anchored level are disjoint, so they are
+ * mapped by independent fork/join tasks into separate mappings, which are merged without
+ * conflicts. Remaining nodes are connected and weak connections are removed sequentially.
+ * <p>
+ * Similarity hashes are calculated once: hashes of subtrees of the last anchored level
+ * are calculated in parallel, and all phases share them via a concurrent cache.
+ * Events counted by tasks are passed to the listener in bulk.
+ * <p>
+ * Small trees are mapped sequentially by {@link GreedMapper}, as well as trees with
+ * a limited budget (budgets are not thread-safe).
+ *
+ * @since 2021/03/23
+ */
+public class ParallelMapper implements Mapper<NodeExt> {
+    /** Default minimal number of nodes in the first tree for parallel mapping. */
+    public static final int DEFAULT_THRESHOLD = 4096;
+
+    /** Number of anchored tree levels below the roots. */
+    private static final int LEVELS = 2;
+
+    /** First node tree root. */
+    private final NodeExt root1;
+
+    /** Second node tree root. */
+    private final NodeExt root2;
+
+    /** Listener notified about mapping phases and events. */
+    private final MappingListener listener;
+
+    /** Budget that limits the time and the number of operations of mapping. */
+    private final Budget budget;
+
+    /** Pool that executes mapping tasks. */
+    private final ForkJoinPool pool;
+
+    /** Minimal number of nodes in the first tree for parallel mapping. */
+    private final int threshold;
+
+    /**
+     * Main constructor.
+     *
+     * @param root1 first node tree to be mapped.
+     * @param root2 second node tree to be mapped.
+     * @param listener listener notified about mapping phases and events.
+     * @param budget budget that limits mapping, the mapping is partial if it is exhausted.
+     * @param pool pool that executes mapping tasks.
+     * @param threshold minimal number of nodes in the first tree for parallel mapping,
+     *        smaller trees are mapped sequentially.
+     * @throws IllegalArgumentException if the threshold is negative.
+     */
+    public ParallelMapper(
+            final NodeExt root1,
+            final NodeExt root2,
+            final MappingListener listener,
+            final Budget budget,
+            final ForkJoinPool pool,
+            final int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Negative threshold: " + threshold);
+        }
+        this.root1 = Objects.requireNonNull(root1);
+        this.root2 = Objects.requireNonNull(root2);
+        this.listener = Objects.requireNonNull(listener);
+        this.budget = Objects.requireNonNull(budget);
+        this.pool = Objects.requireNonNull(pool);
+        this.threshold = threshold;
+    }
+
+    /**
+     * Additional constructor for a mapper that uses the common pool and the default threshold.
+     *
+     * @param root1 first node tree to be mapped.
+     * @param root2 second node tree to be mapped.
+     * @param listener listener notified about mapping phases and events.
+     * @param budget budget that limits mapping, the mapping is partial if it is exhausted.
+     */
+    public ParallelMapper(
+            final NodeExt root1,
+            final NodeExt root2,
+            final MappingListener listener,
+            final Budget budget) {
+        this(root1, root2, listener, budget, ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Additional constructor for a mapper with an unlimited budget.
+     *
+     * @param root1 first node tree to be mapped.
+     * @param root2 second node tree to be mapped.
+     * @param listener listener notified about mapping phases and events.
+     */
+    public ParallelMapper(
+            final NodeExt root1,
+            final NodeExt root2,
+            final MappingListener listener) {
+        this(root1, root2, listener, Budget.UNLIMITED);
+    }
+
+    /**
+     * Additional constructor for a mapper without a listener.
+     *
+     * @param root1 first node tree to be mapped.
+     * @param root2 second node tree to be mapped.
+     */
+    public ParallelMapper(final NodeExt root1, final NodeExt root2) {
+        this(root1, root2, MappingListener.NONE);
+    }
+
+    /**
+     * Builds a mapping.
+     *
+     * @return container with mappings between the two node trees.
+     */
+    @Override
+    public Mapping<NodeExt> buildMapping() {
+        if (budget != Budget.UNLIMITED || isSmall(root1)) {
+            return new GreedMapper(root1, root2, listener, budget).buildMapping();
+        }
+        final Map<Node, Integer> cache = new ConcurrentHashMap<>();
+        final HashMapping<NodeExt> anchors = new HashMapping<>();
+        // Connects the roots and the top levels without descending into connected nodes.
+        listener.phaseStarted(MappingPhase.CONNECT_ROOTS);
+        calculateHashes(cache);
+        final List<NodeExt> pairs = anchor(anchors, cache);
+        listener.phaseFinished(MappingPhase.CONNECT_ROOTS);
+        // Maps subtrees of connected pairs in parallel.
+        listener.phaseStarted(MappingPhase.CONNECT_SUBTREES);
+        final MappingEvents[] events = new MappingEvents[pairs.size()];
+        Mapping<NodeExt> mapping = anchors;
+        if (!pairs.isEmpty()) {
+            mapping = anchors.merge(pool.invoke(new SubtreeTask(anchors, pairs, cache, events)));
+        }
+        replay(events);
+        listener.phaseFinished(MappingPhase.CONNECT_SUBTREES);
+        // Adds additional connections where possible (outside the mapped subtrees).
+        listener.phaseStarted(MappingPhase.COLLECT_NODES);
+        final List<NodeExt> nodes = new BreadthFirst<>(root1).toList();
+        final List<NodeExt> remaining = collectRemaining(pairs);
+        listener.phaseFinished(MappingPhase.COLLECT_NODES);
+        listener.phaseStarted(MappingPhase.CONNECT_ALL);
+        new Downstairs(mapping, new SimilarityHash(listener, cache), listener)
+            .connectAll(remaining);
+        listener.phaseFinished(MappingPhase.CONNECT_ALL);
+        // Remove weak chain connections.
+        listener.phaseStarted(MappingPhase.WEAK_CHAIN);
+        new WeakChain(mapping, listener).disconnect(nodes);
+        listener.phaseFinished(MappingPhase.WEAK_CHAIN);
+        return mapping;
+    }
+
+    /**
+     * Calculates similarity hashes of subtrees of the last anchored level of both trees
+     * in parallel.
+     *
+     * @param cache the cache of hash codes to be filled.
+     */
+    private void calculateHashes(final Map<Node, Integer> cache) {
+        final List<NodeExt> subtrees = new ArrayList<>();
+        for (final NodeExt root : new NodeExt[] {root1, root2}) {
+            List<NodeExt> nodes = Collections.singletonList(root);
+            for (int level = 0; level < LEVELS; ++level) {
+                final List<NodeExt> children = new ArrayList<>();
+                for (final NodeExt node : nodes) {
+                    new Children<>(node).forEach(children::add);
+                }
+                nodes = children;
+            }
+            subtrees.addAll(nodes);
+        }
+        final MappingEvents[] events = new MappingEvents[subtrees.size()];
+        if (!subtrees.isEmpty()) {
+            pool.invoke(new HashTask(subtrees, cache, events, 0, subtrees.size()));
+        }
+        replay(events);
+    }
+
+    /**
+     * Connects the roots and the top levels of the trees without descending
+     * into connected nodes of the last level.
+     *
+     * @param anchors the mapping to be extended.
+     * @param cache the cache of hash codes.
+     * @return the connected nodes of the last level of the first tree.
+     */
+    private List<NodeExt> anchor(final Mapping<NodeExt> anchors, final Map<Node, Integer> cache) {
+        if (!root1.getType().equals(root2.getType())) {
+            return Collections.emptyList();
+        }
+        final Downstairs downstairs =
+                new Downstairs(anchors, new SimilarityHash(listener, cache), listener);
+        anchors.connect(root1, root2);
+        listener.connected(ConnectionKind.ROOT);
+        List<NodeExt> pairs = Collections.singletonList(root1);
+        for (int level = 0; level < LEVELS; ++level) {
+            final List<NodeExt> children = new ArrayList<>();
+            for (final NodeExt node : pairs) {
+                children.addAll(downstairs.connectChildren(node));
+            }
+            pairs = children;
+        }
+        return pairs;
+    }
+
+    /**
+     * Creates a listener that counts events of a task.
+     *
+     * @param events events of tasks, an element for the task is created.
+     * @param index the index of the task.
+     * @return the listener.
+     */
+    private MappingListener record(final MappingEvents[] events, final int index) {
+        if (listener == MappingListener.NONE) {
+            return MappingListener.NONE;
+        }
+        events[index] = new MappingEvents();
+        return events[index];
+    }
+
+    /**
+     * Passes events counted by tasks to the listener.
+     *
+     * @param events events of tasks.
+     */
+    private void replay(final MappingEvents[] events) {
+        for (final MappingEvents recorded : events) {
+            if (recorded != null) {
+                recorded.replay(listener);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a tree is smaller than the threshold.
+     *
+     * @param root the tree root.
+     * @return {@code true} or {@code false}.
+     */
+    private boolean isSmall(final NodeExt root) {
+        int count = 0;
+        final Iterator<NodeExt> iterator = new BreadthFirst<>(root).iterator();
+        while (count < threshold && iterator.hasNext()) {
+            iterator.next();
+            count += 1;
+        }
+        return count < threshold;
+    }
+
+    /**
+     * Collects nodes of the first tree outside subtrees of the specified nodes
+     * in the breadth-first order.
+     *
+     * @param pairs roots of mapped subtrees of the first tree.
+     * @return the list of nodes.
+     */
+    private List<NodeExt> collectRemaining(final List<NodeExt> pairs) {
+        final Set<NodeExt> mapped = Collections.newSetFromMap(new IdentityHashMap<>());
+        mapped.addAll(pairs);
+        final List<NodeExt> result = new ArrayList<>();
+        if (!mapped.contains(root1)) {
+            result.add(root1);
+        }
+        for (int index = 0; index < result.size(); ++index) {
+            for (final NodeExt child : new Children<>(result.get(index))) {
+                if (!mapped.contains(child)) {
+                    result.add(child);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Task that maps subtrees of connected pairs of nodes.
+     * Splits the pairs in halves until a single pair is left.
+     */
+    private final class SubtreeTask extends RecursiveTask<Mapping<NodeExt>> {
+        /** Serial version UID. */
+        private static final long serialVersionUID = 1L;
+
+        /** Mapping that connects the pairs. */
+        private final transient Mapping<NodeExt> anchors;
+
+        /** Nodes of the first tree connected to nodes of the second tree. */
+        private final transient List<NodeExt> pairs;
+
+        /** Shared cache of hash codes. */
+        private final transient Map<Node, Integer> cache;
+
+        /** Events of tasks for single pairs (an element for each pair). */
+        private final transient MappingEvents[] events;
+
+        /** Index of the first pair of the task. */
+        private final int from;
+
+        /** Index after the last pair of the task. */
+        private final int to;
+
+        /**
+         * Main constructor.
+         *
+         * @param anchors mapping that connects the pairs.
+         * @param pairs nodes of the first tree connected to nodes of the second tree.
+         * @param cache shared cache of hash codes.
+         * @param events events of tasks for single pairs, filled by the tasks.
+         * @param from index of the first pair of the task.
+         * @param to index after the last pair of the task.
+         */
+        private SubtreeTask(
+                final Mapping<NodeExt> anchors,
+                final List<NodeExt> pairs,
+                final Map<Node, Integer> cache,
+                final MappingEvents[] events,
+                final int from,
+                final int to) {
+            super();
+            this.anchors = anchors;
+            this.pairs = pairs;
+            this.cache = cache;
+            this.events = events;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Additional constructor for a task that maps all pairs.
+         *
+         * @param anchors mapping that connects the pairs.
+         * @param pairs nodes of the first tree connected to nodes of the second tree.
+         * @param cache shared cache of hash codes.
+         * @param events events of tasks for single pairs, filled by the tasks.
+         */
+        private SubtreeTask(
+                final Mapping<NodeExt> anchors,
+                final List<NodeExt> pairs,
+                final Map<Node, Integer> cache,
+                final MappingEvents[] events) {
+            this(anchors, pairs, cache, events, 0, pairs.size());
+        }
+
+        /**
+         * Maps subtrees of the pairs.
+         *
+         * @return the mapping for the subtrees.
+         */
+        @Override
+        protected Mapping<NodeExt> compute() {
+            if (to - from == 1) {
+                return map(from);
+            }
+            final int middle = (from + to) >>> 1;
+            final SubtreeTask left =
+                    new SubtreeTask(anchors, pairs, cache, events, from, middle);
+            final SubtreeTask right =
+                    new SubtreeTask(anchors, pairs, cache, events, middle, to);
+            left.fork();
+            final Mapping<NodeExt> result = right.compute();
+            return left.join().merge(result);
+        }
+
+        /**
+         * Maps subtrees of a single pair.
+         *
+         * @param index the index of the pair.
+         * @return the mapping for the subtrees.
+         */
+        private Mapping<NodeExt> map(final int index) {
+            final MappingListener recorder = record(events, index);
+            final NodeExt node1 = pairs.get(index);
+            final Mapping<NodeExt> result = new HashMapping<>();
+            result.connect(node1, anchors.get(node1));
+            final Downstairs downstairs =
+                    new Downstairs(result, new SimilarityHash(recorder, cache), recorder);
+            downstairs.connect(node1);
+            downstairs.connectAll(new BreadthFirst<>(node1));
+            return result;
+        }
+
+    }
+
+    /**
+     * Task that calculates similarity hashes of subtrees.
+     * Splits the subtrees in halves until a single subtree is left.
+     */
+    private final class HashTask extends RecursiveAction {
+        /** Serial version UID. */
+        private static final long serialVersionUID = 1L;
+
+        /** Roots of the subtrees. */
+        private final transient List<NodeExt> subtrees;
+
+        /** Shared cache of hash codes to be filled. */
+        private final transient Map<Node, Integer> cache;
+
+        /** Events of tasks for single subtrees (an element for each subtree). */
+        private final transient MappingEvents[] events;
+
+        /** Index of the first subtree of the task. */
+        private final int from;
+
+        /** Index after the last subtree of the task. */
+        private final int to;
+
+        /**
+         * Constructor.
+         *
+         * @param subtrees roots of the subtrees.
+         * @param cache shared cache of hash codes to be filled.
+         * @param events events of tasks for single subtrees, filled by the tasks.
+         * @param from index of the first subtree of the task.
+         * @param to index after the last subtree of the task.
+         */
+        private HashTask(
+                final List<NodeExt> subtrees,
+                final Map<Node, Integer> cache,
+                final MappingEvents[] events,
+                final int from,
+                final int to) {
+            super();
+            this.subtrees = subtrees;
+            this.cache = cache;
+            this.events = events;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Calculates hashes of the subtrees.
+         */
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                new SimilarityHash(record(events, from), cache).getHash(subtrees.get(from));
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(
+                new HashTask(subtrees, cache, events, from, middle),
+                new HashTask(subtrees, cache, events, middle, to)
+            );
+        }
+
+    }
+
+}
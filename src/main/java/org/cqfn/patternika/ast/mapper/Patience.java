@@ -0,0 +1,305 @@
+package org.cqfn.patternika.ast.mapper;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Aligns two sequences of keys (e.g. hashes of children) as in the patience diff.
+ * <p>
+ * Common prefixes and suffixes are aligned first. Then keys that occur exactly once
+ * in both sequences are used as anchors: the longest subsequence of anchors that occurs
+ * in the same order in both sequences is found in O(N log N) and gaps between anchors
+ * are aligned in the same way. Gaps without anchors are aligned position by position.
+ * An insertion does not shift the alignment of the following elements.
+ * <p>
+ * Gaps are kept in an explicit stack, and an operation of the budget is spent for each
+ * element of every aligned range, so the alignment stops when the budget is exhausted
+ * (keeping the elements aligned so far).
+ *
+ * @since 2021/03/23
+ */
+class Patience {
+    /** Marker for keys that occur several times. */
+    private static final int DUPLICATE = -2;
+
+    /** The first sequence of keys. */
+    private final int[] keys1;
+
+    /** The second sequence of keys. */
+    private final int[] keys2;
+
+    /** Budget that limits the alignment. */
+    private final Budget budget;
+
+    /** Indices of aligned elements of the second sequence (-1 if not aligned). */
+    private final int[] result;
+
+    /**
+     * Main constructor.
+     *
+     * @param keys1 the first sequence of keys.
+     * @param keys2 the second sequence of keys.
+     * @param budget budget that limits the alignment.
+     */
+    Patience(final int[] keys1, final int[] keys2, final Budget budget) {
+        this.keys1 = keys1.clone();
+        this.keys2 = keys2.clone();
+        this.budget = Objects.requireNonNull(budget);
+        this.result = new int[keys1.length];
+    }
+
+    /**
+     * Additional constructor for an alignment with an unlimited budget.
+     *
+     * @param keys1 the first sequence of keys.
+     * @param keys2 the second sequence of keys.
+     */
+    Patience(final int[] keys1, final int[] keys2) {
+        this(keys1, keys2, Budget.UNLIMITED);
+    }
+
+    /**
+     * Aligns the sequences.
+     *
+     * @return an array that contains, for each element of the first sequence,
+     *         the index of the aligned element with an equal key of the second
+     *         sequence or -1 if the element is not aligned.
+     */
+    int[] align() {
+        Arrays.fill(result, -1);
+        final Deque<Range> ranges = new ArrayDeque<>();
+        ranges.push(new Range(0, keys1.length, 0, keys2.length));
+        while (!ranges.isEmpty()) {
+            final Range range = ranges.pop();
+            if (!spend(range.to1 - range.from1 + range.to2 - range.from2)) {
+                break;
+            }
+            align(range, ranges);
+        }
+        return result.clone();
+    }
+
+    /**
+     * Aligns common prefixes and suffixes of ranges of the sequences
+     * and then the rest of the ranges by unique keys.
+     *
+     * @param range the ranges.
+     * @param gaps the stack of ranges to be aligned, gaps between anchors are pushed to it.
+     */
+    private void align(final Range range, final Deque<Range> gaps) {
+        final int limit = Math.min(range.to1 - range.from1, range.to2 - range.from2);
+        int prefix = 0;
+        while (prefix < limit && keys1[range.from1 + prefix] == keys2[range.from2 + prefix]) {
+            result[range.from1 + prefix] = range.from2 + prefix;
+            prefix += 1;
+        }
+        int suffix = 0;
+        while (prefix + suffix < limit
+                && keys1[range.to1 - suffix - 1] == keys2[range.to2 - suffix - 1]) {
+            result[range.to1 - suffix - 1] = range.to2 - suffix - 1;
+            suffix += 1;
+        }
+        if (prefix + suffix < limit) {
+            alignAnchors(
+                new Range(
+                    range.from1 + prefix,
+                    range.to1 - suffix,
+                    range.from2 + prefix,
+                    range.to2 - suffix
+                ),
+                gaps
+            );
+        }
+    }
+
+    /**
+     * Aligns ranges of the sequences without common prefixes and suffixes
+     * by unique keys, or position by position if there are no unique keys.
+     *
+     * @param range the ranges.
+     * @param gaps the stack of ranges to be aligned, gaps between anchors are pushed to it.
+     */
+    private void alignAnchors(final Range range, final Deque<Range> gaps) {
+        final int[] anchors = findAnchors(range.from1, range.to1, range.from2, range.to2);
+        if (anchors.length == 0) {
+            alignPositions(range.from1, range.to1, range.from2, range.to2);
+            return;
+        }
+        int previous1 = range.from1;
+        int previous2 = range.from2;
+        for (final int anchor : anchors) {
+            gaps.push(new Range(previous1, anchor, previous2, result[anchor]));
+            previous1 = anchor + 1;
+            previous2 = result[anchor] + 1;
+        }
+        gaps.push(new Range(previous1, range.to1, previous2, range.to2));
+    }
+
+    /**
+     * Spends operations of the budget.
+     *
+     * @param count the number of operations.
+     * @return {@code true} if the operations can be performed
+     *         or {@code false} if the budget is exhausted.
+     */
+    private boolean spend(final int count) {
+        boolean available = budget.spend();
+        for (int index = 1; index < count && available; ++index) {
+            available = budget.spend();
+        }
+        return available;
+    }
+
+    /**
+     * Aligns elements with equal keys in ranges of the sequences position by position.
+     *
+     * @param from1 the start of the range of the first sequence.
+     * @param to1 the end (exclusive) of the range of the first sequence.
+     * @param from2 the start of the range of the second sequence.
+     * @param to2 the end (exclusive) of the range of the second sequence.
+     */
+    private void alignPositions(final int from1, final int to1, final int from2, final int to2) {
+        final int count = Math.min(to1 - from1, to2 - from2);
+        for (int index = 0; index < count; ++index) {
+            if (keys1[from1 + index] == keys2[from2 + index]) {
+                result[from1 + index] = from2 + index;
+            }
+        }
+    }
+
+    /**
+     * Finds keys that are unique in both ranges and aligns the longest subsequence of them
+     * that occurs in the same order in both ranges.
+     *
+     * @param from1 the start of the range of the first sequence.
+     * @param to1 the end (exclusive) of the range of the first sequence.
+     * @param from2 the start of the range of the second sequence.
+     * @param to2 the end (exclusive) of the range of the second sequence.
+     * @return the indices of the aligned anchors of the first sequence in the ascending order.
+     */
+    private int[] findAnchors(final int from1, final int to1, final int from2, final int to2) {
+        final Map<Integer, Integer> unique1 = findUnique(keys1, from1, to1);
+        final Map<Integer, Integer> unique2 = findUnique(keys2, from2, to2);
+        final int[] candidates1 = new int[to1 - from1];
+        final int[] candidates2 = new int[to1 - from1];
+        int count = 0;
+        for (int index = from1; index < to1; ++index) {
+            final Integer other = unique2.get(keys1[index]);
+            if (other != null && other >= 0 && unique1.get(keys1[index]) >= 0) {
+                candidates1[count] = index;
+                candidates2[count] = other;
+                count += 1;
+            }
+        }
+        final int[] sequence = findLongestIncreasing(candidates2, count);
+        final int[] anchors = new int[sequence.length];
+        for (int index = 0; index < sequence.length; ++index) {
+            anchors[index] = candidates1[sequence[index]];
+            result[anchors[index]] = candidates2[sequence[index]];
+        }
+        return anchors;
+    }
+
+    /**
+     * Finds keys that occur exactly once in a range of a sequence.
+     *
+     * @param keys the sequence of keys.
+     * @param from the start of the range.
+     * @param to the end (exclusive) of the range.
+     * @return the map from keys to their indices ({@link #DUPLICATE} for repeated keys).
+     */
+    private static Map<Integer, Integer> findUnique(
+            final int[] keys,
+            final int from,
+            final int to) {
+        final Map<Integer, Integer> indices = new HashMap<>();
+        for (int index = from; index < to; ++index) {
+            if (indices.putIfAbsent(keys[index], index) != null) {
+                indices.put(keys[index], DUPLICATE);
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Finds the longest strictly increasing subsequence in O(N log N)
+     * with the patience sorting.
+     *
+     * @param values the values.
+     * @param count the number of values.
+     * @return the indices of the values of the subsequence in the ascending order.
+     */
+    private static int[] findLongestIncreasing(final int[] values, final int count) {
+        // Index of the last value of the best subsequence of each length (minus one).
+        final int[] tails = new int[count];
+        // Index of the previous value in the best subsequence ending with each value.
+        final int[] previous = new int[count];
+        int length = 0;
+        for (int index = 0; index < count; ++index) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (values[tails[middle]] < values[index]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            previous[index] = -1;
+            if (low > 0) {
+                previous[index] = tails[low - 1];
+            }
+            tails[low] = index;
+            length = Math.max(length, low + 1);
+        }
+        final int[] sequence = new int[length];
+        int current = -1;
+        if (length > 0) {
+            current = tails[length - 1];
+        }
+        for (int index = length - 1; index >= 0; --index) {
+            sequence[index] = current;
+            current = previous[current];
+        }
+        return sequence;
+    }
+
+    /**
+     * Ranges of the first and the second sequences.
+     */
+    private static final class Range {
+        /** The start of the range of the first sequence. */
+        private final int from1;
+
+        /** The end (exclusive) of the range of the first sequence. */
+        private final int to1;
+
+        /** The start of the range of the second sequence. */
+        private final int from2;
+
+        /** The end (exclusive) of the range of the second sequence. */
+        private final int to2;
+
+        /**
+         * Constructor.
+         *
+         * @param from1 the start of the range of the first sequence.
+         * @param to1 the end (exclusive) of the range of the first sequence.
+         * @param from2 the start of the range of the second sequence.
+         * @param to2 the end (exclusive) of the range of the second sequence.
+         */
+        private Range(final int from1, final int to1, final int from2, final int to2) {
+            this.from1 = from1;
+            this.to1 = to1;
+            this.from2 = from2;
+            this.to2 = to2;
+        }
+
+    }
+
+}
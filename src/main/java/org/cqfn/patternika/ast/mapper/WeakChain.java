@@ -19,6 +19,10 @@ import java.util.Objects;
  * <p>
  * This helps to avoid chains of weak connections, which are usually incorrect.
  * The complexity is O(N), where N is the number of nodes in the tree.
+ * <p>
+ * The algorithm does not spend the budget of a mapper: it is linear and always runs to the end,
+ * so a partial mapping built by a mapper with an exhausted budget does not keep weak
+ * connections that a complete mapping would not have.
  *
  * @since 2020/12/25
  */
@@ -26,13 +30,28 @@ public class WeakChain {
     /** Mapping to be cleared on weak connections. */
     private final Mapping<NodeExt> mapping;
 
+    /** Listener notified about visited nodes and removed connections. */
+    private final MappingListener listener;
+
     /**
-     * Constructor.
+     * Main constructor.
      *
      * @param mapping the mapping to be cleared of weak connections, not {@code null}.
+     * @param listener the listener notified about visited nodes and removed connections,
+     *        not {@code null}.
      */
-    public WeakChain(final Mapping<NodeExt> mapping) {
+    public WeakChain(final Mapping<NodeExt> mapping, final MappingListener listener) {
         this.mapping = Objects.requireNonNull(mapping);
+        this.listener = Objects.requireNonNull(listener);
+    }
+
+    /**
+     * Additional constructor for the algorithm without a listener.
+     *
+     * @param mapping the mapping to be cleared of weak connections, not {@code null}.
+     */
+    public WeakChain(final Mapping<NodeExt> mapping) {
+        this(mapping, MappingListener.NONE);
     }
 
     /**
@@ -51,8 +70,10 @@ public class WeakChain {
      */
     public void disconnect(final Iterable<NodeExt> nodes) {
         for (final NodeExt node : nodes) {
+            listener.nodeVisited();
             if (needToDisconnect(node)) {
                 mapping.disconnect(node);
+                listener.disconnected();
             }
         }
     }
@@ -0,0 +1,86 @@
+package org.cqfn.patternika.ast.store;
+
+import org.cqfn.patternika.source.Fragment;
+import org.cqfn.patternika.source.Position;
+import org.cqfn.patternika.source.Source;
+import org.cqfn.patternika.source.SourceIterator;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Table of source positions used to restore fragments of stored nodes.
+ *
+ * <p>Node records contain only character indices of fragment boundaries. Positions for all
+ * indices used by a stored tree are created in a single pass over the source, so creating
+ * fragments does not require iterating over the source again.
+ *
+ * @since 2021/03/23
+ */
+class FragmentTable {
+    /** The source. */
+    private final Source source;
+
+    /** Character indices in the ascending order. */
+    private final int[] indices;
+
+    /** Positions for the character indices. */
+    private final Position[] positions;
+
+    /**
+     * Constructor.
+     *
+     * @param source the source.
+     * @param indices the character indices that will be requested (in any order,
+     *        duplicates and {@link StoreFormat#NONE} values are allowed).
+     */
+    FragmentTable(final Source source, final int[] indices) {
+        this.source = Objects.requireNonNull(source);
+        this.indices = Arrays.stream(indices).filter(index -> index >= 0).sorted().distinct()
+            .toArray();
+        this.positions = new Position[this.indices.length];
+        final SourceIterator iterator = source.getIterator();
+        int current = 0;
+        for (int index = 0; index < this.indices.length; ++index) {
+            while (current < this.indices[index]) {
+                iterator.nextChar();
+                current += 1;
+            }
+            positions[index] = iterator.getPosition();
+        }
+    }
+
+    /**
+     * Creates a fragment with the specified boundaries.
+     *
+     * @param start the start index or {@link StoreFormat#NONE}.
+     * @param end the end index or {@link StoreFormat#NONE}.
+     * @return the fragment or {@code null} if both indices are {@link StoreFormat#NONE}.
+     * @throws IllegalArgumentException if an index was not passed to the constructor.
+     */
+    Fragment get(final int start, final int end) {
+        if (start == StoreFormat.NONE && end == StoreFormat.NONE) {
+            return null;
+        }
+        return new Fragment(source, getPosition(start), getPosition(end));
+    }
+
+    /**
+     * Returns the position for a character index.
+     *
+     * @param index the index or {@link StoreFormat#NONE}.
+     * @return the position or {@code null} if the index is {@link StoreFormat#NONE}.
+     * @throws IllegalArgumentException if the index was not passed to the constructor.
+     */
+    private Position getPosition(final int index) {
+        if (index == StoreFormat.NONE) {
+            return null;
+        }
+        final int found = Arrays.binarySearch(indices, index);
+        if (found < 0) {
+            throw new IllegalArgumentException("No position for the index: " + index);
+        }
+        return positions[found];
+    }
+
+}
@@ -0,0 +1,301 @@
+package org.cqfn.patternika.ast.store;
+
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.source.Fragment;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Flyweight node that reads its properties directly from a node record in a byte buffer
+ * (normally, a memory-mapped pattern store file).
+ *
+ * <p>The node does not copy data from the buffer. Only strings are decoded and cached
+ * in the string table shared by all nodes of the store. Child nodes are created on the first
+ * access and cached, so the same node object is always returned for the same child,
+ * and nodes of untouched subtrees are never created.
+ *
+ * <p>Nodes are detached from the source code unless the tree is attached to its source
+ * (see {@link PatternStore#getRoot(int, org.cqfn.patternika.source.Source)}).
+ *
+ * @since 2021/03/15
+ */
+public class MappedNode implements Node {
+    /** Buffer that contains the node record. */
+    private final ByteBuffer buffer;
+
+    /** Table of strings used by node records. */
+    private final StringTable strings;
+
+    /** Offset of the node record in the buffer. */
+    private final int offset;
+
+    /** Positions in the source or {@code null} if the node is detached from the source. */
+    private final FragmentTable fragments;
+
+    /** Lazy array of node's children (initialized on the first access). */
+    private MappedNode[] children;
+
+    /**
+     * Main constructor.
+     *
+     * @param buffer the buffer that contains the node record.
+     * @param strings the table of strings used by node records.
+     * @param offset the offset of the node record in the buffer.
+     * @param fragments the positions in the source or {@code null} if the node
+     *        is detached from the source.
+     */
+    MappedNode(
+            final ByteBuffer buffer,
+            final StringTable strings,
+            final int offset,
+            final FragmentTable fragments) {
+        this.buffer = Objects.requireNonNull(buffer);
+        this.strings = Objects.requireNonNull(strings);
+        this.offset = offset;
+        this.fragments = fragments;
+    }
+
+    /**
+     * Additional constructor for a node detached from the source.
+     *
+     * @param buffer the buffer that contains the node record.
+     * @param strings the table of strings used by node records.
+     * @param offset the offset of the node record in the buffer.
+     */
+    MappedNode(final ByteBuffer buffer, final StringTable strings, final int offset) {
+        this(buffer, strings, offset, null);
+    }
+
+    /**
+     * Returns the offset of the node record in the buffer (unique within the store).
+     *
+     * @return the node offset.
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns node type identifier that uniquely identifies node type.
+     *
+     * @return node type identifier.
+     */
+    @Override
+    public String getType() {
+        return strings.get(getTypeId());
+    }
+
+    /**
+     * Returns data associated with the node (in a textual format).
+     *
+     * @return node data.
+     */
+    @Override
+    public String getData() {
+        return strings.get(getDataId());
+    }
+
+    /**
+     * Returns the fragment associated with the current node.
+     *
+     * <p>Detached nodes have no fragments.
+     *
+     * @return the fragment or {@code null} if the node is detached from the source.
+     */
+    @Override
+    public Fragment getFragment() {
+        if (fragments == null) {
+            return null;
+        }
+        return fragments.get(
+            buffer.getInt(offset + StoreFormat.NODE_START),
+            buffer.getInt(offset + StoreFormat.NODE_END)
+        );
+    }
+
+    /**
+     * Returns the number of children.
+     *
+     * @return child node count.
+     */
+    @Override
+    public int getChildCount() {
+        return buffer.getInt(offset + StoreFormat.NODE_CHILD_COUNT);
+    }
+
+    /**
+     * Checks whether the node has limits on the number of its children.
+     *
+     * @return {@code true} if there are no constraints on child count or {@code false} otherwise.
+     */
+    @Override
+    public boolean isChildCountLimitless() {
+        return (getFlags() & StoreFormat.FLAG_LIMITLESS) != 0;
+    }
+
+    /**
+     * Checks whether the order of node children is strict.
+     *
+     * @return {@code true} if the order is strict or {@code false} otherwise.
+     */
+    @Override
+    public boolean isChildOrderStrict() {
+        return (getFlags() & StoreFormat.FLAG_STRICT_ORDER) != 0;
+    }
+
+    /**
+     * Gets a child by its index.
+     *
+     * @param index child index.
+     * @return child node.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    @Override
+    public MappedNode getChild(final int index) {
+        if (children == null) {
+            children = new MappedNode[getChildCount()];
+        }
+        MappedNode child = children[index];
+        if (child == null) {
+            child = new MappedNode(buffer, strings, getChildOffset(index), fragments);
+            children[index] = child;
+        }
+        return child;
+    }
+
+    /**
+     * Checks whether the current node matches the specified node.
+     *
+     * <p>Only node type and data must match. Nodes from the same store are compared
+     * by string identifiers without decoding strings.
+     *
+     * @param other node to be checked for match with the current node.
+     * @return {@code true} if the nodes match or {@code false} otherwise.
+     */
+    @Override
+    public boolean matches(final Node other) {
+        if (other == null) {
+            return false;
+        }
+        if (other == this) {
+            return true;
+        }
+        if (other instanceof MappedNode && ((MappedNode) other).strings == strings) {
+            final MappedNode node = (MappedNode) other;
+            return getTypeId() == node.getTypeId() && getDataId() == node.getDataId();
+        }
+        return getType().equals(other.getType()) && Objects.equals(getData(), other.getData());
+    }
+
+    /**
+     * Checks whether the subtree of this node contains the node with the specified offset.
+     *
+     * @param target the offset of the node record.
+     * @return {@code true} or {@code false}.
+     */
+    public boolean containsOffset(final int target) {
+        return target >= offset && target < buffer.getInt(offset + StoreFormat.NODE_SUBTREE_END);
+    }
+
+    /**
+     * Finds the node with the specified offset in the subtree of this node.
+     *
+     * <p>Nodes on the path from this node to the found node are created (and cached)
+     * on the way. Records of a subtree are stored in the preorder, so the path is found
+     * by a binary search among child offsets on each level.
+     *
+     * @param target the offset of the node record.
+     * @return the node.
+     * @throws IllegalArgumentException if there is no such node in the subtree.
+     */
+    public MappedNode locate(final int target) {
+        if (!containsOffset(target)) {
+            throw new IllegalArgumentException("No node with offset " + target + " in subtree!");
+        }
+        MappedNode current = this;
+        while (current.offset != target) {
+            current = current.getChild(current.findChildIndex(target));
+        }
+        return current;
+    }
+
+    /**
+     * Returns textual representation of the node. Helpful for debugging.
+     *
+     * @return textual representation of the node.
+     */
+    @Override
+    public String toString() {
+        return String.format(
+                "%s {'%s', '%s', %d} @%d",
+                getClass().getSimpleName(),
+                getType(),
+                getData(),
+                getChildCount(),
+                offset
+            );
+    }
+
+    /**
+     * Finds the index of the child, subtree of which contains the node with specified offset.
+     *
+     * @param target the offset of a node record, which is greater than the offset of this node.
+     * @return the child index.
+     */
+    private int findChildIndex(final int target) {
+        int low = 0;
+        int high = getChildCount() - 1;
+        while (low < high) {
+            final int middle = (low + high + 1) >>> 1;
+            if (getChildOffset(middle) <= target) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the offset of the child record.
+     *
+     * @param index the child index.
+     * @return the child offset.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    private int getChildOffset(final int index) {
+        if (index < 0 || index >= getChildCount()) {
+            throw new IndexOutOfBoundsException("Child index: " + index);
+        }
+        return buffer.getInt(offset + StoreFormat.NODE_CHILDREN + index * StoreFormat.INT_SIZE);
+    }
+
+    /**
+     * Returns the identifier of the node type string.
+     *
+     * @return the type string identifier.
+     */
+    private int getTypeId() {
+        return buffer.getInt(offset);
+    }
+
+    /**
+     * Returns the identifier of the node data string.
+     *
+     * @return the data string identifier or {@link StoreFormat#NONE} if there is no data.
+     */
+    private int getDataId() {
+        return buffer.getInt(offset + StoreFormat.NODE_DATA);
+    }
+
+    /**
+     * Returns node flags.
+     *
+     * @return the flags.
+     */
+    private int getFlags() {
+        return buffer.getInt(offset + StoreFormat.NODE_FLAGS);
+    }
+
+}
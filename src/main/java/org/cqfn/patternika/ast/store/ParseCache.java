@@ -0,0 +1,204 @@
+package org.cqfn.patternika.ast.store;
+
+import org.cqfn.patternika.ast.ActionTree;
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.source.Source;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Persistent content-addressed cache of parsed trees.
+ *
+ * <p>Every tree is stored in a separate file in the pattern store format
+ * (see {@link PatternStoreWriter}) named by its key, which is normally a hash of the source
+ * text and the parser version. Node records keep character indices of fragments, so loaded
+ * trees are attached to their source and have the same fragments as parsed trees.
+ * A tree is loaded by mapping a single file, which is much cheaper than parsing.
+ *
+ * <p>The total size of cache files is bounded: when it exceeds the limit, least recently
+ * used files are deleted. Usage is tracked by file modification times, which are updated
+ * when files are loaded, so several processes can share the same cache directory.
+ *
+ * @since 2021/03/23
+ */
+public class ParseCache {
+    /** Extension of cache files. */
+    private static final String EXTENSION = ".ptnk";
+
+    /** The cache directory. */
+    private final Path directory;
+
+    /** Maximum total size of cache files in bytes. */
+    private final long maxSize;
+
+    /** Estimated total size of cache files in bytes. */
+    private long size;
+
+    /**
+     * Constructor. Creates the cache directory if it does not exist.
+     *
+     * @param directory the cache directory.
+     * @param maxSize the maximum total size of cache files in bytes.
+     * @throws IOException if failed to create or to read the directory.
+     * @throws IllegalArgumentException if the maximum size is negative.
+     */
+    public ParseCache(final Path directory, final long maxSize) throws IOException {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Negative cache size: " + maxSize);
+        }
+        this.directory = Files.createDirectories(Objects.requireNonNull(directory));
+        this.maxSize = maxSize;
+        this.size = evict();
+    }
+
+    /**
+     * Returns the estimated total size of cache files.
+     *
+     * @return the size in bytes.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Loads a tree from the cache. The cache file is memory-mapped and its records
+     * are checked before use, damaged files are deleted.
+     *
+     * @param key the key (a file name without extension).
+     * @param version the version of the tree format (e.g. the parser version)
+     *        that must match the version of the stored tree.
+     * @param source the source, from which the tree was built.
+     * @return the root of the tree or {@code null} if the tree is not in the cache.
+     * @throws IOException if failed to read the cache file.
+     */
+    public Node load(final String key, final String version, final Source source)
+            throws IOException {
+        final Path file = getFile(key);
+        final PatternStore store;
+        try {
+            store = new PatternStore(file);
+            if (store.getPatternCount() != 1) {
+                throw new IOException("Not a cached tree: " + file);
+            }
+            store.checkTree(0);
+        } catch (final NoSuchFileException ex) {
+            return null;
+        } catch (final IOException ex) {
+            Files.deleteIfExists(file);
+            return null;
+        }
+        if (!version.equals(store.getLanguage(0))) {
+            return null;
+        }
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        return store.getRoot(0, source);
+    }
+
+    /**
+     * Saves a tree to the cache. Deletes least recently used files if the cache
+     * size exceeds the limit.
+     *
+     * @param key the key (a file name without extension).
+     * @param version the version of the tree format (e.g. the parser version).
+     * @param root the root of the tree.
+     * @param source the source, from which the tree was built.
+     * @return the saved tree in the form of loaded trees (see {@link #load}),
+     *         attached to the source.
+     * @throws IOException if failed to write the cache file.
+     */
+    public Node save(
+            final String key,
+            final String version,
+            final Node root,
+            final Source source) throws IOException {
+        final ByteBuffer buffer = new PatternStoreWriter()
+            .add(new ActionTree(version, root, Collections.emptyList()))
+            .toBuffer();
+        final Node result = new PatternStore(buffer.duplicate()).getRoot(0, source);
+        final Path temp = Files.createTempFile(directory, key, ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(
+                temp,
+                getFile(key),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE
+            );
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        synchronized (this) {
+            size += buffer.limit();
+            if (size > maxSize) {
+                size = evict();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the path to the cache file.
+     *
+     * @param key the key.
+     * @return the path.
+     * @throws IllegalArgumentException if the key is not a valid file name.
+     */
+    private Path getFile(final String key) {
+        final Path file = directory.resolve(key + EXTENSION);
+        if (!directory.equals(file.getParent())) {
+            throw new IllegalArgumentException("Invalid cache key: " + key);
+        }
+        return file;
+    }
+
+    /**
+     * Deletes least recently used files until the total size of files fits the limit.
+     *
+     * @return the total size of remaining files.
+     * @throws IOException if failed to read the directory or to delete files.
+     */
+    private long evict() throws IOException {
+        final Map<Path, BasicFileAttributes> files = new HashMap<>();
+        long total = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, '*' + EXTENSION)) {
+            for (final Path file : stream) {
+                final BasicFileAttributes attributes =
+                        Files.readAttributes(file, BasicFileAttributes.class);
+                files.put(file, attributes);
+                total += attributes.size();
+            }
+        }
+        final List<Path> order = new ArrayList<>(files.keySet());
+        order.sort(Comparator.comparing(file -> files.get(file).lastModifiedTime()));
+        for (final Path file : order) {
+            if (total <= maxSize) {
+                break;
+            }
+            Files.deleteIfExists(file);
+            total -= files.get(file).size();
+        }
+        return total;
+    }
+
+}
@@ -0,0 +1,439 @@
+package org.cqfn.patternika.ast.store;
+
+import org.cqfn.patternika.ast.Action;
+import org.cqfn.patternika.ast.ActionTree;
+import org.cqfn.patternika.ast.ActionType;
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.ast.NodeRegistry;
+import org.cqfn.patternika.source.Source;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Read-only store of patterns (action trees) in the binary format written by
+ * {@link PatternStoreWriter}.
+ *
+ * <p>The store file is memory-mapped. Patterns are accessed through {@link MappedNode}
+ * flyweights that read data directly from mapped pages, so no heap objects are created
+ * for nodes until they are touched. Several processes that map the same file share
+ * its pages in the page cache.
+ *
+ * <p>Patterns are located by their identifiers (order in the file) or by their root types
+ * with the help of the offset index stored in the file.
+ *
+ * @since 2021/03/15
+ */
+public class PatternStore {
+    /** Index of the parent node offset in an action record. */
+    private static final int PARENT = 1;
+
+    /** Index of the reference node offset in an action record. */
+    private static final int REF = 2;
+
+    /** Index of the accept node offset in an action record. */
+    private static final int ACCEPT = 3;
+
+    /** Buffer with the store content. */
+    private final ByteBuffer buffer;
+
+    /** Table of strings used by the store. */
+    private final StringTable strings;
+
+    /** Number of patterns in the store. */
+    private final int patternCount;
+
+    /** Offset of the pattern table. */
+    private final int patternTable;
+
+    /** Offset of the type index. */
+    private final int typeIndex;
+
+    /**
+     * Main constructor.
+     *
+     * @param buffer the buffer with the store content.
+     * @throws IOException if the buffer does not contain a valid pattern store.
+     */
+    public PatternStore(final ByteBuffer buffer) throws IOException {
+        this.buffer = Objects.requireNonNull(buffer);
+        if (buffer.limit() < StoreFormat.HEADER_SIZE || buffer.getInt(0) != StoreFormat.MAGIC) {
+            throw new IOException("Not a pattern store!");
+        }
+        final int version = buffer.getInt(StoreFormat.INT_SIZE);
+        if (version != StoreFormat.VERSION) {
+            throw new IOException("Unsupported pattern store version: " + version);
+        }
+        if (buffer.getInt(StoreFormat.STRING_COUNT) < 0
+                || buffer.getInt(StoreFormat.PATTERN_COUNT) < 0) {
+            throw new IOException("Damaged pattern store header!");
+        }
+        this.strings = new StringTable(
+                buffer,
+                buffer.getInt(StoreFormat.STRING_COUNT),
+                buffer.getInt(StoreFormat.STRING_TABLE)
+            );
+        this.patternCount = buffer.getInt(StoreFormat.PATTERN_COUNT);
+        this.patternTable = buffer.getInt(StoreFormat.PATTERN_TABLE);
+        this.typeIndex = buffer.getInt(StoreFormat.TYPE_INDEX);
+    }
+
+    /**
+     * Additional constructor that memory-maps a store file.
+     *
+     * @param path the path to the store file.
+     * @throws IOException if failed to map the file or the file is not a valid pattern store.
+     */
+    public PatternStore(final Path path) throws IOException {
+        this(map(path));
+    }
+
+    /**
+     * Maps a file to memory in the read-only mode.
+     * The mapping remains valid after the channel is closed.
+     *
+     * @param path the path to the file.
+     * @return the mapped buffer.
+     * @throws IOException if failed to map the file.
+     */
+    private static ByteBuffer map(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Returns the number of patterns in the store.
+     *
+     * @return the pattern count.
+     */
+    public int getPatternCount() {
+        return patternCount;
+    }
+
+    /**
+     * Returns the language of the pattern.
+     *
+     * @param id the pattern identifier.
+     * @return the language.
+     * @throws IndexOutOfBoundsException if there is no pattern with such identifier.
+     */
+    public String getLanguage(final int id) {
+        return strings.get(buffer.getInt(getEntry(id)));
+    }
+
+    /**
+     * Returns the type of the pattern root node without creating any nodes.
+     *
+     * @param id the pattern identifier.
+     * @return the root node type.
+     * @throws IndexOutOfBoundsException if there is no pattern with such identifier.
+     */
+    public String getRootType(final int id) {
+        return strings.get(buffer.getInt(getRootOffset(id)));
+    }
+
+    /**
+     * Returns the root node of the pattern.
+     *
+     * <p>A new flyweight is created on each call. Nodes reached from the same root object are
+     * cached, so use the same root to get the same node objects.
+     *
+     * @param id the pattern identifier.
+     * @return the root node.
+     * @throws IndexOutOfBoundsException if there is no pattern with such identifier.
+     */
+    public MappedNode getRoot(final int id) {
+        return new MappedNode(buffer, strings, getRootOffset(id));
+    }
+
+    /**
+     * Returns the root node of the pattern attached to its source code: nodes get
+     * fragments of the source by character indices stored in node records.
+     * This allows storing parsed trees of source files and restoring them without parsing.
+     *
+     * @param id the pattern identifier.
+     * @param source the source code, from which the tree was built.
+     * @return the root node.
+     * @throws IndexOutOfBoundsException if there is no pattern with such identifier.
+     */
+    public MappedNode getRoot(final int id, final Source source) {
+        final int root = getRootOffset(id);
+        final int end = buffer.getInt(root + StoreFormat.NODE_SUBTREE_END);
+        int count = 0;
+        for (int offset = root; offset < end; offset += getNodeSize(offset)) {
+            count += 1;
+        }
+        final int[] indices = new int[2 * count];
+        int index = 0;
+        for (int offset = root; offset < end; offset += getNodeSize(offset)) {
+            indices[index] = buffer.getInt(offset + StoreFormat.NODE_START);
+            indices[index + 1] = buffer.getInt(offset + StoreFormat.NODE_END);
+            index += 2;
+        }
+        return new MappedNode(buffer, strings, root, new FragmentTable(source, indices));
+    }
+
+    /**
+     * Creates a copy of the pattern root tree that consists of nodes created by a registry.
+     * The tree is built in a single pass over its node records.
+     *
+     * @param id the pattern identifier.
+     * @param registry the node registry.
+     * @return the root of the created tree.
+     * @throws IndexOutOfBoundsException if there is no pattern with such identifier.
+     * @throws IllegalArgumentException if the tree contains types unknown to the registry.
+     */
+    public Node createTree(final int id, final NodeRegistry registry) {
+        return registry.createTree(
+                new StoreReader(buffer, strings, registry).start(getRootOffset(id)));
+    }
+
+    /**
+     * Creates copies of all pattern root trees that consist of nodes created by a registry.
+     * Type strings are translated to registry type identifiers once for all patterns.
+     *
+     * @param registry the node registry.
+     * @return the list of created trees in the order of pattern identifiers.
+     * @throws IllegalArgumentException if the trees contain types unknown to the registry.
+     */
+    public List<Node> createTrees(final NodeRegistry registry) {
+        final StoreReader reader = new StoreReader(buffer, strings, registry);
+        final List<Node> result = new ArrayList<>(patternCount);
+        for (int id = 0; id < patternCount; ++id) {
+            result.add(registry.createTree(reader.start(getRootOffset(id))));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the pattern as an action tree, which nodes are flyweights over the store.
+     *
+     * @param id the pattern identifier.
+     * @return the action tree.
+     * @throws IndexOutOfBoundsException if there is no pattern with such identifier.
+     */
+    public ActionTree getActionTree(final int id) {
+        final int entry = getEntry(id);
+        final int actionCount = buffer.getInt(entry + 2 * StoreFormat.INT_SIZE);
+        final int actionTable = buffer.getInt(entry + 3 * StoreFormat.INT_SIZE);
+        final List<MappedNode> roots = new ArrayList<>();
+        roots.add(getRoot(id));
+        // Accept trees follow the root tree in the order of their offsets.
+        final int[] accepts = new int[actionCount];
+        for (int index = 0; index < actionCount; ++index) {
+            accepts[index] = getActionField(actionTable, index, ACCEPT);
+        }
+        Arrays.sort(accepts);
+        for (final int accept : accepts) {
+            locate(roots, accept);
+        }
+        final List<Action> actions = new ArrayList<>(actionCount);
+        final ActionType[] types = ActionType.values();
+        for (int index = 0; index < actionCount; ++index) {
+            actions.add(new Action(
+                    types[getActionField(actionTable, index, 0)],
+                    locate(roots, getActionField(actionTable, index, PARENT)),
+                    locate(roots, getActionField(actionTable, index, REF)),
+                    locate(roots, getActionField(actionTable, index, ACCEPT))
+                ));
+        }
+        return new ActionTree(getLanguage(id), roots.get(0), actions);
+    }
+
+    /**
+     * Finds identifiers of patterns with the specified root type.
+     *
+     * @param type the root node type.
+     * @return the array of pattern identifiers in the ascending order (can be empty).
+     */
+    public int[] findByRootType(final String type) {
+        final int count = buffer.getInt(typeIndex);
+        final int entries = typeIndex + StoreFormat.INT_SIZE;
+        final int ids = entries + count * StoreFormat.TYPE_ENTRY_SIZE;
+        for (int index = 0; index < count; ++index) {
+            final int entry = entries + index * StoreFormat.TYPE_ENTRY_SIZE;
+            if (type.equals(strings.get(buffer.getInt(entry)))) {
+                final int first = buffer.getInt(entry + StoreFormat.INT_SIZE);
+                final int[] result = new int[buffer.getInt(entry + 2 * StoreFormat.INT_SIZE)];
+                for (int position = 0; position < result.length; ++position) {
+                    result[position] =
+                            buffer.getInt(ids + (first + position) * StoreFormat.INT_SIZE);
+                }
+                return result;
+            }
+        }
+        return new int[0];
+    }
+
+    /**
+     * Checks records of the pattern root tree before the tree is used, so that a damaged
+     * store (e.g. a truncated cache file) is rejected instead of failing on access to nodes.
+     * Node records must lie within the store in the preorder, each child must start where
+     * the previous subtree ends, and strings must lie within the store.
+     *
+     * @param id the pattern identifier.
+     * @throws IOException if the records are damaged.
+     * @throws IndexOutOfBoundsException if there is no pattern with such identifier.
+     */
+    public void checkTree(final int id) throws IOException {
+        final int entry = getEntry(id);
+        check(isWithin(entry, StoreFormat.PATTERN_SIZE));
+        checkString(buffer.getInt(entry));
+        final int root = buffer.getInt(entry + StoreFormat.INT_SIZE);
+        check(isWithin(root, StoreFormat.NODE_CHILDREN));
+        final int end = buffer.getInt(root + StoreFormat.NODE_SUBTREE_END);
+        check(end > root && end <= buffer.limit());
+        for (int offset = root; offset < end; offset += getNodeSize(offset)) {
+            checkNode(offset, end);
+        }
+    }
+
+    /**
+     * Checks a node record.
+     *
+     * @param offset the offset of the node record.
+     * @param end the end of the tree records.
+     * @throws IOException if the record is damaged.
+     */
+    private void checkNode(final int offset, final int end) throws IOException {
+        check(isWithin(offset, StoreFormat.NODE_CHILDREN));
+        final int count = buffer.getInt(offset + StoreFormat.NODE_CHILD_COUNT);
+        check(count >= 0
+            && count <= (end - offset - StoreFormat.NODE_CHILDREN) / StoreFormat.INT_SIZE);
+        final int subtreeEnd = buffer.getInt(offset + StoreFormat.NODE_SUBTREE_END);
+        check(subtreeEnd > offset && subtreeEnd <= end);
+        checkString(buffer.getInt(offset));
+        final int data = buffer.getInt(offset + StoreFormat.NODE_DATA);
+        if (data != StoreFormat.NONE) {
+            checkString(data);
+        }
+        check(buffer.getInt(offset + StoreFormat.NODE_START) >= StoreFormat.NONE
+            && buffer.getInt(offset + StoreFormat.NODE_END) >= StoreFormat.NONE);
+        int next = offset + StoreFormat.getNodeSize(count);
+        for (int index = 0; index < count; ++index) {
+            final int child = buffer.getInt(
+                    offset + StoreFormat.NODE_CHILDREN + index * StoreFormat.INT_SIZE);
+            check(child == next && isWithin(child, StoreFormat.NODE_CHILDREN));
+            next = buffer.getInt(child + StoreFormat.NODE_SUBTREE_END);
+        }
+        check(next == subtreeEnd);
+    }
+
+    /**
+     * Checks that a string lies within the store.
+     *
+     * @param id the string identifier.
+     * @throws IOException if the string is damaged.
+     */
+    private void checkString(final int id) throws IOException {
+        check(id >= 0 && id < strings.size());
+        final long entry =
+                buffer.getInt(StoreFormat.STRING_TABLE) + (long) id * StoreFormat.INT_SIZE;
+        check(isWithin(entry, StoreFormat.INT_SIZE));
+        final int offset = buffer.getInt((int) entry);
+        check(isWithin(offset, StoreFormat.INT_SIZE));
+        final int length = buffer.getInt(offset);
+        check(isWithin((long) offset + StoreFormat.INT_SIZE, length));
+    }
+
+    /**
+     * Checks whether a range lies within the store.
+     *
+     * @param offset the range offset.
+     * @param size the range size.
+     * @return {@code true} or {@code false}.
+     */
+    private boolean isWithin(final long offset, final long size) {
+        return offset >= 0 && size >= 0 && offset + size <= buffer.limit();
+    }
+
+    /**
+     * Throws an exception for a damaged store if a condition is not met.
+     *
+     * @param condition the condition.
+     * @throws IOException if the condition is not met.
+     */
+    private static void check(final boolean condition) throws IOException {
+        if (!condition) {
+            throw new IOException("Damaged pattern store!");
+        }
+    }
+
+    /**
+     * Returns the offset of the pattern table entry.
+     *
+     * @param id the pattern identifier.
+     * @return the entry offset.
+     * @throws IndexOutOfBoundsException if there is no pattern with such identifier.
+     */
+    private int getEntry(final int id) {
+        if (id < 0 || id >= patternCount) {
+            throw new IndexOutOfBoundsException("Pattern id: " + id);
+        }
+        return patternTable + id * StoreFormat.PATTERN_SIZE;
+    }
+
+    /**
+     * Returns the offset of the pattern root node record.
+     *
+     * @param id the pattern identifier.
+     * @return the root node offset.
+     */
+    private int getRootOffset(final int id) {
+        return buffer.getInt(getEntry(id) + StoreFormat.INT_SIZE);
+    }
+
+    /**
+     * Returns the size of a node record.
+     *
+     * @param offset the offset of the node record.
+     * @return the record size in bytes.
+     */
+    private int getNodeSize(final int offset) {
+        return StoreFormat.getNodeSize(buffer.getInt(offset + StoreFormat.NODE_CHILD_COUNT));
+    }
+
+    /**
+     * Returns a field of an action record.
+     *
+     * @param actionTable the offset of the action table.
+     * @param index the action index.
+     * @param field the index of the field in the action record.
+     * @return the field value.
+     */
+    private int getActionField(final int actionTable, final int index, final int field) {
+        return buffer.getInt(
+                actionTable + index * StoreFormat.ACTION_SIZE + field * StoreFormat.INT_SIZE);
+    }
+
+    /**
+     * Finds a node among subtrees of the pattern roots (the root tree and accept trees).
+     * If the node is not found, it is considered to be the root of a new accept tree.
+     *
+     * @param roots the roots of the pattern trees found so far.
+     * @param offset the offset of the node record or {@link StoreFormat#NONE}.
+     * @return the node or {@code null} if the offset is {@link StoreFormat#NONE}.
+     */
+    private MappedNode locate(final List<MappedNode> roots, final int offset) {
+        if (offset == StoreFormat.NONE) {
+            return null;
+        }
+        for (final MappedNode root : roots) {
+            if (root.containsOffset(offset)) {
+                return root.locate(offset);
+            }
+        }
+        final MappedNode root = new MappedNode(buffer, strings, offset);
+        roots.add(root);
+        return root;
+    }
+
+}
@@ -0,0 +1,369 @@
+package org.cqfn.patternika.ast.store;
+
+import org.cqfn.patternika.ast.Action;
+import org.cqfn.patternika.ast.ActionTree;
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.source.Fragment;
+import org.cqfn.patternika.source.Position;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Writes action trees (patterns) to a file in the binary pattern store format.
+ *
+ * <p>The written file can be opened with {@link PatternStore}. Patterns get identifiers
+ * in the order they are added to the writer, starting from 0.
+ *
+ * @see StoreFormat
+ * @since 2021/03/15
+ */
+public class PatternStoreWriter {
+    /** Patterns to be written. */
+    private final List<ActionTree> patterns = new ArrayList<>();
+
+    /**
+     * Adds a pattern to be written.
+     *
+     * @param pattern the action tree that describes the pattern, not {@code null}.
+     * @return this writer.
+     */
+    public PatternStoreWriter add(final ActionTree pattern) {
+        patterns.add(Objects.requireNonNull(pattern));
+        return this;
+    }
+
+    /**
+     * Serializes all added patterns to a byte buffer.
+     *
+     * @return the buffer with serialized patterns (the position is 0).
+     * @throws IllegalArgumentException if an action refers to a node that does not belong
+     *         to the trees of its pattern.
+     */
+    public ByteBuffer toBuffer() {
+        final Map<String, Integer> strings = new LinkedHashMap<>();
+        final List<Layout> layouts = new ArrayList<>(patterns.size());
+        for (final ActionTree pattern : patterns) {
+            layouts.add(new Layout(pattern, strings));
+        }
+        final Map<Integer, List<Integer>> typeIndex = new TreeMap<>();
+        for (int id = 0; id < layouts.size(); ++id) {
+            final int type = strings.get(patterns.get(id).getRoot().getType());
+            typeIndex.computeIfAbsent(type, x -> new ArrayList<>()).add(id);
+        }
+        final List<byte[]> encoded = new ArrayList<>(strings.size());
+        int stringsSize = strings.size() * StoreFormat.INT_SIZE;
+        for (final String string : strings.keySet()) {
+            final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            stringsSize += StoreFormat.INT_SIZE + bytes.length;
+        }
+        final int stringTable = StoreFormat.HEADER_SIZE;
+        final int patternTable = stringTable + stringsSize;
+        final int typeIndexOffset = patternTable + layouts.size() * StoreFormat.PATTERN_SIZE;
+        int position = typeIndexOffset + StoreFormat.INT_SIZE
+                + typeIndex.size() * StoreFormat.TYPE_ENTRY_SIZE
+                + layouts.size() * StoreFormat.INT_SIZE;
+        for (final Layout layout : layouts) {
+            position = layout.place(position);
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(position);
+        buffer.putInt(StoreFormat.MAGIC)
+            .putInt(StoreFormat.VERSION)
+            .putInt(strings.size())
+            .putInt(stringTable)
+            .putInt(layouts.size())
+            .putInt(patternTable)
+            .putInt(typeIndexOffset);
+        writeStrings(buffer, encoded);
+        for (int id = 0; id < layouts.size(); ++id) {
+            final String language = patterns.get(id).getLanguage();
+            layouts.get(id).writeEntry(buffer, strings.get(language));
+        }
+        writeTypeIndex(buffer, typeIndex);
+        for (final Layout layout : layouts) {
+            layout.write(buffer, strings);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Writes all added patterns to a file. The file is created or overwritten.
+     *
+     * @param path the path to the file.
+     * @throws IOException if failed to write the file.
+     */
+    public void write(final Path path) throws IOException {
+        final ByteBuffer buffer = toBuffer();
+        try (FileChannel channel = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Writes the string table.
+     *
+     * @param buffer the target buffer.
+     * @param encoded the strings encoded in UTF-8.
+     */
+    private static void writeStrings(final ByteBuffer buffer, final List<byte[]> encoded) {
+        int offset = buffer.position() + encoded.size() * StoreFormat.INT_SIZE;
+        for (final byte[] bytes : encoded) {
+            buffer.putInt(offset);
+            offset += StoreFormat.INT_SIZE + bytes.length;
+        }
+        for (final byte[] bytes : encoded) {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    /**
+     * Writes the index of patterns by root types.
+     *
+     * @param buffer the target buffer.
+     * @param typeIndex the pattern identifiers grouped by root types.
+     */
+    private static void writeTypeIndex(
+            final ByteBuffer buffer,
+            final Map<Integer, List<Integer>> typeIndex) {
+        buffer.putInt(typeIndex.size());
+        int first = 0;
+        for (final Map.Entry<Integer, List<Integer>> entry : typeIndex.entrySet()) {
+            final int count = entry.getValue().size();
+            buffer.putInt(entry.getKey()).putInt(first).putInt(count);
+            first += count;
+        }
+        for (final List<Integer> ids : typeIndex.values()) {
+            for (final int id : ids) {
+                buffer.putInt(id);
+            }
+        }
+    }
+
+    /**
+     * Returns the character index of a position.
+     *
+     * @param position the position, can be {@code null}.
+     * @return the index or {@link StoreFormat#NONE} if there is no position.
+     */
+    private static int getIndex(final Position position) {
+        return position == null ? StoreFormat.NONE : position.getIndex();
+    }
+
+    /**
+     * Layout of a single pattern: its nodes in the preorder with their offsets and actions.
+     */
+    private static final class Layout {
+        /** The pattern. */
+        private final ActionTree pattern;
+
+        /** Nodes of the root tree and accept trees in the preorder. */
+        private final List<Node> nodes;
+
+        /** Offsets of node records. */
+        private final Map<Node, Integer> offsets;
+
+        /** Offset of the action table. */
+        private int actionTable;
+
+        /**
+         * Constructor. Collects nodes of the pattern and strings used by these nodes.
+         *
+         * @param pattern the pattern.
+         * @param strings the strings used by patterns (new strings are added).
+         */
+        private Layout(final ActionTree pattern, final Map<String, Integer> strings) {
+            this.pattern = pattern;
+            this.nodes = new ArrayList<>();
+            this.offsets = new IdentityHashMap<>();
+            intern(strings, pattern.getLanguage());
+            addTree(pattern.getRoot(), strings);
+            for (final Action action : pattern.getActions()) {
+                final Node accept = action.getAccept();
+                if (accept != null && !offsets.containsKey(accept)) {
+                    addTree(accept, strings);
+                }
+            }
+        }
+
+        /**
+         * Adds a string to the string table if it is not there yet.
+         *
+         * @param strings the string table.
+         * @param string the string, can be {@code null}.
+         */
+        private static void intern(final Map<String, Integer> strings, final String string) {
+            if (string != null) {
+                strings.computeIfAbsent(string, x -> strings.size());
+            }
+        }
+
+        /**
+         * Adds nodes of a tree in the preorder.
+         *
+         * @param root the tree root.
+         * @param strings the string table.
+         */
+        private void addTree(final Node root, final Map<String, Integer> strings) {
+            final Deque<Node> stack = new ArrayDeque<>();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                final Node node = stack.pop();
+                if (offsets.put(node, StoreFormat.NONE) != null) {
+                    throw new IllegalArgumentException("Node is shared between trees: " + node);
+                }
+                nodes.add(node);
+                intern(strings, node.getType());
+                intern(strings, node.getData());
+                for (int index = node.getChildCount() - 1; index >= 0; --index) {
+                    stack.push(node.getChild(index));
+                }
+            }
+        }
+
+        /**
+         * Assigns offsets to node records and the action table.
+         *
+         * @param start the offset, from which the pattern starts.
+         * @return the offset after the end of the pattern.
+         */
+        private int place(final int start) {
+            int position = start;
+            for (final Node node : nodes) {
+                offsets.put(node, position);
+                position += StoreFormat.getNodeSize(node.getChildCount());
+            }
+            actionTable = position;
+            return position + pattern.getActions().size() * StoreFormat.ACTION_SIZE;
+        }
+
+        /**
+         * Writes the pattern table entry.
+         *
+         * @param buffer the target buffer.
+         * @param language the language string identifier.
+         */
+        private void writeEntry(final ByteBuffer buffer, final int language) {
+            buffer.putInt(language)
+                .putInt(offsets.get(pattern.getRoot()))
+                .putInt(pattern.getActions().size())
+                .putInt(actionTable);
+        }
+
+        /**
+         * Writes node records and actions.
+         *
+         * @param buffer the target buffer.
+         * @param strings the string table.
+         */
+        private void write(final ByteBuffer buffer, final Map<String, Integer> strings) {
+            final int[] subtreeEnds = getSubtreeEnds();
+            for (int index = 0; index < nodes.size(); ++index) {
+                writeNode(buffer, strings, nodes.get(index), subtreeEnds[index]);
+            }
+            for (final Action action : pattern.getActions()) {
+                buffer.putInt(action.getType().ordinal())
+                    .putInt(getOffset(action.getParent()))
+                    .putInt(getOffset(action.getRef()))
+                    .putInt(getOffset(action.getAccept()));
+            }
+        }
+
+        /**
+         * Writes a node record.
+         *
+         * @param buffer the target buffer.
+         * @param strings the string table.
+         * @param node the node.
+         * @param subtreeEnd the offset of the end of the node subtree.
+         */
+        private void writeNode(
+                final ByteBuffer buffer,
+                final Map<String, Integer> strings,
+                final Node node,
+                final int subtreeEnd) {
+            final String data = node.getData();
+            final Fragment fragment = node.getFragment();
+            int flags = 0;
+            if (node.isChildCountLimitless()) {
+                flags |= StoreFormat.FLAG_LIMITLESS;
+            }
+            if (node.isChildOrderStrict()) {
+                flags |= StoreFormat.FLAG_STRICT_ORDER;
+            }
+            final int count = node.getChildCount();
+            buffer.putInt(strings.get(node.getType()))
+                .putInt(data == null ? StoreFormat.NONE : strings.get(data))
+                .putInt(flags)
+                .putInt(fragment == null ? StoreFormat.NONE : getIndex(fragment.getStart()))
+                .putInt(fragment == null ? StoreFormat.NONE : getIndex(fragment.getEnd()))
+                .putInt(subtreeEnd)
+                .putInt(count);
+            for (int index = 0; index < count; ++index) {
+                buffer.putInt(offsets.get(node.getChild(index)));
+            }
+        }
+
+        /**
+         * Calculates offsets of the ends of node subtrees.
+         * Nodes are processed in the reverse preorder, so children go before parents.
+         *
+         * @return the array of subtree end offsets for nodes in the preorder.
+         */
+        private int[] getSubtreeEnds() {
+            final int size = nodes.size();
+            final int[] result = new int[size];
+            final Map<Node, Integer> positions = new IdentityHashMap<>();
+            for (int index = size - 1; index >= 0; --index) {
+                final Node node = nodes.get(index);
+                final int count = node.getChildCount();
+                if (count == 0) {
+                    result[index] = offsets.get(node) + StoreFormat.getNodeSize(0);
+                } else {
+                    result[index] = result[positions.get(node.getChild(count - 1))];
+                }
+                positions.put(node, index);
+            }
+            return result;
+        }
+
+        /**
+         * Returns the offset of a node record.
+         *
+         * @param node the node, can be {@code null}.
+         * @return the offset or {@link StoreFormat#NONE} if the node is {@code null}.
+         * @throws IllegalArgumentException if the node does not belong to the pattern.
+         */
+        private int getOffset(final Node node) {
+            if (node == null) {
+                return StoreFormat.NONE;
+            }
+            final Integer offset = offsets.get(node);
+            if (offset == null) {
+                throw new IllegalArgumentException("Action node is not in the pattern: " + node);
+            }
+            return offset;
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package org.cqfn.patternika.ast.store;
+
+/**
+ * Constants that describe the layout of the binary pattern store format.
+ *
+ * <p>All numbers are 32-bit big-endian integers, all offsets are absolute offsets from
+ * the start of the file, and {@code -1} stands for a missing value (e.g. {@code null} data).
+ * The file consists of the following sections:
+ * <p>
+ * 1. Header: magic number, version, string count, string table offset,
+ *    pattern count, pattern table offset, type index offset.
+ * 2. String table: offsets of strings followed by strings (byte length and UTF-8 bytes).
+ * 3. Pattern table: language string, root node offset, action count, action table offset.
+ * 4. Type index: entry count, entries (root type string, first position, pattern count),
+ *    and pattern identifiers grouped by root type.
+ * 5. Patterns: node records in the preorder (root tree and then accept trees) and actions
+ *    (action type, parent offset, reference offset, accept offset).
+ * <p>
+ * A node record contains the type string, the data string, flags, fragment start and end
+ * indices, the offset of the end of the node subtree, the child count and child offsets.
+ *
+ * @since 2021/03/15
+ */
+final class StoreFormat {
+    /** Magic number that identifies pattern store files ("PTNK"). */
+    static final int MAGIC = 0x50544E4B;
+
+    /** Version of the format. */
+    static final int VERSION = 1;
+
+    /** Size of an integer value in bytes. */
+    static final int INT_SIZE = Integer.BYTES;
+
+    /** Offset of the string count in the header. */
+    static final int STRING_COUNT = 2 * INT_SIZE;
+
+    /** Offset of the string table offset in the header. */
+    static final int STRING_TABLE = 3 * INT_SIZE;
+
+    /** Offset of the pattern count in the header. */
+    static final int PATTERN_COUNT = 4 * INT_SIZE;
+
+    /** Offset of the pattern table offset in the header. */
+    static final int PATTERN_TABLE = 5 * INT_SIZE;
+
+    /** Offset of the type index offset in the header. */
+    static final int TYPE_INDEX = 6 * INT_SIZE;
+
+    /** Size of the header in bytes. */
+    static final int HEADER_SIZE = 7 * INT_SIZE;
+
+    /** Size of a pattern table entry in bytes. */
+    static final int PATTERN_SIZE = 4 * INT_SIZE;
+
+    /** Size of a type index entry in bytes. */
+    static final int TYPE_ENTRY_SIZE = 3 * INT_SIZE;
+
+    /** Size of an action record in bytes. */
+    static final int ACTION_SIZE = 4 * INT_SIZE;
+
+    /** Offset of the data string in a node record. */
+    static final int NODE_DATA = INT_SIZE;
+
+    /** Offset of the flags in a node record. */
+    static final int NODE_FLAGS = 2 * INT_SIZE;
+
+    /** Offset of the fragment start index in a node record. */
+    static final int NODE_START = 3 * INT_SIZE;
+
+    /** Offset of the fragment end index in a node record. */
+    static final int NODE_END = 4 * INT_SIZE;
+
+    /** Offset of the subtree end offset in a node record. */
+    static final int NODE_SUBTREE_END = 5 * INT_SIZE;
+
+    /** Offset of the child count in a node record. */
+    static final int NODE_CHILD_COUNT = 6 * INT_SIZE;
+
+    /** Offset of the child offsets in a node record (size of a record without children). */
+    static final int NODE_CHILDREN = 7 * INT_SIZE;
+
+    /** Flag that states that the node has no limits on the number of its children. */
+    static final int FLAG_LIMITLESS = 1;
+
+    /** Flag that states that the order of node children is strict. */
+    static final int FLAG_STRICT_ORDER = 2;
+
+    /** Value used for missing strings and offsets. */
+    static final int NONE = -1;
+
+    /**
+     * Private constructor.
+     */
+    private StoreFormat() { }
+
+    /**
+     * Returns the size of a node record.
+     *
+     * @param childCount the number of node children.
+     * @return the size of the node record in bytes.
+     */
+    static int getNodeSize(final int childCount) {
+        return NODE_CHILDREN + childCount * INT_SIZE;
+    }
+
+}
@@ -0,0 +1,139 @@
+package org.cqfn.patternika.ast.store;
+
+import org.cqfn.patternika.ast.NodeRegistry;
+import org.cqfn.patternika.ast.PreorderReader;
+import org.cqfn.patternika.source.Fragment;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Reads node records of stored trees in the preorder (the order, in which they are stored).
+ *
+ * <p>Type strings of the store are translated to type identifiers of a node registry.
+ * Each string is translated once, so a reader should be reused for reading several trees
+ * of the same store.
+ *
+ * @since 2021/03/18
+ */
+class StoreReader implements PreorderReader {
+    /** Marks type strings that have not been translated yet. */
+    private static final int UNRESOLVED = Integer.MIN_VALUE;
+
+    /** Buffer with the store content. */
+    private final ByteBuffer buffer;
+
+    /** Table of strings used by the store. */
+    private final StringTable strings;
+
+    /** Registry, to which type identifiers belong. */
+    private final NodeRegistry registry;
+
+    /** Registry type identifiers by string identifiers. */
+    private final int[] typeIds;
+
+    /** Offset of the current node record. */
+    private int offset;
+
+    /** Offset of the next node record. */
+    private int next;
+
+    /** Offset of the end of the tree that is being read. */
+    private int end;
+
+    /**
+     * Constructor.
+     *
+     * @param buffer the buffer with the store content.
+     * @param strings the table of strings used by the store.
+     * @param registry the node registry.
+     */
+    StoreReader(final ByteBuffer buffer, final StringTable strings, final NodeRegistry registry) {
+        this.buffer = Objects.requireNonNull(buffer);
+        this.strings = Objects.requireNonNull(strings);
+        this.registry = Objects.requireNonNull(registry);
+        this.typeIds = new int[strings.size()];
+        Arrays.fill(typeIds, UNRESOLVED);
+    }
+
+    /**
+     * Starts reading the tree with the specified root.
+     *
+     * @param root the offset of the root node record.
+     * @return this reader.
+     */
+    StoreReader start(final int root) {
+        this.next = root;
+        this.end = buffer.getInt(root + StoreFormat.NODE_SUBTREE_END);
+        return this;
+    }
+
+    /**
+     * Moves to the next node record.
+     *
+     * @return {@code true} if there is the next node in the tree or {@code false} otherwise.
+     */
+    @Override
+    public boolean next() {
+        if (next >= end) {
+            return false;
+        }
+        offset = next;
+        next += StoreFormat.getNodeSize(getChildCount());
+        return true;
+    }
+
+    /**
+     * Returns the registry type identifier of the current node.
+     *
+     * @return type identifier.
+     * @throws IllegalArgumentException if the type is not registered in the registry.
+     */
+    @Override
+    public int getTypeId() {
+        final int stringId = buffer.getInt(offset);
+        int typeId = typeIds[stringId];
+        if (typeId == UNRESOLVED) {
+            final String type = strings.get(stringId);
+            typeId = registry.getTypeId(type);
+            if (typeId == NodeRegistry.UNKNOWN) {
+                throw new IllegalArgumentException("Unknown node type: " + type);
+            }
+            typeIds[stringId] = typeId;
+        }
+        return typeId;
+    }
+
+    /**
+     * Returns the fragment of the current node.
+     * Stored nodes are detached from the source code, so they have no fragments.
+     *
+     * @return {@code null}.
+     */
+    @Override
+    public Fragment getFragment() {
+        return null;
+    }
+
+    /**
+     * Returns the data of the current node.
+     *
+     * @return node data.
+     */
+    @Override
+    public String getData() {
+        return strings.get(buffer.getInt(offset + StoreFormat.NODE_DATA));
+    }
+
+    /**
+     * Returns the number of children of the current node.
+     *
+     * @return child count.
+     */
+    @Override
+    public int getChildCount() {
+        return buffer.getInt(offset + StoreFormat.NODE_CHILD_COUNT);
+    }
+
+}
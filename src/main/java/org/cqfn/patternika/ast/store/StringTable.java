@@ -0,0 +1,80 @@
+package org.cqfn.patternika.ast.store;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Table of strings stored in a byte buffer.
+ *
+ * <p>Strings are decoded on the first access and cached, so each string is decoded only once.
+ * Concurrent decoding of the same string is harmless as strings are immutable.
+ *
+ * @since 2021/03/15
+ */
+class StringTable {
+    /** Buffer that contains strings. */
+    private final ByteBuffer buffer;
+
+    /** Offset of the table of string offsets. */
+    private final int tableOffset;
+
+    /** Cache of decoded strings (lazy). */
+    private final String[] strings;
+
+    /**
+     * Constructor.
+     *
+     * @param buffer the buffer that contains strings.
+     * @param count the number of strings.
+     * @param tableOffset the offset of the table of string offsets.
+     */
+    StringTable(final ByteBuffer buffer, final int count, final int tableOffset) {
+        this.buffer = Objects.requireNonNull(buffer);
+        this.tableOffset = tableOffset;
+        this.strings = new String[count];
+    }
+
+    /**
+     * Returns a string by its identifier.
+     *
+     * @param id the string identifier or {@link StoreFormat#NONE}.
+     * @return the string or {@code null} if the identifier is {@link StoreFormat#NONE}.
+     */
+    String get(final int id) {
+        if (id == StoreFormat.NONE) {
+            return null;
+        }
+        String result = strings[id];
+        if (result == null) {
+            result = decode(buffer.getInt(tableOffset + id * StoreFormat.INT_SIZE));
+            strings[id] = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of strings in the table.
+     *
+     * @return string count.
+     */
+    int size() {
+        return strings.length;
+    }
+
+    /**
+     * Decodes a string stored at the specified offset.
+     *
+     * @param offset the string offset.
+     * @return the string.
+     */
+    private String decode(final int offset) {
+        final int length = buffer.getInt(offset);
+        final byte[] bytes = new byte[length];
+        final ByteBuffer view = buffer.duplicate();
+        view.position(offset + StoreFormat.INT_SIZE);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,11 @@
+/**
+ * This package contains classes that store node trees and action trees in a compact binary
+ * format and provide read-only access to them without deserializing the whole content.
+ *
+ * <p>Stored trees are accessed through flyweight nodes that read data directly from a
+ * (memory-mapped) byte buffer. Therefore, processes that map the same file share its pages
+ * and do not need to hold the stored trees in the heap.
+ *
+ * @since 2021/03/15
+ */
+package org.cqfn.patternika.ast.store;
@@ -0,0 +1,173 @@
+package org.cqfn.patternika.ast.visitor;
+
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.ast.TreeIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Traverses a tree in parallel and applies read-only visitors to its nodes.
+ *
+ * <p>The tree is split at large subtrees into fork/join tasks. Each task gets its own visitor
+ * created by a factory, applies it to its part of the tree in the same way as
+ * {@link Traversal} does and extracts a result from the visitor. Results of tasks
+ * are merged with a combine function, similar to a {@link java.util.stream.Collector}.
+ *
+ * <p>A visitor of a task is not applied to ancestors of the task subtree, and nodes
+ * of large subtrees are not passed to the visitor of the parent task. So, visitors must not
+ * depend on the context of ancestor nodes, and the combine function must be associative and
+ * commutative. Nodes must be safe for concurrent reading.
+ *
+ * @param <V> the type of visitors.
+ * @param <R> the type of results.
+ *
+ * @since 2021/03/23
+ */
+public class ParallelTraversal<V extends Visitor, R> {
+    /** Default minimal size of a subtree processed by a separate task. */
+    public static final int DEFAULT_THRESHOLD = 1024;
+
+    /** Creates a visitor for a task. */
+    private final Supplier<V> factory;
+
+    /** Extracts the result from a visitor after its task is completed. */
+    private final Function<V, R> finisher;
+
+    /** Merges results of tasks. */
+    private final BinaryOperator<R> combiner;
+
+    /** Minimal size of a subtree processed by a separate task. */
+    private final int threshold;
+
+    /** Pool that executes tasks. */
+    private final ForkJoinPool pool;
+
+    /**
+     * Main constructor.
+     *
+     * @param factory creates a visitor for a task, not {@code null}.
+     * @param finisher extracts the result from a visitor after its task is completed,
+     *        not {@code null}.
+     * @param combiner merges results of tasks, not {@code null}.
+     * @param threshold the minimal size of a subtree processed by a separate task.
+     * @param pool the pool that executes tasks, not {@code null}.
+     */
+    public ParallelTraversal(
+            final Supplier<V> factory,
+            final Function<V, R> finisher,
+            final BinaryOperator<R> combiner,
+            final int threshold,
+            final ForkJoinPool pool) {
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("Threshold must be positive: " + threshold);
+        }
+        this.factory = Objects.requireNonNull(factory);
+        this.finisher = Objects.requireNonNull(finisher);
+        this.combiner = Objects.requireNonNull(combiner);
+        this.threshold = threshold;
+        this.pool = Objects.requireNonNull(pool);
+    }
+
+    /**
+     * Additional constructor that uses the default threshold and the common pool.
+     *
+     * @param factory creates a visitor for a task, not {@code null}.
+     * @param finisher extracts the result from a visitor after its task is completed,
+     *        not {@code null}.
+     * @param combiner merges results of tasks, not {@code null}.
+     */
+    public ParallelTraversal(
+            final Supplier<V> factory,
+            final Function<V, R> finisher,
+            final BinaryOperator<R> combiner) {
+        this(factory, finisher, combiner, DEFAULT_THRESHOLD, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Traverses the specified tree from root to leaves and applies visitors to all nodes.
+     *
+     * <p>If {@link Visitor#enter(Node)} returns {@code false} for some node,
+     * children of this node are not traversed.
+     *
+     * @param root root of the node tree to be traversed, not {@code null}.
+     * @return the combined result of all visitors.
+     */
+    public R process(final Node root) {
+        return process(new TreeIndex<>(root));
+    }
+
+    /**
+     * Traverses the indexed tree from root to leaves and applies visitors to all nodes.
+     * Sizes of subtrees are taken from the index.
+     *
+     * @param index the index of the node tree to be traversed, not {@code null}.
+     * @return the combined result of all visitors.
+     */
+    public R process(final TreeIndex<?> index) {
+        return pool.invoke(new Task(index, index.getNode(0)));
+    }
+
+    /**
+     * Task that processes a subtree with its own visitor.
+     */
+    private final class Task extends RecursiveTask<R> {
+        /** Serial version UID. */
+        private static final long serialVersionUID = 1L;
+
+        /** Index of the tree. */
+        private final TreeIndex<?> index;
+
+        /** Root of the subtree. */
+        private final Node root;
+
+        /**
+         * Constructor.
+         *
+         * @param index the index of the tree.
+         * @param root the root of the subtree.
+         */
+        private Task(final TreeIndex<?> index, final Node root) {
+            this.index = index;
+            this.root = root;
+        }
+
+        /**
+         * Processes the subtree. Large subtrees of children are processed by forked tasks.
+         *
+         * @return the combined result of the visitor of this task and forked tasks.
+         */
+        @Override
+        protected R compute() {
+            final V visitor = factory.get();
+            final List<Task> forked = new ArrayList<>();
+            if (visitor.enter(root)) {
+                final Traversal traversal = new Traversal(visitor);
+                final int count = root.getChildCount();
+                for (int position = 0; position < count; ++position) {
+                    final Node child = root.getChild(position);
+                    if (index.getSize(child) >= threshold) {
+                        final Task task = new Task(index, child);
+                        task.fork();
+                        forked.add(task);
+                    } else {
+                        traversal.process(child);
+                    }
+                }
+                visitor.leave(root);
+            }
+            R result = finisher.apply(visitor);
+            for (final Task task : forked) {
+                result = combiner.apply(result, task.join());
+            }
+            return result;
+        }
+    }
+
+}
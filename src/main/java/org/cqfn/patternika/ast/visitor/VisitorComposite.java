@@ -2,35 +2,116 @@ package org.cqfn.patternika.ast.visitor;
 
 import org.cqfn.patternika.ast.Node;
 
+import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Composite visitor that stores visitors for specific node types.
  * It accepts a node, finds an appropriate visitor, and applies it to the node.
  *
+ * <p>Visitors can be registered for node classes and for node types returned by
+ * {@link Node#getType()}. The latter is needed for node implementations that use the same
+ * class for all types of nodes (e.g. {@code JavaNode}). Visitors registered for node types
+ * take precedence. A node type is found with a single hash lookup, which is cheap, as hash
+ * codes of type strings are cached (and {@code JavaNode} types are interned strings).
+ *
+ * <p>Visitors resolved for node classes (including their absence) are cached,
+ * so the class hierarchy is walked only once per class.
+ *
+ * <p>Subtrees of nodes that have no visitors can be skipped. This is useful when
+ * the analysis is interested only in nodes reachable via registered types: containers on
+ * the path to them are registered with {@link #CONTINUE}. Single types can be excluded
+ * from the traversal with {@link #SKIP}.
+ *
  * @since 2020/5/12
  */
 public class VisitorComposite implements Visitor {
+    /** Visitor that skips subtrees of nodes. */
+    public static final Visitor SKIP = new Visitor() {
+        @Override
+        public boolean enter(final Node node) {
+            return false;
+        }
+
+        @Override
+        public void leave(final Node node) {
+            // Does nothing, never called.
+        }
+    };
+
+    /** Visitor that does nothing, but visits children of nodes. */
+    public static final Visitor CONTINUE = new Visitor() {
+        @Override
+        public boolean enter(final Node node) {
+            return true;
+        }
+
+        @Override
+        public void leave(final Node node) {
+            // Does nothing.
+        }
+    };
+
+    /** Visitor that marks the absence of a visitor in the cache, it visits all nodes. */
+    private static final Visitor NONE = new Visitor() {
+        @Override
+        public boolean enter(final Node node) {
+            return true;
+        }
+
+        @Override
+        public void leave(final Node node) {
+            // Does nothing.
+        }
+    };
+
     /** Visitors for specific node types. Key: node class, value: visitor for this class. */
     private final Map<Class<? extends Node>, Visitor> visitors = new IdentityHashMap<>();
 
+    /** Visitors for specific node types. Key: node type, value: visitor for this type. */
+    private final Map<String, Visitor> typeVisitors = new HashMap<>();
+
+    /** Cache of visitors resolved for node classes ({@link #NONE} if there is no visitor). */
+    private final Map<Class<?>, Visitor> resolved = new ConcurrentHashMap<>();
+
+    /** Flag that specifies whether subtrees of nodes without visitors are skipped. */
+    private final boolean skipUnregistered;
+
+    /**
+     * Main constructor.
+     *
+     * @param skipUnregistered {@code true} if subtrees of nodes without visitors
+     *        must be skipped or {@code false} if they must be visited.
+     */
+    public VisitorComposite(final boolean skipUnregistered) {
+        this.skipUnregistered = skipUnregistered;
+    }
+
+    /**
+     * Additional constructor. Subtrees of nodes without visitors are visited.
+     */
+    public VisitorComposite() {
+        this(false);
+    }
+
     /**
      * Finds a proper visitor, applies it, and returns its result.
      *
-     * <p>If no visitor is found, {@code true} is returned. This means
-     * that if not visitor is defined for a node, its children are always traversed.
+     * <p>If no visitor is found, children are visited unless the composite
+     * skips nodes without visitors.
      *
      * @see Visitor#enter(Node)
      */
     @Override
     public boolean enter(final Node node) {
-        final Visitor visitor = findNodeVisitor(node.getClass());
-        if (visitor != null) {
-            return visitor.enter(node);
+        final Visitor visitor = getVisitor(node);
+        if (visitor == NONE) {
+            return !skipUnregistered;
         }
-        return true;
+        return visitor.enter(node);
     }
 
     /**
@@ -40,10 +121,7 @@ public class VisitorComposite implements Visitor {
      */
     @Override
     public void leave(final Node node) {
-        final Visitor visitor = findNodeVisitor(node.getClass());
-        if (visitor != null) {
-            visitor.leave(node);
-        }
+        getVisitor(node).leave(node);
     }
 
     /**
@@ -59,6 +137,21 @@ public class VisitorComposite implements Visitor {
         Objects.requireNonNull(nodeClass);
         Objects.requireNonNull(visitor);
         visitors.put(nodeClass, visitor);
+        resolved.clear();
+        return this;
+    }
+
+    /**
+     * Registers a visitor for a specific node type (see {@link Node#getType()}).
+     *
+     * @param type node type, not {@code null}.
+     * @param visitor visitor for this node type, not {@code null}.
+     * @return this object.
+     */
+    public VisitorComposite register(final String type, final Visitor visitor) {
+        Objects.requireNonNull(type);
+        Objects.requireNonNull(visitor);
+        typeVisitors.put(type, visitor);
         return this;
     }
 
@@ -70,11 +163,55 @@ public class VisitorComposite implements Visitor {
      * @return visitor or {@code null} if not found.
      */
     public Visitor findNodeVisitor(final Class<? extends Node> nodeClass) {
-        Visitor visitor = null;
-        Class<?> clazz = nodeClass;
-        while (visitor == null && clazz != null) {
-            visitor = visitors.get(clazz);
-            clazz = clazz.getSuperclass();
+        final Visitor visitor = resolve(nodeClass);
+        return visitor == NONE ? null : visitor;
+    }
+
+    /**
+     * Finds a visitor for the specified node type.
+     *
+     * @param type node type, not {@code null}.
+     * @return visitor or {@code null} if not found.
+     */
+    public Visitor findTypeVisitor(final String type) {
+        return typeVisitors.get(type);
+    }
+
+    /**
+     * Returns a visitor for the node: a visitor for its type, a visitor for its class,
+     * or {@link #NONE}.
+     *
+     * @param node the node.
+     * @return the visitor.
+     */
+    private Visitor getVisitor(final Node node) {
+        if (!typeVisitors.isEmpty()) {
+            final Visitor visitor = typeVisitors.get(node.getType());
+            if (visitor != null) {
+                return visitor;
+            }
+        }
+        return resolve(node.getClass());
+    }
+
+    /**
+     * Resolves a visitor for the node class with the help of the cache.
+     *
+     * @param nodeClass node class.
+     * @return the visitor or {@link #NONE} if not found.
+     */
+    private Visitor resolve(final Class<?> nodeClass) {
+        Visitor visitor = resolved.get(nodeClass);
+        if (visitor == null) {
+            Class<?> clazz = nodeClass;
+            while (visitor == null && clazz != null) {
+                visitor = visitors.get(clazz);
+                clazz = clazz.getSuperclass();
+            }
+            if (visitor == null) {
+                visitor = NONE;
+            }
+            resolved.put(nodeClass, visitor);
         }
         return visitor;
     }
@@ -0,0 +1,391 @@
+package org.cqfn.patternika.handlers;
+
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.ast.NodeExt;
+import org.cqfn.patternika.ast.iterator.BreadthFirst;
+import org.cqfn.patternika.ast.mapper.Alignment;
+import org.cqfn.patternika.ast.mapper.AnchoredMapper;
+import org.cqfn.patternika.ast.mapper.Budget;
+import org.cqfn.patternika.ast.mapper.GreedMapper;
+import org.cqfn.patternika.ast.mapper.HashMapper;
+import org.cqfn.patternika.ast.mapper.Mapper;
+import org.cqfn.patternika.ast.mapper.Mapping;
+import org.cqfn.patternika.ast.mapper.MappingListener;
+import org.cqfn.patternika.ast.mapper.MappingPhase;
+import org.cqfn.patternika.ast.mapper.MappingStatistics;
+import org.cqfn.patternika.ast.mapper.ParallelMapper;
+import org.cqfn.patternika.lang.java.parser.javaparser.JavaParserAdapter;
+import org.cqfn.patternika.lang.java.parser.javaparser.ParserJava;
+import org.cqfn.patternika.parser.Parser;
+import org.cqfn.patternika.parser.ParserException;
+import org.cqfn.patternika.parser.ParserPool;
+import org.cqfn.patternika.source.SourceFile;
+import org.cqfn.patternika.util.cmdline.Handler;
+import org.cqfn.patternika.util.cmdline.Resources;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Handler for the "map" action: maps ASTs of two Java files and prints statistics
+ * on the quality and cost of the mapping.
+ * <p>
+ * The output contains the numbers of mapped and unmapped nodes, the mapping ratio,
+ * time of mapping phases and the peak heap usage. With the "repeat" option, mapping
+ * is run several times (to warm up the JVM), and statistics is printed for the last run.
+ *
+ * @since 2021/03/22
+ */
+public class MapHandler implements Handler {
+    /** Name of the argument with the first file. */
+    public static final String FILE1 = "file1";
+
+    /** Name of the argument with the second file. */
+    public static final String FILE2 = "file2";
+
+    /** Name of the option that selects the mapper. */
+    public static final String MAPPER = "mapper";
+
+    /** Name of the option that sets the number of runs. */
+    public static final String REPEAT = "repeat";
+
+    /** Name of the greed mapper. */
+    static final String GREED = "greed";
+
+    /** Name of the hash mapper. */
+    static final String HASH = "hash";
+
+    /** Name of the anchored mapper. */
+    static final String ANCHORED = "anchored";
+
+    /** Name of the parallel mapper. */
+    static final String PARALLEL = "parallel";
+
+    /** Name of the greed mapper that aligns children as in the patience diff. */
+    static final String PATIENCE = "patience";
+
+    /** Number of nanoseconds in a millisecond. */
+    private static final double NANOS_IN_MILLI = 1_000_000.0;
+
+    /** Number of bytes in a megabyte. */
+    private static final double BYTES_IN_MEGA = 1024.0 * 1024.0;
+
+    /** Stream for the results. */
+    private final PrintStream out;
+
+    /** Stream for error messages. */
+    private final PrintStream err;
+
+    /** Pool of parsers. */
+    private final ParserPool parsers;
+
+    /**
+     * Main constructor.
+     *
+     * @param out the stream for the results.
+     * @param err the stream for error messages.
+     * @param parsers the pool of parsers.
+     */
+    public MapHandler(final PrintStream out, final PrintStream err, final ParserPool parsers) {
+        this.out = Objects.requireNonNull(out);
+        this.err = Objects.requireNonNull(err);
+        this.parsers = Objects.requireNonNull(parsers);
+    }
+
+    /**
+     * Additional constructor that creates a pool of Java parsers.
+     *
+     * @param out the stream for the results.
+     * @param err the stream for error messages.
+     */
+    public MapHandler(final PrintStream out, final PrintStream err) {
+        this(out, err, createParsers());
+    }
+
+    /**
+     * Additional constructor that uses the standard output and error streams.
+     */
+    public MapHandler() {
+        this(System.out, System.err);
+    }
+
+    /**
+     * Handles the "map" action.
+     *
+     * @param arguments the arguments: two files to be mapped.
+     * @param options the options: the mapper name and the number of runs.
+     */
+    @Override
+    public void handle(
+            final Map<String, String> arguments,
+            final Map<String, List<String>> options) {
+        try {
+            final String mapper = getOption(options, MAPPER, GREED);
+            if (!isMapper(mapper)) {
+                throw new IllegalArgumentException("Unknown mapper: " + mapper);
+            }
+            final int repeat = Integer.parseInt(getOption(options, REPEAT, "1"));
+            if (repeat <= 0) {
+                throw new IllegalArgumentException("Number of runs must be positive: " + repeat);
+            }
+            final Node root1 = parse(parsers, arguments.get(FILE1));
+            final Node root2 = parse(parsers, arguments.get(FILE2));
+            run(mapper, repeat, root1, root2);
+        } catch (final IOException | ParserException | IllegalArgumentException ex) {
+            err.println("Failed to map files: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Handles the "map" action and prints the results to the specified streams.
+     * Files are parsed by parsers of the shared pool (if any).
+     *
+     * @param arguments the arguments: two files to be mapped.
+     * @param options the options: the mapper name and the number of runs.
+     * @param resources the shared resources: the pool of parsers.
+     * @param output the stream for the results.
+     * @param errors the stream for error messages.
+     */
+    @Override
+    public void handle(
+            final Map<String, String> arguments,
+            final Map<String, List<String>> options,
+            final Resources resources,
+            final PrintStream output,
+            final PrintStream errors) {
+        final ParserPool pool = resources.get(ParserPool.class);
+        new MapHandler(output, errors, pool == null ? parsers : pool).handle(arguments, options);
+    }
+
+    /**
+     * Checks whether the action can be executed on a request of a server.
+     *
+     * @return {@code true}, mapping completes and prints to the specified streams.
+     */
+    @Override
+    public boolean isOneShot() {
+        return true;
+    }
+
+    /**
+     * Returns the value of an option.
+     *
+     * @param options the options.
+     * @param name the option name.
+     * @param defaultValue the value used if the option is not specified.
+     * @return the option value.
+     */
+    private static String getOption(
+            final Map<String, List<String>> options,
+            final String name,
+            final String defaultValue) {
+        final List<String> values = options.get(name);
+        return values == null || values.isEmpty() ? defaultValue : values.get(0);
+    }
+
+    /**
+     * Creates a pool of Java parsers.
+     *
+     * @return the pool.
+     */
+    static ParserPool createParsers() {
+        return new ParserPool(() -> new ParserJava(new JavaParserAdapter()));
+    }
+
+    /**
+     * Parses a Java file with a parser of a pool.
+     *
+     * @param pool the pool of parsers.
+     * @param file the file path.
+     * @return the AST.
+     * @throws IOException if failed to read the file.
+     * @throws ParserException if failed to parse the file.
+     */
+    static Node parse(final ParserPool pool, final String file)
+            throws IOException, ParserException {
+        final String text =
+                new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8);
+        final Parser parser = pool.acquire();
+        try {
+            return parser.parse(new SourceFile(text));
+        } finally {
+            pool.release(parser);
+        }
+    }
+
+    /**
+     * Checks whether a mapper name is known.
+     *
+     * @param name the mapper name.
+     * @return {@code true} or {@code false}.
+     */
+    static boolean isMapper(final String name) {
+        return GREED.equals(name)
+            || HASH.equals(name)
+            || ANCHORED.equals(name)
+            || PARALLEL.equals(name)
+            || PATIENCE.equals(name);
+    }
+
+    /**
+     * Creates a mapper.
+     *
+     * @param name the mapper name.
+     * @param root1 the first tree.
+     * @param root2 the second tree.
+     * @param listener the listener.
+     * @return the mapper.
+     */
+    static Mapper<NodeExt> createMapper(
+            final String name,
+            final NodeExt root1,
+            final NodeExt root2,
+            final MappingListener listener) {
+        return createMapper(name, root1, root2, listener, Budget.UNLIMITED);
+    }
+
+    /**
+     * Creates a mapper limited by a budget.
+     *
+     * @param name the mapper name.
+     * @param root1 the first tree.
+     * @param root2 the second tree.
+     * @param listener the listener.
+     * @param budget the budget that limits mapping.
+     * @return the mapper.
+     */
+    static Mapper<NodeExt> createMapper(
+            final String name,
+            final NodeExt root1,
+            final NodeExt root2,
+            final MappingListener listener,
+            final Budget budget) {
+        final Mapper<NodeExt> result;
+        if (HASH.equals(name)) {
+            result = new HashMapper(root1, root2, listener, budget);
+        } else if (ANCHORED.equals(name)) {
+            result = new AnchoredMapper(root1, root2, listener, budget);
+        } else if (PARALLEL.equals(name)) {
+            result = new ParallelMapper(root1, root2, listener, budget);
+        } else if (PATIENCE.equals(name)) {
+            result = new GreedMapper(root1, root2, listener, budget, Alignment.PATIENCE);
+        } else {
+            result = new GreedMapper(root1, root2, listener, budget);
+        }
+        return result;
+    }
+
+    /**
+     * Maps trees several times and prints statistics for the last run.
+     *
+     * @param mapper the mapper name.
+     * @param repeat the number of runs.
+     * @param tree1 the first tree.
+     * @param tree2 the second tree.
+     */
+    private void run(final String mapper, final int repeat, final Node tree1, final Node tree2) {
+        long minTime = Long.MAX_VALUE;
+        long totalTime = 0;
+        for (int index = 1; index < repeat; ++index) {
+            final long start = System.nanoTime();
+            createMapper(mapper, new NodeExt(tree1), new NodeExt(tree2), MappingListener.NONE)
+                .buildMapping();
+            final long time = System.nanoTime() - start;
+            minTime = Math.min(minTime, time);
+            totalTime += time;
+        }
+        final List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans();
+        for (final MemoryPoolMXBean pool : pools) {
+            pool.resetPeakUsage();
+        }
+        final NodeExt root1 = new NodeExt(tree1);
+        final NodeExt root2 = new NodeExt(tree2);
+        final MappingStatistics stats = new MappingStatistics();
+        final long start = System.nanoTime();
+        final Mapping<NodeExt> mapping = createMapper(mapper, root1, root2, stats).buildMapping();
+        final long time = System.nanoTime() - start;
+        final long peak = getPeakHeapUsage(pools);
+        out.println("Mapper: " + mapper);
+        printCounts(mapping, root1, root2);
+        out.printf("Time: %.3f ms%n", time / NANOS_IN_MILLI);
+        for (final MappingPhase phase : MappingPhase.values()) {
+            out.printf("  %s: %.3f ms%n", phase, stats.getPhaseTime(phase) / NANOS_IN_MILLI);
+        }
+        if (repeat > 1) {
+            out.printf(
+                "Runs: %d, min: %.3f ms, average: %.3f ms%n",
+                repeat,
+                Math.min(minTime, time) / NANOS_IN_MILLI,
+                (totalTime + time) / NANOS_IN_MILLI / repeat
+            );
+        }
+        out.printf("Peak heap: %.1f MB%n", peak / BYTES_IN_MEGA);
+        out.println("Statistics: " + stats.toJson());
+    }
+
+    /**
+     * Prints the numbers of mapped and unmapped nodes and the mapping ratio.
+     *
+     * @param mapping the mapping.
+     * @param root1 the first tree.
+     * @param root2 the second tree.
+     */
+    private void printCounts(
+            final Mapping<NodeExt> mapping,
+            final NodeExt root1,
+            final NodeExt root2) {
+        final int[] counts1 = count(mapping, root1);
+        final int[] counts2 = count(mapping, root2);
+        out.printf("Nodes: %d / %d%n", counts1[0], counts2[0]);
+        out.printf("Mapped: %d / %d%n", counts1[1], counts2[1]);
+        out.printf("Unmapped: %d / %d%n", counts1[0] - counts1[1], counts2[0] - counts2[1]);
+        out.printf(
+            "Mapping ratio: %.4f%n",
+            (counts1[1] + counts2[1]) / (double) (counts1[0] + counts2[0])
+        );
+    }
+
+    /**
+     * Counts nodes of a tree and mapped nodes.
+     *
+     * @param mapping the mapping.
+     * @param root the tree root.
+     * @return the array of two values: the number of nodes and the number of mapped nodes.
+     */
+    static int[] count(final Mapping<NodeExt> mapping, final NodeExt root) {
+        final int[] result = new int[2];
+        for (final NodeExt node : new BreadthFirst<>(root)) {
+            result[0] += 1;
+            if (mapping.contains(node)) {
+                result[1] += 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the peak usage of the heap (the sum of peaks of heap memory pools).
+     *
+     * @param pools the memory pools.
+     * @return the peak usage in bytes.
+     */
+    private static long getPeakHeapUsage(final List<MemoryPoolMXBean> pools) {
+        long result = 0;
+        for (final MemoryPoolMXBean pool : pools) {
+            if (pool.getType() == MemoryType.HEAP) {
+                result += pool.getPeakUsage().getUsed();
+            }
+        }
+        return result;
+    }
+
+}
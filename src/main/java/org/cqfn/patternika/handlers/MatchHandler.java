@@ -0,0 +1,180 @@
+package org.cqfn.patternika.handlers;
+
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.ast.mapper.Budget;
+import org.cqfn.patternika.ast.store.PatternStore;
+import org.cqfn.patternika.parser.ParserException;
+import org.cqfn.patternika.parser.ParserPool;
+import org.cqfn.patternika.source.Fragment;
+import org.cqfn.patternika.util.cmdline.Handler;
+import org.cqfn.patternika.util.cmdline.Resources;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Handler for the "match" action: matches patterns of a pattern store
+ * against a Java file and prints the matched patterns and code.
+ * <p>
+ * The store is specified with the "patterns" option. When the action is executed
+ * by a server (see {@link ServeHandler}), the store loaded by the server is used
+ * unless the option is specified.
+ *
+ * @since 2021/03/23
+ */
+public class MatchHandler implements Handler {
+    /** Name of the action. */
+    public static final String NAME = "match";
+
+    /** Name of the argument with the file. */
+    public static final String FILE = "file";
+
+    /** Name of the option that sets the path to the pattern store. */
+    public static final String PATTERNS = "patterns";
+
+    /** Stream for the results. */
+    private final PrintStream out;
+
+    /** Stream for error messages. */
+    private final PrintStream err;
+
+    /** Pool of parsers. */
+    private final ParserPool parsers;
+
+    /** Pattern matcher or {@code null} if patterns are loaded by the action. */
+    private final PatternMatcher matcher;
+
+    /**
+     * Main constructor.
+     *
+     * @param out the stream for the results.
+     * @param err the stream for error messages.
+     * @param parsers the pool of parsers.
+     * @param matcher the pattern matcher or {@code null} if patterns are loaded
+     *        by the action.
+     */
+    MatchHandler(
+            final PrintStream out,
+            final PrintStream err,
+            final ParserPool parsers,
+            final PatternMatcher matcher) {
+        this.out = Objects.requireNonNull(out);
+        this.err = Objects.requireNonNull(err);
+        this.parsers = Objects.requireNonNull(parsers);
+        this.matcher = matcher;
+    }
+
+    /**
+     * Additional constructor.
+     *
+     * @param out the stream for the results.
+     * @param err the stream for error messages.
+     */
+    public MatchHandler(final PrintStream out, final PrintStream err) {
+        this(out, err, MapHandler.createParsers(), null);
+    }
+
+    /**
+     * Additional constructor that uses the standard output and error streams.
+     */
+    public MatchHandler() {
+        this(System.out, System.err);
+    }
+
+    /**
+     * Handles the "match" action.
+     *
+     * @param arguments the arguments: the file to be matched.
+     * @param options the options: the pattern store.
+     */
+    @Override
+    public void handle(
+            final Map<String, String> arguments,
+            final Map<String, List<String>> options) {
+        try {
+            final List<String> patterns = options.get(PATTERNS);
+            final PatternMatcher current;
+            if (patterns != null && !patterns.isEmpty()) {
+                current = new PatternMatcher(new PatternStore(Paths.get(patterns.get(0))));
+            } else if (matcher != null) {
+                current = matcher;
+            } else {
+                throw new IllegalArgumentException("Pattern store is not specified");
+            }
+            final Node root = MapHandler.parse(parsers, arguments.get(FILE));
+            out.println("Patterns: " + current.getPatternCount());
+            final int[] count = new int[1];
+            current.match(root, Budget.UNLIMITED, (node, id) -> {
+                count[0] += 1;
+                print(id, node);
+            });
+            out.println("Matches: " + count[0]);
+        } catch (final IOException | ParserException | IllegalArgumentException ex) {
+            err.println("Failed to match patterns: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Handles the "match" action and prints the results to the specified streams.
+     * The file is parsed by a parser of the shared pool, and patterns
+     * of the shared matcher are used if the store is not specified in the options.
+     *
+     * @param arguments the arguments: the file to be matched.
+     * @param options the options: the pattern store.
+     * @param resources the shared resources: the pool of parsers and the pattern matcher.
+     * @param output the stream for the results.
+     * @param errors the stream for error messages.
+     */
+    @Override
+    public void handle(
+            final Map<String, String> arguments,
+            final Map<String, List<String>> options,
+            final Resources resources,
+            final PrintStream output,
+            final PrintStream errors) {
+        final ParserPool pool = resources.get(ParserPool.class);
+        final PatternMatcher shared = resources.get(PatternMatcher.class);
+        new MatchHandler(
+            output,
+            errors,
+            pool == null ? parsers : pool,
+            shared == null ? matcher : shared
+        ).handle(arguments, options);
+    }
+
+    /**
+     * Checks whether the action can be executed on a request of a server.
+     *
+     * @return {@code true}, matching completes and prints to the specified streams.
+     */
+    @Override
+    public boolean isOneShot() {
+        return true;
+    }
+
+    /**
+     * Prints a matched pattern.
+     *
+     * @param id the pattern identifier.
+     * @param node the matched node.
+     */
+    private void print(final int id, final Node node) {
+        final Fragment fragment = node.getFragment();
+        if (fragment == null) {
+            out.printf("Match: pattern %d, %s%n", id, node.getType());
+        } else {
+            out.printf(
+                "Match: pattern %d, %s [%d, %d)%n",
+                id,
+                node.getType(),
+                fragment.getStart().getIndex(),
+                fragment.getEnd().getIndex()
+            );
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+package org.cqfn.patternika.handlers;
+
+import org.cqfn.patternika.ast.DeepMatchesAnyOrder;
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.ast.iterator.DepthFirst;
+import org.cqfn.patternika.ast.mapper.Budget;
+import org.cqfn.patternika.ast.store.PatternStore;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Matches patterns of a loaded {@link PatternStore} against nodes of trees.
+ * Only patterns with root types equal to node types are compared
+ * (with {@link DeepMatchesAnyOrder}, as in {@link org.cqfn.patternika.ast.MatchFinder}).
+ * <p>
+ * Pattern roots loaded from the store are kept by the matcher and reused for all trees.
+ * The roots are flyweight nodes over the store, so the matcher must be used by one thread
+ * at a time, while the store can be shared by several matchers.
+ *
+ * @since 2021/03/23
+ */
+final class PatternMatcher {
+    /** The pattern store. */
+    private final PatternStore store;
+
+    /** Predicate for matching patterns. */
+    private final BiPredicate<Node, Node> matches = new DeepMatchesAnyOrder();
+
+    /** Loaded pattern roots by pattern identifiers. */
+    private final Map<Integer, Node> patterns = new HashMap<>();
+
+    /** Identifiers of patterns by root types. */
+    private final Map<String, int[]> types = new HashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param store the pattern store.
+     */
+    PatternMatcher(final PatternStore store) {
+        this.store = Objects.requireNonNull(store);
+    }
+
+    /**
+     * Returns the number of patterns in the store.
+     *
+     * @return the number of patterns.
+     */
+    int getPatternCount() {
+        return store.getPatternCount();
+    }
+
+    /**
+     * Matches patterns against all nodes of a tree until the budget is exhausted.
+     * Every comparison of a pattern with a node spends one operation.
+     *
+     * @param root the tree root.
+     * @param budget the budget that limits matching.
+     * @param consumer the consumer of matched nodes and identifiers of matched patterns.
+     */
+    void match(final Node root, final Budget budget, final ObjIntConsumer<Node> consumer) {
+        for (final Node node : new DepthFirst<>(root)) {
+            if (budget.isExhausted()) {
+                break;
+            }
+            final int[] ids = types.computeIfAbsent(node.getType(), store::findByRootType);
+            for (int index = 0; index < ids.length && budget.spend(); ++index) {
+                final Node pattern = patterns.computeIfAbsent(ids[index], store::getRoot);
+                if (matches.test(pattern, node)) {
+                    consumer.accept(node, ids[index]);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,320 @@
+package org.cqfn.patternika.handlers;
+
+import org.cqfn.patternika.ast.store.PatternStore;
+import org.cqfn.patternika.parser.ParserPool;
+import org.cqfn.patternika.util.Json;
+import org.cqfn.patternika.util.cmdline.CmdLine;
+import org.cqfn.patternika.util.cmdline.CmdLineApi;
+import org.cqfn.patternika.util.cmdline.CmdLineException;
+import org.cqfn.patternika.util.cmdline.CmdLineParser;
+import org.cqfn.patternika.util.cmdline.Handler;
+import org.cqfn.patternika.util.cmdline.Resources;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Handler for the "serve" action: keeps the process running and executes actions
+ * of the command-line API on requests, so that the JVM startup, class loading and
+ * JIT warm-up are paid only once.
+ * <p>
+ * Requests and responses are newline-delimited JSON objects. A request contains
+ * the command-line arguments and an optional identifier, e.g.
+ * {@code {"id": 1, "args": ["map", "A.java", "B.java"]}}. A response contains the same
+ * identifier, the success flag and the text printed by the action, e.g.
+ * {@code {"id":1,"ok":true,"out":"...","err":""}}.
+ * <p>
+ * By default, requests are read from the standard input and responses are printed to
+ * the standard output. With the "port" option, the handler accepts connections on
+ * the specified TCP port of the loopback interface, every connection is served by its own
+ * thread. Requests are executed one at a time, as actions measure time and memory usage.
+ * <p>
+ * Actions share resources kept by the server (see {@link Resources}): the pool of parsers
+ * and, with the "patterns" option, the pattern store loaded once on start along with
+ * the pattern roots used by the "match" action.
+ * Only one-shot actions (see {@link Handler#isOneShot()}) can be requested, and failures
+ * of actions (including a stack overflow on deeply nested input) are reported in responses
+ * without stopping the server.
+ *
+ * @since 2021/03/23
+ */
+public class ServeHandler implements Handler {
+    /** Name of the action. */
+    public static final String NAME = "serve";
+
+    /** Name of the option that sets the port. */
+    public static final String PORT = "port";
+
+    /** Name of the option that sets the path to the pattern store. */
+    public static final String PATTERNS = "patterns";
+
+    /** Name of the request field with the identifier. */
+    private static final String ID = "id";
+
+    /** Name of the request field with the command-line arguments. */
+    private static final String ARGS = "args";
+
+    /** Name of the charset used for requests and responses. */
+    private static final String CHARSET = "UTF-8";
+
+    /** The command-line API with actions to be executed. */
+    private final CmdLineApi api;
+
+    /** Stream for requests. */
+    private final InputStream in;
+
+    /** Stream for responses. */
+    private final PrintStream out;
+
+    /** Stream for error messages. */
+    private final PrintStream err;
+
+    /** Resources shared by actions executed on requests. */
+    private volatile Resources resources;
+
+    /** Server socket or {@code null} if the handler does not listen to a port. */
+    private volatile ServerSocket server;
+
+    /**
+     * Main constructor.
+     *
+     * @param api the command-line API with actions to be executed.
+     * @param parsers the pool of parsers shared by actions.
+     * @param in the stream for requests.
+     * @param out the stream for responses.
+     * @param err the stream for error messages.
+     */
+    public ServeHandler(
+            final CmdLineApi api,
+            final ParserPool parsers,
+            final InputStream in,
+            final PrintStream out,
+            final PrintStream err) {
+        this.api = Objects.requireNonNull(api);
+        this.resources = Resources.NONE.with(ParserPool.class, parsers);
+        this.in = Objects.requireNonNull(in);
+        this.out = Objects.requireNonNull(out);
+        this.err = Objects.requireNonNull(err);
+    }
+
+    /**
+     * Additional constructor that creates a pool of Java parsers.
+     *
+     * @param api the command-line API with actions to be executed.
+     * @param in the stream for requests.
+     * @param out the stream for responses.
+     * @param err the stream for error messages.
+     */
+    public ServeHandler(
+            final CmdLineApi api,
+            final InputStream in,
+            final PrintStream out,
+            final PrintStream err) {
+        this(api, MapHandler.createParsers(), in, out, err);
+    }
+
+    /**
+     * Additional constructor that uses the standard input, output and error streams.
+     *
+     * @param api the command-line API with actions to be executed.
+     */
+    public ServeHandler(final CmdLineApi api) {
+        this(api, System.in, System.out, System.err);
+    }
+
+    /**
+     * Handles the "serve" action: executes requests until the input is over
+     * or the server is stopped.
+     *
+     * @param arguments the arguments: none.
+     * @param options the options: the port and the pattern store.
+     */
+    @Override
+    public void handle(
+            final Map<String, String> arguments,
+            final Map<String, List<String>> options) {
+        try {
+            final List<String> patterns = options.get(PATTERNS);
+            if (patterns != null && !patterns.isEmpty()) {
+                final PatternStore store = new PatternStore(Paths.get(patterns.get(0)));
+                resources = resources.with(PatternMatcher.class, new PatternMatcher(store));
+            }
+            final List<String> port = options.get(PORT);
+            if (port == null || port.isEmpty()) {
+                serve(in, out);
+            } else {
+                listen(Integer.parseInt(port.get(0)));
+            }
+        } catch (final IOException | IllegalArgumentException ex) {
+            err.println("Server failed: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Returns the port the handler listens to.
+     *
+     * @return the port or -1 if the handler does not listen to a port.
+     */
+    public int getPort() {
+        final ServerSocket socket = server;
+        return socket == null ? -1 : socket.getLocalPort();
+    }
+
+    /**
+     * Stops listening to the port. Connections that are already accepted are served
+     * until clients close them.
+     *
+     * @throws IOException if failed to close the server socket.
+     */
+    public void stop() throws IOException {
+        final ServerSocket socket = server;
+        if (socket != null) {
+            socket.close();
+        }
+    }
+
+    /**
+     * Executes a request.
+     *
+     * @param line the request line (a JSON object).
+     * @return the response line (a JSON object).
+     */
+    public synchronized String process(final String line) {
+        final Map<String, Object> response = new LinkedHashMap<>();
+        response.put(ID, null);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        boolean success = false;
+        try (PrintStream outStream = new PrintStream(output, true, CHARSET);
+             PrintStream errStream = new PrintStream(errors, true, CHARSET)) {
+            try {
+                final Object request = Json.parse(line);
+                if (!(request instanceof Map)) {
+                    throw new IllegalArgumentException("Request must be a JSON object");
+                }
+                response.put(ID, ((Map<?, ?>) request).get(ID));
+                final String[] args = getArgs((Map<?, ?>) request);
+                final CmdLine cmdLine = new CmdLineParser(api).parse(args);
+                if (!cmdLine.getHandler().isOneShot()) {
+                    throw new IllegalArgumentException(
+                        "Action cannot be executed by a request: " + args[0]);
+                }
+                cmdLine.execute(resources, outStream, errStream);
+                success = true;
+            } catch (final CmdLineException | IllegalArgumentException ex) {
+                errStream.println("Invalid request: " + ex.getMessage());
+            } catch (final RuntimeException | StackOverflowError ex) {
+                errStream.println("Request failed: " + ex);
+            }
+        } catch (final UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+        response.put("ok", success);
+        response.put("out", new String(output.toByteArray(), StandardCharsets.UTF_8));
+        response.put("err", new String(errors.toByteArray(), StandardCharsets.UTF_8));
+        return Json.toJson(response);
+    }
+
+    /**
+     * Gets command-line arguments from a request.
+     *
+     * @param request the request.
+     * @return the command-line arguments.
+     * @throws IllegalArgumentException if the request has no valid arguments.
+     */
+    private static String[] getArgs(final Map<?, ?> request) {
+        final Object args = request.get(ARGS);
+        if (!(args instanceof List)) {
+            throw new IllegalArgumentException("Request must contain the array of arguments");
+        }
+        final List<?> list = (List<?>) args;
+        final String[] result = new String[list.size()];
+        for (int index = 0; index < result.length; ++index) {
+            final Object arg = list.get(index);
+            if (!(arg instanceof String)) {
+                throw new IllegalArgumentException("Arguments must be strings");
+            }
+            result[index] = (String) arg;
+        }
+        return result;
+    }
+
+    /**
+     * Reads requests from a stream and writes responses to another stream
+     * until the input is over.
+     *
+     * @param input the stream for requests.
+     * @param output the stream for responses.
+     * @throws IOException if failed to read requests.
+     */
+    private void serve(final InputStream input, final OutputStream output) throws IOException {
+        final BufferedReader reader =
+                new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        final PrintStream writer = new PrintStream(output, false, CHARSET);
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (!line.trim().isEmpty()) {
+                writer.println(process(line));
+                writer.flush();
+            }
+        }
+    }
+
+    /**
+     * Accepts connections on the port of the loopback interface and serves every
+     * connection by its own thread until the server is stopped.
+     *
+     * @param port the port (0 means any free port).
+     * @throws IOException if failed to open the server socket.
+     */
+    private void listen(final int port) throws IOException {
+        try (ServerSocket socket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress())) {
+            server = socket;
+            err.println("Listening on port " + socket.getLocalPort());
+            while (!socket.isClosed()) {
+                final Socket connection;
+                try {
+                    connection = socket.accept();
+                } catch (final IOException ex) {
+                    if (socket.isClosed()) {
+                        break;
+                    }
+                    throw ex;
+                }
+                final Thread thread = new Thread(() -> connect(connection), NAME);
+                thread.setDaemon(true);
+                thread.start();
+            }
+        } finally {
+            server = null;
+        }
+    }
+
+    /**
+     * Serves a connection and closes it.
+     *
+     * @param connection the connection.
+     */
+    private void connect(final Socket connection) {
+        try (Socket socket = connection) {
+            serve(socket.getInputStream(), socket.getOutputStream());
+        } catch (final IOException ex) {
+            err.println("Connection failed: " + ex.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,680 @@
+package org.cqfn.patternika.handlers;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.ast.NodeExt;
+import org.cqfn.patternika.ast.mapper.Budget;
+import org.cqfn.patternika.ast.mapper.BoundedMapper;
+import org.cqfn.patternika.ast.mapper.MappingResult;
+import org.cqfn.patternika.ast.mapper.MappingStatistics;
+import org.cqfn.patternika.ast.store.PatternStore;
+import org.cqfn.patternika.lang.java.parser.javaparser.JavaParserAdapter;
+import org.cqfn.patternika.lang.java.parser.javaparser.ParserJava;
+import org.cqfn.patternika.parser.Parser;
+import org.cqfn.patternika.parser.ParserException;
+import org.cqfn.patternika.source.Fragment;
+import org.cqfn.patternika.source.SourceFile;
+import org.cqfn.patternika.util.BatchExecutor;
+import org.cqfn.patternika.util.Json;
+import org.cqfn.patternika.util.cmdline.Handler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Handler for the "www" action: runs an HTTP service that maps ASTs of Java sources
+ * sent in requests and matches them against a pattern library.
+ * <p>
+ * The service has the following endpoints:
+ * <ul>
+ *   <li>{@code POST /map} accepts a JSON object with the sources and an optional mapper
+ *       name, e.g. {@code {"before": "class A {}", "after": "class B {}", "mapper": "hash"}},
+ *       and responds with the numbers of nodes and mapped nodes, the mapping ratio and
+ *       mapping statistics;</li>
+ *   <li>{@code POST /match} (if a pattern store is loaded on start) accepts a JSON object
+ *       with a source, e.g. {@code {"source": "class A {}"}}, and responds with identifiers
+ *       of matched patterns and character indices of the matched code;</li>
+ *   <li>{@code GET /metrics} responds with the queue depth and the numbers of accepted,
+ *       rejected and processed requests.</li>
+ * </ul>
+ * Requests are executed by a fixed number of workers in batches (see {@link BatchExecutor}):
+ * concurrent requests are processed together by a worker, which reuses its parser and
+ * pattern roots. If the request queue is full, requests are rejected with the 503 status
+ * code. Request bodies are limited in size, mapping and matching are limited in time
+ * (see {@link BoundedMapper}), so that a single request cannot occupy a worker for long,
+ * and a failure of a request is reported with the 500 status code without stopping
+ * the worker. When the service is stopped, workers complete the requests they process,
+ * and the waiting requests are rejected with the 503 status code.
+ *
+ * @since 2021/03/23
+ */
+public class WwwHandler implements Handler {
+    /** Name of the action. */
+    public static final String NAME = "www";
+
+    /** Name of the option that sets the host. */
+    public static final String HOST = "host";
+
+    /** Name of the option that sets the port. */
+    public static final String PORT = "port";
+
+    /** Name of the option that sets the number of workers. */
+    public static final String THREADS = "threads";
+
+    /** Name of the option that sets the maximum number of waiting requests. */
+    public static final String QUEUE = "queue";
+
+    /** Name of the option that sets the time limit of a request in seconds. */
+    public static final String TIMEOUT = "timeout";
+
+    /** Name of the option that sets the path to the pattern store. */
+    public static final String PATTERNS = "patterns";
+
+    /** Default host. */
+    public static final String DEFAULT_HOST = "localhost";
+
+    /** Default port. */
+    public static final int DEFAULT_PORT = 8000;
+
+    /** Default maximum number of waiting requests. */
+    public static final int DEFAULT_QUEUE = 256;
+
+    /** Default time limit of a request in seconds. */
+    public static final int DEFAULT_TIMEOUT = 10;
+
+    /** Maximum size of a request body in bytes. */
+    public static final int MAX_BODY_SIZE = 4 * 1024 * 1024;
+
+    /** Maximum number of requests processed by a worker in a batch. */
+    private static final int BATCH_SIZE = 16;
+
+    /** Status code for successful requests. */
+    private static final int OK = 200;
+
+    /** Status code for invalid requests. */
+    private static final int BAD_REQUEST = 400;
+
+    /** Status code for requests with an unsupported method. */
+    private static final int BAD_METHOD = 405;
+
+    /** Status code for requests with too large bodies. */
+    private static final int TOO_LARGE = 413;
+
+    /** Status code for requests that failed unexpectedly. */
+    private static final int FAILED = 500;
+
+    /** Status code for requests rejected due to overload. */
+    private static final int UNAVAILABLE = 503;
+
+    /** Size of the buffer used to read request bodies. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** Name of the field with error messages. */
+    private static final String ERROR = "error";
+
+    /** Path of the mapping endpoint. */
+    private static final String MAP = "/map";
+
+    /** Path of the matching endpoint. */
+    private static final String MATCH = "/match";
+
+    /** Stream for messages. */
+    private final PrintStream err;
+
+    /** Becomes zero when the service is stopped. */
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    /**
+     * Number of requests processed by workers (the executor does not count them,
+     * as only workers know when responses are sent).
+     */
+    private final LongAdder processed = new LongAdder();
+
+    /** HTTP server or {@code null} if the service is not running. */
+    private volatile HttpServer server;
+
+    /**
+     * Request to an endpoint.
+     */
+    private static final class Request {
+        /** The HTTP exchange. */
+        private final HttpExchange exchange;
+
+        /** The endpoint path. */
+        private final String path;
+
+        /** Fields of the request body. */
+        private final Map<?, ?> fields;
+
+        /**
+         * Constructor.
+         *
+         * @param exchange the HTTP exchange.
+         * @param path the endpoint path.
+         * @param fields fields of the request body.
+         */
+        private Request(
+                final HttpExchange exchange,
+                final String path,
+                final Map<?, ?> fields) {
+            this.exchange = exchange;
+            this.path = path;
+            this.fields = fields;
+        }
+    }
+
+    /**
+     * Main constructor.
+     *
+     * @param err the stream for messages.
+     */
+    public WwwHandler(final PrintStream err) {
+        this.err = Objects.requireNonNull(err);
+    }
+
+    /**
+     * Additional constructor that uses the standard error stream.
+     */
+    public WwwHandler() {
+        this(System.err);
+    }
+
+    /**
+     * Handles the "www" action: runs the service until it is stopped.
+     *
+     * @param arguments the arguments: none.
+     * @param options the options: the host, the port, the number of workers,
+     *        the maximum number of waiting requests, the time limit of a request
+     *        and the pattern store.
+     */
+    @Override
+    public void handle(
+            final Map<String, String> arguments,
+            final Map<String, List<String>> options) {
+        try {
+            final String host = getOption(options, HOST, DEFAULT_HOST);
+            final int port = Integer.parseInt(getOption(options, PORT, DEFAULT_PORT));
+            final int threads = Integer.parseInt(
+                getOption(options, THREADS, Runtime.getRuntime().availableProcessors()));
+            final int queue = Integer.parseInt(getOption(options, QUEUE, DEFAULT_QUEUE));
+            final int timeout = Integer.parseInt(getOption(options, TIMEOUT, DEFAULT_TIMEOUT));
+            if (timeout <= 0) {
+                throw new IllegalArgumentException("Time limit must be positive: " + timeout);
+            }
+            final List<String> patterns = options.get(PATTERNS);
+            PatternStore store = null;
+            if (patterns != null && !patterns.isEmpty()) {
+                store = new PatternStore(Paths.get(patterns.get(0)));
+            }
+            run(new InetSocketAddress(host, port), threads, queue, new Settings(timeout, store));
+        } catch (final IOException | IllegalArgumentException ex) {
+            err.println("Server failed: " + ex.getMessage());
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the port the service listens to.
+     *
+     * @return the port or -1 if the service is not running.
+     */
+    public int getPort() {
+        final HttpServer current = server;
+        return current == null ? -1 : current.getAddress().getPort();
+    }
+
+    /**
+     * Stops the service.
+     */
+    public void stop() {
+        stopped.countDown();
+    }
+
+    /**
+     * Returns the value of an option.
+     *
+     * @param options the options.
+     * @param name the option name.
+     * @param defaultValue the value used if the option is not specified.
+     * @return the option value.
+     */
+    private static String getOption(
+            final Map<String, List<String>> options,
+            final String name,
+            final Object defaultValue) {
+        final List<String> values = options.get(name);
+        return values == null || values.isEmpty() ? defaultValue.toString() : values.get(0);
+    }
+
+    /**
+     * Runs the service until it is stopped.
+     *
+     * @param address the address to listen to.
+     * @param threads the number of workers.
+     * @param capacity the maximum number of waiting requests.
+     * @param settings settings of request processing.
+     * @throws IOException if failed to start the server.
+     * @throws InterruptedException if the current thread is interrupted.
+     */
+    private void run(
+            final InetSocketAddress address,
+            final int threads,
+            final int capacity,
+            final Settings settings) throws IOException, InterruptedException {
+        final BatchExecutor<Request> executor = new BatchExecutor<>(
+            NAME,
+            threads,
+            capacity,
+            BATCH_SIZE,
+            () -> new BatchProcessor(new ParserJava(new JavaParserAdapter()), settings)
+        );
+        final ExecutorService receivers = Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        final HttpServer http = HttpServer.create(address, 0);
+        http.setExecutor(receivers);
+        http.createContext(MAP, exchange -> receive(exchange, MAP, executor));
+        if (settings.store != null) {
+            http.createContext(MATCH, exchange -> receive(exchange, MATCH, executor));
+        }
+        http.createContext("/metrics", exchange -> sendMetrics(exchange, executor));
+        http.start();
+        try {
+            server = http;
+            err.println("Listening on port " + getPort());
+            stopped.await();
+        } finally {
+            server = null;
+            for (final Request request : executor.shutdown()) {
+                try {
+                    sendError(request.exchange, UNAVAILABLE, "Server is stopping");
+                } catch (final IOException ex) {
+                    err.println("Failed to send a response: " + ex.getMessage());
+                }
+            }
+            executor.awaitTermination();
+            http.stop(0);
+            receivers.shutdown();
+        }
+    }
+
+    /**
+     * Receives a request and submits it to the executor.
+     *
+     * @param exchange the HTTP exchange.
+     * @param path the endpoint path.
+     * @param executor the executor.
+     * @throws IOException if failed to receive the request or to send the response.
+     */
+    private static void receive(
+            final HttpExchange exchange,
+            final String path,
+            final BatchExecutor<Request> executor) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            sendError(exchange, BAD_METHOD, "Use the POST method");
+            return;
+        }
+        final String text = readBody(exchange.getRequestBody());
+        if (text == null) {
+            sendError(exchange, TOO_LARGE, "Request body exceeds " + MAX_BODY_SIZE + " bytes");
+            return;
+        }
+        final Object body;
+        try {
+            body = Json.parse(text);
+        } catch (final IllegalArgumentException | StackOverflowError ex) {
+            sendError(exchange, BAD_REQUEST, "Invalid JSON: " + ex.getMessage());
+            return;
+        }
+        if (!(body instanceof Map)) {
+            sendError(exchange, BAD_REQUEST, "Request must be a JSON object");
+            return;
+        }
+        if (!executor.submit(new Request(exchange, path, (Map<?, ?>) body))) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            sendError(exchange, UNAVAILABLE, "Server is overloaded");
+        }
+    }
+
+    /**
+     * Gets a string field from a request.
+     *
+     * @param fields the request fields.
+     * @param name the field name.
+     * @param defaultValue the value used if there is no such field,
+     *        {@code null} if the field is required.
+     * @return the field value.
+     * @throws IllegalArgumentException if the field is not a string or is missing.
+     */
+    private static String getString(
+            final Map<?, ?> fields,
+            final String name,
+            final String defaultValue) {
+        final Object value = fields.get(name);
+        if (value == null && defaultValue != null) {
+            return defaultValue;
+        }
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("Request must contain the string: " + name);
+        }
+        return (String) value;
+    }
+
+    /**
+     * Sends metrics of the executor.
+     *
+     * @param exchange the HTTP exchange.
+     * @param executor the executor.
+     * @throws IOException if failed to send the response.
+     */
+    private void sendMetrics(
+            final HttpExchange exchange,
+            final BatchExecutor<Request> executor) throws IOException {
+        final Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("queueDepth", executor.getQueueDepth());
+        metrics.put("maxQueueDepth", executor.getMaxQueueDepth());
+        metrics.put("queueCapacity", executor.getCapacity());
+        metrics.put("accepted", executor.getAcceptedCount());
+        metrics.put("rejected", executor.getRejectedCount());
+        metrics.put("processed", processed.sum());
+        metrics.put("batches", executor.getBatchCount());
+        send(exchange, OK, Json.toJson(metrics));
+    }
+
+    /**
+     * Sends an error response.
+     *
+     * @param exchange the HTTP exchange.
+     * @param code the status code.
+     * @param message the error message.
+     * @throws IOException if failed to send the response.
+     */
+    private static void sendError(
+            final HttpExchange exchange,
+            final int code,
+            final String message) throws IOException {
+        send(exchange, code, toError(message));
+    }
+
+    /**
+     * Sends a response with a JSON body and closes the exchange.
+     *
+     * @param exchange the HTTP exchange.
+     * @param code the status code.
+     * @param json the JSON text.
+     * @throws IOException if failed to send the response.
+     */
+    private static void send(
+            final HttpExchange exchange,
+            final int code,
+            final String json) throws IOException {
+        final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(code, bytes.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(bytes);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Creates a JSON object with an error message.
+     *
+     * @param message the error message.
+     * @return the JSON text.
+     */
+    private static String toError(final String message) {
+        final Map<String, Object> response = new LinkedHashMap<>();
+        response.put(ERROR, message);
+        return Json.toJson(response);
+    }
+
+    /**
+     * Reads a request body as a text.
+     *
+     * @param stream the body stream.
+     * @return the text or {@code null} if the body exceeds {@link #MAX_BODY_SIZE}.
+     * @throws IOException if failed to read the body.
+     */
+    private static String readBody(final InputStream stream) throws IOException {
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream input = stream) {
+            for (int size = input.read(buffer); size != -1; size = input.read(buffer)) {
+                if (result.size() + size > MAX_BODY_SIZE) {
+                    return null;
+                }
+                result.write(buffer, 0, size);
+            }
+        }
+        return new String(result.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Settings of request processing shared by workers.
+     */
+    private static final class Settings {
+        /** Time limit of a request in seconds. */
+        private final int timeout;
+
+        /** Pattern store or {@code null} if no patterns are loaded. */
+        private final PatternStore store;
+
+        /**
+         * Constructor.
+         *
+         * @param timeout the time limit of a request in seconds.
+         * @param store the pattern store or {@code null} if no patterns are loaded.
+         */
+        private Settings(final int timeout, final PatternStore store) {
+            this.timeout = timeout;
+            this.store = store;
+        }
+    }
+
+    /**
+     * Processor of batches of requests. Every worker has its own processor,
+     * which reuses the parser and the pattern matcher for all requests.
+     */
+    private final class BatchProcessor implements Consumer<List<Request>> {
+        /** The parser. */
+        private final Parser parser;
+
+        /** Settings of request processing. */
+        private final Settings settings;
+
+        /** Pattern matcher of the worker or {@code null} if no patterns are loaded. */
+        private final PatternMatcher matcher;
+
+        /**
+         * Constructor.
+         *
+         * @param parser the parser.
+         * @param settings settings of request processing.
+         */
+        private BatchProcessor(final Parser parser, final Settings settings) {
+            this.parser = parser;
+            this.settings = settings;
+            this.matcher = settings.store == null ? null : new PatternMatcher(settings.store);
+        }
+
+        /**
+         * Processes a batch of requests and sends responses.
+         * A failure of a request is reported to its client only.
+         *
+         * @param batch the batch.
+         */
+        @Override
+        public void accept(final List<Request> batch) {
+            for (final Request request : batch) {
+                try {
+                    process(request);
+                } catch (final IOException ex) {
+                    err.println("Failed to send a response: " + ex.getMessage());
+                } catch (final RuntimeException | StackOverflowError ex) {
+                    fail(request, ex);
+                }
+            }
+        }
+
+        /**
+         * Processes a request and sends the response.
+         *
+         * @param request the request.
+         * @throws IOException if failed to send the response.
+         */
+        private void process(final Request request) throws IOException {
+            final String response;
+            try {
+                if (MATCH.equals(request.path)) {
+                    response = match(request.fields);
+                } else {
+                    response = map(request.fields);
+                }
+            } catch (final IllegalArgumentException ex) {
+                respond(request, BAD_REQUEST, toError(ex.getMessage()));
+                return;
+            } catch (final ParserException ex) {
+                respond(request, BAD_REQUEST, toError("Failed to parse: " + ex.getMessage()));
+                return;
+            }
+            respond(request, OK, response);
+        }
+
+        /**
+         * Maps two sources within the time limit.
+         *
+         * @param fields the request fields.
+         * @return the response JSON text.
+         * @throws ParserException if failed to parse the sources.
+         * @throws IllegalArgumentException if the request is invalid.
+         */
+        private String map(final Map<?, ?> fields) throws ParserException {
+            final String before = getString(fields, "before", null);
+            final String after = getString(fields, "after", null);
+            final String mapper = getString(fields, "mapper", MapHandler.GREED);
+            if (!MapHandler.isMapper(mapper)) {
+                throw new IllegalArgumentException("Unknown mapper: " + mapper);
+            }
+            final NodeExt root1 = new NodeExt(parser.parse(new SourceFile(before)));
+            final NodeExt root2 = new NodeExt(parser.parse(new SourceFile(after)));
+            final MappingStatistics stats = new MappingStatistics();
+            final MappingResult<NodeExt> result = new BoundedMapper(
+                budget -> MapHandler.createMapper(mapper, root1, root2, stats, budget),
+                settings.timeout,
+                TimeUnit.SECONDS
+            ).build();
+            final int[] counts1 = MapHandler.count(result.getMapping(), root1);
+            final int[] counts2 = MapHandler.count(result.getMapping(), root2);
+            final Map<String, Object> response = new LinkedHashMap<>();
+            response.put("mapper", mapper);
+            response.put("partial", result.isPartial());
+            response.put("nodes", Arrays.asList(counts1[0], counts2[0]));
+            response.put("mapped", Arrays.asList(counts1[1], counts2[1]));
+            response.put(
+                "ratio",
+                (counts1[1] + counts2[1]) / (double) (counts1[0] + counts2[0])
+            );
+            response.put("statistics", Json.parse(stats.toJson()));
+            return Json.toJson(response);
+        }
+
+        /**
+         * Matches patterns of the store against nodes of a source within the time limit.
+         *
+         * @param fields the request fields.
+         * @return the response JSON text.
+         * @throws ParserException if failed to parse the source.
+         * @throws IllegalArgumentException if the request is invalid.
+         */
+        private String match(final Map<?, ?> fields) throws ParserException {
+            final Node root = parser.parse(new SourceFile(getString(fields, "source", null)));
+            final Budget budget = new Budget(settings.timeout, TimeUnit.SECONDS);
+            final List<Object> found = new ArrayList<>();
+            matcher.match(root, budget, (node, id) -> found.add(describe(id, node)));
+            final Map<String, Object> response = new LinkedHashMap<>();
+            response.put("patterns", matcher.getPatternCount());
+            response.put("partial", budget.isExhausted());
+            response.put("matches", found);
+            return Json.toJson(response);
+        }
+
+        /**
+         * Sends a response to a request processed by the worker.
+         * The request is counted as processed before the response is sent.
+         *
+         * @param request the request.
+         * @param code the status code.
+         * @param json the JSON text.
+         * @throws IOException if failed to send the response.
+         */
+        private void respond(
+                final Request request,
+                final int code,
+                final String json) throws IOException {
+            processed.increment();
+            send(request.exchange, code, json);
+        }
+
+        /**
+         * Reports an unexpected failure of a request.
+         *
+         * @param request the request.
+         * @param failure the failure.
+         */
+        private void fail(final Request request, final Throwable failure) {
+            err.println("Request failed: " + failure);
+            try {
+                respond(request, FAILED, toError("Request failed: " + failure));
+            } catch (final IOException | RuntimeException ex) {
+                request.exchange.close();
+            }
+        }
+    }
+
+    /**
+     * Describes a matched pattern.
+     *
+     * @param id the pattern identifier.
+     * @param node the matched node.
+     * @return the description (a JSON object).
+     */
+    private static Map<String, Object> describe(final int id, final Node node) {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("pattern", id);
+        result.put("type", node.getType());
+        final Fragment fragment = node.getFragment();
+        if (fragment != null) {
+            result.put("start", fragment.getStart().getIndex());
+            result.put("end", fragment.getEnd().getIndex());
+        }
+        return result;
+    }
+
+}
@@ -16,6 +16,14 @@ import java.util.function.Supplier;
  * @since 2021/01/26
  */
 public class JavaNode implements org.cqfn.patternika.ast.Node {
+    /** Node types for JavaParser node classes (interned simple names, computed once). */
+    private static final ClassValue<String> TYPES = new ClassValue<String>() {
+        @Override
+        protected String computeValue(final Class<?> type) {
+            return type.getSimpleName().intern();
+        }
+    };
+
     /** JavaParser node to be wrapped. */
     private final Node node;
 
@@ -59,12 +67,14 @@ public class JavaNode implements org.cqfn.patternika.ast.Node {
 
     /**
      * Returns node type identifier that uniquely identifies node type.
+     * The identifier is the simple name of the JavaParser node class,
+     * it is interned, so the same string object is returned for all nodes of the same type.
      *
      * @return node type identifier.
      */
     @Override
     public String getType() {
-        return node.getClass().getSimpleName();
+        return TYPES.get(node.getClass());
     }
 
     /**
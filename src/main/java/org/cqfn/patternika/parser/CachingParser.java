@@ -0,0 +1,201 @@
+package org.cqfn.patternika.parser;
+
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.ast.store.ParseCache;
+import org.cqfn.patternika.source.Fragment;
+import org.cqfn.patternika.source.Source;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parser that stores parsed trees in a persistent {@link ParseCache} and loads them
+ * instead of parsing the same source text again.
+ *
+ * <p>Trees are keyed by the SHA-256 hash of the source text, the parser version and the
+ * parsing mode (file or snippet). Loaded trees consist of flyweight nodes over the cache
+ * file, which have the same types, data and fragments as nodes built by the parser.
+ * Parsed trees are returned in the same form as loaded trees (built from the saved record),
+ * so the result does not depend on whether the cache is hit.
+ * Cache failures are not fatal: the parsed tree is returned if it cannot be saved.
+ *
+ * @since 2021/03/23
+ */
+public class CachingParser implements Parser {
+    /** Name of the hash algorithm for keys. */
+    private static final String ALGORITHM = "SHA-256";
+
+    /** Digits for the hexadecimal representation of keys. */
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /** Number of bits in a hexadecimal digit. */
+    private static final int HEX_BITS = 4;
+
+    /** Mask for the lower hexadecimal digit of a byte. */
+    private static final int HEX_MASK = 0xF;
+
+    /** The underlying parser. */
+    private final Parser parser;
+
+    /** The cache. */
+    private final ParseCache cache;
+
+    /** The parser version. */
+    private final String version;
+
+    /** Number of trees loaded from the cache. */
+    private final LongAdder hits = new LongAdder();
+
+    /** Number of parsed trees. */
+    private final LongAdder misses = new LongAdder();
+
+    /** Number of failed cache operations. */
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param parser the underlying parser.
+     * @param cache the cache.
+     * @param version the parser version, which must change when the parser produces
+     *        different trees (e.g. the name of the parser with the version
+     *        of the parsing library).
+     */
+    public CachingParser(final Parser parser, final ParseCache cache, final String version) {
+        this.parser = Objects.requireNonNull(parser);
+        this.cache = Objects.requireNonNull(cache);
+        this.version = Objects.requireNonNull(version);
+    }
+
+    /**
+     * Loads the tree for the source from the cache or parses the source
+     * and saves the tree to the cache.
+     *
+     * @param source the source to be parsed.
+     * @return an AST.
+     * @throws ParserException if the parser failed to parse code in the specified source.
+     */
+    @Override
+    public Node parse(final Source source) throws ParserException {
+        final String key = getKey("file", source);
+        Node result = load(key, source);
+        if (result == null) {
+            result = save(key, parser.parse(source), source);
+        }
+        return result;
+    }
+
+    /**
+     * Loads the tree for the snippet from the cache or parses the snippet
+     * and saves the tree to the cache.
+     *
+     * @param source the source to be parsed.
+     * @return an AST.
+     * @throws ParserException if the parser failed to parse code in the specified source.
+     */
+    @Override
+    public Node parseSnippet(final Source source) throws ParserException {
+        final String key = getKey("snippet", source);
+        Node result = load(key, source);
+        if (result == null) {
+            result = save(key, parser.parseSnippet(source), source);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of trees loaded from the cache.
+     *
+     * @return the number of cache hits.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of parsed sources.
+     *
+     * @return the number of cache misses.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of cache operations failed due to input/output errors.
+     *
+     * @return the number of failures.
+     */
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * Calculates the cache key for a source.
+     *
+     * @param mode the parsing mode.
+     * @param source the source.
+     * @return the key (a hexadecimal hash).
+     */
+    private String getKey(final String mode, final Source source) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(ALGORITHM);
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        digest.update((version + '\n' + mode + '\n').getBytes(StandardCharsets.UTF_8));
+        digest.update(new Fragment(source).toString().getBytes(StandardCharsets.UTF_8));
+        final byte[] hash = digest.digest();
+        final char[] result = new char[hash.length * 2];
+        for (int index = 0; index < hash.length; ++index) {
+            result[2 * index] = HEX_DIGITS[hash[index] >> HEX_BITS & HEX_MASK];
+            result[2 * index + 1] = HEX_DIGITS[hash[index] & HEX_MASK];
+        }
+        return new String(result);
+    }
+
+    /**
+     * Loads a tree from the cache.
+     *
+     * @param key the key.
+     * @param source the source.
+     * @return the tree or {@code null} if the tree is not in the cache.
+     */
+    private Node load(final String key, final Source source) {
+        Node result = null;
+        try {
+            result = cache.load(key, version, source);
+        } catch (final IOException ex) {
+            failures.increment();
+        }
+        if (result == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return result;
+    }
+
+    /**
+     * Saves a tree to the cache.
+     *
+     * @param key the key.
+     * @param root the tree root.
+     * @param source the source.
+     * @return the saved tree or the specified tree if failed to save it.
+     */
+    private Node save(final String key, final Node root, final Source source) {
+        try {
+            return cache.save(key, version, root, source);
+        } catch (final IOException ex) {
+            failures.increment();
+            return root;
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+package org.cqfn.patternika.parser;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Pool of parsers, which allows reusing parsers (and their internal state,
+ * e.g. configured parsing libraries) in a long-running process.
+ * <p>
+ * A parser is taken from the pool with {@link #acquire()} and returned with
+ * {@link #release(Parser)}. A parser is used by one thread at a time, and new parsers
+ * are created only when all parsers of the pool are in use. The pool is thread-safe.
+ *
+ * @since 2021/03/23
+ */
+public class ParserPool {
+    /** Factory that creates parsers. */
+    private final Supplier<? extends Parser> factory;
+
+    /** Parsers that are not in use. */
+    private final Queue<Parser> idle = new ConcurrentLinkedQueue<>();
+
+    /** Number of created parsers. */
+    private final LongAdder created = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param factory the factory that creates parsers.
+     */
+    public ParserPool(final Supplier<? extends Parser> factory) {
+        this.factory = Objects.requireNonNull(factory);
+    }
+
+    /**
+     * Takes a parser from the pool or creates a new one if all parsers are in use.
+     *
+     * @return the parser.
+     */
+    public Parser acquire() {
+        Parser result = idle.poll();
+        if (result == null) {
+            result = Objects.requireNonNull(factory.get());
+            created.increment();
+        }
+        return result;
+    }
+
+    /**
+     * Returns a parser to the pool.
+     *
+     * @param parser the parser taken with {@link #acquire()}.
+     */
+    public void release(final Parser parser) {
+        idle.add(Objects.requireNonNull(parser));
+    }
+
+    /**
+     * Returns the number of parsers created by the pool.
+     *
+     * @return the number of created parsers.
+     */
+    public long getCreatedCount() {
+        return created.sum();
+    }
+
+}
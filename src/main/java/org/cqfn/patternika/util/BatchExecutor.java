@@ -0,0 +1,241 @@
+package org.cqfn.patternika.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Executes tasks in batches with a fixed number of worker threads.
+ *
+ * <p>Tasks are put into a bounded queue. Every worker waits for a task and then takes
+ * all tasks that are already in the queue (up to the batch size), so that tasks that
+ * arrive at the same time are processed together. Every worker has its own batch processor,
+ * which can keep state between batches (e.g. a parser that is not thread-safe).
+ * If the queue is full, new tasks are rejected, which allows shedding the load.
+ * On shutdown, new tasks are rejected, workers complete their current batches,
+ * and tasks waiting in the queue are returned to the caller, so that they are not lost.
+ *
+ * <p>The executor collects metrics: the current and the maximum queue depth, the numbers
+ * of accepted and rejected tasks and the number of batches. Tasks are complete when
+ * processors handle them, so processors count processed tasks.
+ *
+ * @param <T> the type of tasks.
+ * @since 2021/03/23
+ */
+public class BatchExecutor<T> {
+    /** Marker that is put into the queue to stop a worker. */
+    private static final Object STOP = new Object();
+
+    /** Queue of tasks and stop markers. */
+    private final BlockingQueue<Object> queue;
+
+    /** Maximum number of tasks processed in a batch. */
+    private final int batchSize;
+
+    /** Worker threads. */
+    private final List<Thread> workers;
+
+    /** Maximum observed queue depth. */
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    /** Number of accepted tasks. */
+    private final LongAdder accepted = new LongAdder();
+
+    /** Number of rejected tasks. */
+    private final LongAdder rejected = new LongAdder();
+
+    /** Number of processed batches. */
+    private final LongAdder batches = new LongAdder();
+
+    /** Whether the executor is shut down (guarded by this object). */
+    private boolean closed;
+
+    /**
+     * Constructor. Starts worker threads, which are daemon threads.
+     *
+     * @param name the name of worker threads.
+     * @param threadCount the number of worker threads.
+     * @param capacity the maximum number of tasks waiting in the queue.
+     * @param batchSize the maximum number of tasks processed in a batch.
+     * @param processors creates a batch processor for every worker thread.
+     *        Processors must handle their errors, as an exception stops the worker.
+     * @throws IllegalArgumentException if the numbers are not positive.
+     */
+    public BatchExecutor(
+            final String name,
+            final int threadCount,
+            final int capacity,
+            final int batchSize,
+            final Supplier<? extends Consumer<List<T>>> processors) {
+        if (threadCount <= 0 || capacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Invalid executor settings: threads=%d, capacity=%d, batch=%d",
+                    threadCount,
+                    capacity,
+                    batchSize
+                )
+            );
+        }
+        Objects.requireNonNull(processors);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.workers = new ArrayList<>(threadCount);
+        for (int index = 0; index < threadCount; ++index) {
+            final Consumer<List<T>> processor = Objects.requireNonNull(processors.get());
+            final Thread worker = new Thread(() -> work(processor), name + '-' + index);
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+        for (final Thread worker : workers) {
+            worker.start();
+        }
+    }
+
+    /**
+     * Submits a task.
+     *
+     * @param task the task.
+     * @return {@code true} if the task is accepted or {@code false} if it is rejected
+     *         as the queue is full or the executor is shut down.
+     */
+    public boolean submit(final T task) {
+        Objects.requireNonNull(task);
+        final boolean result;
+        synchronized (this) {
+            result = !closed && queue.offer(task);
+        }
+        if (result) {
+            accepted.increment();
+            maxQueueDepth.accumulateAndGet(queue.size(), Math::max);
+        } else {
+            rejected.increment();
+        }
+        return result;
+    }
+
+    /**
+     * Shuts the executor down: rejects new tasks, takes the tasks waiting in the queue
+     * and stops workers after they complete their current batches.
+     * Workers are not interrupted, so that processors can complete their tasks.
+     *
+     * @return the tasks that were waiting in the queue and will not be processed.
+     * @throws InterruptedException if the current thread is interrupted.
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> shutdown() throws InterruptedException {
+        final List<Object> waiting = new ArrayList<>();
+        synchronized (this) {
+            if (closed) {
+                return Collections.emptyList();
+            }
+            closed = true;
+            queue.drainTo(waiting);
+        }
+        for (int index = 0; index < workers.size(); ++index) {
+            queue.put(STOP);
+        }
+        return (List<T>) (List<?>) waiting;
+    }
+
+    /**
+     * Waits until workers stop after {@link #shutdown()}.
+     *
+     * @throws InterruptedException if the current thread is interrupted.
+     */
+    public void awaitTermination() throws InterruptedException {
+        for (final Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    /**
+     * Returns the maximum number of tasks waiting in the queue.
+     *
+     * @return the queue capacity.
+     */
+    public int getCapacity() {
+        return queue.size() + queue.remainingCapacity();
+    }
+
+    /**
+     * Returns the number of tasks waiting in the queue.
+     *
+     * @return the current queue depth.
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the maximum number of tasks that have been waiting in the queue.
+     *
+     * @return the maximum queue depth.
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * Returns the number of accepted tasks.
+     *
+     * @return the number of accepted tasks.
+     */
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    /**
+     * Returns the number of tasks rejected as the queue was full.
+     *
+     * @return the number of rejected tasks.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns the number of processed batches.
+     *
+     * @return the number of batches.
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * Takes tasks from the queue and processes them in batches until the worker
+     * takes a stop marker (every worker takes exactly one marker) or is interrupted.
+     *
+     * @param processor the batch processor.
+     */
+    @SuppressWarnings("unchecked")
+    private void work(final Consumer<List<T>> processor) {
+        final List<T> batch = new ArrayList<>(batchSize);
+        try {
+            Object item;
+            do {
+                item = queue.take();
+                while (item != STOP && item != null) {
+                    batch.add((T) item);
+                    item = batch.size() < batchSize ? queue.poll() : null;
+                }
+                if (!batch.isEmpty()) {
+                    processor.accept(batch);
+                    batches.increment();
+                    batch.clear();
+                }
+            } while (item != STOP);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
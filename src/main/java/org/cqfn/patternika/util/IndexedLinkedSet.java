@@ -0,0 +1,370 @@
+package org.cqfn.patternika.util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * Implements an ordered set of densely numbered values (integers from 0 to capacity - 1),
+ * e.g. preorder identifiers of nodes (see {@link org.cqfn.patternika.ast.TreeIndex}).
+ *
+ * <p>This is a variant of {@link LinkedSet} that stores links to the previous and the next
+ * values in {@code int} arrays indexed by values. It allows iterating over the values in
+ * a proper order and inserting, removing, and replacing values for O(1) without allocating
+ * any objects per value.
+ *
+ * @since 2021/03/23
+ */
+public class IndexedLinkedSet {
+    /** Link that means that there is no previous or next value. */
+    public static final int NONE = -1;
+
+    /** Link value that marks values that are not in the set. */
+    private static final int ABSENT = -2;
+
+    /** Links to previous values. */
+    private final int[] previous;
+
+    /** Links to next values. */
+    private final int[] next;
+
+    /** First value or {@link #NONE}. */
+    private int first;
+
+    /** Last value or {@link #NONE}. */
+    private int last;
+
+    /** Number of values in the set. */
+    private int size;
+
+    /**
+     * Main constructor (an empty set).
+     *
+     * @param capacity the number of values that can be stored in the set
+     *        (values are from 0 to capacity - 1).
+     * @throws IllegalArgumentException if the capacity is negative.
+     */
+    public IndexedLinkedSet(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Negative capacity: " + capacity);
+        }
+        this.previous = new int[capacity];
+        this.next = new int[capacity];
+        Arrays.fill(previous, ABSENT);
+        Arrays.fill(next, ABSENT);
+        this.first = NONE;
+        this.last = NONE;
+    }
+
+    /**
+     * Returns the number of values that can be stored in the set.
+     *
+     * @return the capacity.
+     */
+    public int getCapacity() {
+        return previous.length;
+    }
+
+    /**
+     * Return the number of values stored in the set.
+     *
+     * @return the set size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the set is empty.
+     *
+     * @return {@code true} or {@code false}.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks whether the set contains the specified value.
+     *
+     * @param value a value (can be out of range).
+     * @return {@code true} or {@code false}.
+     */
+    public boolean contains(final int value) {
+        return value >= 0 && value < previous.length && previous[value] != ABSENT;
+    }
+
+    /**
+     * Returns the first value.
+     *
+     * @return the first value or {@link #NONE} if the set is empty.
+     */
+    public int getFirst() {
+        return first;
+    }
+
+    /**
+     * Returns the last value.
+     *
+     * @return the last value or {@link #NONE} if the set is empty.
+     */
+    public int getLast() {
+        return last;
+    }
+
+    /**
+     * Returns the previous value for the specified value.
+     *
+     * @param value Value.
+     * @return Previous value or {@link #NONE} if there is no previous value.
+     * @throws NoSuchElementException if the value is not in the set.
+     */
+    public int getPrevious(final int value) {
+        check(value);
+        return previous[value];
+    }
+
+    /**
+     * Returns the next value for the specified value.
+     *
+     * @param value Value.
+     * @return Next value or {@link #NONE} if there is no next value.
+     * @throws NoSuchElementException if the value is not in the set.
+     */
+    public int getNext(final int value) {
+        check(value);
+        return next[value];
+    }
+
+    /**
+     * Adds a value in the set the first element.
+     * If the value is already in the set, this is an error.
+     *
+     * @param value Value.
+     * @throws IllegalArgumentException if the value is already in the set or out of range.
+     */
+    public void addFirst(final int value) {
+        insert(value, NONE, first);
+    }
+
+    /**
+     * Adds a value in the set the last element.
+     * If the value is already in the set, this is an error.
+     *
+     * @param value Value.
+     * @throws IllegalArgumentException if the value is already in the set or out of range.
+     */
+    public void addLast(final int value) {
+        insert(value, last, NONE);
+    }
+
+    /**
+     * Adds the value into the set and places it before the specified next value.
+     *
+     * <p>If the next value is {@link #NONE}, the value is placed as the first element.
+     * If the next value is not in the set, the value will not be added.
+     * If the value is already in the set, this is an error.
+     *
+     * @param value Value.
+     * @param nextValue Value, before which the new value will be inserted.
+     * @return {@code true} is the value is successfully added or
+     *         {@code false} otherwise (the next value is not in the set).
+     * @throws IllegalArgumentException if the value is already in the set or out of range.
+     */
+    public boolean addBefore(final int value, final int nextValue) {
+        if (nextValue == NONE) {
+            addFirst(value);
+            return true;
+        }
+        if (!contains(nextValue)) {
+            return false;
+        }
+        insert(value, previous[nextValue], nextValue);
+        return true;
+    }
+
+    /**
+     * Adds the value into the set and places it after the specified previous value.
+     *
+     * <p>If the previous value is {@link #NONE}, the value is placed as the last element.
+     * If the previous value is not in the set, the value will not be added.
+     * If the value is already in the set, this is an error.
+     *
+     * @param value Value.
+     * @param previousValue Value, after which the new value will be inserted.
+     * @return {@code true} is the value is successfully added or
+     *         {@code false} otherwise (the previous value is not in the set).
+     * @throws IllegalArgumentException if the value is already in the set or out of range.
+     */
+    public boolean addAfter(final int value, final int previousValue) {
+        if (previousValue == NONE) {
+            addLast(value);
+            return true;
+        }
+        if (!contains(previousValue)) {
+            return false;
+        }
+        insert(value, previousValue, next[previousValue]);
+        return true;
+    }
+
+    /**
+     * Removes the specified value from the set.
+     *
+     * @param value Value.
+     * @return {@code true} if the value is successfully removed or
+     *         {@code false} if no such value in the set.
+     */
+    public boolean remove(final int value) {
+        if (!contains(value)) {
+            return false;
+        }
+        link(previous[value], next[value]);
+        previous[value] = ABSENT;
+        next[value] = ABSENT;
+        size -= 1;
+        return true;
+    }
+
+    /**
+     * Replaces an old value with the specified new value.
+     * The location of the value remains the same.
+     *
+     * @param old Old value.
+     * @param current New value.
+     * @throws NoSuchElementException if the old value is not in the set.
+     * @throws IllegalArgumentException if the new value is already in the set or out of range.
+     */
+    public void replace(final int old, final int current) {
+        check(old);
+        if (old == current) {
+            return;
+        }
+        checkAbsent(current);
+        final int before = previous[old];
+        final int after = next[old];
+        remove(old);
+        insert(current, before, after);
+    }
+
+    /**
+     * Clears all values from the set. Takes time proportional to the set size.
+     */
+    public void clear() {
+        int current = first;
+        while (current != NONE) {
+            final int following = next[current];
+            previous[current] = ABSENT;
+            next[current] = ABSENT;
+            current = following;
+        }
+        first = NONE;
+        last = NONE;
+        size = 0;
+    }
+
+    /**
+     * Performs the action for each value in the set order.
+     *
+     * @param action the action.
+     */
+    public void forEach(final IntConsumer action) {
+        for (int current = first; current != NONE; current = next[current]) {
+            action.accept(current);
+        }
+    }
+
+    /**
+     * Returns a new array that contains all values stored in the set in the set order.
+     *
+     * @return the array of values.
+     */
+    public int[] toArray() {
+        final int[] result = new int[size];
+        int index = 0;
+        for (int current = first; current != NONE; current = next[current]) {
+            result[index] = current;
+            index += 1;
+        }
+        return result;
+    }
+
+    /**
+     * Returns a textual representation of the set.
+     *
+     * @return text.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append('{');
+        for (int current = first; current != NONE; current = next[current]) {
+            if (current != first) {
+                builder.append(',').append(' ');
+            }
+            builder.append(current);
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Inserts the value in the set and places it between the specified values.
+     *
+     * @param value Value.
+     * @param before Previous value or {@link #NONE}.
+     * @param after Next value or {@link #NONE}.
+     * @throws IllegalArgumentException if the value is already in the set or out of range.
+     */
+    private void insert(final int value, final int before, final int after) {
+        checkAbsent(value);
+        link(before, value);
+        link(value, after);
+        size += 1;
+    }
+
+    /**
+     * Links two values, so that they become adjacent.
+     *
+     * @param before Previous value or {@link #NONE}.
+     * @param after Next value or {@link #NONE}.
+     */
+    private void link(final int before, final int after) {
+        if (before == NONE) {
+            first = after;
+        } else {
+            next[before] = after;
+        }
+        if (after == NONE) {
+            last = before;
+        } else {
+            previous[after] = before;
+        }
+    }
+
+    /**
+     * Checks that the value can be added to the set.
+     *
+     * @param value Value.
+     * @throws IllegalArgumentException if the value is already in the set or out of range.
+     */
+    private void checkAbsent(final int value) {
+        if (value < 0 || value >= previous.length) {
+            throw new IllegalArgumentException("Value is out of range: " + value);
+        }
+        if (previous[value] != ABSENT) {
+            throw new IllegalArgumentException("Value is already in the set: " + value);
+        }
+    }
+
+    /**
+     * Checks that the value is in the set.
+     *
+     * @param value Value.
+     * @throws NoSuchElementException if the value is not in the set.
+     */
+    private void check(final int value) {
+        if (!contains(value)) {
+            throw new NoSuchElementException("No value in the set: " + value);
+        }
+    }
+
+}
@@ -0,0 +1,417 @@
+package org.cqfn.patternika.util;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Utility class that reads and writes simple JSON values.
+ *
+ * <p>Parsed values are represented with standard Java classes: objects are
+ * {@link Map}s (with the original order of keys), arrays are {@link List}s,
+ * strings are {@link String}s, numbers are {@link BigDecimal}s, literals are
+ * {@link Boolean}s and {@code null}.
+ *
+ * @since 2021/03/23
+ */
+public final class Json {
+    /** Number of hexadecimal digits in a unicode escape sequence. */
+    private static final int UNICODE_DIGITS = 4;
+
+    /** Radix of hexadecimal numbers. */
+    private static final int HEX_RADIX = 16;
+
+    /** Code of the first character that is not a control character. */
+    private static final char FIRST_PRINTABLE = ' ';
+
+    /** Character that starts an escape sequence. */
+    private static final char ESCAPE = '\\';
+
+    private Json() { }
+
+    /**
+     * Parses a JSON text.
+     *
+     * @param text the text that contains a single JSON value.
+     * @return the parsed value.
+     * @throws IllegalArgumentException if the text is not a valid JSON value.
+     */
+    public static Object parse(final String text) {
+        final Reader reader = new Reader(text);
+        final Object result = reader.readValue();
+        reader.skipSpaces();
+        if (!reader.isEnd()) {
+            throw reader.error("Unexpected text after the value");
+        }
+        return result;
+    }
+
+    /**
+     * Converts a string to a JSON string literal (with quotes and escape sequences).
+     *
+     * @param value the string.
+     * @return the JSON string literal.
+     */
+    public static String quote(final String value) {
+        final StringBuilder builder = new StringBuilder(value.length() + 2);
+        builder.append('"');
+        for (int index = 0; index < value.length(); ++index) {
+            final char chr = value.charAt(index);
+            switch (chr) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    appendChar(builder, chr);
+                    break;
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    /**
+     * Converts a parsed value back to a JSON text.
+     *
+     * @param value the value (a string, a number, a boolean or {@code null}, as well as
+     *        a list or a map with such values).
+     * @return the JSON text.
+     */
+    public static String toJson(final Object value) {
+        final String result;
+        if (value instanceof String) {
+            result = quote((String) value);
+        } else if (value instanceof Map) {
+            final StringBuilder builder = new StringBuilder().append('{');
+            String separator = "";
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                builder.append(separator)
+                    .append(quote(String.valueOf(entry.getKey())))
+                    .append(':')
+                    .append(toJson(entry.getValue()));
+                separator = ",";
+            }
+            result = builder.append('}').toString();
+        } else if (value instanceof List) {
+            final StringBuilder builder = new StringBuilder().append('[');
+            String separator = "";
+            for (final Object item : (List<?>) value) {
+                builder.append(separator).append(toJson(item));
+                separator = ",";
+            }
+            result = builder.append(']').toString();
+        } else {
+            result = String.valueOf(value);
+        }
+        return result;
+    }
+
+    /**
+     * Appends a character, escapes control characters.
+     *
+     * @param builder the builder.
+     * @param chr the character.
+     */
+    private static void appendChar(final StringBuilder builder, final char chr) {
+        if (chr < FIRST_PRINTABLE) {
+            final String code = Integer.toHexString(chr);
+            builder.append("\\u").append(TextUtils.repeat("0", UNICODE_DIGITS - code.length()))
+                .append(code);
+        } else {
+            builder.append(chr);
+        }
+    }
+
+    /**
+     * Reader of JSON values from a text.
+     */
+    private static final class Reader {
+        /** The text. */
+        private final String text;
+
+        /** Current position. */
+        private int position;
+
+        /**
+         * Constructor.
+         *
+         * @param text the text.
+         */
+        private Reader(final String text) {
+            this.text = text;
+        }
+
+        /**
+         * Checks whether the end of the text is reached.
+         *
+         * @return {@code true} or {@code false}.
+         */
+        private boolean isEnd() {
+            return position >= text.length();
+        }
+
+        /**
+         * Skips whitespace characters.
+         */
+        private void skipSpaces() {
+            while (!isEnd() && Character.isWhitespace(text.charAt(position))) {
+                position += 1;
+            }
+        }
+
+        /**
+         * Reads a value.
+         *
+         * @return the value.
+         */
+        private Object readValue() {
+            skipSpaces();
+            if (isEnd()) {
+                throw error("Value expected");
+            }
+            final char chr = text.charAt(position);
+            final Object result;
+            switch (chr) {
+                case '{':
+                    result = readObject();
+                    break;
+                case '[':
+                    result = readArray();
+                    break;
+                case '"':
+                    result = readString();
+                    break;
+                case '-':
+                    result = readNumber();
+                    break;
+                default:
+                    result = Character.isDigit(chr) ? readNumber() : readLiteral();
+                    break;
+            }
+            return result;
+        }
+
+        /**
+         * Reads an object.
+         *
+         * @return the object as a map.
+         */
+        private Map<String, Object> readObject() {
+            final Map<String, Object> result = new LinkedHashMap<>();
+            position += 1;
+            skipSpaces();
+            if (tryRead('}')) {
+                return result;
+            }
+            do {
+                skipSpaces();
+                if (!isNext('"')) {
+                    throw error("Key expected");
+                }
+                final String key = readString();
+                skipSpaces();
+                expect(':');
+                result.put(key, readValue());
+                skipSpaces();
+            } while (tryRead(','));
+            expect('}');
+            return result;
+        }
+
+        /**
+         * Reads an array.
+         *
+         * @return the array as a list.
+         */
+        private List<Object> readArray() {
+            final List<Object> result = new ArrayList<>();
+            position += 1;
+            skipSpaces();
+            if (tryRead(']')) {
+                return result;
+            }
+            do {
+                result.add(readValue());
+                skipSpaces();
+            } while (tryRead(','));
+            expect(']');
+            return result;
+        }
+
+        /**
+         * Reads a string.
+         *
+         * @return the string.
+         */
+        private String readString() {
+            final StringBuilder builder = new StringBuilder();
+            position += 1;
+            while (!tryRead('"')) {
+                if (isEnd()) {
+                    throw error("Unterminated string");
+                }
+                final char chr = text.charAt(position);
+                position += 1;
+                if (chr == ESCAPE) {
+                    builder.append(readEscaped());
+                } else {
+                    builder.append(chr);
+                }
+            }
+            return builder.toString();
+        }
+
+        /**
+         * Reads an escaped character (after the backslash).
+         *
+         * @return the character.
+         */
+        private char readEscaped() {
+            if (isEnd()) {
+                throw error("Unterminated string");
+            }
+            final char chr = text.charAt(position);
+            position += 1;
+            final char result;
+            switch (chr) {
+                case 'n':
+                    result = '\n';
+                    break;
+                case 'r':
+                    result = '\r';
+                    break;
+                case 't':
+                    result = '\t';
+                    break;
+                case 'b':
+                    result = '\b';
+                    break;
+                case 'f':
+                    result = '\f';
+                    break;
+                case 'u':
+                    result = readUnicode();
+                    break;
+                default:
+                    result = chr;
+                    break;
+            }
+            return result;
+        }
+
+        /**
+         * Reads four hexadecimal digits of a unicode escape sequence.
+         *
+         * @return the character.
+         */
+        private char readUnicode() {
+            if (position + UNICODE_DIGITS > text.length()) {
+                throw error("Invalid unicode escape sequence");
+            }
+            try {
+                final String digits = text.substring(position, position + UNICODE_DIGITS);
+                position += UNICODE_DIGITS;
+                return (char) Integer.parseInt(digits, HEX_RADIX);
+            } catch (final NumberFormatException ex) {
+                throw error("Invalid unicode escape sequence");
+            }
+        }
+
+        /**
+         * Reads a number.
+         *
+         * @return the number.
+         */
+        private BigDecimal readNumber() {
+            final int start = position;
+            while (!isEnd() && "+-.eE0123456789".indexOf(text.charAt(position)) != -1) {
+                position += 1;
+            }
+            try {
+                return new BigDecimal(text.substring(start, position));
+            } catch (final NumberFormatException ex) {
+                throw error("Invalid number");
+            }
+        }
+
+        /**
+         * Reads a literal: {@code true}, {@code false} or {@code null}.
+         *
+         * @return the literal value.
+         */
+        private Boolean readLiteral() {
+            final Boolean result;
+            if (text.startsWith("true", position)) {
+                result = Boolean.TRUE;
+            } else if (text.startsWith("false", position)) {
+                result = Boolean.FALSE;
+            } else if (text.startsWith("null", position)) {
+                result = null;
+            } else {
+                throw error("Unexpected character");
+            }
+            position += String.valueOf(result).length();
+            return result;
+        }
+
+        /**
+         * Checks whether the specified character is at the current position.
+         *
+         * @param chr the character.
+         * @return {@code true} or {@code false}.
+         */
+        private boolean isNext(final char chr) {
+            return !isEnd() && text.charAt(position) == chr;
+        }
+
+        /**
+         * Reads the expected character if it is at the current position.
+         *
+         * @param chr the character.
+         * @return {@code true} if the character is read or {@code false} otherwise.
+         */
+        private boolean tryRead(final char chr) {
+            if (isNext(chr)) {
+                position += 1;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Reads the expected character.
+         *
+         * @param chr the character.
+         * @throws IllegalArgumentException if there is another character.
+         */
+        private void expect(final char chr) {
+            if (!tryRead(chr)) {
+                throw error("'" + chr + "' expected");
+            }
+        }
+
+        /**
+         * Creates an exception for a syntax error at the current position.
+         *
+         * @param message the error message.
+         * @return the exception.
+         */
+        private IllegalArgumentException error(final String message) {
+            return new IllegalArgumentException(message + " at position " + position);
+        }
+    }
+
+}
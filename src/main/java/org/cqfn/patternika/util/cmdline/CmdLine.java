@@ -1,5 +1,6 @@
 package org.cqfn.patternika.util.cmdline;
 
+import java.io.PrintStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -49,6 +50,30 @@ public class CmdLine {
         handler.handle(arguments, options);
     }
 
+    /**
+     * Runs the handler with the specified arguments, options and shared resources
+     * and prints the results to the specified streams.
+     *
+     * @param resources the shared resources.
+     * @param out the stream for the results.
+     * @param err the stream for error messages.
+     */
+    public void execute(
+            final Resources resources,
+            final PrintStream out,
+            final PrintStream err) {
+        handler.handle(arguments, options, resources, out, err);
+    }
+
+    /**
+     * Returns the handler of the action specified in the command line.
+     *
+     * @return the handler.
+     */
+    public Handler getHandler() {
+        return handler;
+    }
+
     /**
      * Returns an argument by its name.
      *
@@ -1,5 +1,6 @@
 package org.cqfn.patternika.util.cmdline;
 
+import java.io.PrintStream;
 import java.util.List;
 import java.util.Map;
 
@@ -16,6 +17,40 @@ public interface Handler {
      * @param options the options by names (one option can have multiple values).
      */
     void handle(Map<String, String> arguments, Map<String, List<String>> options);
-}
 
+    /**
+     * Handles a command-line action with resources shared by actions of the process
+     * and prints the results to the specified streams.
+     * This allows running actions many times in a single process (e.g. in a server)
+     * without creating parsers and loading data again for every action.
+     * By default, the resources and the streams are ignored, and the results are printed
+     * to the streams the handler was created with, so handlers that override this method
+     * report it with {@link #isOneShot()}.
+     *
+     * @param arguments the argument by names.
+     * @param options the options by names (one option can have multiple values).
+     * @param resources the shared resources.
+     * @param out the stream for the results.
+     * @param err the stream for error messages.
+     */
+    default void handle(
+            final Map<String, String> arguments,
+            final Map<String, List<String>> options,
+            final Resources resources,
+            final PrintStream out,
+            final PrintStream err) {
+        handle(arguments, options);
+    }
 
+    /**
+     * Checks whether the action can be executed on a request of a server:
+     * it completes after handling and prints the results only to the streams passed to
+     * {@link #handle(Map, Map, Resources, PrintStream, PrintStream)}.
+     * Actions that keep running (e.g. servers) or ignore the streams are not one-shot.
+     *
+     * @return {@code true} or {@code false}, by default {@code false}.
+     */
+    default boolean isOneShot() {
+        return false;
+    }
+}
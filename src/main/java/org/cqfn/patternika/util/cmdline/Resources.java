@@ -0,0 +1,57 @@
+package org.cqfn.patternika.util.cmdline;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Resources shared by actions executed in a single process (e.g. by a server):
+ * objects that are expensive to create, such as parsers or loaded data,
+ * identified by their types. Resources are immutable.
+ *
+ * @since 2021/03/23
+ */
+public final class Resources {
+    /** Empty resources. */
+    public static final Resources NONE = new Resources(Collections.emptyMap());
+
+    /** Resources by types. */
+    private final Map<Class<?>, Object> values;
+
+    /**
+     * Constructor.
+     *
+     * @param values the resources by types.
+     */
+    private Resources(final Map<Class<?>, Object> values) {
+        this.values = values;
+    }
+
+    /**
+     * Creates resources that contain these resources and the specified resource.
+     * A resource of the same type is replaced.
+     *
+     * @param type the resource type.
+     * @param value the resource.
+     * @param <T> the resource type.
+     * @return the new resources.
+     */
+    public <T> Resources with(final Class<T> type, final T value) {
+        final Map<Class<?>, Object> result = new HashMap<>(values);
+        result.put(Objects.requireNonNull(type), Objects.requireNonNull(value));
+        return new Resources(Collections.unmodifiableMap(result));
+    }
+
+    /**
+     * Returns a resource of the specified type.
+     *
+     * @param type the resource type.
+     * @param <T> the resource type.
+     * @return the resource or {@code null} if there is no resource of this type.
+     */
+    public <T> T get(final Class<T> type) {
+        return type.cast(values.get(type));
+    }
+
+}
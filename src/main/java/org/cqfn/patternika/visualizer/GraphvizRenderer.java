@@ -0,0 +1,393 @@
+package org.cqfn.patternika.visualizer;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders graphs in the DOT format to PNG images using the external Graphviz tool.
+ *
+ * <p>Graphviz is started in the {@code -Tpng} mode and receives graphs via the standard input.
+ * The input is written and the standard output and the standard error are drained
+ * concurrently, so the process never blocks on a full pipe. A process that does not finish
+ * in the specified time is killed.
+ *
+ * <p>Many graphs can be rendered by a single process: Graphviz renders all graphs from
+ * its input one after another, and the PNG images it produces are split by their chunk
+ * structure. Batches of graphs are distributed among a limited number of processes that
+ * run in parallel.
+ *
+ * <p>The renderer owns a pool of daemon threads that is shut down when the renderer
+ * is closed, so a renderer that is no longer used must be closed.
+ *
+ * @since 2021/03/23
+ */
+public class GraphvizRenderer implements AutoCloseable {
+    /** Default maximum number of graphs rendered by a single process. */
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    /** Default time limit for a single process in seconds. */
+    public static final long DEFAULT_TIMEOUT = 60;
+
+    /** Signature that starts every PNG image. */
+    private static final byte[] PNG_SIGNATURE = {
+        (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n',
+    };
+
+    /** Type of the PNG chunk that ends an image. */
+    private static final int PNG_END = 0x49454E44;
+
+    /** Size of a PNG chunk checksum. */
+    private static final int PNG_CRC_SIZE = 4;
+
+    /** Message for the case when the current thread is interrupted. */
+    private static final String INTERRUPTED =
+            "The current thread failed to finish image rendering as it was interrupted.";
+
+    /** Size of the buffer used to copy data. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** Path to the Graphviz executable. */
+    private final String graphvizPath;
+
+    /** Maximum number of processes that run in parallel. */
+    private final int processCount;
+
+    /** Maximum number of graphs rendered by a single process. */
+    private final int batchSize;
+
+    /** Time limit for a single process. */
+    private final long timeout;
+
+    /** Time unit of the time limit. */
+    private final TimeUnit unit;
+
+    /** Executor for processes and their input and output streams. */
+    private final ExecutorService executor;
+
+    /**
+     * Source of a graph that writes the graph text in the DOT format.
+     */
+    @FunctionalInterface
+    public interface Source {
+        /**
+         * Writes the graph text to the output.
+         *
+         * @param output the output.
+         * @throws IOException if failed to write to the output.
+         */
+        void write(Appendable output) throws IOException;
+    }
+
+    /**
+     * Main constructor.
+     *
+     * @param graphvizPath the path to the Graphviz executable ({@code dot}).
+     * @param processCount the maximum number of processes that run in parallel.
+     * @param batchSize the maximum number of graphs rendered by a single process.
+     * @param timeout the time limit for a single process.
+     * @param unit the time unit of the time limit.
+     * @throws IllegalArgumentException if the numbers are not positive.
+     */
+    public GraphvizRenderer(
+            final String graphvizPath,
+            final int processCount,
+            final int batchSize,
+            final long timeout,
+            final TimeUnit unit) {
+        if (processCount <= 0 || batchSize <= 0 || timeout <= 0) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Invalid renderer settings: processes=%d, batch=%d, timeout=%d",
+                    processCount,
+                    batchSize,
+                    timeout
+                )
+            );
+        }
+        this.graphvizPath = Objects.requireNonNull(graphvizPath);
+        this.processCount = processCount;
+        this.batchSize = batchSize;
+        this.timeout = timeout;
+        this.unit = Objects.requireNonNull(unit);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "graphviz");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Additional constructor that uses a single process with default settings.
+     *
+     * @param graphvizPath the path to the Graphviz executable ({@code dot}).
+     */
+    public GraphvizRenderer(final String graphvizPath) {
+        this(graphvizPath, 1, DEFAULT_BATCH_SIZE, DEFAULT_TIMEOUT, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Renders a single graph to an image file.
+     *
+     * @param source the graph source.
+     * @param image the path to the image file.
+     * @throws IOException if failed to render the image.
+     */
+    public void render(final Source source, final Path image) throws IOException {
+        renderBatch(
+            Collections.singletonList(Objects.requireNonNull(source)),
+            Collections.singletonList(Objects.requireNonNull(image))
+        );
+    }
+
+    /**
+     * Renders many graphs to image files.
+     *
+     * @param graphs the graph sources by paths to image files.
+     * @throws IOException if failed to render some of the images
+     *         (others can be rendered successfully).
+     */
+    public void renderAll(final Map<Path, ? extends Source> graphs) throws IOException {
+        final List<Path> images = new ArrayList<>(graphs.keySet());
+        final Queue<Integer> batches = new ConcurrentLinkedQueue<>();
+        for (int start = 0; start < images.size(); start += batchSize) {
+            batches.add(start);
+        }
+        final int workerCount = Math.min(processCount, batches.size());
+        final List<Future<Void>> workers = new ArrayList<>(workerCount);
+        while (workers.size() < workerCount) {
+            workers.add(executor.submit(() -> {
+                for (Integer start = batches.poll(); start != null; start = batches.poll()) {
+                    final List<Path> batch =
+                            images.subList(start, Math.min(start + batchSize, images.size()));
+                    final List<Source> sources = new ArrayList<>(batch.size());
+                    for (final Path image : batch) {
+                        sources.add(graphs.get(image));
+                    }
+                    renderBatch(sources, batch);
+                }
+                return null;
+            }));
+        }
+        for (final Future<Void> worker : workers) {
+            await(worker);
+        }
+    }
+
+    /**
+     * Shuts down the threads of the renderer.
+     * Rendering that is in progress is finished, new rendering is rejected.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Renders a batch of graphs by a single Graphviz process.
+     *
+     * @param sources the graph sources.
+     * @param images the paths to the image files.
+     * @throws IOException if failed to render the images or the renderer is closed.
+     */
+    private void renderBatch(
+            final List<? extends Source> sources,
+            final List<Path> images) throws IOException {
+        if (executor.isShutdown()) {
+            throw new IOException("The renderer is closed.");
+        }
+        final Process process = new ProcessBuilder(graphvizPath, "-Tpng").start();
+        try {
+            final Future<Void> input = executor.submit(() -> {
+                writeGraphs(process.getOutputStream(), sources);
+                return null;
+            });
+            final Future<Integer> output =
+                    executor.submit(() -> splitImages(process.getInputStream(), images));
+            final Future<String> errors =
+                    executor.submit(() -> readText(process.getErrorStream()));
+            if (!process.waitFor(timeout, unit)) {
+                throw new IOException("Graphviz did not finish in time: " + graphvizPath);
+            }
+            if (process.exitValue() != 0) {
+                throw new IOException(await(errors));
+            }
+            await(input);
+            final int count = await(output);
+            if (count != images.size()) {
+                throw new IOException(
+                    String.format("Graphviz rendered %d of %d images", count, images.size()));
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(INTERRUPTED, ex);
+        } finally {
+            process.destroyForcibly();
+        }
+    }
+
+    /**
+     * Writes graphs to the process input and closes it.
+     *
+     * @param stream the process input stream.
+     * @param sources the graph sources.
+     * @throws IOException if failed to write the graphs.
+     */
+    private static void writeGraphs(
+            final OutputStream stream,
+            final List<? extends Source> sources) throws IOException {
+        try (Writer writer = new BufferedWriter(
+                new OutputStreamWriter(stream, StandardCharsets.UTF_8))) {
+            for (final Source source : sources) {
+                source.write(writer);
+            }
+        } catch (final UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Splits the process output into PNG images and writes them to files.
+     *
+     * @param stream the process output stream.
+     * @param images the paths to the image files.
+     * @return the number of written images.
+     * @throws IOException if failed to read the output or to write the files.
+     */
+    private static int splitImages(
+            final InputStream stream,
+            final List<Path> images) throws IOException {
+        try (DataInputStream input = new DataInputStream(stream)) {
+            final byte[] signature = new byte[PNG_SIGNATURE.length];
+            int count = 0;
+            while (count < images.size() && readSignature(input, signature)) {
+                try (OutputStream file = new BufferedOutputStream(
+                        Files.newOutputStream(images.get(count)))) {
+                    file.write(signature);
+                    copyChunks(input, file);
+                }
+                count += 1;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Reads the signature of the next PNG image.
+     *
+     * @param input the input.
+     * @param signature the buffer for the signature.
+     * @return {@code true} if the signature is read or {@code false} if the input is over.
+     * @throws IOException if failed to read the input or the signature is invalid.
+     */
+    private static boolean readSignature(
+            final DataInputStream input,
+            final byte[] signature) throws IOException {
+        final int first = input.read();
+        if (first == -1) {
+            return false;
+        }
+        signature[0] = (byte) first;
+        input.readFully(signature, 1, signature.length - 1);
+        if (!Arrays.equals(signature, PNG_SIGNATURE)) {
+            throw new IOException("Graphviz output is not a PNG image!");
+        }
+        return true;
+    }
+
+    /**
+     * Copies chunks of a PNG image until the end chunk.
+     *
+     * @param input the input positioned after the image signature.
+     * @param output the output.
+     * @throws IOException if failed to copy data or the image ends unexpectedly.
+     */
+    private static void copyChunks(
+            final DataInputStream input,
+            final OutputStream output) throws IOException {
+        final DataOutputStream data = new DataOutputStream(output);
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int type = 0;
+        while (type != PNG_END) {
+            final int length = input.readInt();
+            type = input.readInt();
+            data.writeInt(length);
+            data.writeInt(type);
+            long remaining = (long) length + PNG_CRC_SIZE;
+            while (remaining > 0) {
+                final int size = (int) Math.min(remaining, buffer.length);
+                input.readFully(buffer, 0, size);
+                data.write(buffer, 0, size);
+                remaining -= size;
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a text from a stream and closes it.
+     *
+     * @param stream the input stream.
+     * @return the text.
+     * @throws IOException if failed to read some data.
+     */
+    private static String readText(final InputStream stream) throws IOException {
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream input = stream) {
+            for (int size = input.read(buffer); size != -1; size = input.read(buffer)) {
+                result.write(buffer, 0, size);
+            }
+        }
+        return new String(result.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Waits for a task and returns its result.
+     *
+     * @param future the task future.
+     * @param <T> the result type.
+     * @return the result.
+     * @throws IOException if the task failed with an exception
+     *         or the current thread was interrupted.
+     */
+    private static <T> T await(final Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(INTERRUPTED, ex);
+        } catch (final ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+}
@@ -5,9 +5,7 @@ import org.cqfn.patternika.ast.Node;
 import org.cqfn.patternika.visualizer.dot.DotVisualizer;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.io.PrintStream;
+import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -16,6 +14,9 @@ import java.util.Objects;
 /**
  * Renders an abstract syntax tree to an image using the external Graphviz tool.
  *
+ * <p>To render many trees, use {@link GraphvizRenderer} directly, which can render
+ * them in batches.
+ *
  * @since 2021/02/19
  */
 public class ImageVisualizer implements Visualizer {
@@ -73,66 +74,18 @@ public class ImageVisualizer implements Visualizer {
 
     /**
      * Renders data a graphical format.
+     * DOT text is streamed to the Graphviz input as it is generated.
      *
      * @throws IOException if fails to save rendered data.
      */
     @Override
     public void visualize() throws IOException {
-        final StringBuilder builder = new StringBuilder();
-        final Visualizer visualizer = new DotVisualizer(builder, tree, markers);
-        visualizer.visualize();
-        renderToImage(builder.toString());
-    }
-
-    /**
-     * Renders DOT text to an image file.
-     *
-     * @param text the text in the DOT format.
-     */
-    private void renderToImage(final String text) throws IOException {
-        final ProcessBuilder builder = new ProcessBuilder(graphvizPath, "-Tpng", "-o", imagePath);
-        final Process process = builder.start();
-        writeToStream(process.getOutputStream(), text);
-        try {
-            final int exitCode = process.waitFor();
-            if (exitCode != 0) {
-                final String errMsg = readFromStream(process.getErrorStream());
-                throw new IOException(errMsg);
-            }
-        } catch (final InterruptedException ex) {
-            throw new IOException(
-                    "The current thread failed to finish image rendering as it was interrupted.",
-                    ex
-                );
+        try (GraphvizRenderer renderer = new GraphvizRenderer(graphvizPath)) {
+            renderer.render(
+                output -> new DotVisualizer(output, tree, markers).visualize(),
+                Paths.get(imagePath)
+            );
         }
     }
 
-    /**
-     * Writes the specified text to the stream and closes it.
-     *
-     * @param output the output stream.
-     * @param text the text to be written.
-     */
-    private static void writeToStream(final OutputStream output, final String text) {
-        try (PrintStream writer = new PrintStream(output)) {
-            writer.print(text);
-        }
-    }
-
-    /**
-     * Reads a text from a stream and closes it.
-     *
-     * @param input the input stream.
-     * @return the text.
-     * @throws IOException if failed to read some data.
-     */
-    private static String readFromStream(final InputStream input) throws IOException {
-        final StringBuilder builder = new StringBuilder();
-        try (InputStream reader = input) {
-            for (int ch = reader.read(); ch != -1; ch = reader.read()) {
-                builder.append((char) ch);
-            }
-        }
-        return builder.toString();
-    }
 }
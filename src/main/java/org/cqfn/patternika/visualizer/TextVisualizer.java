@@ -5,6 +5,7 @@ import org.cqfn.patternika.ast.Node;
 import org.cqfn.patternika.visualizer.dot.DotVisualizer;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -60,16 +61,16 @@ public class TextVisualizer implements Visualizer {
 
     /**
      * Renders data to a text file in the DOT format.
+     * The text is streamed to the file as it is generated.
      *
      * @throws IOException if fails to generate the text file.
      */
     @Override
     public void visualize() throws IOException {
-        final StringBuilder builder = new StringBuilder();
-        final Visualizer visualizer = new DotVisualizer(builder, tree, markers);
-        visualizer.visualize();
-        try (Writer write = Files.newBufferedWriter(Paths.get(fileName))) {
-            write.write(builder.toString());
+        try (Writer writer = Files.newBufferedWriter(Paths.get(fileName))) {
+            new DotVisualizer(writer, tree, markers).visualize();
+        } catch (final UncheckedIOException ex) {
+            throw ex.getCause();
         }
     }
 
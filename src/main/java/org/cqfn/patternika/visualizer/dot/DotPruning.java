@@ -0,0 +1,196 @@
+package org.cqfn.patternika.visualizer.dot;
+
+import org.cqfn.patternika.ast.Action;
+import org.cqfn.patternika.ast.ActionTree;
+import org.cqfn.patternika.ast.Node;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Selects nodes of an action tree to be shown in a pruned graph.
+ *
+ * <p>Focus nodes are parents, references, and accept trees of actions, as well as
+ * marked nodes. If there are no such nodes, the root is the focus. A node is visible if
+ * it is at most the specified number of edges away from a focus node or if it is
+ * an ancestor of a focus node (to keep the graph connected).
+ *
+ * @since 2021/03/23
+ */
+class DotPruning {
+    /** Visible nodes. */
+    private final Set<Node> visible;
+
+    /**
+     * Constructor.
+     *
+     * @param tree the action tree.
+     * @param markers the marked nodes.
+     * @param depth the maximum distance from focus nodes to visible nodes.
+     */
+    DotPruning(final ActionTree tree, final Map<Node, ?> markers, final int depth) {
+        final Map<Node, Node> parents = new IdentityHashMap<>();
+        final List<Node> focus = new ArrayList<>();
+        collect(tree, markers, parents, focus);
+        this.visible = spread(focus, parents, depth);
+        connect(focus, parents);
+    }
+
+    /**
+     * Checks whether a node is visible. Null nodes are always visible.
+     *
+     * @param node the node, can be {@code null}.
+     * @return {@code true} if the node is visible or {@code false} otherwise.
+     */
+    boolean isVisible(final Node node) {
+        return node == null || visible.contains(node);
+    }
+
+    /**
+     * Counts nodes in a subtree.
+     *
+     * @param root the subtree root, can be {@code null}.
+     * @return the number of non-null nodes in the subtree.
+     */
+    static int countNodes(final Node root) {
+        int count = 0;
+        final Deque<Node> stack = new ArrayDeque<>();
+        if (root != null) {
+            stack.push(root);
+        }
+        while (!stack.isEmpty()) {
+            final Node node = stack.pop();
+            count += 1;
+            for (int index = 0; index < node.getChildCount(); ++index) {
+                final Node child = node.getChild(index);
+                if (child != null) {
+                    stack.push(child);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Traverses the root tree and accept trees, collects parents of nodes and focus nodes.
+     *
+     * @param tree the action tree.
+     * @param markers the marked nodes.
+     * @param parents the map to collect parents.
+     * @param focus the list to collect focus nodes.
+     */
+    private static void collect(
+            final ActionTree tree,
+            final Map<Node, ?> markers,
+            final Map<Node, Node> parents,
+            final List<Node> focus) {
+        final Set<Node> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<Node> stack = new ArrayDeque<>();
+        stack.push(tree.getRoot());
+        while (!stack.isEmpty()) {
+            final Node node = stack.pop();
+            if (!seen.add(node)) {
+                continue;
+            }
+            if (markers.containsKey(node)) {
+                focus.add(node);
+            }
+            for (int index = 0; index < node.getChildCount(); ++index) {
+                final Node child = node.getChild(index);
+                if (child != null) {
+                    parents.put(child, node);
+                    stack.push(child);
+                }
+            }
+            for (final Action action : tree.getActionsByParent(node)) {
+                focus.add(node);
+                addNonNull(focus, action.getRef());
+                addNonNull(focus, action.getAccept());
+                if (action.getAccept() != null) {
+                    stack.push(action.getAccept());
+                }
+            }
+        }
+        if (focus.isEmpty()) {
+            focus.add(tree.getRoot());
+        }
+    }
+
+    /**
+     * Adds a node to a list if it is not {@code null}.
+     *
+     * @param list the list.
+     * @param node the node, can be {@code null}.
+     */
+    private static void addNonNull(final List<Node> list, final Node node) {
+        if (node != null) {
+            list.add(node);
+        }
+    }
+
+    /**
+     * Finds nodes that are at most the specified number of edges away from focus nodes.
+     *
+     * @param focus the focus nodes.
+     * @param parents the parents of nodes.
+     * @param depth the maximum distance.
+     * @return the set of found nodes.
+     */
+    private static Set<Node> spread(
+            final List<Node> focus,
+            final Map<Node, Node> parents,
+            final int depth) {
+        final Map<Node, Integer> distances = new IdentityHashMap<>();
+        final Deque<Node> queue = new ArrayDeque<>();
+        for (final Node node : focus) {
+            if (distances.put(node, 0) == null) {
+                queue.add(node);
+            }
+        }
+        while (!queue.isEmpty()) {
+            final Node node = queue.poll();
+            final int distance = distances.get(node) + 1;
+            if (distance > depth) {
+                continue;
+            }
+            final List<Node> neighbours = new ArrayList<>(node.getChildCount() + 1);
+            addNonNull(neighbours, parents.get(node));
+            for (int index = 0; index < node.getChildCount(); ++index) {
+                addNonNull(neighbours, node.getChild(index));
+            }
+            for (final Node neighbour : neighbours) {
+                if (!distances.containsKey(neighbour)) {
+                    distances.put(neighbour, distance);
+                    queue.add(neighbour);
+                }
+            }
+        }
+        final Set<Node> result = Collections.newSetFromMap(new IdentityHashMap<>());
+        result.addAll(distances.keySet());
+        return result;
+    }
+
+    /**
+     * Makes visible all ancestors of focus nodes.
+     *
+     * @param focus the focus nodes.
+     * @param parents the parents of nodes.
+     */
+    private void connect(final List<Node> focus, final Map<Node, Node> parents) {
+        final Set<Node> connected = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (final Node node : focus) {
+            Node current = node;
+            while (current != null && connected.add(current)) {
+                visible.add(current);
+                current = parents.get(current);
+            }
+        }
+    }
+
+}
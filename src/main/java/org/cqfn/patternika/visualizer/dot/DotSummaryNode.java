@@ -0,0 +1,41 @@
+package org.cqfn.patternika.visualizer.dot;
+
+/**
+ * Summary node for a DOT graph that replaces collapsed subtrees.
+ *
+ * @since 2021/03/23
+ */
+public class DotSummaryNode implements DotWriter {
+    /** The node index. */
+    private final int nodeIndex;
+
+    /** The number of nodes in the collapsed subtrees. */
+    private final int nodeCount;
+
+    /**
+     * Constructor.
+     *
+     * @param nodeIndex the node index.
+     * @param nodeCount the number of nodes in the collapsed subtrees.
+     */
+    public DotSummaryNode(final int nodeIndex, final int nodeCount) {
+        this.nodeIndex = nodeIndex;
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * Writes a summary node to a string builder.
+     *
+     * @param builder the string builder.
+     */
+    @Override
+    public void write(final StringBuilder builder) {
+        builder
+            .append("  node_")
+            .append(nodeIndex)
+            .append(" [style=\"rounded,dashed\" label=<<i>")
+            .append(nodeCount)
+            .append(nodeCount == 1 ? " node" : " nodes")
+            .append("</i>>]; // SUMMARY\n");
+    }
+}
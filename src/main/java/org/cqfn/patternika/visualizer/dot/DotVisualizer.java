@@ -8,8 +8,17 @@ import org.cqfn.patternika.ast.Node;
 import org.cqfn.patternika.ast.iterator.Children;
 import org.cqfn.patternika.visualizer.Visualizer;
 
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,10 +27,28 @@ import java.util.Objects;
 /**
  * Renders an abstract syntax tree to a DOT text.
  *
+ * <p>The text is written to the output incrementally: it is accumulated in a small buffer,
+ * which is flushed to the output when it gets full, so the whole document is never
+ * materialized in memory. If the output is a {@link StringBuilder}, the text is appended
+ * to it directly.
+ *
+ * <p>The tree is traversed iteratively, so trees of any depth can be rendered.
+ * For huge trees, the graph can be pruned to show only the surroundings of actions
+ * and marked nodes.
+ *
  * @since 2021/02/08
  */
 public class DotVisualizer implements Visualizer {
-    /** Stores the generated DOT text and stores the result. */
+    /** Prune depth that means that the whole tree is shown. */
+    public static final int NO_PRUNING = -1;
+
+    /** Size of the buffer, after reaching which the text is flushed to the output. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** Output, to which the generated DOT text is written. */
+    private final Appendable output;
+
+    /** Buffer for the generated DOT text (the output itself if it is a string builder). */
     @SuppressWarnings("PMD.AvoidStringBufferField")
     private final StringBuilder builder;
 
@@ -37,21 +64,49 @@ public class DotVisualizer implements Visualizer {
     /** Stores indices of actions. */
     private final Map<Action, Integer> actionIndexes;
 
+    /** Maximum distance from focus nodes to shown nodes or {@link #NO_PRUNING}. */
+    private final int pruneDepth;
+
+    /** Stack of pending traversal tasks. */
+    private final Deque<Runnable> tasks;
+
+    /** Selects nodes to be shown if the graph is pruned ({@code null} otherwise). */
+    private DotPruning pruning;
+
     /** Last index used for a node or an action. */
     private int lastIndex;
 
+    /** Flag that indicates that the text has already been generated. */
+    private boolean done;
+
     /**
      * Main constructor.
      *
-     * @param builder the builder for saving text for a Graphviz file.
+     * <p>If the prune depth is specified, only nodes that are at most this number of edges
+     * away from action nodes (parents, references, and accept trees) or marked nodes are
+     * shown, as well as their ancestors. Other subtrees are collapsed into summary nodes
+     * that show the number of collapsed nodes.
+     *
+     * @param output the output for saving text for a Graphviz file.
      * @param tree the action tree to be visualized.
      * @param markers markers to highlight certain nodes (possibly with multiple colors).
+     * @param pruneDepth the maximum distance from action or marked nodes to shown nodes
+     *        or {@link #NO_PRUNING} to show the whole tree.
+     * @throws IllegalArgumentException if the prune depth is invalid.
      */
     public DotVisualizer(
-            final StringBuilder builder,
+            final Appendable output,
             final ActionTree tree,
-            final Map<Node, List<Integer>> markers) {
-        this.builder = Objects.requireNonNull(builder);
+            final Map<Node, List<Integer>> markers,
+            final int pruneDepth) {
+        if (pruneDepth < NO_PRUNING) {
+            throw new IllegalArgumentException("Invalid prune depth: " + pruneDepth);
+        }
+        this.pruneDepth = pruneDepth;
+        this.tasks = new ArrayDeque<>();
+        this.output = Objects.requireNonNull(output);
+        this.builder =
+                output instanceof StringBuilder ? (StringBuilder) output : new StringBuilder();
         this.tree = Objects.requireNonNull(tree);
         this.markers = Objects.requireNonNull(markers);
         this.nodeIndexes = new IdentityHashMap<>();
@@ -59,18 +114,47 @@ public class DotVisualizer implements Visualizer {
         this.lastIndex = -1;
     }
 
+    /**
+     * Additional constructor that shows the whole tree.
+     *
+     * @param output the output for saving text for a Graphviz file.
+     * @param tree the action tree to be visualized.
+     * @param markers markers to highlight certain nodes (possibly with multiple colors).
+     */
+    public DotVisualizer(
+            final Appendable output,
+            final ActionTree tree,
+            final Map<Node, List<Integer>> markers) {
+        this(output, tree, markers, NO_PRUNING);
+    }
+
     /**
      * Additional constructor for a node tree.
      *
-     * @param builder the builder for saving text for a Graphviz file.
+     * @param output the output for saving text for a Graphviz file.
      * @param root the root of the node tree to be visualized.
      * @param markers markers to highlight certain nodes (possibly with multiple colors).
      */
     public DotVisualizer(
-            final StringBuilder builder,
+            final Appendable output,
             final Node root,
             final Map<Node, List<Integer>> markers) {
-        this(builder, new ActionTree("", root, Collections.emptyList()), markers);
+        this(output, new ActionTree("", root, Collections.emptyList()), markers);
+    }
+
+    /**
+     * Additional constructor that writes text to a channel in the UTF-8 encoding.
+     * The channel is not closed.
+     *
+     * @param channel the channel for saving text for a Graphviz file.
+     * @param tree the action tree to be visualized.
+     * @param markers markers to highlight certain nodes (possibly with multiple colors).
+     */
+    public DotVisualizer(
+            final WritableByteChannel channel,
+            final ActionTree tree,
+            final Map<Node, List<Integer>> markers) {
+        this(Channels.newWriter(channel, StandardCharsets.UTF_8.name()), tree, markers);
     }
 
     /**
@@ -80,26 +164,62 @@ public class DotVisualizer implements Visualizer {
      */
     private void append(final DotWriter writer) {
         writer.write(builder);
+        if (builder.length() >= BUFFER_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the buffered text to the output (if it is not the output itself).
+     *
+     * @throws UncheckedIOException if failed to write to the output.
+     */
+    private void flush() {
+        if (builder == output) {
+            return;
+        }
+        try {
+            output.append(builder);
+            builder.setLength(0);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
     }
 
     /**
      * Renders data a graphical format.
+     *
+     * <p>The text is written once, repeated calls do nothing. If the output is
+     * {@link Flushable}, it is flushed in the end.
+     *
+     * @throws UncheckedIOException if failed to write to the output.
      */
     @Override
     public void visualize() {
-        if (builder.length() > 0) {
-            // Already done.
+        if (done) {
             return;
         }
+        done = true;
         final Node root = tree.getRoot();
-        buildIndexes(root);
+        if (pruneDepth != NO_PRUNING) {
+            pruning = new DotPruning(tree, markers, pruneDepth);
+        }
+        run(() -> buildIndexes(root));
         appendStart();
-        appendNode(root, null, -1);
+        run(() -> appendNode(root, null, -1));
         appendEnd();
+        flush();
+        if (output instanceof Flushable) {
+            try {
+                ((Flushable) output).flush();
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
     }
 
     /**
-     * Traverses the action tree and assigns all nodes and actions unique indexes.
+     * Traverses the action tree and assigns all visible nodes and actions unique indexes.
      *
      * @param node the root node the tree.
      */
@@ -108,18 +228,22 @@ public class DotVisualizer implements Visualizer {
             return;
         }
         nodeIndexes.put(node, ++lastIndex);
+        final List<Runnable> next = new ArrayList<>();
         for (final Node child : new Children<>(node)) {
-            buildIndexes(child);
+            if (isVisible(child)) {
+                next.add(() -> buildIndexes(child));
+            }
         }
         for (final Action action : tree.getActionsByParent(node)) {
-            actionIndexes.put(action, ++lastIndex);
-            buildIndexes(action.getRef());
-            buildIndexes(action.getAccept());
+            next.add(() -> actionIndexes.put(action, ++lastIndex));
+            next.add(() -> buildIndexes(action.getRef()));
+            next.add(() -> buildIndexes(action.getAccept()));
         }
+        schedule(next);
     }
 
     /**
-     * Appends a node with all its actions and children.
+     * Appends a node and schedules appending its children and actions.
      *
      * @param node the node.
      * @param parentNode the parent of the node.
@@ -139,8 +263,10 @@ public class DotVisualizer implements Visualizer {
             append(DotLink.newNodeToNode(parentIndex, currentIndex, childIndex));
         }
         if (node != null) {
-            appendChildren(node);
-            appendActions(node);
+            final List<Runnable> next = new ArrayList<>();
+            addChildren(node, next);
+            addActions(node, next);
+            schedule(next);
         }
     }
 
@@ -171,22 +297,42 @@ public class DotVisualizer implements Visualizer {
     }
 
     /**
-     * Appends all children of the specified node if there are any.
+     * Adds tasks that append children of the specified node if there are any.
+     * Runs of children that are not visible are replaced with summary nodes.
      *
      * @param node the node that can have children.
+     * @param next the list of tasks.
      */
-    private void appendChildren(final Node node) {
-        for (int i = 0; i < node.getChildCount(); ++i) {
-            appendNode(node.getChild(i), node, i);
+    private void addChildren(final Node node, final List<Runnable> next) {
+        final int childCount = node.getChildCount();
+        int first = 0;
+        int hiddenCount = 0;
+        for (int i = 0; i < childCount; ++i) {
+            final Node child = node.getChild(i);
+            final int index = i;
+            final int nextIndex = i + 1;
+            if (isVisible(child)) {
+                next.add(() -> appendNode(child, node, index));
+                first = nextIndex;
+            } else {
+                hiddenCount += DotPruning.countNodes(child);
+                if (nextIndex == childCount || isVisible(node.getChild(nextIndex))) {
+                    final int from = first;
+                    final int count = hiddenCount;
+                    next.add(() -> appendSummary(node, from, index, count));
+                    hiddenCount = 0;
+                }
+            }
         }
     }
 
     /**
-     * Appends all actions of the specified node if there are any.
+     * Adds tasks that append all actions of the specified node if there are any.
      *
      * @param node the node that can have actions.
+     * @param next the list of tasks.
      */
-    private void appendActions(final Node node) {
+    private void addActions(final Node node, final List<Runnable> next) {
         final List<Action> actions = tree.getActionsByParent(node);
         if (actions.isEmpty()) {
             return;
@@ -194,15 +340,15 @@ public class DotVisualizer implements Visualizer {
         final List<Integer> indexes = new ArrayList<>(actions.size());
         for (int i = 0; i < actions.size(); i++) {
             final Action action = actions.get(i);
-            appendAction(action, i == 0 ? node : null);
+            final Node parentNode = i == 0 ? node : null;
+            next.add(() -> appendAction(action, parentNode));
             indexes.add(actionIndexes.get(action));
         }
-        final int currentIndex = nodeIndexes.get(node);
-        append(DotMultiLink.newNodeToActions(currentIndex, indexes));
+        next.add(() -> append(DotMultiLink.newNodeToActions(nodeIndexes.get(node), indexes)));
     }
 
     /**
-     * Appends an action.
+     * Appends an action and schedules appending its accept tree.
      *
      * @param action the action.
      * @param parentNode the parent node the action is connected to.
@@ -222,9 +368,63 @@ public class DotVisualizer implements Visualizer {
         }
         final Node accept = action.getAccept();
         if (accept != null) {
-            appendNode(accept, null, -1);
-            final int acceptIndex = nodeIndexes.get(accept);
-            append(DotLink.newActionToNode(currentIndex, acceptIndex, "accept"));
+            schedule(Arrays.asList(
+                () -> appendNode(accept, null, -1),
+                () -> append(DotLink.newActionToNode(
+                        currentIndex, nodeIndexes.get(accept), "accept"))
+            ));
+        }
+    }
+
+    /**
+     * Appends a summary node that replaces a run of collapsed children.
+     *
+     * @param parentNode the parent of the children.
+     * @param first the index of the first collapsed child.
+     * @param last the index of the last collapsed child.
+     * @param count the number of nodes in the collapsed subtrees.
+     */
+    private void appendSummary(
+            final Node parentNode,
+            final int first,
+            final int last,
+            final int count) {
+        final int currentIndex = ++lastIndex;
+        append(new DotSummaryNode(currentIndex, count));
+        final Object label = first == last ? first : first + ".." + last;
+        append(DotLink.newNodeToNode(nodeIndexes.get(parentNode), currentIndex, label));
+    }
+
+    /**
+     * Checks whether a node is to be shown in the graph.
+     *
+     * @param node the node, can be {@code null}.
+     * @return {@code true} if the node is visible or {@code false} otherwise.
+     */
+    private boolean isVisible(final Node node) {
+        return pruning == null || pruning.isVisible(node);
+    }
+
+    /**
+     * Schedules tasks to be run before the tasks scheduled earlier, in the list order.
+     *
+     * @param next the list of tasks.
+     */
+    private void schedule(final List<Runnable> next) {
+        for (int i = next.size() - 1; i >= 0; --i) {
+            tasks.push(next.get(i));
+        }
+    }
+
+    /**
+     * Runs a task and all tasks scheduled by it.
+     *
+     * @param task the task.
+     */
+    private void run(final Runnable task) {
+        tasks.push(task);
+        while (!tasks.isEmpty()) {
+            tasks.pop().run();
         }
     }
 
@@ -6,6 +6,7 @@ import java.util.Map;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -95,4 +96,33 @@ public class MatchFinderTest {
         assertEquals(sizeOfMatch3, matches.get(key3).size());
         assertEquals(sizeOfMatch4, matches.get(key4).size());
     }
+
+    /**
+     * Tests {@link MatchFinder#findAll()} for nodes, which children are not matched
+     * one-to-one, so their subtrees have different sizes and heights.
+     */
+    @Test
+    public void findAllDifferentSizesTest() {
+        final Node firstNode = new TestNode(
+            "block", 0,
+            new TestNode("name", 1),
+            new TestNode("name", 1)
+        );
+        final Node secondNode = new TestNode(
+            "block", 0,
+            new TestNode("name", 1),
+            new TestNode("call", 2,
+                new TestNode("args", 3,
+                    new TestNode("name", 1)
+                )
+            )
+        );
+        final Map<Node, List<Node>> matches = new MatchFinder<>(firstNode, secondNode).findAll();
+        assertEquals(2, matches.size());
+        assertEquals(1, matches.get(firstNode).size());
+        // Equal test nodes are the same key, so matches of both names are in one list.
+        final int sizeOfNameMatch = 4;
+        assertEquals(sizeOfNameMatch, matches.get(new TestNode("name", 1)).size());
+        assertFalse(new MatchFinder<>(secondNode, firstNode).findAll().containsKey(secondNode));
+    }
 }
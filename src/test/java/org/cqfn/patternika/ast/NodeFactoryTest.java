@@ -8,6 +8,7 @@ import org.junit.Test;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Tests for the {@link NodeFactory} class.
@@ -172,4 +173,56 @@ public class NodeFactoryTest {
                 .register("TestNode1", this::createTestNode2);
     }
 
+    /**
+     * Test for the {@link NodeFactory#createNode(String, Fragment, String, int,
+     * java.util.function.IntFunction)} method.
+     * <p>
+     * Checks that children are created on the first access and only once.
+     */
+    @Test
+    public void createNodeLazyTest() {
+        final AtomicInteger created = new AtomicInteger();
+        final NodeFactory factory = createFactory()
+                .registerLazy("LazyNode", (f, d, n, c) -> new TestNode(f, "LazyNode", d,
+                        new LazyNodeList(n, c)));
+        final Node root = factory.createNode("LazyNode", null, "0", 2, index -> {
+            created.incrementAndGet();
+            return factory.createNode("TestNode1", null, Integer.toString(index + 1));
+        });
+        Assert.assertEquals(2, root.getChildCount());
+        Assert.assertEquals(0, created.get());
+        Assert.assertEquals("2", root.getChild(1).getData());
+        Assert.assertSame(root.getChild(1), root.getChild(1));
+        Assert.assertEquals(1, created.get());
+        final Node eager = factory.createNode("LazyNode", null, "0",
+                factory.createNode("TestNode", null, "1"));
+        Assert.assertEquals("1", eager.getChild(0).getData());
+    }
+
+    /**
+     * Test for the {@link NodeFactory#createTree(Node)} method.
+     * <p>
+     * Checks that only the subtrees visited by {@link DeepMatches} are copied.
+     */
+    @Test
+    public void createTreeTest() {
+        final AtomicInteger created = new AtomicInteger();
+        final NodeFactory factory = new NodeFactory()
+                .register("TestNode", (f, d, c) -> {
+                    created.incrementAndGet();
+                    return new TestNode(f, "TestNode", d, c);
+                });
+        final Node source =
+                new TestNode(0,
+                    new TestNode(1, new TestNode(11), new TestNode(12)),
+                    new TestNode(2, new TestNode(21))
+                );
+        final Node different = new TestNode(0, new TestNode(3), new TestNode(2));
+        Assert.assertFalse(new DeepMatches().test(different, factory.createTree(source)));
+        Assert.assertEquals(2, created.get());
+        created.set(0);
+        Assert.assertTrue(new DeepMatches().test(source, factory.createTree(source)));
+        Assert.assertEquals(6, created.get());
+    }
+
 }
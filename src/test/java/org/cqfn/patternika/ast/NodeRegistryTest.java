@@ -0,0 +1,201 @@
+package org.cqfn.patternika.ast;
+
+import org.cqfn.patternika.source.Fragment;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+
+/**
+ * Tests for the {@link NodeRegistry} class.
+ *
+ * @since 2021/03/18
+ */
+public class NodeRegistryTest {
+    /**
+     * Creates a registry for test nodes of types "A", "B" and "C".
+     *
+     * @return new registry.
+     */
+    private static NodeRegistry createRegistry() {
+        return new NodeFactory()
+                .register("C", (f, d, c) -> new TestNode(f, "C", d, c))
+                .register("A", (f, d, c) -> new TestNode(f, "A", d, c))
+                .register("B", (f, d, c) -> new TestNode(f, "B", d, c))
+                .build();
+    }
+
+    /**
+     * Reader that returns nodes of a tree in the preorder.
+     */
+    private static class TreeReader implements PreorderReader {
+        /** The registry. */
+        private final NodeRegistry registry;
+
+        /** Nodes to be read. */
+        private final Deque<Node> stack = new ArrayDeque<>();
+
+        /** Current node. */
+        private Node current;
+
+        /**
+         * Constructor.
+         *
+         * @param registry the registry.
+         * @param root the tree root.
+         */
+        TreeReader(final NodeRegistry registry, final Node root) {
+            this.registry = registry;
+            this.stack.push(root);
+        }
+
+        /**
+         * Moves to the next node.
+         *
+         * @return {@code true} if there is the next node.
+         */
+        @Override
+        public boolean next() {
+            if (stack.isEmpty()) {
+                return false;
+            }
+            current = stack.pop();
+            for (int index = current.getChildCount() - 1; index >= 0; --index) {
+                stack.push(current.getChild(index));
+            }
+            return true;
+        }
+
+        /**
+         * Returns the type identifier of the current node.
+         *
+         * @return type identifier.
+         */
+        @Override
+        public int getTypeId() {
+            return registry.getTypeId(current.getType());
+        }
+
+        /**
+         * Returns the fragment of the current node.
+         *
+         * @return fragment.
+         */
+        @Override
+        public Fragment getFragment() {
+            return current.getFragment();
+        }
+
+        /**
+         * Returns the data of the current node.
+         *
+         * @return node data.
+         */
+        @Override
+        public String getData() {
+            return current.getData();
+        }
+
+        /**
+         * Returns the child count of the current node.
+         *
+         * @return child count.
+         */
+        @Override
+        public int getChildCount() {
+            return current.getChildCount();
+        }
+    }
+
+    /**
+     * Tests that types get dense identifiers in the alphabetical order.
+     */
+    @Test
+    public void testTypeIds() {
+        final NodeRegistry registry = createRegistry();
+        Assert.assertEquals(3, registry.getTypeCount());
+        Assert.assertEquals(0, registry.getTypeId("A"));
+        Assert.assertEquals(2, registry.getTypeId("C"));
+        Assert.assertEquals(NodeRegistry.UNKNOWN, registry.getTypeId("D"));
+        Assert.assertEquals("B", registry.getType(1));
+    }
+
+    /**
+     * Tests creation of single nodes by type identifiers and type names.
+     */
+    @Test
+    public void testCreateNode() {
+        final NodeRegistry registry = createRegistry();
+        final Node leaf = registry.createNode(1, null, "1", Collections.emptyList());
+        Assert.assertEquals("B", leaf.getType());
+        final Node node = registry.createNode("C", null, "2", Collections.singletonList(leaf));
+        Assert.assertEquals("C", node.getType());
+        Assert.assertSame(leaf, node.getChild(0));
+        final Node lazy = registry.createNode(0, null, "3", 1, index -> leaf);
+        Assert.assertSame(leaf, lazy.getChild(0));
+    }
+
+    /**
+     * Tests that the registry is not affected by further changes of the factory.
+     */
+    @Test
+    public void testImmutable() {
+        final NodeFactory factory = new NodeFactory()
+                .register("A", (f, d, c) -> new TestNode(f, "A", d, c));
+        final NodeRegistry registry = factory.build();
+        factory.register("B", (f, d, c) -> new TestNode(f, "B", d, c));
+        Assert.assertEquals(1, registry.getTypeCount());
+        Assert.assertEquals(NodeRegistry.UNKNOWN, registry.getTypeId("B"));
+    }
+
+    /**
+     * Tests building of a tree from a stream of nodes in the preorder.
+     */
+    @Test
+    public void testCreateTree() {
+        final NodeRegistry registry = createRegistry();
+        final Node tree =
+                new TestNode("A", 0,
+                    new TestNode("B", 1,
+                        new TestNode("C", 2),
+                        new TestNode("A", 3, new TestNode("B", 4))
+                    ),
+                    new TestNode("C", 5),
+                    new TestNode("B", 6, new TestNode("C", 7))
+                );
+        final Node copy = registry.createTree(new TreeReader(registry, tree));
+        Assert.assertNotSame(tree, copy);
+        Assert.assertTrue(new DeepMatches().test(tree, copy));
+        final Node leaf = new TestNode("C", 8);
+        Assert.assertTrue(new DeepMatches().test(
+                leaf, registry.createTree(new TreeReader(registry, leaf))));
+    }
+
+    /**
+     * Tests that a stream that ends before the root is built causes an exception.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncompleteStream() {
+        final NodeRegistry registry = createRegistry();
+        final Node tree = new TestNode("A", 0, new TestNode("B", 1));
+        final PreorderReader reader = new TreeReader(registry, tree) {
+            @Override
+            public int getChildCount() {
+                return super.getChildCount() + 1;
+            }
+        };
+        registry.createTree(reader);
+    }
+
+    /**
+     * Tests that an unknown type identifier causes an exception.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownTypeId() {
+        createRegistry().createNode(3, null, "0", Collections.emptyList());
+    }
+
+}
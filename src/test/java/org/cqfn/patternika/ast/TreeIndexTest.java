@@ -0,0 +1,117 @@
+package org.cqfn.patternika.ast;
+
+import org.cqfn.patternika.ast.iterator.DepthFirst;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Tests for the {@link TreeIndex} class.
+ *
+ * @since 2021/03/23
+ */
+public class TreeIndexTest {
+    /** Number of nodes in the test tree. */
+    private static final int COUNT = 8;
+
+    /** Height of the deep test tree. */
+    private static final int DEEP = 100_000;
+
+    /**
+     * Creates a test tree.
+     *
+     * @return the tree root.
+     */
+    private static Node createTree() {
+        return new TestNode(0,
+            new TestNode(1, new TestNode(2), new TestNode(3, new TestNode(4))),
+            new TestNode(5),
+            new TestNode(6, new TestNode(7))
+        );
+    }
+
+    /**
+     * Tests sizes, heights, depths and preorder indices.
+     */
+    @Test
+    public void testAnnotations() {
+        final Node root = createTree();
+        final TreeIndex<Node> index = new TreeIndex<>(root);
+        Assert.assertEquals(COUNT, index.getNodeCount());
+        for (int position = 0; position < COUNT; ++position) {
+            final Node node = index.getNode(position);
+            Assert.assertEquals(String.valueOf(position), node.getData());
+            Assert.assertEquals(position, index.getPreorder(node));
+        }
+        Assert.assertEquals(COUNT, index.getSize(root));
+        Assert.assertEquals(3, index.getHeight(root));
+        Assert.assertEquals(0, index.getDepth(root));
+        final Node first = root.getChild(0);
+        Assert.assertEquals(4, index.getSize(first));
+        Assert.assertEquals(2, index.getHeight(first));
+        Assert.assertEquals(1, index.getDepth(first));
+        final Node leaf = first.getChild(1).getChild(0);
+        Assert.assertEquals(1, index.getSize(leaf));
+        Assert.assertEquals(0, index.getHeight(leaf));
+        Assert.assertEquals(3, index.getDepth(leaf));
+        Assert.assertTrue(index.contains(leaf));
+        Assert.assertFalse(index.contains(new TestNode(0)));
+    }
+
+    /**
+     * Tests that postorder indices match the depth-first order.
+     */
+    @Test
+    public void testPostorder() {
+        final Node root = createTree();
+        final TreeIndex<Node> index = new TreeIndex<>(root);
+        final List<Node> postorder = new DepthFirst<>(root).toList();
+        for (int position = 0; position < COUNT; ++position) {
+            Assert.assertEquals(position, index.getPostorder(postorder.get(position)));
+        }
+    }
+
+    /**
+     * Tests ancestor checks.
+     */
+    @Test
+    public void testAncestor() {
+        final Node root = createTree();
+        final TreeIndex<Node> index = new TreeIndex<>(root);
+        final Node first = root.getChild(0);
+        final Node leaf = first.getChild(1).getChild(0);
+        Assert.assertTrue(index.isAncestor(root, leaf));
+        Assert.assertTrue(index.isAncestor(first, leaf));
+        Assert.assertFalse(index.isAncestor(leaf, first));
+        Assert.assertFalse(index.isAncestor(leaf, leaf));
+        Assert.assertFalse(index.isAncestor(root.getChild(2), leaf));
+        Assert.assertFalse(index.isAncestor(first.getChild(0), first.getChild(1)));
+    }
+
+    /**
+     * Tests that deep trees are indexed without stack overflow.
+     */
+    @Test
+    public void testDeepTree() {
+        Node root = new TestNode(0);
+        for (int depth = 1; depth < DEEP; ++depth) {
+            root = new TestNode(depth, root);
+        }
+        final TreeIndex<Node> index = new TreeIndex<>(root);
+        Assert.assertEquals(DEEP, index.getSize(root));
+        Assert.assertEquals(DEEP - 1, index.getHeight(root));
+        Assert.assertEquals(DEEP - 1, index.getPostorder(root));
+        Assert.assertTrue(index.isAncestor(root, index.getNode(DEEP - 1)));
+    }
+
+    /**
+     * Tests that a request for a node of another tree causes an exception.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testForeignNode() {
+        new TreeIndex<>(createTree()).getSize(new TestNode(0));
+    }
+
+}
@@ -0,0 +1,168 @@
+package org.cqfn.patternika.ast.generator;
+
+import org.cqfn.patternika.ast.DeepMatches;
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.ast.NodeFactory;
+import org.cqfn.patternika.ast.NodeRegistry;
+import org.cqfn.patternika.ast.TestNode;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Tests for the {@link TreeGenerator} class.
+ *
+ * @since 2021/03/20
+ */
+public class TreeGeneratorTest {
+    /** Seed used in tests. */
+    private static final long SEED = 42;
+
+    /** Registry for test nodes of types "A", "B" and "C". */
+    private static final NodeRegistry REGISTRY = new NodeFactory()
+            .register("A", (f, d, c) -> new TestNode(f, "A", d, c))
+            .register("B", (f, d, c) -> new TestNode(f, "B", d, c))
+            .register("C", (f, d, c) -> new TestNode(f, "C", d, c))
+            .build();
+
+    /**
+     * Creates a generator with types "A" and "B".
+     *
+     * @return new generator.
+     */
+    private static TreeGenerator createGenerator() {
+        return new TreeGenerator(REGISTRY, SEED).addType("A", 3).addType("B", 1);
+    }
+
+    /**
+     * Statistics of a tree (collected without recursion).
+     */
+    private static final class Stats {
+        /** Number of nodes. */
+        private int size;
+
+        /** Maximum depth. */
+        private int depth;
+
+        /** Maximum fan-out. */
+        private int fanOut;
+
+        /** Number of nodes of the type "A". */
+        private int typeA;
+
+        /**
+         * Constructor.
+         *
+         * @param root the tree root.
+         */
+        private Stats(final Node root) {
+            final Deque<Node> nodes = new ArrayDeque<>();
+            final Deque<Integer> depths = new ArrayDeque<>();
+            nodes.push(root);
+            depths.push(0);
+            while (!nodes.isEmpty()) {
+                final Node node = nodes.pop();
+                final int level = depths.pop();
+                size += 1;
+                depth = Math.max(depth, level);
+                fanOut = Math.max(fanOut, node.getChildCount());
+                if ("A".equals(node.getType())) {
+                    typeA += 1;
+                }
+                for (int index = 0; index < node.getChildCount(); ++index) {
+                    nodes.push(node.getChild(index));
+                    depths.push(level + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that generated trees satisfy the limits.
+     */
+    @Test
+    public void testGenerate() {
+        final Node root = createGenerator().setMaxDepth(5).setMaxFanOut(4).generate(1000);
+        final Stats stats = new Stats(root);
+        Assert.assertEquals(1000, stats.size);
+        Assert.assertTrue(stats.depth <= 5);
+        Assert.assertTrue(stats.fanOut <= 4);
+        Assert.assertTrue(stats.typeA > 500 && stats.typeA < 1000);
+        final Node single = createGenerator().setDataValues(0).generate(1);
+        Assert.assertEquals(0, single.getChildCount());
+        Assert.assertNull(single.getData());
+    }
+
+    /**
+     * Tests that the same seed gives the same trees.
+     */
+    @Test
+    public void testReproducible() {
+        final Node first = createGenerator().generate(500);
+        final Node second = createGenerator().generate(500);
+        Assert.assertTrue(new DeepMatches().test(first, second));
+        final Node third = new TreeGenerator(REGISTRY, SEED + 1).addType("A", 1).generate(500);
+        Assert.assertFalse(new DeepMatches().test(first, third));
+    }
+
+    /**
+     * Tests generation of a very deep tree (a chain), which requires no recursion.
+     */
+    @Test
+    public void testDeep() {
+        final Node root = createGenerator().setMaxFanOut(1).generate(100_000);
+        final Stats stats = new Stats(root);
+        Assert.assertEquals(99_999, stats.depth);
+        final Node mutated = createGenerator().mutate(root, 0.001, Edit.MOVE);
+        Assert.assertEquals(100_000, new Stats(mutated).size);
+    }
+
+    /**
+     * Tests that each kind of edits changes trees properly and does not change source trees.
+     */
+    @Test
+    public void testMutate() {
+        final Node root = createGenerator().generate(200);
+        final Node copy = createGenerator().generate(200);
+        final TreeGenerator generator = createGenerator();
+        Assert.assertEquals(220, new Stats(generator.mutate(root, 0.1, Edit.INSERT)).size);
+        Assert.assertEquals(180, new Stats(generator.mutate(root, 0.1, Edit.DELETE)).size);
+        final Node moved = generator.mutate(root, 0.1, Edit.MOVE);
+        Assert.assertEquals(200, new Stats(moved).size);
+        Assert.assertFalse(new DeepMatches().test(root, moved));
+        final Node updated = generator.mutate(root, 0.1, Edit.UPDATE);
+        Assert.assertEquals(new Stats(root).typeA, new Stats(updated).typeA);
+        Assert.assertFalse(new DeepMatches().test(root, updated));
+        Assert.assertEquals(200, new Stats(generator.mutate(root, 0.1)).size, 20);
+        Assert.assertTrue(new DeepMatches().test(root, generator.mutate(root, 0.0)));
+        Assert.assertTrue(new DeepMatches().test(copy, root));
+    }
+
+    /**
+     * Tests that an attempt to generate a tree that does not fit the limits causes an exception.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testImpossibleLimits() {
+        createGenerator().setMaxDepth(1).setMaxFanOut(2).generate(4);
+    }
+
+    /**
+     * Tests that an attempt to generate a tree without types causes an exception.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testNoTypes() {
+        new TreeGenerator(REGISTRY, SEED).generate(2);
+    }
+
+    /**
+     * Tests that an attempt to add an unknown type causes an exception.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownType() {
+        new TreeGenerator(REGISTRY, SEED).addType("D", 1);
+    }
+
+}
@@ -0,0 +1,6 @@
+/**
+ * This package contains tests for classes that generate synthetic node trees.
+ *
+ * @since 2021/03/20
+ */
+package org.cqfn.patternika.ast.generator;
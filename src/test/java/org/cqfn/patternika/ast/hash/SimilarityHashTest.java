@@ -154,4 +154,19 @@ public class SimilarityHashTest {
         return root;
     }
 
+    /**
+     * Tests that the listener is notified about cache hits and misses.
+     */
+    @Test
+    public void testListener() {
+        final int[] counts = new int[2];
+        final Hash hash = new SimilarityHash(cached -> counts[cached ? 1 : 0] += 1);
+        final Node root = new TestNode(0, new TestNode(1), new TestNode(2));
+        hash.getHash(root);
+        Assert.assertArrayEquals(new int[] {3, 0}, counts);
+        hash.getHash(root);
+        hash.getHash(root.getChild(1));
+        Assert.assertArrayEquals(new int[] {3, 2}, counts);
+    }
+
 }
@@ -5,6 +5,7 @@ import org.cqfn.patternika.ast.TestNode;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
@@ -76,4 +77,27 @@ public class BreadthFirstTest {
         Assert.assertEquals("Wrong element order!", expectedData, data);
     }
 
+    /**
+     * Tests that the internal iteration visits nodes in the same order as the iterator
+     * and that a deep tree is traversed without stack overflow.
+     */
+    @Test
+    public void testForEach() {
+        final int depth = 100_000;
+        Node root = new TestNode(0, new TestNode(-1));
+        for (int index = 1; index < depth; ++index) {
+            root = new TestNode(index, root, new TestNode(-1));
+        }
+        final BreadthFirst<Node> iterable = new BreadthFirst<>(root);
+        final List<Node> visited = new ArrayList<>();
+        iterable.forEach(visited::add);
+        Assert.assertEquals(2 * depth, visited.size());
+        final Iterator<Node> iterator = iterable.iterator();
+        for (final Node node : visited) {
+            Assert.assertSame(node, iterator.next());
+        }
+        Assert.assertFalse(iterator.hasNext());
+        Assert.assertSame(root, visited.get(0));
+    }
+
 }
@@ -0,0 +1,125 @@
+package org.cqfn.patternika.ast.iterator;
+
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.ast.TestNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for {@link Nodes} and spliterators over node trees.
+ *
+ * @since 2021/03/23
+ */
+public class NodesTest {
+    /** Number of children of inner nodes in the test tree. */
+    private static final int FAN_OUT = 3;
+
+    /** Height of the test tree. */
+    private static final int HEIGHT = 7;
+
+    /**
+     * Creates a full tree.
+     *
+     * @param height the tree height.
+     * @return the tree root.
+     */
+    private static Node createTree(final int height) {
+        final List<Node> children = new ArrayList<>();
+        if (height > 0) {
+            for (int index = 0; index < FAN_OUT; ++index) {
+                children.add(createTree(height - 1));
+            }
+        }
+        return new TestNode(height, children);
+    }
+
+    /**
+     * Collects nodes in a map to compare collections of nodes by identity.
+     *
+     * @param nodes the nodes.
+     * @return the map of nodes to the numbers of their occurrences.
+     */
+    private static Map<Node, Integer> count(final List<Node> nodes) {
+        final Map<Node, Integer> result = new IdentityHashMap<>();
+        nodes.forEach(node -> result.merge(node, 1, Integer::sum));
+        return result;
+    }
+
+    /**
+     * Tests that sequential and parallel depth-first streams keep the order.
+     */
+    @Test
+    public void testDepthFirst() {
+        final Node root = createTree(HEIGHT);
+        final List<Node> expected = new DepthFirst<>(root).toList();
+        Assert.assertEquals(expected, Nodes.stream(root, false).collect(Collectors.toList()));
+        final List<Node> parallel = Nodes.stream(root, true).collect(Collectors.toList());
+        Assert.assertEquals(expected.size(), parallel.size());
+        for (int index = 0; index < expected.size(); ++index) {
+            Assert.assertSame(expected.get(index), parallel.get(index));
+        }
+    }
+
+    /**
+     * Tests that breadth-first streams visit all nodes once.
+     */
+    @Test
+    public void testBreadthFirst() {
+        final Node root = createTree(HEIGHT);
+        final List<Node> expected = new BreadthFirst<>(root).toList();
+        final List<Node> sequential = Nodes.breadthFirst(root, false).collect(Collectors.toList());
+        for (int index = 0; index < expected.size(); ++index) {
+            Assert.assertSame(expected.get(index), sequential.get(index));
+        }
+        final List<Node> parallel = Nodes.breadthFirst(root, true).collect(Collectors.toList());
+        Assert.assertEquals(count(expected), count(parallel));
+    }
+
+    /**
+     * Tests that a depth-first spliterator splits a tree into a prefix and a suffix.
+     */
+    @Test
+    public void testSplit() {
+        final Node root = createTree(2);
+        final List<Node> expected = new DepthFirst<>(root).toList();
+        final Spliterator<Node> suffix = new DepthFirst<>(root).spliterator();
+        final Spliterator<Node> middle = suffix.trySplit();
+        final Spliterator<Node> prefix = middle.trySplit();
+        final List<Node> nodes = new ArrayList<>();
+        prefix.forEachRemaining(nodes::add);
+        middle.forEachRemaining(nodes::add);
+        suffix.forEachRemaining(nodes::add);
+        Assert.assertEquals(expected.size(), nodes.size());
+        for (int index = 0; index < expected.size(); ++index) {
+            Assert.assertSame(expected.get(index), nodes.get(index));
+        }
+        Assert.assertNull(new DepthFirstSpliterator<>(new TestNode(0)).trySplit());
+    }
+
+    /**
+     * Tests streams of children.
+     */
+    @Test
+    public void testChildren() {
+        final Node root = createTree(1);
+        final List<Node> expected = new Children<>(root).toList();
+        Assert.assertEquals(expected, Nodes.children(root, true).collect(Collectors.toList()));
+        final Spliterator<Node> spliterator = new Children<>(root).spliterator();
+        Assert.assertEquals(FAN_OUT, spliterator.estimateSize());
+        Assert.assertEquals(1, spliterator.trySplit().estimateSize());
+        Assert.assertEquals(FAN_OUT - 1, spliterator.estimateSize());
+        Assert.assertEquals(
+            Collections.emptyList(),
+            Nodes.children(new TestNode(0), false).collect(Collectors.toList())
+        );
+    }
+
+}
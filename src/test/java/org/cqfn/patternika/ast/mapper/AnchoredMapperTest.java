@@ -0,0 +1,218 @@
+package org.cqfn.patternika.ast.mapper;
+
+import org.cqfn.patternika.ast.NodeExt;
+import org.cqfn.patternika.ast.TestNode;
+import org.cqfn.patternika.ast.iterator.BreadthFirst;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Tests for the {@link AnchoredMapper} class.
+ *
+ * @since 2021/03/23
+ */
+public class AnchoredMapperTest {
+    /**
+     * Tests that identical trees are connected without visiting nodes.
+     */
+    @Test
+    public void testIdentical() {
+        final NodeExt root1 = createClass(10);
+        final NodeExt root2 = createClass(10);
+        final MappingStatistics stats = new MappingStatistics();
+        final Mapping<NodeExt> mapping = new AnchoredMapper(root1, root2, stats).buildMapping();
+        assertAllConnected(mapping, root1, root2);
+        Assert.assertEquals(
+                new BreadthFirst<>(root1).toList().size(),
+                stats.getConnections(ConnectionKind.ANCHOR));
+        Assert.assertEquals(0, stats.getVisits());
+        Assert.assertEquals(0, stats.getDisconnections());
+    }
+
+    /**
+     * Tests that connections of identical subtrees are reported in bulk,
+     * one call per subtree.
+     */
+    @Test
+    public void testBulkAnchors() {
+        final long[] calls = new long[2];
+        final MappingListener listener = new MappingListener() {
+            @Override
+            public void connected(final ConnectionKind kind, final long count) {
+                calls[0] += 1;
+                calls[1] += count;
+            }
+        };
+        final NodeExt root1 = createClass(10);
+        new AnchoredMapper(root1, createClass(11), listener).buildMapping();
+        // The package and seven unchanged members with six nodes each.
+        Assert.assertEquals(8, calls[0]);
+        Assert.assertEquals(1 + 7 * 6, calls[1]);
+    }
+
+    /**
+     * Tests that only the changed member is mapped node by node
+     * and the result is the same as the result of {@link GreedMapper}.
+     */
+    @Test
+    public void testChangedMember() {
+        final NodeExt root1 = createClass(10);
+        final NodeExt root2 = createClass(11);
+        final MappingStatistics stats = new MappingStatistics();
+        final Mapping<NodeExt> mapping = new AnchoredMapper(root1, root2, stats).buildMapping();
+        final MappingStatistics greedStats = new MappingStatistics();
+        final Mapping<NodeExt> greed = new GreedMapper(root1, root2, greedStats).buildMapping();
+        assertAllConnected(mapping, root1, root2);
+        assertAllConnected(greed, root1, root2);
+        // The file, the class and the changed member with its five nodes.
+        Assert.assertEquals(8, stats.getPhaseVisits(MappingPhase.WEAK_CHAIN));
+        Assert.assertTrue(stats.getVisits() < greedStats.getVisits());
+        Assert.assertEquals(2, stats.getConnections(ConnectionKind.UNIQUE_TYPE)
+                + stats.getConnections(ConnectionKind.ROOT));
+    }
+
+    /**
+     * Tests that trees with several unique members and duplicate members are mapped.
+     */
+    @Test
+    public void testDuplicateMembers() {
+        final NodeExt root1 = new NodeExt(
+            new TestNode("file", 0,
+                new TestNode("method", 1, new TestNode("stmt", 2)),
+                new TestNode("method", 1, new TestNode("stmt", 2)),
+                new TestNode("method", 3, new TestNode("stmt", 4))
+            )
+        );
+        final NodeExt root2 = new NodeExt(
+            new TestNode("file", 0,
+                new TestNode("method", 1, new TestNode("stmt", 2)),
+                new TestNode("method", 1, new TestNode("stmt", 2)),
+                new TestNode("method", 3, new TestNode("stmt", 5))
+            )
+        );
+        final Mapping<NodeExt> mapping = new AnchoredMapper(root1, root2).buildMapping();
+        Assert.assertTrue(mapping.connected(root1, root2));
+        Assert.assertTrue(mapping.connected(root1.getChild(0), root2.getChild(0)));
+        Assert.assertTrue(mapping.connected(root1.getChild(1), root2.getChild(1)));
+        Assert.assertTrue(mapping.connected(root1.getChild(2), root2.getChild(2)));
+        Assert.assertTrue(mapping.connected(
+                root1.getChild(2).getChild(0), root2.getChild(2).getChild(0)));
+    }
+
+    /**
+     * Tests that subtrees with a hash collision are not taken for identical subtrees.
+     */
+    @Test
+    public void testHashCollision() {
+        // The strings have equal hash codes.
+        final NodeExt root1 = createCollision("Aa");
+        final NodeExt root2 = createCollision("BB");
+        final MappingStatistics stats = new MappingStatistics();
+        final Mapping<NodeExt> mapping = new AnchoredMapper(root1, root2, stats).buildMapping();
+        Assert.assertEquals(0, stats.getConnections(ConnectionKind.ANCHOR));
+        Assert.assertEquals(1, stats.getConnections(ConnectionKind.ROOT));
+        Assert.assertEquals(1, stats.getConnections(ConnectionKind.UNIQUE_TYPE));
+        Assert.assertTrue(mapping.connected(root1.getChild(0), root2.getChild(0)));
+    }
+
+    /**
+     * Tests that trees with different root types are not connected.
+     */
+    @Test
+    public void testDifferentRoots() {
+        final NodeExt root1 = new NodeExt(new TestNode("a", 0, new TestNode("b", 1)));
+        final NodeExt root2 = new NodeExt(new TestNode("c", 0, new TestNode("b", 1)));
+        final Mapping<NodeExt> mapping = new AnchoredMapper(root1, root2).buildMapping();
+        Assert.assertTrue(mapping.entrySet().isEmpty());
+    }
+
+    /**
+     * Tests that the number of anchored levels must be positive.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLevels() {
+        new AnchoredMapper(
+            createClass(1),
+            createClass(1),
+            MappingListener.NONE,
+            Budget.UNLIMITED,
+            0
+        );
+    }
+
+    /**
+     * Creates a tree of a file with a class with several methods,
+     * the last method returns the specified value.
+     *
+     * @param value the value returned by the last method.
+     * @return the tree.
+     */
+    private static NodeExt createClass(final int value) {
+        final int count = 8;
+        final TestNode[] members = new TestNode[count];
+        for (int index = 0; index < count - 1; ++index) {
+            members[index] = new TestNode("method", index,
+                new TestNode("name", index),
+                new TestNode("body", 0,
+                    new TestNode("call", index, new TestNode("arg", index + 1)),
+                    new TestNode("return", index)
+                )
+            );
+        }
+        members[count - 1] = new TestNode("method", count,
+            new TestNode("name", count),
+            new TestNode("body", 0,
+                new TestNode("call", count, new TestNode("arg", count + 1)),
+                new TestNode("return", value)
+            )
+        );
+        return new NodeExt(
+            new TestNode("file", 0,
+                new TestNode("package", 0),
+                new TestNode("class", 0, members)
+            )
+        );
+    }
+
+    /**
+     * Creates a tree of a file with a class with a statement that has the specified data.
+     *
+     * @param data the statement data.
+     * @return the tree.
+     */
+    private static NodeExt createCollision(final String data) {
+        return new NodeExt(
+            new TestNode("file", 0,
+                new TestNode("class", 0,
+                    new TestNode(null, "stmt", data, Collections.emptyList())
+                )
+            )
+        );
+    }
+
+    /**
+     * Checks that nodes of two trees with the same structure
+     * are connected in the breadth-first order.
+     *
+     * @param mapping the mapping.
+     * @param root1 the first tree root.
+     * @param root2 the second tree root.
+     */
+    private static void assertAllConnected(
+            final Mapping<NodeExt> mapping,
+            final NodeExt root1,
+            final NodeExt root2) {
+        final Iterator<NodeExt> it1 = new BreadthFirst<>(root1).iterator();
+        final Iterator<NodeExt> it2 = new BreadthFirst<>(root2).iterator();
+        while (it1.hasNext() && it2.hasNext()) {
+            final NodeExt node1 = it1.next();
+            final NodeExt node2 = it2.next();
+            Assert.assertTrue(node1.toString(), mapping.connected(node1, node2));
+        }
+    }
+
+}
@@ -0,0 +1,163 @@
+package org.cqfn.patternika.ast.mapper;
+
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.ast.NodeExt;
+import org.cqfn.patternika.ast.TestNode;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the {@link BoundedMapper} and {@link Budget} classes.
+ *
+ * @since 2021/03/22
+ */
+public class BoundedMapperTest {
+    /** Number of children of the root in test trees. */
+    private static final int WIDTH = 300;
+
+    /**
+     * Creates a wide tree, children of which have the specified order.
+     *
+     * @param reversed {@code true} if children are in the reversed order.
+     * @return the tree root.
+     */
+    private static NodeExt createTree(final boolean reversed) {
+        final List<Node> children = new ArrayList<>(WIDTH);
+        for (int index = 0; index < WIDTH; ++index) {
+            children.add(new TestNode("s", index, new TestNode("n", index)));
+        }
+        if (reversed) {
+            Collections.reverse(children);
+        }
+        return new NodeExt(new TestNode("a", 0, children));
+    }
+
+    /**
+     * Tests that a mapper within the limits builds a complete mapping.
+     */
+    @Test
+    public void testComplete() {
+        final NodeExt root1 = createTree(false);
+        final NodeExt root2 = createTree(true);
+        final BoundedMapper mapper = new BoundedMapper(
+            budget -> new GreedMapper(root1, root2, MappingListener.NONE, budget),
+            1,
+            TimeUnit.HOURS
+        );
+        final MappingResult<NodeExt> result = mapper.build();
+        final Mapping<NodeExt> mapping = result.getMapping();
+        Assert.assertFalse(result.isPartial());
+        Assert.assertEquals(
+            new GreedMapper(root1, root2).buildMapping().entrySet().size(),
+            mapping.entrySet().size()
+        );
+        Assert.assertSame(root2.getChild(0), mapping.get(root1.getChild(WIDTH - 1)));
+    }
+
+    /**
+     * Tests that a mapper stopped by the operation limit builds a partial mapping.
+     */
+    @Test
+    public void testOperationLimit() {
+        final NodeExt root1 = createTree(false);
+        final NodeExt root2 = createTree(true);
+        final BoundedMapper mapper = new BoundedMapper(
+            budget -> new HashMapper(root1, root2, MappingListener.NONE, budget),
+            1,
+            TimeUnit.HOURS,
+            WIDTH
+        );
+        final MappingResult<NodeExt> result = mapper.build();
+        final Mapping<NodeExt> mapping = result.getMapping();
+        Assert.assertTrue(result.isPartial());
+        Assert.assertSame(root2, mapping.get(root1));
+        final Mapping<NodeExt> complete = new HashMapper(root1, root2).buildMapping();
+        Assert.assertTrue(mapping.entrySet().size() < complete.entrySet().size());
+        // Weak connections are removed from the partial mapping as well.
+        final MappingStatistics stats = new MappingStatistics();
+        new WeakChain(mapping, stats).disconnect(root1);
+        Assert.assertEquals(0, stats.getDisconnections());
+    }
+
+    /**
+     * Tests that weak connections are removed from a mapping even if the budget
+     * is exhausted before the weak chain phase.
+     */
+    @Test
+    public void testWeakChainAfterLimit() {
+        final NodeExt root1 = new NodeExt(
+            new TestNode("a", 0,
+                new TestNode("b", 1, new TestNode("c", 2))
+            )
+        );
+        final NodeExt root2 = new NodeExt(
+            new TestNode("a", 0,
+                new TestNode("b", 3, new TestNode("d", 4))
+            )
+        );
+        final MappingStatistics stats = new MappingStatistics();
+        final MappingResult<NodeExt> result = new BoundedMapper(
+            budget -> new GreedMapper(root1, root2, stats, budget),
+            1,
+            TimeUnit.HOURS,
+            5
+        ).build();
+        // The budget is exhausted after the weak connection b(1) <-> b(3) is made.
+        Assert.assertTrue(result.isPartial());
+        Assert.assertEquals(1, stats.getConnections(ConnectionKind.TYPE_AND_CHILD_COUNT));
+        Assert.assertEquals(1, stats.getDisconnections());
+        Assert.assertNull(result.getMapping().get(root1.getChild(0)));
+    }
+
+    /**
+     * Tests that a mapper is stopped if the thread is interrupted.
+     */
+    @Test
+    public void testInterrupted() {
+        final NodeExt root1 = createTree(false);
+        final NodeExt root2 = createTree(true);
+        final BoundedMapper mapper = new BoundedMapper(
+            budget -> new GreedMapper(root1, root2, MappingListener.NONE, budget),
+            1,
+            TimeUnit.HOURS
+        );
+        Thread.currentThread().interrupt();
+        try {
+            Assert.assertTrue(mapper.build().isPartial());
+        } finally {
+            Assert.assertTrue(Thread.interrupted());
+        }
+        Assert.assertFalse(mapper.build().isPartial());
+    }
+
+    /**
+     * Tests spending of budgets.
+     */
+    @Test
+    public void testBudget() {
+        final Budget budget = new Budget(1, TimeUnit.HOURS, 1);
+        Assert.assertTrue(budget.spend());
+        Assert.assertFalse(budget.isExhausted());
+        Assert.assertFalse(budget.spend());
+        Assert.assertTrue(budget.isExhausted());
+        Assert.assertFalse(budget.spend());
+        Assert.assertEquals(2, budget.getOperations());
+        Assert.assertTrue(Budget.UNLIMITED.spend());
+        Assert.assertFalse(Budget.UNLIMITED.isExhausted());
+    }
+
+    /**
+     * Tests that negative limits cause an exception.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeLimit() {
+        new Budget(-1, TimeUnit.SECONDS);
+    }
+
+}
@@ -0,0 +1,90 @@
+package org.cqfn.patternika.ast.mapper;
+
+import org.cqfn.patternika.ast.NodeExt;
+import org.cqfn.patternika.ast.TestNode;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link MappingStatistics} class.
+ *
+ * @since 2021/03/21
+ */
+public class MappingStatisticsTest {
+    /**
+     * Creates the first tree to be mapped.
+     *
+     * @return tree root.
+     */
+    private static NodeExt createTree1() {
+        return new NodeExt(
+            new TestNode("a", 0,
+                new TestNode("b", 1, new TestNode("c", 2), new TestNode("d", 3)),
+                new TestNode("e", 4, new TestNode("f", 5)),
+                new TestNode("g", 6)
+            )
+        );
+    }
+
+    /**
+     * Creates the second tree to be mapped.
+     *
+     * @return tree root.
+     */
+    private static NodeExt createTree2() {
+        return new NodeExt(
+            new TestNode("a", 0,
+                new TestNode("e", 4, new TestNode("f", 5)),
+                new TestNode("b", 1, new TestNode("c", 2), new TestNode("d", 7)),
+                new TestNode("h", 6)
+            )
+        );
+    }
+
+    /**
+     * Tests that statistics is consistent with the built mapping.
+     */
+    @Test
+    public void testGreedMapper() {
+        final MappingStatistics stats = new MappingStatistics();
+        final Mapping<NodeExt> mapping =
+                new GreedMapper(createTree1(), createTree2(), stats).buildMapping();
+        long connections = 0;
+        for (final ConnectionKind kind : ConnectionKind.values()) {
+            connections += stats.getConnections(kind);
+        }
+        Assert.assertEquals(1, stats.getConnections(ConnectionKind.ROOT));
+        // The mapping table contains connections in both directions.
+        Assert.assertEquals(
+                mapping.entrySet().size(), 2 * (connections - stats.getDisconnections()));
+        Assert.assertEquals(7, stats.getPhaseVisits(MappingPhase.WEAK_CHAIN));
+        Assert.assertEquals(0, stats.getPhaseVisits(MappingPhase.COLLECT_NODES));
+        Assert.assertTrue(stats.getHashMisses() > 0);
+        Assert.assertTrue(stats.getVisits() >= 14);
+        for (final MappingPhase phase : MappingPhase.values()) {
+            Assert.assertTrue(stats.getPhaseTime(phase) >= 0);
+        }
+    }
+
+    /**
+     * Tests that statistics of several mappings is summed up and dumped to JSON.
+     */
+    @Test
+    public void testJson() {
+        final MappingStatistics stats = new MappingStatistics();
+        new HashMapper(createTree1(), createTree2(), stats).buildMapping();
+        final long visits = stats.getVisits();
+        new HashMapper(createTree1(), createTree2(), stats).buildMapping();
+        Assert.assertEquals(2 * visits, stats.getVisits());
+        final String json = stats.toJson();
+        Assert.assertTrue(json.startsWith("{\"phases\":{\"CONNECT_ROOTS\":{\"timeNs\":"));
+        Assert.assertTrue(json.contains(
+                "\"WEAK_CHAIN\":{\"timeNs\":" + stats.getPhaseTime(MappingPhase.WEAK_CHAIN)
+                + ",\"visited\":14}"));
+        Assert.assertTrue(json.contains("\"connections\":{\"ROOT\":2,\"LINEAR_HASH\":"));
+        Assert.assertTrue(json.endsWith(
+                ",\"hashCacheMisses\":" + stats.getHashMisses() + "}"));
+    }
+
+}
@@ -0,0 +1,103 @@
+package org.cqfn.patternika.ast.mapper;
+
+import org.cqfn.patternika.ast.NodeExt;
+import org.cqfn.patternika.ast.TestNode;
+import org.cqfn.patternika.ast.iterator.BreadthFirst;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests for the {@link ParallelMapper} class.
+ *
+ * @since 2021/03/23
+ */
+public class ParallelMapperTest {
+    /**
+     * Tests that subtrees are mapped in parallel with the same result as {@link GreedMapper}.
+     */
+    @Test
+    public void testParallel() {
+        final NodeExt root1 = createFile(1, 2);
+        final NodeExt root2 = createFile(3, 2);
+        final MappingStatistics stats = new MappingStatistics();
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            final Mapping<NodeExt> mapping = new ParallelMapper(
+                root1, root2, stats, Budget.UNLIMITED, pool, 0).buildMapping();
+            final Mapping<NodeExt> greed = new GreedMapper(root1, root2).buildMapping();
+            Assert.assertEquals(greed.entrySet(), mapping.entrySet());
+            Assert.assertTrue(stats.getPhaseVisits(MappingPhase.CONNECT_SUBTREES) > 0);
+            Assert.assertEquals(1, stats.getConnections(ConnectionKind.ROOT));
+            // Every hash code is calculated once and shared by all phases and tasks.
+            Assert.assertTrue(stats.getHashMisses() <= new BreadthFirst<>(root1).toList().size()
+                + new BreadthFirst<>(root2).toList().size());
+            Assert.assertTrue(stats.getHashHits() > 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Tests that small trees are mapped sequentially.
+     */
+    @Test
+    public void testSequential() {
+        final NodeExt root1 = createFile(1, 2);
+        final NodeExt root2 = createFile(1, 3);
+        final MappingStatistics stats = new MappingStatistics();
+        final Mapping<NodeExt> mapping = new ParallelMapper(root1, root2, stats).buildMapping();
+        final Mapping<NodeExt> greed = new GreedMapper(root1, root2).buildMapping();
+        Assert.assertEquals(greed.entrySet(), mapping.entrySet());
+        Assert.assertEquals(0, stats.getPhaseVisits(MappingPhase.CONNECT_SUBTREES));
+    }
+
+    /**
+     * Tests that trees with different root types are not connected.
+     */
+    @Test
+    public void testDifferentRoots() {
+        final NodeExt root1 = new NodeExt(new TestNode("a", 0, new TestNode("b", 1)));
+        final NodeExt root2 = new NodeExt(new TestNode("c", 0, new TestNode("b", 1)));
+        final Mapping<NodeExt> mapping = new ParallelMapper(
+            root1, root2, MappingListener.NONE, Budget.UNLIMITED, ForkJoinPool.commonPool(), 0
+        ).buildMapping();
+        Assert.assertTrue(mapping.entrySet().isEmpty());
+    }
+
+    /**
+     * Creates a tree of a file with a class with methods.
+     *
+     * @param first the value returned by the first method.
+     * @param last the value returned by the last method.
+     * @return the tree.
+     */
+    private static NodeExt createFile(final int first, final int last) {
+        final int count = 10;
+        final TestNode[] members = new TestNode[count];
+        for (int index = 0; index < count; ++index) {
+            int value = index;
+            if (index == 0) {
+                value = first;
+            } else if (index == count - 1) {
+                value = last;
+            }
+            members[index] = new TestNode("method", index,
+                new TestNode("name", index),
+                new TestNode("body", 0,
+                    new TestNode("call", index, new TestNode("arg", index + 1)),
+                    new TestNode("return", 0, new TestNode("value", value))
+                )
+            );
+        }
+        return new NodeExt(
+            new TestNode("file", 0,
+                new TestNode("package", 0),
+                new TestNode("class", 0, members)
+            )
+        );
+    }
+
+}
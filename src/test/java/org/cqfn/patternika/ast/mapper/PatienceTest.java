@@ -0,0 +1,144 @@
+package org.cqfn.patternika.ast.mapper;
+
+import org.cqfn.patternika.ast.NodeExt;
+import org.cqfn.patternika.ast.TestNode;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the {@link Patience} class and the patience alignment of {@link Downstairs}.
+ *
+ * @since 2021/03/23
+ */
+public class PatienceTest {
+    /**
+     * Tests that an insertion does not shift the alignment of the following elements.
+     */
+    @Test
+    public void testInsertion() {
+        final int[] aligned = new Patience(
+            new int[] {1, 2, 3, 4, 5},
+            new int[] {1, 2, 9, 3, 4, 5}
+        ).align();
+        Assert.assertArrayEquals(new int[] {0, 1, 3, 4, 5}, aligned);
+    }
+
+    /**
+     * Tests that moved elements are aligned by the longest sequence of unique keys
+     * and gaps are aligned recursively.
+     */
+    @Test
+    public void testMove() {
+        final int[] aligned = new Patience(
+            new int[] {7, 1, 2, 8, 3, 8, 4},
+            new int[] {1, 2, 3, 4, 7, 6, 8, 8}
+        ).align();
+        Assert.assertArrayEquals(new int[] {-1, 0, 1, -1, 2, -1, 3}, aligned);
+    }
+
+    /**
+     * Tests that gaps without unique keys are aligned position by position.
+     */
+    @Test
+    public void testDuplicates() {
+        final int[] aligned = new Patience(
+            new int[] {1, 5, 5, 6, 2},
+            new int[] {1, 5, 5, 7, 2}
+        ).align();
+        Assert.assertArrayEquals(new int[] {0, 1, 2, -1, 4}, aligned);
+        Assert.assertArrayEquals(
+            new int[] {-1, -1},
+            new Patience(new int[] {1, 2}, new int[] {}).align()
+        );
+    }
+
+    /**
+     * Tests that long sequences with many gaps are aligned
+     * and that the alignment stops when the budget is exhausted.
+     */
+    @Test
+    public void testLongAndBudget() {
+        final int count = 100_000;
+        final int[] keys1 = new int[count];
+        final int[] keys2 = new int[count];
+        final Random random = new Random(count);
+        for (int index = 0; index < count; ++index) {
+            keys1[index] = random.nextInt(count);
+            keys2[index] = random.nextInt(count);
+        }
+        Assert.assertTrue(assertAligned(keys1, keys2, new Patience(keys1, keys2).align()) > 0);
+        final Budget budget = new Budget(1, TimeUnit.MINUTES, count);
+        assertAligned(keys1, keys2, new Patience(keys1, keys2, budget).align());
+        Assert.assertTrue(budget.isExhausted());
+    }
+
+    /**
+     * Tests that statements after an inserted statement are connected
+     * in the linear phase of {@link Downstairs}.
+     */
+    @Test
+    public void testDownstairs() {
+        final NodeExt root1 = new NodeExt(
+            new TestNode("block", 0,
+                new TestNode("stmt", 1),
+                new TestNode("stmt", 2),
+                new TestNode("stmt", 3),
+                new TestNode("stmt", 4)
+            )
+        );
+        final NodeExt root2 = new NodeExt(
+            new TestNode("block", 0,
+                new TestNode("stmt", 1),
+                new TestNode("stmt", 9),
+                new TestNode("stmt", 2),
+                new TestNode("stmt", 3),
+                new TestNode("stmt", 4)
+            )
+        );
+        final MappingStatistics positional = new MappingStatistics();
+        new GreedMapper(root1, root2, positional).buildMapping();
+        final MappingStatistics patience = new MappingStatistics();
+        final Mapping<NodeExt> mapping = new GreedMapper(
+            root1, root2, patience, Budget.UNLIMITED, Alignment.PATIENCE).buildMapping();
+        Assert.assertEquals(1, positional.getConnections(ConnectionKind.LINEAR_HASH));
+        Assert.assertEquals(0, patience.getConnections(ConnectionKind.LINEAR_HASH));
+        Assert.assertEquals(4, patience.getConnections(ConnectionKind.PATIENCE_HASH));
+        Assert.assertEquals(0, patience.getConnections(ConnectionKind.PRODUCT_HASH));
+        for (int index = 0; index < root1.getChildCount(); ++index) {
+            Assert.assertTrue(mapping.connected(
+                root1.getChild(index), root2.getChild(index + Math.min(index, 1))));
+        }
+        Assert.assertNull(mapping.get(root2.getChild(1)));
+    }
+
+    /**
+     * Checks that aligned elements have equal keys and keep their order.
+     *
+     * @param keys1 the first sequence of keys.
+     * @param keys2 the second sequence of keys.
+     * @param aligned the alignment.
+     * @return the number of aligned elements.
+     */
+    private static int assertAligned(
+            final int[] keys1,
+            final int[] keys2,
+            final int[] aligned) {
+        Assert.assertEquals(keys1.length, aligned.length);
+        int count = 0;
+        int previous = -1;
+        for (int index = 0; index < aligned.length; ++index) {
+            if (aligned[index] >= 0) {
+                Assert.assertEquals(keys1[index], keys2[aligned[index]]);
+                Assert.assertTrue(aligned[index] > previous);
+                previous = aligned[index];
+                count += 1;
+            }
+        }
+        return count;
+    }
+
+}
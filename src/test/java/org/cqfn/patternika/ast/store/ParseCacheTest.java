@@ -0,0 +1,132 @@
+package org.cqfn.patternika.ast.store;
+
+import org.cqfn.patternika.ast.DeepMatches;
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.ast.TestNode;
+import org.cqfn.patternika.source.SourceFile;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Tests for the {@link ParseCache} class.
+ *
+ * @since 2021/03/23
+ */
+public class ParseCacheTest {
+    /** Source used by tests. */
+    private static final SourceFile SOURCE = new SourceFile("abc");
+
+    /**
+     * Deletes a directory with files.
+     *
+     * @param directory the directory.
+     * @throws IOException if failed to delete files.
+     */
+    private static void delete(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (final Iterator<Path> iterator = files.iterator(); iterator.hasNext();) {
+                Files.delete(iterator.next());
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Tests saving and loading trees, versions and invalid files.
+     *
+     * @throws IOException if failed to access the cache.
+     */
+    @Test
+    public void testLoad() throws IOException {
+        final Path directory = Files.createTempDirectory("cache");
+        try {
+            final ParseCache cache = new ParseCache(directory, Long.MAX_VALUE);
+            final Node root = new TestNode("Root", 0, new TestNode("Leaf", 1));
+            Assert.assertNull(cache.load("key", "v1", SOURCE));
+            final Node saved = cache.save("key", "v1", root, SOURCE);
+            Assert.assertTrue(saved instanceof MappedNode);
+            Assert.assertTrue(new DeepMatches().test(root, saved));
+            Assert.assertTrue(cache.getSize() > 0);
+            final Node loaded = cache.load("key", "v1", SOURCE);
+            Assert.assertTrue(new DeepMatches().test(root, loaded));
+            Assert.assertNull(loaded.getFragment());
+            Assert.assertNull(cache.load("key", "v2", SOURCE));
+            Files.write(directory.resolve("bad.ptnk"), "bad".getBytes(StandardCharsets.UTF_8));
+            Assert.assertNull(cache.load("bad", "v1", SOURCE));
+            Assert.assertFalse(Files.exists(directory.resolve("bad.ptnk")));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    /**
+     * Tests that damaged files are detected before trees are used.
+     *
+     * @throws IOException if failed to access the cache.
+     */
+    @Test
+    public void testDamaged() throws IOException {
+        final Path directory = Files.createTempDirectory("cache");
+        try {
+            final ParseCache cache = new ParseCache(directory, Long.MAX_VALUE);
+            final Node root = new TestNode("Root", 0, new TestNode("Leaf", 1));
+            cache.save("key", "v", root, SOURCE);
+            final Path file = directory.resolve("key.ptnk");
+            final byte[] bytes = Files.readAllBytes(file);
+            // Truncates the last node record.
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - Integer.BYTES));
+            Assert.assertNull(cache.load("key", "v", SOURCE));
+            Assert.assertFalse(Files.exists(file));
+            // Breaks the offset of the root node.
+            cache.save("key", "v", root, SOURCE);
+            final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            final int entry = buffer.getInt(StoreFormat.PATTERN_TABLE) + StoreFormat.INT_SIZE;
+            buffer.putInt(entry, buffer.getInt(entry) + StoreFormat.INT_SIZE);
+            Files.write(file, buffer.array());
+            Assert.assertNull(cache.load("key", "v", SOURCE));
+            Assert.assertFalse(Files.exists(file));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    /**
+     * Tests that least recently used files are evicted.
+     *
+     * @throws IOException if failed to access the cache.
+     */
+    @Test
+    public void testEviction() throws IOException {
+        final Path directory = Files.createTempDirectory("cache");
+        try {
+            final Node root = new TestNode("Root", 0);
+            new ParseCache(directory, Long.MAX_VALUE).save("first", "v", root, SOURCE);
+            final long fileSize = Files.size(directory.resolve("first.ptnk"));
+            final ParseCache cache = new ParseCache(directory, 2 * fileSize);
+            Assert.assertEquals(fileSize, cache.getSize());
+            cache.save("second", "v", root, SOURCE);
+            Files.setLastModifiedTime(directory.resolve("first.ptnk"), FileTime.fromMillis(1000));
+            Files.setLastModifiedTime(directory.resolve("second.ptnk"), FileTime.fromMillis(2000));
+            Assert.assertNotNull(cache.load("first", "v", SOURCE));
+            cache.save("third", "v", root, SOURCE);
+            Assert.assertEquals(2 * fileSize, cache.getSize());
+            Assert.assertNotNull(cache.load("first", "v", SOURCE));
+            Assert.assertNull(cache.load("second", "v", SOURCE));
+            Assert.assertNotNull(cache.load("third", "v", SOURCE));
+        } finally {
+            delete(directory);
+        }
+    }
+
+}
@@ -0,0 +1,204 @@
+package org.cqfn.patternika.ast.store;
+
+import org.cqfn.patternika.ast.Action;
+import org.cqfn.patternika.ast.ActionTree;
+import org.cqfn.patternika.ast.ActionType;
+import org.cqfn.patternika.ast.DeepMatches;
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.ast.NodeFactory;
+import org.cqfn.patternika.ast.NodeRegistry;
+import org.cqfn.patternika.ast.TestNode;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for the {@link PatternStore} and {@link PatternStoreWriter} classes.
+ *
+ * @since 2021/03/15
+ */
+public class PatternStoreTest {
+    /**
+     * Creates a pattern with actions, including an action nested in an accept tree.
+     *
+     * @return the pattern.
+     */
+    private static ActionTree createPattern() {
+        final Node root =
+            new TestNode("Block", 0,
+                new TestNode("Call", 1,
+                    new TestNode("Name", 10),
+                    new TestNode("Arg", 11)
+                ),
+                new TestNode("Return", 2)
+            );
+        final Node accept = new TestNode("Call", 3, new TestNode("Name", 30));
+        final Node nested = new TestNode("Arg", 31);
+        return new ActionTree(
+                "java",
+                root,
+                Arrays.asList(
+                    new Action(ActionType.DELETE, root.getChild(0), root.getChild(0).getChild(1),
+                            null),
+                    new Action(ActionType.INSERT_AFTER, root, root.getChild(0), accept),
+                    new Action(ActionType.INSERT_AFTER, accept, accept.getChild(0), nested)
+                )
+            );
+    }
+
+    /**
+     * Tests that stored node trees match the original trees and that nodes are cached.
+     *
+     * @throws IOException if the store is invalid.
+     */
+    @Test
+    public void testNodes() throws IOException {
+        final Node first = new TestNode("Block", 0, new TestNode("Name", 1), new TestNode(2));
+        final Node second = new TestNode("Expr", 3, new TestNode("Name", 1));
+        final ByteBuffer buffer = new PatternStoreWriter()
+                .add(new ActionTree("java", first, Collections.emptyList()))
+                .add(new ActionTree("xml", second, Collections.emptyList()))
+                .toBuffer();
+        final PatternStore store = new PatternStore(buffer);
+        Assert.assertEquals(2, store.getPatternCount());
+        Assert.assertEquals("java", store.getLanguage(0));
+        Assert.assertEquals("xml", store.getLanguage(1));
+        Assert.assertEquals("Block", store.getRootType(0));
+        Assert.assertEquals("Expr", store.getRootType(1));
+        final MappedNode root = store.getRoot(0);
+        Assert.assertTrue(new DeepMatches().test(first, root));
+        Assert.assertTrue(new DeepMatches().test(second, store.getRoot(1)));
+        Assert.assertFalse(new DeepMatches().test(first, store.getRoot(1)));
+        Assert.assertSame(root.getChild(0), root.getChild(0));
+        Assert.assertTrue(root.getChild(0).matches(store.getRoot(1).getChild(0)));
+        Assert.assertFalse(root.getChild(0).matches(root.getChild(1)));
+        Assert.assertEquals(first.isChildOrderStrict(), root.isChildOrderStrict());
+        Assert.assertNull(root.getFragment());
+    }
+
+    /**
+     * Tests that actions are restored and refer to the nodes of the restored trees.
+     *
+     * @throws IOException if failed to write or read the store file.
+     */
+    @Test
+    public void testActions() throws IOException {
+        final ActionTree pattern = createPattern();
+        final Path path = Files.createTempFile("patterns", ".bin");
+        try {
+            new PatternStoreWriter().add(pattern).write(path);
+            final ActionTree tree = new PatternStore(path).getActionTree(0);
+            final Node root = tree.getRoot();
+            Assert.assertEquals("java", tree.getLanguage());
+            Assert.assertTrue(new DeepMatches().test(pattern.getRoot(), root));
+            Assert.assertEquals(pattern.getActions().size(), tree.getActions().size());
+            final Action delete = tree.getActions().get(0);
+            Assert.assertEquals(ActionType.DELETE, delete.getType());
+            Assert.assertSame(root.getChild(0), delete.getParent());
+            Assert.assertSame(root.getChild(0).getChild(1), delete.getRef());
+            Assert.assertNull(delete.getAccept());
+            final Action insert = tree.getActions().get(1);
+            Assert.assertSame(root, insert.getParent());
+            Assert.assertTrue(new DeepMatches().test(
+                    pattern.getActions().get(1).getAccept(), insert.getAccept()));
+            final Action nested = tree.getActions().get(2);
+            Assert.assertSame(insert.getAccept(), nested.getParent());
+            Assert.assertSame(insert.getAccept().getChild(0), nested.getRef());
+            Assert.assertEquals(1, tree.getActionsByParent(root.getChild(0)).size());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Tests the search of patterns by root types.
+     *
+     * @throws IOException if the store is invalid.
+     */
+    @Test
+    public void testFindByRootType() throws IOException {
+        final PatternStore store = new PatternStore(new PatternStoreWriter()
+                .add(new ActionTree("java", new TestNode("A", 0), Collections.emptyList()))
+                .add(new ActionTree("java", new TestNode("B", 1), Collections.emptyList()))
+                .add(new ActionTree("java", new TestNode("A", 2), Collections.emptyList()))
+                .toBuffer());
+        Assert.assertArrayEquals(new int[] {0, 2}, store.findByRootType("A"));
+        Assert.assertArrayEquals(new int[] {1}, store.findByRootType("B"));
+        Assert.assertArrayEquals(new int[0], store.findByRootType("C"));
+        Assert.assertArrayEquals(new int[0], store.findByRootType("1"));
+    }
+
+    /**
+     * Tests that locating nodes by offsets returns cached nodes.
+     *
+     * @throws IOException if the store is invalid.
+     */
+    @Test
+    public void testLocate() throws IOException {
+        final ActionTree pattern = createPattern();
+        final MappedNode root =
+                new PatternStore(new PatternStoreWriter().add(pattern).toBuffer()).getRoot(0);
+        final MappedNode arg = root.getChild(0).getChild(1);
+        Assert.assertSame(arg, root.locate(arg.getOffset()));
+        Assert.assertSame(root, root.locate(root.getOffset()));
+        Assert.assertTrue(root.getChild(0).containsOffset(arg.getOffset()));
+        Assert.assertFalse(root.getChild(1).containsOffset(arg.getOffset()));
+    }
+
+    /**
+     * Tests that stored trees are rebuilt with nodes created by a registry.
+     *
+     * @throws IOException if the store is invalid.
+     */
+    @Test
+    public void testCreateTrees() throws IOException {
+        final ActionTree pattern = createPattern();
+        final Node other = new TestNode("Return", 4, new TestNode("Name", 40));
+        final NodeFactory factory = new NodeFactory();
+        for (final String type : new String[] {"Block", "Call", "Name", "Arg", "Return"}) {
+            factory.register(type, (f, d, c) -> new TestNode(f, type, d, c));
+        }
+        final NodeRegistry registry = factory.build();
+        final PatternStore store = new PatternStore(new PatternStoreWriter()
+                .add(pattern)
+                .add(new ActionTree("java", other, Collections.emptyList()))
+                .toBuffer());
+        final List<Node> trees = store.createTrees(registry);
+        Assert.assertEquals(2, trees.size());
+        Assert.assertTrue(trees.get(0) instanceof TestNode);
+        Assert.assertTrue(new DeepMatches().test(pattern.getRoot(), trees.get(0)));
+        Assert.assertTrue(new DeepMatches().test(other, trees.get(1)));
+        Assert.assertTrue(new DeepMatches().test(other, store.createTree(1, registry)));
+    }
+
+    /**
+     * Tests that an attempt to open an invalid store causes an exception.
+     *
+     * @throws IOException always.
+     */
+    @Test(expected = IOException.class)
+    public void testInvalidStore() throws IOException {
+        new PatternStore(ByteBuffer.wrap(new byte[] {1, 2, 3, 4}));
+    }
+
+    /**
+     * Tests that an action referring to a node outside its pattern causes an exception.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testForeignActionNode() {
+        final Node root = new TestNode(0);
+        final Action action = new Action(ActionType.DELETE, root, new TestNode(1), null);
+        new PatternStoreWriter()
+                .add(new ActionTree("java", root, Collections.singletonList(action)))
+                .toBuffer();
+    }
+
+}
@@ -0,0 +1,6 @@
+/**
+ * This package contains tests for classes that store node trees in a binary format.
+ *
+ * @since 2021/03/15
+ */
+package org.cqfn.patternika.ast.store;
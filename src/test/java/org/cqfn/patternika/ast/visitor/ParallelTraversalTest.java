@@ -0,0 +1,142 @@
+package org.cqfn.patternika.ast.visitor;
+
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.ast.TestNode;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests for the {@link ParallelTraversal} class.
+ *
+ * @since 2021/03/23
+ */
+public class ParallelTraversalTest {
+    /** Number of children of inner nodes in the test tree. */
+    private static final int FAN_OUT = 4;
+
+    /** Height of the test tree. */
+    private static final int HEIGHT = 6;
+
+    /** Threshold that makes the traversal fork tasks for small subtrees. */
+    private static final int THRESHOLD = 5;
+
+    /** Type of nodes, subtrees of which are skipped. */
+    private static final String SKIPPED = "skip";
+
+    /**
+     * Creates a full tree. The last child of each inner node is skipped by the visitor.
+     *
+     * @param type the root type.
+     * @param height the tree height.
+     * @return the tree root.
+     */
+    private static Node createTree(final String type, final int height) {
+        final List<Node> children = new ArrayList<>();
+        if (height > 0) {
+            for (int index = 0; index < FAN_OUT; ++index) {
+                final String childType = index == FAN_OUT - 1 ? SKIPPED : "node";
+                children.add(createTree(childType, height - 1));
+            }
+        }
+        return new TestNode(type, height, children);
+    }
+
+    /**
+     * Creates a visitor that counts entered nodes and left nodes, the composite visitor
+     * is used in the same way as in tree-wide analyses.
+     *
+     * @return the visitor.
+     */
+    private static Counter createCounter() {
+        final Counter counter = new Counter();
+        counter.register(TestNode.class, counter.getCounting());
+        return counter;
+    }
+
+    /**
+     * Tests that the parallel traversal visits the same nodes as the sequential one.
+     */
+    @Test
+    public void testCount() {
+        final Node root = createTree("root", HEIGHT);
+        final Counter sequential = createCounter();
+        new Traversal(sequential).process(root);
+        final ParallelTraversal<Counter, long[]> traversal = new ParallelTraversal<>(
+            ParallelTraversalTest::createCounter,
+            Counter::getCounts,
+            (first, second) -> new long[] {first[0] + second[0], first[1] + second[1]},
+            THRESHOLD,
+            ForkJoinPool.commonPool()
+        );
+        final long[] counts = traversal.process(root);
+        Assert.assertArrayEquals(sequential.getCounts(), counts);
+        // Skipped nodes are entered, but not left.
+        Assert.assertTrue(counts[0] > counts[1]);
+        final long[] defaults = new ParallelTraversal<>(
+            ParallelTraversalTest::createCounter,
+            Counter::getCounts,
+            (first, second) -> new long[] {first[0] + second[0], first[1] + second[1]}
+        ).process(root);
+        Assert.assertArrayEquals(counts, defaults);
+    }
+
+    /**
+     * Tests that an invalid threshold causes an exception.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidThreshold() {
+        new ParallelTraversal<>(
+            ParallelTraversalTest::createCounter,
+            Counter::getCounts,
+            (first, second) -> first,
+            0,
+            ForkJoinPool.commonPool()
+        );
+    }
+
+    /**
+     * Composite visitor that counts entered and left nodes, skips subtrees of some nodes.
+     */
+    private static final class Counter extends VisitorComposite {
+        /** Number of entered nodes. */
+        private long entered;
+
+        /** Number of left nodes. */
+        private long left;
+
+        /**
+         * Returns the visitor that counts nodes.
+         *
+         * @return the visitor.
+         */
+        private Visitor getCounting() {
+            return new Visitor() {
+                @Override
+                public boolean enter(final Node node) {
+                    entered += 1;
+                    return !SKIPPED.equals(node.getType());
+                }
+
+                @Override
+                public void leave(final Node node) {
+                    left += 1;
+                }
+            };
+        }
+
+        /**
+         * Returns the counts.
+         *
+         * @return the array of the number of entered nodes and the number of left nodes.
+         */
+        private long[] getCounts() {
+            return new long[] {entered, left};
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+package org.cqfn.patternika.ast.visitor;
+
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.ast.TestNode;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for the {@link VisitorComposite} class.
+ *
+ * @since 2021/03/23
+ */
+public class VisitorCompositeTest {
+    /**
+     * Creates a test tree.
+     *
+     * @return the root of the tree.
+     */
+    private static Node createTree() {
+        return new TestNode("Class", 0,
+            new TestNode("Method", 1,
+                new TestNode("Call", 2, new TestNode("Name", 3)),
+                new TestNode("Comment", 4, new TestNode("Call", 5))
+            ),
+            new TestNode("Field", 6, new TestNode("Call", 7)),
+            new TestNode("Method", 8, new TestNode("Call", 9))
+        );
+    }
+
+    /**
+     * Creates a visitor that logs entered and left nodes.
+     *
+     * @param log the log.
+     * @return the visitor.
+     */
+    private static Visitor createLogger(final List<String> log) {
+        return new Visitor() {
+            @Override
+            public boolean enter(final Node node) {
+                log.add("E" + node.getData());
+                return true;
+            }
+
+            @Override
+            public void leave(final Node node) {
+                log.add("L" + node.getData());
+            }
+        };
+    }
+
+    /**
+     * Tests that nodes are dispatched by types and unregistered types are visited.
+     */
+    @Test
+    public void testDispatch() {
+        final List<String> calls = new ArrayList<>();
+        final List<String> methods = new ArrayList<>();
+        final VisitorComposite composite = new VisitorComposite()
+                .register("Call", createLogger(calls))
+                .register("Method", createLogger(methods));
+        new Traversal(composite).process(createTree());
+        Assert.assertEquals("[E2, L2, E5, L5, E7, L7, E9, L9]", calls.toString());
+        Assert.assertEquals("[E1, L1, E8, L8]", methods.toString());
+        Assert.assertNull(composite.findTypeVisitor("Field"));
+    }
+
+    /**
+     * Tests that subtrees of nodes without visitors and of types registered with
+     * {@link VisitorComposite#SKIP} are skipped.
+     */
+    @Test
+    public void testSkip() {
+        final List<String> calls = new ArrayList<>();
+        final VisitorComposite composite = new VisitorComposite(true)
+                .register("Class", VisitorComposite.CONTINUE)
+                .register("Method", VisitorComposite.CONTINUE)
+                .register("Comment", VisitorComposite.SKIP)
+                .register("Call", createLogger(calls));
+        new Traversal(composite).process(createTree());
+        Assert.assertEquals("[E2, L2, E9, L9]", calls.toString());
+        Assert.assertSame(VisitorComposite.SKIP, composite.findTypeVisitor("Comment"));
+    }
+
+    /**
+     * Tests that nodes with visitors registered for their classes are not skipped.
+     */
+    @Test
+    public void testSkipByClass() {
+        final List<String> nodes = new ArrayList<>();
+        final VisitorComposite composite = new VisitorComposite(true)
+                .register(TestNode.class, createLogger(nodes))
+                .register("Comment", VisitorComposite.SKIP);
+        new Traversal(composite).process(createTree());
+        Assert.assertEquals(16, nodes.size());
+    }
+
+    /**
+     * Tests that registering a type again replaces its visitor.
+     */
+    @Test
+    public void testReplace() {
+        final VisitorComposite composite = new VisitorComposite()
+                .register("A", VisitorComposite.SKIP)
+                .register("B", VisitorComposite.SKIP)
+                .register("A", VisitorComposite.CONTINUE);
+        Assert.assertSame(VisitorComposite.CONTINUE, composite.findTypeVisitor("A"));
+        Assert.assertSame(VisitorComposite.SKIP, composite.findTypeVisitor("B"));
+    }
+
+}
@@ -110,6 +110,41 @@ public class VisitorTest {
         Assert.assertEquals(expectedLog, log);
     }
 
+    /**
+     * Tests that visitors registered for node types take precedence over visitors
+     * registered for node classes and that resolved visitors are updated on registration.
+     */
+    @Test
+    public void testTypeDispatch() {
+        final Node root =
+            new NodeA("A", 0,
+                new NodeA("T", 1),
+                new NodeB("B", 0)
+            );
+        final VisitorComposite visitor = new VisitorComposite()
+                .register(NodeA.class, new VisitorA())
+                .register("T", new VisitorTypedLeaf<Node>() {
+                    @Override
+                    public void visitNode(final Node node) {
+                        addToLog(VisitorC.class, Act.VISIT, node);
+                    }
+                });
+        Assert.assertNull(visitor.findNodeVisitor(NodeB.class));
+        new Traversal(visitor).process(root);
+        Assert.assertEquals(
+            Arrays.asList(
+                "VisitorA-E-NodeA{A,0}",
+                    "VisitorC-V-NodeA{T,1}",
+                "VisitorA-L-NodeA{A,0}"
+            ),
+            log
+        );
+        Assert.assertNotNull(visitor.findTypeVisitor("T"));
+        Assert.assertNull(visitor.findTypeVisitor("B"));
+        visitor.register(NodeB.class, new VisitorB());
+        Assert.assertTrue(visitor.findNodeVisitor(NodeD.class) instanceof VisitorB);
+    }
+
     /**
      * Test for reaching full coverage for the {@link VisitorTypedLeaf} class.
      * Tests the method {@link VisitorTypedLeaf#leave} method that must not be called normally.
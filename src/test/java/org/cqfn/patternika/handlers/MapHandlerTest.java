@@ -0,0 +1,139 @@
+package org.cqfn.patternika.handlers;
+
+import org.cqfn.patternika.PatternikaApi;
+import org.cqfn.patternika.util.cmdline.CmdLineException;
+import org.cqfn.patternika.util.cmdline.CmdLineParser;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for the {@link MapHandler} class.
+ *
+ * @since 2021/03/22
+ */
+public class MapHandlerTest {
+    /** Code of the first file. */
+    private static final String CODE1 =
+            "class A { int f(int x) { return x + 1; } void g() { f(2); } }";
+
+    /** Code of the second file. */
+    private static final String CODE2 =
+            "class A { int h; void g() { f(3); } int f(int x) { return x + 1; } }";
+
+    /**
+     * Runs the handler for two files with the specified code.
+     *
+     * @param code1 the code of the first file.
+     * @param code2 the code of the second file.
+     * @param options the options.
+     * @return the output and the error output.
+     * @throws IOException if failed to create files.
+     */
+    private static String[] run(
+            final String code1,
+            final String code2,
+            final Map<String, List<String>> options) throws IOException {
+        final Path file1 = Files.createTempFile("map", ".java");
+        final Path file2 = Files.createTempFile("map", ".java");
+        try {
+            Files.write(file1, code1.getBytes(StandardCharsets.UTF_8));
+            Files.write(file2, code2.getBytes(StandardCharsets.UTF_8));
+            final Map<String, String> arguments = new HashMap<>();
+            arguments.put(MapHandler.FILE1, file1.toString());
+            arguments.put(MapHandler.FILE2, file2.toString());
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final ByteArrayOutputStream err = new ByteArrayOutputStream();
+            new MapHandler(
+                new PrintStream(out, true, "UTF-8"),
+                new PrintStream(err, true, "UTF-8")
+            ).handle(arguments, options);
+            return new String[] {
+                new String(out.toByteArray(), StandardCharsets.UTF_8),
+                new String(err.toByteArray(), StandardCharsets.UTF_8),
+            };
+        } finally {
+            Files.delete(file1);
+            Files.delete(file2);
+        }
+    }
+
+    /**
+     * Tests mapping of identical files with the default options.
+     *
+     * @throws IOException if failed to create files.
+     */
+    @Test
+    public void testIdentical() throws IOException {
+        final String[] result = run(CODE1, CODE1, Collections.emptyMap());
+        Assert.assertEquals("", result[1]);
+        Assert.assertTrue(result[0].contains("Mapper: greed"));
+        Assert.assertTrue(result[0].contains("Unmapped: 0 / 0"));
+        Assert.assertTrue(result[0].contains("Mapping ratio: 1.0000"));
+        Assert.assertTrue(result[0].contains("CONNECT_ROOTS"));
+        Assert.assertTrue(result[0].contains("Peak heap:"));
+        Assert.assertTrue(result[0].contains("\"hashCacheMisses\":"));
+    }
+
+    /**
+     * Tests mapping of different files with the hash mapper and several runs.
+     *
+     * @throws IOException if failed to create files.
+     */
+    @Test
+    public void testRepeat() throws IOException {
+        final Map<String, List<String>> options = new HashMap<>();
+        options.put(MapHandler.MAPPER, Collections.singletonList("hash"));
+        options.put(MapHandler.REPEAT, Collections.singletonList("3"));
+        final String[] result = run(CODE1, CODE2, options);
+        Assert.assertEquals("", result[1]);
+        Assert.assertTrue(result[0].contains("Mapper: hash"));
+        Assert.assertTrue(result[0].contains("Runs: 3"));
+        Assert.assertFalse(result[0].contains("Unmapped: 0 / 0"));
+    }
+
+    /**
+     * Tests that invalid options and files are reported.
+     *
+     * @throws IOException if failed to create files.
+     */
+    @Test
+    public void testErrors() throws IOException {
+        final Map<String, List<String>> options = new HashMap<>();
+        options.put(MapHandler.MAPPER, Collections.singletonList("unknown"));
+        Assert.assertTrue(run(CODE1, CODE2, options)[1].contains("Unknown mapper"));
+        options.put(MapHandler.MAPPER, Collections.singletonList("greed"));
+        options.put(MapHandler.REPEAT, Collections.singletonList("0"));
+        Assert.assertTrue(run(CODE1, CODE2, options)[1].contains("must be positive"));
+        Assert.assertTrue(run(CODE1, "class {", Collections.emptyMap())[1].contains("Failed"));
+    }
+
+    /**
+     * Tests that the "map" action is registered in the command-line API.
+     *
+     * @throws CmdLineException if failed to parse the command line.
+     */
+    @Test
+    public void testCmdLine() throws CmdLineException {
+        final List<String> args = Arrays.asList("map", "a.java", "b.java", "--repeat", "2");
+        Assert.assertEquals(
+            Collections.singletonList("2"),
+            new CmdLineParser(new PatternikaApi().getCmdLineApi())
+                .parse(args.toArray(new String[0]))
+                .getOption(MapHandler.REPEAT)
+        );
+    }
+
+}
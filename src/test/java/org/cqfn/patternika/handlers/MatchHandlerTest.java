@@ -0,0 +1,104 @@
+package org.cqfn.patternika.handlers;
+
+import org.cqfn.patternika.ast.ActionTree;
+import org.cqfn.patternika.ast.store.PatternStoreWriter;
+import org.cqfn.patternika.lang.java.parser.javaparser.JavaParserAdapter;
+import org.cqfn.patternika.lang.java.parser.javaparser.ParserJava;
+import org.cqfn.patternika.parser.ParserException;
+import org.cqfn.patternika.source.SourceFile;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for the {@link MatchHandler} class.
+ *
+ * @since 2021/03/23
+ */
+public class MatchHandlerTest {
+    /** Code of the pattern. */
+    private static final String PATTERN = "class B { int g(int y) { return y * 2; } }";
+
+    /** Code of the file. */
+    private static final String CODE = "class A {}\n" + PATTERN;
+
+    /**
+     * Runs the handler for a file with the specified options.
+     *
+     * @param options the options.
+     * @return the output and the error output.
+     * @throws IOException if failed to create files.
+     */
+    private static String[] run(final Map<String, List<String>> options) throws IOException {
+        final Path file = Files.createTempFile("match", ".java");
+        try {
+            Files.write(file, CODE.getBytes(StandardCharsets.UTF_8));
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final ByteArrayOutputStream err = new ByteArrayOutputStream();
+            new MatchHandler(
+                new PrintStream(out, true, "UTF-8"),
+                new PrintStream(err, true, "UTF-8")
+            ).handle(Collections.singletonMap(MatchHandler.FILE, file.toString()), options);
+            return new String[] {
+                new String(out.toByteArray(), StandardCharsets.UTF_8),
+                new String(err.toByteArray(), StandardCharsets.UTF_8),
+            };
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Tests matching with a pattern store.
+     *
+     * @throws IOException if failed to create files.
+     * @throws ParserException if failed to parse the pattern.
+     */
+    @Test
+    public void testMatch() throws IOException, ParserException {
+        final Path store = Files.createTempFile("patterns", ".bin");
+        try {
+            new PatternStoreWriter().add(new ActionTree(
+                "java",
+                new ParserJava(new JavaParserAdapter()).parse(new SourceFile(PATTERN)).getChild(0),
+                Collections.emptyList()
+            )).write(store);
+            final String[] result = run(
+                Collections.singletonMap(
+                    MatchHandler.PATTERNS,
+                    Collections.singletonList(store.toString())
+                )
+            );
+            Assert.assertEquals("", result[1]);
+            Assert.assertTrue(result[0].contains("Patterns: 1"));
+            Assert.assertTrue(result[0].contains("Match: pattern 0, "));
+            Assert.assertTrue(result[0].contains(" [" + CODE.indexOf("class B") + ", "));
+            Assert.assertTrue(result[0].contains("Matches: 1"));
+        } finally {
+            Files.delete(store);
+        }
+    }
+
+    /**
+     * Tests that the pattern store is required.
+     *
+     * @throws IOException if failed to create files.
+     */
+    @Test
+    public void testNoPatterns() throws IOException {
+        final String[] result = run(Collections.emptyMap());
+        Assert.assertEquals("", result[0]);
+        Assert.assertTrue(result[1].contains("Pattern store is not specified"));
+    }
+
+}
@@ -0,0 +1,212 @@
+package org.cqfn.patternika.handlers;
+
+import org.cqfn.patternika.PatternikaApi;
+import org.cqfn.patternika.ast.ActionTree;
+import org.cqfn.patternika.ast.store.PatternStoreWriter;
+import org.cqfn.patternika.lang.java.parser.javaparser.JavaParserAdapter;
+import org.cqfn.patternika.lang.java.parser.javaparser.ParserJava;
+import org.cqfn.patternika.parser.ParserException;
+import org.cqfn.patternika.parser.ParserPool;
+import org.cqfn.patternika.source.SourceFile;
+import org.cqfn.patternika.util.Json;
+import org.cqfn.patternika.util.cmdline.CmdLineApi;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Tests for the {@link ServeHandler} class.
+ *
+ * @since 2021/03/23
+ */
+public class ServeHandlerTest {
+    /** Code of a file to be mapped. */
+    private static final String CODE = "class A { int f(int x) { return x + 1; } }";
+
+    /** Nesting depth of a request that overflows the stack of the JSON reader. */
+    private static final int DEPTH = 1_000_000;
+
+    /**
+     * Creates a handler for the Patternika API that reads requests from a text.
+     *
+     * @param input the text with requests.
+     * @param out the stream for responses.
+     * @return the handler.
+     * @throws IOException if failed to create streams.
+     */
+    private static ServeHandler create(
+            final String input,
+            final ByteArrayOutputStream out) throws IOException {
+        final CmdLineApi api = new PatternikaApi().getCmdLineApi();
+        return new ServeHandler(
+            api,
+            new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)),
+            new PrintStream(out, true, "UTF-8"),
+            new PrintStream(new ByteArrayOutputStream(), true, "UTF-8")
+        );
+    }
+
+    /**
+     * Parses a response.
+     *
+     * @param line the response line.
+     * @return the response.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> parse(final String line) {
+        return (Map<String, Object>) Json.parse(line);
+    }
+
+    /**
+     * Tests requests read from the input stream.
+     *
+     * @throws IOException if failed to create files.
+     */
+    @Test
+    public void testStreams() throws IOException {
+        final Path file = Files.createTempFile("serve", ".java");
+        try {
+            Files.write(file, CODE.getBytes(StandardCharsets.UTF_8));
+            final String path = Json.quote(file.toString());
+            final String input =
+                    "{\"id\": 1, \"args\": [\"map\", " + path + ", " + path + "]}\n"
+                    + "\n"
+                    + "{\"id\": \"second\", \"args\": [\"unknown\"]}\n"
+                    + "{\"args\": [\"serve\"]}\n"
+                    + "not json\n"
+                    + "{\"args\": [\"www\", \"--port\", \"0\"]}\n"
+                    + String.join("", Collections.nCopies(DEPTH, "[")) + "\n"
+                    + "{\"id\": 7, \"args\": [\"map\", " + path + ", " + path + "]}\n";
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            create(input, out).handle(Collections.emptyMap(), Collections.emptyMap());
+            final String[] lines =
+                    new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+            Assert.assertEquals(7, lines.length);
+            final Map<String, Object> first = parse(lines[0]);
+            Assert.assertEquals(BigDecimal.ONE, first.get("id"));
+            Assert.assertEquals(Boolean.TRUE, first.get("ok"));
+            Assert.assertTrue(((String) first.get("out")).contains("Unmapped: 0 / 0"));
+            Assert.assertEquals("", first.get("err"));
+            final Map<String, Object> second = parse(lines[1]);
+            Assert.assertEquals("second", second.get("id"));
+            Assert.assertEquals(Boolean.FALSE, second.get("ok"));
+            Assert.assertTrue(((String) second.get("err")).contains("Unknown action"));
+            Assert.assertEquals(Boolean.FALSE, parse(lines[2]).get("ok"));
+            final Map<String, Object> fourth = parse(lines[3]);
+            Assert.assertNull(fourth.get("id"));
+            Assert.assertEquals(Boolean.FALSE, fourth.get("ok"));
+            final Map<String, Object> fifth = parse(lines[4]);
+            Assert.assertEquals(Boolean.FALSE, fifth.get("ok"));
+            Assert.assertTrue(((String) fifth.get("err")).contains("cannot be executed"));
+            final Map<String, Object> sixth = parse(lines[5]);
+            Assert.assertEquals(Boolean.FALSE, sixth.get("ok"));
+            Assert.assertTrue(((String) sixth.get("err")).contains("Request failed"));
+            Assert.assertEquals(Boolean.TRUE, parse(lines[6]).get("ok"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Tests that actions share the pool of parsers and the pattern store of the server.
+     *
+     * @throws IOException if failed to create files.
+     * @throws ParserException if failed to parse the pattern.
+     */
+    @Test
+    public void testResources() throws IOException, ParserException {
+        final Path file = Files.createTempFile("serve", ".java");
+        final Path store = Files.createTempFile("patterns", ".bin");
+        try {
+            Files.write(file, CODE.getBytes(StandardCharsets.UTF_8));
+            new PatternStoreWriter().add(new ActionTree(
+                "java",
+                new ParserJava(new JavaParserAdapter()).parse(new SourceFile(CODE)),
+                Collections.emptyList()
+            )).write(store);
+            final String path = Json.quote(file.toString());
+            final String input =
+                    "{\"args\": [\"map\", " + path + ", " + path + "]}\n"
+                    + "{\"args\": [\"match\", " + path + "]}\n"
+                    + "{\"args\": [\"match\", " + path + "]}\n";
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final ParserPool parsers =
+                    new ParserPool(() -> new ParserJava(new JavaParserAdapter()));
+            new ServeHandler(
+                new PatternikaApi().getCmdLineApi(),
+                parsers,
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)),
+                new PrintStream(out, true, "UTF-8"),
+                new PrintStream(new ByteArrayOutputStream(), true, "UTF-8")
+            ).handle(
+                Collections.emptyMap(),
+                Collections.singletonMap(
+                    ServeHandler.PATTERNS,
+                    Collections.singletonList(store.toString())
+                )
+            );
+            final String[] lines =
+                    new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+            Assert.assertEquals(3, lines.length);
+            for (final String line : lines) {
+                Assert.assertEquals(line, Boolean.TRUE, parse(line).get("ok"));
+            }
+            Assert.assertTrue(((String) parse(lines[2]).get("out")).contains("Matches: 1"));
+            Assert.assertEquals(1, parsers.getCreatedCount());
+        } finally {
+            Files.delete(file);
+            Files.delete(store);
+        }
+    }
+
+    /**
+     * Tests requests received via a TCP connection.
+     *
+     * @throws IOException if failed to connect.
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void testSocket() throws IOException, InterruptedException {
+        final ServeHandler handler = create("", new ByteArrayOutputStream());
+        final Thread thread = new Thread(() -> handler.handle(
+            Collections.emptyMap(),
+            Collections.singletonMap(ServeHandler.PORT, Collections.singletonList("0"))
+        ));
+        thread.start();
+        while (handler.getPort() == -1) {
+            Thread.sleep(10);
+        }
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), handler.getPort())) {
+            socket.getOutputStream().write(
+                "{\"id\": 7, \"args\": []}\n".getBytes(StandardCharsets.UTF_8)
+            );
+            socket.getOutputStream().flush();
+            final BufferedReader reader = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)
+            );
+            final Map<String, Object> response = parse(reader.readLine());
+            Assert.assertEquals(new BigDecimal(7), response.get("id"));
+            Assert.assertEquals(Boolean.FALSE, response.get("ok"));
+            Assert.assertTrue(((String) response.get("err")).contains("No action"));
+        }
+        handler.stop();
+        thread.join();
+        Assert.assertEquals(-1, handler.getPort());
+    }
+
+}
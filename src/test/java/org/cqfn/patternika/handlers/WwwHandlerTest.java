@@ -0,0 +1,246 @@
+package org.cqfn.patternika.handlers;
+
+import org.cqfn.patternika.ast.ActionTree;
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.ast.store.PatternStoreWriter;
+import org.cqfn.patternika.lang.java.parser.javaparser.JavaParserAdapter;
+import org.cqfn.patternika.lang.java.parser.javaparser.ParserJava;
+import org.cqfn.patternika.parser.ParserException;
+import org.cqfn.patternika.source.SourceFile;
+import org.cqfn.patternika.util.Json;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for the {@link WwwHandler} class.
+ *
+ * @since 2021/03/23
+ */
+public class WwwHandlerTest {
+    /** The handler. */
+    private WwwHandler handler;
+
+    /** The thread that runs the handler. */
+    private Thread thread;
+
+    /**
+     * Starts the service on a free port.
+     *
+     * @throws IOException if failed to create streams.
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Before
+    public void start() throws IOException, InterruptedException {
+        start(new HashMap<>());
+    }
+
+    /**
+     * Starts the service on a free port with additional options.
+     *
+     * @param options the additional options.
+     * @throws IOException if failed to create streams.
+     * @throws InterruptedException if the test is interrupted.
+     */
+    private void start(final Map<String, List<String>> options)
+            throws IOException, InterruptedException {
+        handler = new WwwHandler(new PrintStream(new ByteArrayOutputStream(), true, "UTF-8"));
+        options.put(WwwHandler.PORT, Collections.singletonList("0"));
+        options.put(WwwHandler.THREADS, Collections.singletonList("1"));
+        thread = new Thread(() -> handler.handle(Collections.emptyMap(), options));
+        thread.start();
+        while (handler.getPort() == -1) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Stops the service.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @After
+    public void stop() throws InterruptedException {
+        handler.stop();
+        thread.join();
+    }
+
+    /**
+     * Sends a request.
+     *
+     * @param path the path.
+     * @param body the request body or {@code null} for GET requests.
+     * @return the status code and the response body.
+     * @throws IOException if failed to send the request.
+     */
+    private Object[] request(final String path, final String body) throws IOException {
+        final URL url = new URL("http://localhost:" + handler.getPort() + path);
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            if (body != null) {
+                connection.setRequestMethod("POST");
+                connection.setDoOutput(true);
+                try (OutputStream output = connection.getOutputStream()) {
+                    output.write(body.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            final int code = connection.getResponseCode();
+            final ByteArrayOutputStream result = new ByteArrayOutputStream();
+            try (InputStream input = code < 400
+                    ? connection.getInputStream() : connection.getErrorStream()) {
+                final byte[] buffer = new byte[1024];
+                for (int size = input.read(buffer); size != -1; size = input.read(buffer)) {
+                    result.write(buffer, 0, size);
+                }
+            }
+            return new Object[] {
+                code,
+                Json.parse(new String(result.toByteArray(), StandardCharsets.UTF_8)),
+            };
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Tests mapping requests and metrics.
+     *
+     * @throws IOException if failed to send requests.
+     */
+    @Test
+    public void testMap() throws IOException {
+        final String code = Json.quote("class A { int f(int x) { return x + 1; } }");
+        final Object[] result =
+                request("/map", "{\"before\": " + code + ", \"after\": " + code + "}");
+        Assert.assertEquals(200, result[0]);
+        final Map<?, ?> response = (Map<?, ?>) result[1];
+        Assert.assertEquals("greed", response.get("mapper"));
+        Assert.assertEquals(false, response.get("partial"));
+        Assert.assertEquals(response.get("nodes"), response.get("mapped"));
+        Assert.assertTrue(response.get("statistics") instanceof Map);
+        final Map<?, ?> metrics = (Map<?, ?>) request("/metrics", null)[1];
+        Assert.assertEquals("1", metrics.get("accepted").toString());
+        Assert.assertEquals("1", metrics.get("processed").toString());
+        Assert.assertEquals("0", metrics.get("rejected").toString());
+    }
+
+    /**
+     * Tests that invalid requests are rejected.
+     *
+     * @throws IOException if failed to send requests.
+     */
+    @Test
+    public void testErrors() throws IOException {
+        for (final String body : Arrays.asList(
+                "not json",
+                "{\"before\": \"class A {}\"}",
+                "{\"before\": \"class A {}\", \"after\": \"class {\"}",
+                "{\"before\": \"\", \"after\": \"\", \"mapper\": \"unknown\"}")) {
+            final Object[] result = request("/map", body);
+            Assert.assertEquals(body, 400, result[0]);
+            Assert.assertTrue(((Map<?, ?>) result[1]).containsKey("error"));
+        }
+        Assert.assertEquals(405, request("/map", null)[0]);
+    }
+
+    /**
+     * Tests that a failed request is reported and the worker keeps processing requests.
+     *
+     * @throws IOException if failed to send requests.
+     */
+    @Test
+    public void testFailure() throws IOException {
+        final StringBuilder deep = new StringBuilder("class A { int f() { return ");
+        final int depth = 100_000;
+        for (int index = 0; index < depth; ++index) {
+            deep.append('(');
+        }
+        deep.append('1');
+        for (int index = 0; index < depth; ++index) {
+            deep.append(')');
+        }
+        deep.append("; } }");
+        final String code = Json.quote(deep.toString());
+        final Object[] failed =
+                request("/map", "{\"before\": " + code + ", \"after\": " + code + "}");
+        Assert.assertEquals(500, failed[0]);
+        Assert.assertTrue(((Map<?, ?>) failed[1]).containsKey("error"));
+        final String good = Json.quote("class A {}");
+        final Object[] result =
+                request("/map", "{\"before\": " + good + ", \"after\": " + good + "}");
+        Assert.assertEquals(200, result[0]);
+        final Map<?, ?> metrics = (Map<?, ?>) request("/metrics", null)[1];
+        Assert.assertEquals("2", metrics.get("processed").toString());
+    }
+
+    /**
+     * Tests that too large requests are rejected.
+     *
+     * @throws IOException if failed to send requests.
+     */
+    @Test
+    public void testTooLarge() throws IOException {
+        final char[] spaces = new char[WwwHandler.MAX_BODY_SIZE + 1];
+        Arrays.fill(spaces, ' ');
+        Assert.assertEquals(413, request("/map", new String(spaces))[0]);
+        Assert.assertEquals(400, request("/map", "{}")[0]);
+    }
+
+    /**
+     * Tests matching requests with a loaded pattern store.
+     *
+     * @throws IOException if failed to send requests or to write the store.
+     * @throws InterruptedException if the test is interrupted.
+     * @throws ParserException if failed to parse the pattern.
+     */
+    @Test
+    public void testMatch() throws IOException, InterruptedException, ParserException {
+        final Node pattern = new ParserJava(new JavaParserAdapter())
+                .parse(new SourceFile("class B { int g(int y) { return y * 2; } }"))
+                .getChild(0);
+        final Path path = Files.createTempFile("patterns", ".bin");
+        try {
+            new PatternStoreWriter()
+                .add(new ActionTree("java", pattern, Collections.emptyList()))
+                .write(path);
+            stop();
+            final Map<String, List<String>> options = new HashMap<>();
+            options.put(WwwHandler.PATTERNS, Collections.singletonList(path.toString()));
+            start(options);
+            final String code = "class A {}\nclass B { int g(int y) { return y * 2; } }";
+            final Object[] result =
+                    request("/match", "{\"source\": " + Json.quote(code) + "}");
+            Assert.assertEquals(200, result[0]);
+            final Map<?, ?> response = (Map<?, ?>) result[1];
+            Assert.assertEquals("1", response.get("patterns").toString());
+            Assert.assertEquals(false, response.get("partial"));
+            final List<?> matches = (List<?>) response.get("matches");
+            Assert.assertEquals(1, matches.size());
+            final Map<?, ?> match = (Map<?, ?>) matches.get(0);
+            Assert.assertEquals("0", match.get("pattern").toString());
+            Assert.assertEquals(code.indexOf("class B"),
+                    Integer.parseInt(match.get("start").toString()));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+}
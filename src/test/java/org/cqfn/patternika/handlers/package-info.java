@@ -0,0 +1,8 @@
+/**
+ * This package contains tests for handlers of actions supported by
+ * the Patternika command-line API.
+ *
+ * @since 2021/03/22
+ */
+
+package org.cqfn.patternika.handlers;
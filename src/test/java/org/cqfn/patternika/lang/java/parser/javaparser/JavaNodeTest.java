@@ -205,4 +205,20 @@ public class JavaNodeTest {
     private Node newTestNode(final String type, final String data, final Node... children) {
         return new TestNode(null, type, data, Arrays.asList(children));
     }
+
+    /**
+     * Tests that node types are interned strings.
+     *
+     * @throws ParserException if JavaParser fails.
+     */
+    @Test
+    public void testTypeInterned() throws ParserException {
+        final ParserJava parser = new ParserJava(new JavaParserAdapter());
+        final Node first = parser.parseSnippet(new SourceFile("class A { }"));
+        final Node second = parser.parseSnippet(new SourceFile("class B { }"));
+        Assert.assertSame("CompilationUnit", first.getType());
+        Assert.assertSame(first.getType(), second.getType());
+        Assert.assertSame(first.getChild(0).getType(), second.getChild(0).getType());
+    }
+
 }
@@ -0,0 +1,118 @@
+package org.cqfn.patternika.parser;
+
+import org.cqfn.patternika.ast.DeepMatches;
+import org.cqfn.patternika.ast.Node;
+import org.cqfn.patternika.ast.iterator.DepthFirst;
+import org.cqfn.patternika.ast.store.MappedNode;
+import org.cqfn.patternika.ast.store.ParseCache;
+import org.cqfn.patternika.lang.java.parser.javaparser.JavaParserAdapter;
+import org.cqfn.patternika.lang.java.parser.javaparser.ParserJava;
+import org.cqfn.patternika.source.Fragment;
+import org.cqfn.patternika.source.SourceFile;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Tests for the {@link CachingParser} class.
+ *
+ * @since 2021/03/23
+ */
+public class CachingParserTest {
+    /** Code to be parsed. */
+    private static final String CODE =
+            "class A {\n    int f(int x) {\n        return x + 1;\n    }\n}";
+
+    /**
+     * Deletes a directory with files.
+     *
+     * @param directory the directory.
+     * @throws IOException if failed to delete files.
+     */
+    private static void delete(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (final Iterator<Path> iterator = files.iterator(); iterator.hasNext();) {
+                Files.delete(iterator.next());
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Tests that trees are loaded from the cache with the same types, data and fragments.
+     *
+     * @throws IOException if failed to create the cache.
+     * @throws ParserException if failed to parse code.
+     */
+    @Test
+    public void testCache() throws IOException, ParserException {
+        final Path directory = Files.createTempDirectory("cache");
+        try {
+            final ParseCache cache = new ParseCache(directory, Long.MAX_VALUE);
+            final ParserJava java = new ParserJava(new JavaParserAdapter());
+            final CachingParser parser = new CachingParser(java, cache, "test-1");
+            final SourceFile source = new SourceFile(CODE);
+            final Node parsed = parser.parse(source);
+            Assert.assertTrue(parsed instanceof MappedNode);
+            Assert.assertEquals(1, parser.getMissCount());
+            final Node loaded = parser.parse(new SourceFile(CODE));
+            Assert.assertEquals(parsed.getClass(), loaded.getClass());
+            Assert.assertEquals(1, parser.getHitCount());
+            Assert.assertEquals(0, parser.getFailureCount());
+            final Node original = java.parse(source);
+            Assert.assertTrue(new DeepMatches().test(original, loaded));
+            final Iterator<Node> expected = new DepthFirst<>(original).iterator();
+            final Iterator<Node> miss = new DepthFirst<>(parsed).iterator();
+            for (final Node node : new DepthFirst<>(loaded)) {
+                Assert.assertEquals(miss.next().getClass(), node.getClass());
+                final Fragment fragment = expected.next().getFragment();
+                Assert.assertEquals(fragment.getStart(), node.getFragment().getStart());
+                Assert.assertEquals(fragment.getEnd(), node.getFragment().getEnd());
+                Assert.assertEquals(fragment.toString(), node.getFragment().toString());
+            }
+            Assert.assertFalse(expected.hasNext());
+            final Node snippet = parser.parseSnippet(new SourceFile(CODE));
+            Assert.assertEquals(2, parser.getMissCount());
+            Assert.assertEquals(snippet.getClass(), parser.parseSnippet(source).getClass());
+            Assert.assertEquals(2, parser.getHitCount());
+            final CachingParser other = new CachingParser(java, cache, "test-2");
+            Assert.assertEquals(parsed.getClass(), other.parse(source).getClass());
+            Assert.assertEquals(1, other.getMissCount());
+        } finally {
+            delete(directory);
+        }
+    }
+
+    /**
+     * Tests that parsing errors are not cached.
+     *
+     * @throws IOException if failed to create the cache.
+     */
+    @Test
+    public void testError() throws IOException {
+        final Path directory = Files.createTempDirectory("cache");
+        try {
+            final ParseCache cache = new ParseCache(directory, Long.MAX_VALUE);
+            final CachingParser parser =
+                    new CachingParser(new ParserJava(new JavaParserAdapter()), cache, "test");
+            for (int index = 0; index < 2; ++index) {
+                try {
+                    parser.parse(new SourceFile("class {"));
+                    Assert.fail();
+                } catch (final ParserException ex) {
+                    Assert.assertEquals(index + 1, parser.getMissCount());
+                }
+            }
+            Assert.assertEquals(0, cache.getSize());
+        } finally {
+            delete(directory);
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+package org.cqfn.patternika.parser;
+
+import org.cqfn.patternika.lang.java.parser.javaparser.JavaParserAdapter;
+import org.cqfn.patternika.lang.java.parser.javaparser.ParserJava;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link ParserPool} class.
+ *
+ * @since 2021/03/23
+ */
+public class ParserPoolTest {
+    /**
+     * Tests that released parsers are reused and new parsers are created
+     * only when all parsers are in use.
+     */
+    @Test
+    public void testReuse() {
+        final ParserPool pool = new ParserPool(() -> new ParserJava(new JavaParserAdapter()));
+        final Parser first = pool.acquire();
+        final Parser second = pool.acquire();
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(2, pool.getCreatedCount());
+        pool.release(first);
+        Assert.assertSame(first, pool.acquire());
+        pool.release(second);
+        pool.release(first);
+        pool.acquire();
+        pool.acquire();
+        Assert.assertEquals(2, pool.getCreatedCount());
+    }
+
+}
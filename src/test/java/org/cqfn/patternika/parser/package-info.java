@@ -0,0 +1,6 @@
+/**
+ * This package contains tests for general parser classes.
+ *
+ * @since 2021/03/23
+ */
+package org.cqfn.patternika.parser;
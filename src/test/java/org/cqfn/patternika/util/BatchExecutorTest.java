@@ -0,0 +1,118 @@
+package org.cqfn.patternika.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the {@link BatchExecutor} class.
+ *
+ * @since 2021/03/23
+ */
+public class BatchExecutorTest {
+
+    /**
+     * Tests that tasks are processed in batches and that overload is shed.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void testBatches() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+        final BatchExecutor<Integer> executor = new BatchExecutor<>(
+            "test", 1, 3, 2,
+            () -> batch -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                batches.add(new ArrayList<>(batch));
+            }
+        );
+        try {
+            Assert.assertTrue(executor.submit(0));
+            Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+            Assert.assertTrue(executor.submit(1));
+            Assert.assertTrue(executor.submit(2));
+            Assert.assertTrue(executor.submit(3));
+            Assert.assertFalse(executor.submit(4));
+            Assert.assertEquals(3, executor.getQueueDepth());
+            Assert.assertEquals(3, executor.getMaxQueueDepth());
+            Assert.assertEquals(3, executor.getCapacity());
+            Assert.assertEquals(4, executor.getAcceptedCount());
+            Assert.assertEquals(1, executor.getRejectedCount());
+            release.countDown();
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (executor.getBatchCount() < 3 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            Assert.assertEquals(3, executor.getBatchCount());
+            Assert.assertEquals(3, batches.size());
+            Assert.assertEquals(Collections.singletonList(0), batches.get(0));
+            Assert.assertEquals(2, batches.get(1).size());
+            Assert.assertEquals(0, executor.getQueueDepth());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Tests that on shutdown the current batch is completed, waiting tasks are returned
+     * and new tasks are rejected.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void testShutdown() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Integer> processed = Collections.synchronizedList(new ArrayList<>());
+        final BatchExecutor<Integer> executor = new BatchExecutor<>(
+            "test", 2, 4, 1,
+            () -> batch -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                processed.addAll(batch);
+            }
+        );
+        Assert.assertTrue(executor.submit(0));
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+        Assert.assertTrue(executor.submit(1));
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (executor.getQueueDepth() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        Assert.assertTrue(executor.submit(2));
+        Assert.assertTrue(executor.submit(3));
+        Assert.assertEquals(Arrays.asList(2, 3), executor.shutdown());
+        Assert.assertFalse(executor.submit(4));
+        Assert.assertTrue(executor.shutdown().isEmpty());
+        release.countDown();
+        executor.awaitTermination();
+        Assert.assertEquals(2, processed.size());
+        Assert.assertTrue(processed.containsAll(Arrays.asList(0, 1)));
+    }
+
+    /**
+     * Tests that invalid settings are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalid() {
+        new BatchExecutor<Integer>("test", 1, 0, 1, () -> batch -> { });
+    }
+
+}
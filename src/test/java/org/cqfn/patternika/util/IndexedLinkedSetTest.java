@@ -0,0 +1,135 @@
+package org.cqfn.patternika.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Tests for the {@link IndexedLinkedSet} class.
+ *
+ * @since 2021/03/23
+ */
+public class IndexedLinkedSetTest {
+    /**
+     * Tests adding values to different places of the set.
+     */
+    @Test
+    public void testAdd() {
+        final IndexedLinkedSet set = new IndexedLinkedSet(10);
+        Assert.assertTrue(set.isEmpty());
+        Assert.assertEquals(IndexedLinkedSet.NONE, set.getFirst());
+        Assert.assertEquals(IndexedLinkedSet.NONE, set.getLast());
+        set.addLast(5);
+        set.addFirst(1);
+        Assert.assertTrue(set.addBefore(3, 5));
+        Assert.assertTrue(set.addAfter(7, 5));
+        Assert.assertTrue(set.addBefore(0, IndexedLinkedSet.NONE));
+        Assert.assertTrue(set.addAfter(9, IndexedLinkedSet.NONE));
+        Assert.assertFalse(set.addBefore(2, 4));
+        Assert.assertFalse(set.addAfter(2, 4));
+        Assert.assertArrayEquals(new int[] {0, 1, 3, 5, 7, 9}, set.toArray());
+        Assert.assertEquals(6, set.size());
+        Assert.assertEquals(10, set.getCapacity());
+        Assert.assertEquals(0, set.getFirst());
+        Assert.assertEquals(9, set.getLast());
+        Assert.assertEquals(3, set.getNext(1));
+        Assert.assertEquals(5, set.getPrevious(7));
+        Assert.assertEquals(IndexedLinkedSet.NONE, set.getPrevious(0));
+        Assert.assertEquals(IndexedLinkedSet.NONE, set.getNext(9));
+        Assert.assertEquals("{0, 1, 3, 5, 7, 9}", set.toString());
+    }
+
+    /**
+     * Tests removing and replacing values and clearing the set.
+     */
+    @Test
+    public void testRemoveReplace() {
+        final IndexedLinkedSet set = new IndexedLinkedSet(5);
+        for (int value = 0; value < 5; ++value) {
+            set.addLast(value);
+        }
+        Assert.assertTrue(set.remove(0));
+        Assert.assertTrue(set.remove(4));
+        Assert.assertTrue(set.remove(2));
+        Assert.assertFalse(set.remove(2));
+        Assert.assertFalse(set.remove(7));
+        Assert.assertFalse(set.contains(2));
+        set.replace(3, 0);
+        set.replace(1, 1);
+        Assert.assertArrayEquals(new int[] {1, 0}, set.toArray());
+        Assert.assertEquals(0, set.getLast());
+        set.clear();
+        Assert.assertTrue(set.isEmpty());
+        Assert.assertEquals("{}", set.toString());
+        set.addLast(3);
+        Assert.assertArrayEquals(new int[] {3}, set.toArray());
+    }
+
+    /**
+     * Tests that invalid values cause exceptions.
+     */
+    @Test
+    public void testInvalidValues() {
+        final IndexedLinkedSet set = new IndexedLinkedSet(3);
+        set.addLast(1);
+        try {
+            set.addLast(1);
+            Assert.fail();
+        } catch (final IllegalArgumentException ex) {
+            Assert.assertEquals(1, set.size());
+        }
+        try {
+            set.addFirst(3);
+            Assert.fail();
+        } catch (final IllegalArgumentException ex) {
+            Assert.assertEquals(1, set.size());
+        }
+        try {
+            set.getNext(0);
+            Assert.fail();
+        } catch (final NoSuchElementException ex) {
+            Assert.assertFalse(set.contains(0));
+        }
+        set.addLast(2);
+        try {
+            set.replace(1, 2);
+            Assert.fail();
+        } catch (final IllegalArgumentException ex) {
+            Assert.assertArrayEquals(new int[] {1, 2}, set.toArray());
+        }
+    }
+
+    /**
+     * Tests that random operations give the same order as {@link LinkedSet}.
+     */
+    @Test
+    public void testSameAsLinkedSet() {
+        final int capacity = 100;
+        final Random random = new Random(1);
+        final IndexedLinkedSet set = new IndexedLinkedSet(capacity);
+        final LinkedSet<Integer> expected = new LinkedSet<>();
+        for (int step = 0; step < 10_000; ++step) {
+            final int value = random.nextInt(capacity);
+            final int other = random.nextInt(capacity);
+            if (expected.contains(value)) {
+                Assert.assertTrue(set.remove(value));
+                expected.remove(value);
+            } else if (random.nextBoolean()) {
+                Assert.assertEquals(
+                    expected.addBefore(value, other), set.addBefore(value, other));
+            } else {
+                Assert.assertEquals(
+                    expected.addAfter(value, other), set.addAfter(value, other));
+            }
+        }
+        final List<Integer> values = new ArrayList<>();
+        set.forEach(values::add);
+        Assert.assertEquals(new ArrayList<>(expected), values);
+        Assert.assertEquals(expected.size(), set.size());
+    }
+
+}
@@ -0,0 +1,67 @@
+package org.cqfn.patternika.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for the {@link Json} class.
+ *
+ * @since 2021/03/23
+ */
+public class JsonTest {
+
+    /**
+     * Tests parsing of values.
+     */
+    @Test
+    public void testParse() {
+        final Object value = Json.parse(
+            " {\"a\": [1, -2.5e1, true, false, null], \"b\" : {}, \"c\": \"x\\\"\\n\\u0041\"} "
+        );
+        Assert.assertTrue(value instanceof Map);
+        final Map<?, ?> map = (Map<?, ?>) value;
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), Arrays.asList(map.keySet().toArray()));
+        final List<?> list = (List<?>) map.get("a");
+        Assert.assertEquals(BigDecimal.ONE, list.get(0));
+        Assert.assertEquals(new BigDecimal("-25"), ((BigDecimal) list.get(1)).stripTrailingZeros());
+        Assert.assertEquals(Boolean.TRUE, list.get(2));
+        Assert.assertEquals(Boolean.FALSE, list.get(3));
+        Assert.assertNull(list.get(4));
+        Assert.assertEquals(Collections.emptyMap(), map.get("b"));
+        Assert.assertEquals("x\"\nA", map.get("c"));
+        Assert.assertEquals(Collections.emptyList(), Json.parse("[ ]"));
+    }
+
+    /**
+     * Tests that invalid texts are rejected.
+     */
+    @Test
+    public void testInvalid() {
+        final String[] texts = {"", "{", "[1,]", "{1: 2}", "\"abc", "tru", "1 2", "\"\\u12\"", "-"};
+        for (final String text : texts) {
+            try {
+                Json.parse(text);
+                Assert.fail(text);
+            } catch (final IllegalArgumentException ex) {
+                Assert.assertTrue(ex.getMessage().contains("at position"));
+            }
+        }
+    }
+
+    /**
+     * Tests conversion of values to JSON texts.
+     */
+    @Test
+    public void testToJson() {
+        Assert.assertEquals("\"a\\\"b\\\\c\\n\\u0001\"", Json.quote("a\"b\\c\n\u0001"));
+        final String text = "{\"a\":[1,true,null,\"x\\ty\"],\"b\":{}}";
+        Assert.assertEquals(text, Json.toJson(Json.parse(text)));
+    }
+
+}
@@ -0,0 +1,142 @@
+package org.cqfn.patternika.visualizer;
+
+import org.cqfn.patternika.ast.TestNode;
+import org.cqfn.patternika.visualizer.dot.DotVisualizer;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the {@link GraphvizRenderer} class.
+ *
+ * <p>Graphviz is replaced with a shell script that writes a minimal PNG image for each graph
+ * and floods the standard error, so the tests run only on systems with a POSIX shell.
+ *
+ * @since 2021/03/23
+ */
+public class GraphvizRendererTest {
+    /** Script that imitates Graphviz. */
+    private static final String STUB =
+            "#!/bin/sh\n"
+            + "count=$(grep -c digraph)\n"
+            + "head -c 200000 /dev/zero | tr '\\0' 'e' >&2\n"
+            + "i=0\n"
+            + "while [ $i -lt $count ]; do\n"
+            + "  printf '\\211PNG\\r\\n\\032\\n\\000\\000\\000\\000IEND\\256B`\\202'\n"
+            + "  i=$((i+1))\n"
+            + "done\n";
+
+    /** Size of the image written by the stub script. */
+    private static final long IMAGE_SIZE = 20;
+
+    /**
+     * Creates an executable script in a directory.
+     *
+     * @param dir the directory.
+     * @param text the script text.
+     * @return the path to the script.
+     * @throws IOException if failed to create the script.
+     */
+    private static String createScript(final Path dir, final String text) throws IOException {
+        Assume.assumeFalse(File.separatorChar == '\\');
+        final Path script = dir.resolve("dot.sh");
+        Files.write(script, text.getBytes(StandardCharsets.UTF_8));
+        Assert.assertTrue(script.toFile().setExecutable(true));
+        return script.toString();
+    }
+
+    /**
+     * Creates a graph source for a single node tree.
+     *
+     * @param data the node data.
+     * @return the graph source.
+     */
+    private static GraphvizRenderer.Source createSource(final int data) {
+        return output -> new DotVisualizer(
+                output, new TestNode(data), Collections.emptyMap()).visualize();
+    }
+
+    /**
+     * Tests that graphs are rendered in batches by several processes.
+     *
+     * @throws IOException if failed to render images.
+     */
+    @Test
+    public void testRenderAll() throws IOException {
+        final Path dir = Files.createTempDirectory("graphviz");
+        final String tool = createScript(dir, STUB);
+        final Map<Path, GraphvizRenderer.Source> graphs = new LinkedHashMap<>();
+        for (int index = 0; index < 10; ++index) {
+            graphs.put(dir.resolve(index + ".png"), createSource(index));
+        }
+        try (GraphvizRenderer renderer = new GraphvizRenderer(tool, 2, 3, 10, TimeUnit.SECONDS)) {
+            renderer.renderAll(graphs);
+        }
+        for (final Path image : graphs.keySet()) {
+            Assert.assertEquals(IMAGE_SIZE, Files.size(image));
+        }
+        final Path single = dir.resolve("single.png");
+        try (GraphvizRenderer renderer = new GraphvizRenderer(tool)) {
+            renderer.render(createSource(0), single);
+        }
+        Assert.assertEquals(IMAGE_SIZE, Files.size(single));
+    }
+
+    /**
+     * Tests that the standard error is reported if the process fails.
+     *
+     * @throws IOException if failed to create the script.
+     */
+    @Test
+    public void testFailure() throws IOException {
+        final Path dir = Files.createTempDirectory("graphviz");
+        final String tool = createScript(dir, "#!/bin/sh\ncat > /dev/null\necho Bad >&2\nexit 1\n");
+        try (GraphvizRenderer renderer = new GraphvizRenderer(tool)) {
+            renderer.render(createSource(0), dir.resolve("0.png"));
+            Assert.fail();
+        } catch (final IOException ex) {
+            Assert.assertEquals("Bad\n", ex.getMessage());
+        }
+    }
+
+    /**
+     * Tests that a process that does not finish in time is killed.
+     *
+     * @throws IOException always.
+     */
+    @Test(expected = IOException.class)
+    public void testTimeout() throws IOException {
+        final Path dir = Files.createTempDirectory("graphviz");
+        final String tool = createScript(dir, "#!/bin/sh\nexec sleep 5\n");
+        try (GraphvizRenderer renderer =
+                new GraphvizRenderer(tool, 1, 1, 100, TimeUnit.MILLISECONDS)) {
+            renderer.render(createSource(0), dir.resolve("0.png"));
+        }
+    }
+
+    /**
+     * Tests that a closed renderer rejects rendering.
+     *
+     * @throws IOException always.
+     */
+    @Test(expected = IOException.class)
+    public void testClosed() throws IOException {
+        final Path dir = Files.createTempDirectory("graphviz");
+        final String tool = createScript(dir, STUB);
+        final GraphvizRenderer renderer = new GraphvizRenderer(tool);
+        renderer.close();
+        renderer.render(createSource(0), dir.resolve("0.png"));
+    }
+
+}
@@ -10,6 +10,11 @@ import org.cqfn.patternika.ast.TestNode;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.IdentityHashMap;
@@ -139,6 +144,86 @@ public class DotVisualizerTest {
         Assert.assertEquals(text, dotText);
     }
 
+    /**
+     * Tests that a large tree streamed to a writer and to a channel produces the same text
+     * as a tree rendered to a string builder.
+     */
+    @Test
+    public void testStreaming() {
+        final List<Node> children = new ArrayList<>();
+        for (int index = 0; index < 1000; ++index) {
+            children.add(new TestNode("Child", index));
+        }
+        final Node root = new TestNode(null, "Root", null, children);
+        final String text = getDotText(root);
+        final StringWriter writer = new StringWriter();
+        new DotVisualizer(writer, root, Collections.emptyMap()).visualize();
+        Assert.assertEquals(text, writer.toString());
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        new DotVisualizer(
+                Channels.newChannel(stream),
+                new ActionTree("", root, Collections.emptyList()),
+                Collections.emptyMap()
+            ).visualize();
+        Assert.assertEquals(text, new String(stream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tests that a very deep tree is rendered without exhausting the stack.
+     */
+    @Test
+    public void testDeepTree() {
+        final int depth = 100_000;
+        Node root = new TestNode(depth);
+        for (int index = depth - 1; index >= 0; --index) {
+            root = new TestNode(index, root);
+        }
+        final String text = getDotText(root);
+        Assert.assertTrue(text.endsWith("  node_99999 -> node_100000 [label=\" 0\"];\n}\n"));
+    }
+
+    /**
+     * Tests that a pruned graph shows only nodes near marked nodes and their ancestors,
+     * and collapses other subtrees.
+     */
+    @Test
+    public void testPruned() {
+        final Node marked = new TestNode(211);
+        final Node root =
+            new TestNode(0,
+                new TestNode(1, new TestNode(11), new TestNode(12)),
+                new TestNode(2, new TestNode(21, marked)),
+                new TestNode(3),
+                new TestNode(4)
+            );
+        final Map<Node, List<Integer>> markers = new IdentityHashMap<>();
+        markers.put(marked, Collections.singletonList(0));
+        final String text =
+                "digraph AST {\n"
+                + "  node [shape=box style=rounded];\n"
+                + "  node_0 [label=<TestNode<br/><font color=\"blue\">0</font>>]; // NODE\n"
+                + "  node_4 [style=\"rounded,dashed\" label=<<i>3 nodes</i>>]; // SUMMARY\n"
+                + "  node_0 -> node_4 [label=\" 0\"];\n"
+                + "  node_1 [label=<TestNode<br/><font color=\"blue\">2</font>>]; // NODE\n"
+                + "  node_0 -> node_1 [label=\" 1\"];\n"
+                + "  node_2 [label=<TestNode<br/><font color=\"blue\">21</font>>]; // NODE\n"
+                + "  node_1 -> node_2 [label=\" 0\"];\n"
+                + "  node_3 [style=\"rounded,filled\" fillcolor=\"gold\""
+                + " label=<TestNode<br/><font color=\"blue\">211</font>>]; // NODE\n"
+                + "  node_2 -> node_3 [label=\" 0\"];\n"
+                + "  node_5 [style=\"rounded,dashed\" label=<<i>2 nodes</i>>]; // SUMMARY\n"
+                + "  node_0 -> node_5 [label=\" 2..3\"];\n"
+                + "}\n";
+        final StringBuilder builder = new StringBuilder();
+        new DotVisualizer(
+                builder,
+                new ActionTree("java", root, Collections.emptyList()),
+                markers,
+                1
+            ).visualize();
+        Assert.assertEquals(text, builder.toString());
+    }
+
     /**
      * Test for a node with custom shapes ("Trait" and "TraitBlock").
      */
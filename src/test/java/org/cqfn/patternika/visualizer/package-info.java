@@ -0,0 +1,7 @@
+/**
+ * This package contains tests for visualizers.
+ *
+ * @since 2021/03/23
+ */
+
+package org.cqfn.patternika.visualizer;